@@ -0,0 +1,44 @@
+-- Full-text search latency against a multi-million-row catalog.
+--
+-- Run against a scratch database migrated by Liquibase (never production):
+--   psql "$DATABASE_URL" -v rows=5000000 -f scripts/search-benchmark.sql
+-- Steady-state latency percentiles of the endpoint query, 16 clients for 60 seconds:
+--   pgbench "$DATABASE_URL" -n -c 16 -j 4 -T 60 -f scripts/search-benchmark.pgbench
+-- The application side is published as the bookshop.search.duration histogram.
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 5000000
+\endif
+SET search_path TO book_catalog;
+\timing on
+
+-- Synthetic catalog: titles from a small vocabulary, so prefixes hit realistic match counts
+INSERT INTO BOOKS (ID, UUID, IS_CATALOG, TITLE, AUTHOR)
+SELECT nextval('BOOKS_ID_SEQ'),
+       gen_random_uuid(),
+       FALSE,
+       (ARRAY['Great', 'Advanced', 'Practical', 'Modern', 'Hidden', 'Lost'])[1 + g % 6]
+         || ' ' || (ARRAY['Gatsby', 'Databases', 'Gardens', 'Algorithms', 'Oceans'])[1 + g % 5]
+         || ' ' || md5(g::text),
+       'Author ' || (g % 100000)
+FROM generate_series(1, :rows) AS g;
+ANALYZE BOOKS;
+
+-- First page of a selective and of a broad prefix query
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.ID, s.RANK FROM (
+  SELECT b.ID, ts_rank_cd(b.SEARCH_VECTOR, q.QUERY) AS RANK
+  FROM BOOKS b, to_tsquery('simple', 'great:* & gats:*') AS q (QUERY)
+  WHERE b.SEARCH_VECTOR @@ q.QUERY) s
+WHERE s.RANK < 'Infinity'::real OR (s.RANK = 'Infinity'::real AND s.ID > 0)
+ORDER BY s.RANK DESC, s.ID LIMIT 21;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT s.ID, s.RANK FROM (
+  SELECT b.ID, ts_rank_cd(b.SEARCH_VECTOR, q.QUERY) AS RANK
+  FROM BOOKS b, to_tsquery('simple', 'author:* & 4242:*') AS q (QUERY)
+  WHERE b.SEARCH_VECTOR @@ q.QUERY) s
+WHERE s.RANK < 'Infinity'::real OR (s.RANK = 'Infinity'::real AND s.ID > 0)
+ORDER BY s.RANK DESC, s.ID LIMIT 21;
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Time to first request of the Docker image: the time from `docker run` until the first
+# GET /api/v2/books?limit=1 answers 200, next to the startup time Spring Boot logs.
+#
+# Start the database first (docker compose up -d postgres), migrate it once, then compare the
+# default start with the fast-start profile, which also turns on the Spring AOT initializers:
+#   scripts/startup-benchmark.sh
+#   PROFILES=fast-start scripts/startup-benchmark.sh
+# Settings (environment): IMAGE, RUNS, PROFILES, NETWORK and the DB_* variables of .env.
+
+set -euo pipefail
+
+IMAGE="${IMAGE:-spring-boot-demo-bookshop-service:latest}"
+RUNS="${RUNS:-5}"
+PROFILES="${PROFILES:-}"
+NETWORK="${NETWORK:-$(basename "$(cd "$(dirname "$0")/.." && pwd)")_default}"
+PORT="${PORT:-18080}"
+URL="http://localhost:${PORT}/api/v2/books?limit=1"
+TIMEOUT_SECONDS=120
+JAVA_TOOL_OPTIONS=""
+if [[ ",${PROFILES}," == *",fast-start,"* ]]; then
+  JAVA_TOOL_OPTIONS="-Dspring.aot.enabled=true"
+fi
+
+if [[ -f .env ]]; then
+  set -a
+  # shellcheck disable=SC1091
+  source .env
+  set +a
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  container=$(docker run -d --rm --network "$NETWORK" -p "${PORT}:8080" \
+    -e SPRING_PROFILES_ACTIVE="$PROFILES" -e JAVA_TOOL_OPTIONS="$JAVA_TOOL_OPTIONS" \
+    -e DB_HOST="${DB_HOST:-postgres}" -e DB_PORT="${DB_PORT:-5432}" -e DB_NAME="$DB_NAME" \
+    -e DB_USERNAME="$DB_USERNAME" -e DB_PASSWORD="$DB_PASSWORD" \
+    -e LIQUIBASE_ENABLED=false -e BOOKSHOP_OUTBOX_RELAY_ENABLED=false \
+    "$IMAGE")
+  until curl -fs -o /dev/null "$URL"; do
+    if (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+      docker logs "$container" | tail -20
+      docker stop "$container" > /dev/null
+      echo "run ${run}: no answer within ${TIMEOUT_SECONDS}s" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+  started=$(docker logs "$container" 2>&1 | grep -o 'Started [A-Za-z]* in [0-9.]* seconds' || true)
+  docker stop "$container" > /dev/null
+  echo "run ${run}: first request after ${elapsed} ms (${started:-no startup line})"
+  results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "time to first request over ${RUNS} runs: min ${sorted[0]} ms," \
+  "median ${sorted[$(( RUNS / 2 ))]} ms, max ${sorted[$(( RUNS - 1 ))]} ms"
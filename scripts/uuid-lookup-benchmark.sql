@@ -0,0 +1,77 @@
+-- Lookup latency by UUID and by PARENT_UUID against a multi-million-row catalog, with the
+-- indexes and with sequential scans forced.
+--
+-- Run against a scratch database migrated by Liquibase (never production):
+--   psql "$DATABASE_URL" -v rows=10000000 -f scripts/uuid-lookup-benchmark.sql
+-- Steady-state latency percentiles of the endpoint queries, 16 clients for 60 seconds:
+--   pgbench "$DATABASE_URL" -n -c 16 -j 4 -T 60 -f scripts/uuid-lookup-benchmark.pgbench
+
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 10000000
+\endif
+\if :{?catalogs}
+\else
+  \set catalogs 100000
+\endif
+SET search_path TO book_catalog;
+\timing on
+
+-- Synthetic catalog: catalogs with UUIDs derived from their number, so queries can name them,
+-- and books spread evenly over the catalogs
+INSERT INTO BOOKS (ID, UUID, IS_CATALOG, TITLE, AUTHOR)
+SELECT nextval('BOOKS_ID_SEQ'), md5('catalog ' || g)::uuid, TRUE, 'Catalog ' || g, 'Various'
+FROM generate_series(1, :catalogs) AS g;
+
+INSERT INTO BOOKS (ID, UUID, PARENT_ID, PARENT_UUID, IS_CATALOG, TITLE, AUTHOR)
+SELECT nextval('BOOKS_ID_SEQ'), gen_random_uuid(), c.ID, c.UUID, FALSE,
+       'Book ' || g, 'Author ' || (g % 100000)
+FROM generate_series(1, :rows - :catalogs) AS g
+JOIN BOOKS c ON c.UUID = md5('catalog ' || (1 + g % :catalogs))::uuid AND NOT c.DELETED;
+
+-- Index-only scans need the visibility map set
+VACUUM (ANALYZE) BOOKS;
+
+SELECT UUID AS book_uuid FROM BOOKS WHERE NOT DELETED ORDER BY ID DESC LIMIT 1 \gset
+
+-- GET /api/v2/books/by-uuid/{uuid}: unique index UK_BOOKS_UUID
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM BOOKS b WHERE b.UUID = :'book_uuid' AND NOT b.DELETED;
+
+-- POST /api/v2/books/by-uuid:batch with 100 UUIDs
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM BOOKS b
+WHERE b.UUID IN (SELECT md5('catalog ' || g)::uuid FROM generate_series(1, 100) AS g)
+  AND NOT b.DELETED;
+
+-- GET /api/v2/books/by-uuid/{uuid}/children: index-only scan of IDX_BOOKS_PARENT_UUID,
+-- expect "Heap Fetches: 0"
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.ID AS id, b.UUID AS uuid, b.IS_CATALOG AS isCatalog
+FROM BOOKS b
+WHERE b.PARENT_UUID = md5('catalog 42')::uuid AND NOT b.DELETED
+ORDER BY b.ID;
+
+-- The same queries without indexes, as before the lookup endpoints
+SET enable_indexscan = off;
+SET enable_indexonlyscan = off;
+SET enable_bitmapscan = off;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM BOOKS b WHERE b.UUID = :'book_uuid' AND NOT b.DELETED;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM BOOKS b
+WHERE b.UUID IN (SELECT md5('catalog ' || g)::uuid FROM generate_series(1, 100) AS g)
+  AND NOT b.DELETED;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT b.ID AS id, b.UUID AS uuid, b.IS_CATALOG AS isCatalog
+FROM BOOKS b
+WHERE b.PARENT_UUID = md5('catalog 42')::uuid AND NOT b.DELETED
+ORDER BY b.ID;
+
+RESET enable_indexscan;
+RESET enable_indexonlyscan;
+RESET enable_bitmapscan;
@@ -0,0 +1,46 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/** Deterministic synthetic books shared by the benchmarks. */
+final class BenchmarkData {
+
+  private BenchmarkData() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Creates books shaped like the catalog: every tenth book is a catalog, the others belong to the
+   * previous catalog.
+   *
+   * @param count the number of books
+   * @param withIds whether to assign IDs, {@code false} for books about to be persisted
+   * @return the books
+   */
+  static List<Book> books(int count, boolean withIds) {
+    SplittableRandom random = new SplittableRandom(42);
+    List<Book> books = new ArrayList<>(count);
+    Book catalog = null;
+    for (int i = 0; i < count; i++) {
+      boolean isCatalog = i % 10 == 0;
+      UUID uuid = new UUID(random.nextLong(), random.nextLong());
+      Book book = new Book(
+          withIds ? (long) i + 1 : null,
+          uuid,
+          isCatalog || catalog == null ? null : catalog.getId(),
+          isCatalog || catalog == null ? null : catalog.getUuid(),
+          isCatalog,
+          "Title " + Long.toHexString(random.nextLong()),
+          "Author " + random.nextInt(10_000));
+      if (isCatalog) {
+        catalog = book;
+      }
+      books.add(book);
+    }
+    return books;
+  }
+}
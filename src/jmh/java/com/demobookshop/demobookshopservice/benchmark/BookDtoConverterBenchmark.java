@@ -0,0 +1,73 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookDtoToBook;
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the {@code BookDtoConverter} functions per book. UUID formatting and parsing dominate
+ * both directions, so they are measured on their own as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookDtoConverterBenchmark {
+
+  private static final int SIZE = 1024;
+
+  private List<Book> books;
+  private List<BookDto> bookDtos;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    books = BenchmarkData.books(SIZE, true);
+    bookDtos = books.stream().map(bookToBookDto).toList();
+  }
+
+  private int nextIndex() {
+    next = (next + 1) & (SIZE - 1);
+    return next;
+  }
+
+  @Benchmark
+  public BookDto bookToBookDto() {
+    return bookToBookDto.apply(books.get(nextIndex()));
+  }
+
+  @Benchmark
+  public Book bookDtoToBook() {
+    return bookDtoToBook.apply(bookDtos.get(nextIndex()));
+  }
+
+  @Benchmark
+  public String uuidToString() {
+    return books.get(nextIndex()).getUuid().toString();
+  }
+
+  @Benchmark
+  public UUID uuidFromString() {
+    return UUID.fromString(bookDtos.get(nextIndex()).uuid());
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void convertAll(Blackhole blackhole) {
+    for (Book book : books) {
+      blackhole.consume(bookToBookDto.apply(book));
+    }
+  }
+}
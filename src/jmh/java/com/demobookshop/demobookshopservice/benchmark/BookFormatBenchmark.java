@@ -0,0 +1,117 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.util.encoding.BookProtobufWriter;
+import com.demobookshop.demobookshopservice.util.encoding.BookRowWriter;
+import com.demobookshop.demobookshopservice.util.encoding.BookTokenWriter;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The all-books response in each format, raw and gzipped as the server compresses it. The score
+ * is the serialization CPU per list; {@link #main} prints the bytes on the wire of each
+ * combination, run with {@code ./gradlew formatSizes}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookFormatBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Param({"json", "cbor", "smile", "protobuf"})
+  public String format;
+
+  @Param({"false", "true"})
+  public boolean gzip;
+
+  private List<Book> books;
+
+  /**
+   * Prints the bytes on the wire of every parameter combination, outside of any measurement.
+   *
+   * @param args ignored
+   */
+  public static void main(String[] args) {
+    BookFormatBenchmark benchmark = new BookFormatBenchmark();
+    for (int size : new int[] {1000, 100_000}) {
+      benchmark.size = size;
+      benchmark.setUp();
+      for (String format : List.of("json", "cbor", "smile", "protobuf")) {
+        benchmark.format = format;
+        for (boolean gzip : new boolean[] {false, true}) {
+          benchmark.gzip = gzip;
+          System.out.printf(
+              "format=%s gzip=%s size=%d: %d bytes%n", format, gzip, size, benchmark.write());
+        }
+      }
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    books = BenchmarkData.books(size, true);
+  }
+
+  @Benchmark
+  public long write() {
+    CountingOutputStream counter = new CountingOutputStream();
+    try (OutputStream out = gzip ? new GZIPOutputStream(counter, 8192) : counter) {
+      BookRowWriter writer = newWriter(out);
+      writer.beginArray();
+      for (Book book : books) {
+        writer.writeBook(
+            book.getId(),
+            book.getUuid(),
+            book.getParentId(),
+            book.getParentUuid(),
+            book.isCatalog(),
+            book.getTitle(),
+            book.getAuthor());
+      }
+      writer.endArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return counter.count;
+  }
+
+  private BookRowWriter newWriter(OutputStream out) {
+    return switch (format) {
+      case "cbor" -> BookTokenWriter.cbor(out);
+      case "smile" -> BookTokenWriter.smile(out);
+      case "protobuf" -> new BookProtobufWriter(out);
+      default -> new BookJsonWriter(out);
+    };
+  }
+
+  /** Discards the bytes written and counts them. */
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * The list response written the old way, converting rows to {@code BookDto} and serializing with
+ * Jackson, against {@link BookJsonWriter} writing the rows directly. Run with the {@code gc}
+ * profiler to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookJsonWriterBenchmark {
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private JsonMapper jsonMapper;
+  private List<Book> books;
+  private Object[][] rows;
+
+  @Setup
+  public void setUp() {
+    jsonMapper = JsonMapper.builder().build();
+    books = BenchmarkData.books(size, true);
+    rows = books.stream()
+        .map(book -> new Object[] {
+          book.getId(),
+          book.getUuid(),
+          book.getParentId(),
+          book.getParentUuid(),
+          book.isCatalog(),
+          book.getTitle(),
+          book.getAuthor()
+        })
+        .toArray(Object[][]::new);
+  }
+
+  @Benchmark
+  public void convertAndSerialize() {
+    jsonMapper.writeValue(
+        OutputStream.nullOutputStream(), books.stream().map(bookToBookDto).toList());
+  }
+
+  @Benchmark
+  public void writeDirect(Blackhole blackhole) {
+    BookJsonWriter writer = new BookJsonWriter(OutputStream.nullOutputStream());
+    writer.beginArray();
+    for (Object[] row : rows) {
+      writer.writeBook(
+          (Long) row[0],
+          (UUID) row[1],
+          (Long) row[2],
+          (UUID) row[3],
+          (Boolean) row[4],
+          (String) row[5],
+          (String) row[6]);
+    }
+    writer.endArray();
+    blackhole.consume(writer);
+  }
+}
@@ -0,0 +1,89 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import com.demobookshop.demobookshopservice.DemoBookshopServiceApplication;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.util.converter.BookDtoConverter;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link BookService#getAllBooks()} and {@link BookService#writeAllBooks(BookJsonWriter)} end to
+ * end through JPA against an embedded H2 database. The application context starts once per table
+ * size with the {@code benchmark} profile.
+ *
+ * <p>{@link #getAllBooksAsEntities()} is the baseline of {@link #getAllBooks()}: it loads managed
+ * entities and converts them, as the service did before selecting DTOs. Compare the two for time
+ * and for {@code gc.alloc.rate.norm}, the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookServiceBenchmark {
+
+  @Param({"1000", "10000", "100000"})
+  public int tableSize;
+
+  private ConfigurableApplicationContext context;
+  private BookService bookService;
+  private BookRepository bookRepository;
+  private TransactionTemplate readOnlyTransaction;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(DemoBookshopServiceApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("benchmark")
+        .run();
+    context.getBean(BookRepository.class).saveAll(BenchmarkData.books(tableSize, false));
+    bookService = context.getBean(BookService.class);
+    bookRepository = context.getBean(BookRepository.class);
+    readOnlyTransaction =
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    readOnlyTransaction.setReadOnly(true);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Collection<BookDto> getAllBooks() {
+    return bookService.getAllBooks();
+  }
+
+  @Benchmark
+  public Collection<BookDto> getAllBooksAsEntities() {
+    return readOnlyTransaction.execute(status -> bookRepository.findAll(Sort.by("id")).stream()
+        .map(BookDtoConverter.bookToBookDto)
+        .toList());
+  }
+
+  @Benchmark
+  public void writeAllBooks() {
+    BookJsonWriter writer = new BookJsonWriter(OutputStream.nullOutputStream());
+    writer.beginArray();
+    bookService.writeAllBooks(writer);
+    writer.endArray();
+  }
+}
@@ -0,0 +1,114 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshotFile;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshotWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Book lookups by ID in the memory-mapped catalog snapshot compared to a heap map of
+ * {@code BookDto}s, the shape of the near-cache. The snapshot decodes a DTO per lookup; the map
+ * returns a shared one but keeps every book on the heap. Run with {@code -prof gc} to compare the
+ * allocation per lookup and the heap kept by each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CatalogSnapshotBenchmark {
+
+  private static final int LOOKUPS = 1024;
+
+  @Param({"10000", "1000000"})
+  private int size;
+
+  private Path directory;
+  private CatalogSnapshotFile snapshot;
+  private Map<Long, BookDto> heap;
+  private long[] ids;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    List<Book> books = BenchmarkData.books(size, true);
+    directory = Files.createTempDirectory("catalog-snapshot");
+    Path file = directory.resolve("catalog.snapshot");
+    try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(directory)) {
+      for (Book book : books) {
+        writer.writeBook(
+            book.getId(),
+            book.getUuid(),
+            book.getParentId(),
+            book.getParentUuid(),
+            book.isCatalog(),
+            book.getTitle(),
+            book.getAuthor(),
+            0L,
+            null);
+      }
+      books.stream()
+          .sorted(Comparator.comparing(
+                  (Book book) -> Objects.requireNonNullElse(book.getParentId(), 0L))
+              .thenComparing(Book::getId))
+          .forEach(book -> writer.writeChildLink(book.getParentId(), book.getId()));
+      writer.finish(file, Instant.now());
+    }
+    snapshot = CatalogSnapshotFile.open(file);
+    heap = new HashMap<>();
+    books.forEach(book -> heap.put(book.getId(), bookToBookDto.apply(book)));
+    SplittableRandom random = new SplittableRandom(7);
+    ids = random.longs(LOOKUPS, 1, size + 1L).toArray();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  private long nextId() {
+    next = (next + 1) & (LOOKUPS - 1);
+    return ids[next];
+  }
+
+  @Benchmark
+  public BookDto snapshotLookup() {
+    return snapshot.book(snapshot.indexOf(nextId()));
+  }
+
+  @Benchmark
+  public BookDto heapLookup() {
+    return heap.get(nextId());
+  }
+
+  @Benchmark
+  public long[] snapshotChildren() {
+    return snapshot.childrenOf(1L);
+  }
+}
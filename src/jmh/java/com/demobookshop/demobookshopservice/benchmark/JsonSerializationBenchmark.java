@@ -0,0 +1,50 @@
+package com.demobookshop.demobookshopservice.benchmark;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/** Jackson serialization and deserialization of {@link BookDto} collections. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+  private static final TypeReference<List<BookDto>> BOOK_LIST = new TypeReference<>() {};
+
+  @Param({"10", "1000", "100000"})
+  public int size;
+
+  private JsonMapper jsonMapper;
+  private List<BookDto> books;
+  private byte[] json;
+
+  @Setup
+  public void setUp() {
+    jsonMapper = JsonMapper.builder().build();
+    books = BenchmarkData.books(size, true).stream().map(bookToBookDto).toList();
+    json = jsonMapper.writeValueAsBytes(books);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return jsonMapper.writeValueAsBytes(books);
+  }
+
+  @Benchmark
+  public List<BookDto> deserialize() {
+    return jsonMapper.readValue(json, BOOK_LIST);
+  }
+}
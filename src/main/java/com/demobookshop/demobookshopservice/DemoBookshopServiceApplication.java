@@ -6,6 +6,8 @@ import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.info.License;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(
     info =
@@ -20,6 +22,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
                     name = "Apache 2.0",
                     url = "http://www.apache.org/licenses/LICENSE-2.0.html")))
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class DemoBookshopServiceApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,35 @@
+package com.demobookshop.demobookshopservice.cache;
+
+import com.demobookshop.demobookshopservice.config.CacheConfig;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import java.util.Objects;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts changed books from the {@value CacheConfig#BOOKS_CACHE} cache once the change is
+ * committed. Evicting inside the transaction would let a concurrent reader re-populate the cache
+ * with the pre-commit state.
+ */
+@Component
+public class BookCacheInvalidator {
+
+  private final Cache booksCache;
+
+  public BookCacheInvalidator(CacheManager cacheManager) {
+    this.booksCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOKS_CACHE));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    booksCache.evict(event.book().id());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksBulkChanged(BooksBulkChangedEvent event) {
+    booksCache.clear();
+  }
+}
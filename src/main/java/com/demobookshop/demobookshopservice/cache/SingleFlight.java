@@ -0,0 +1,87 @@
+package com.demobookshop.demobookshopservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent lookups of the same key into one. The first caller runs the lookup; callers
+ * arriving while it is in flight wait for it and share its result or exception. Nothing is kept
+ * once the lookup completes, so a later call runs a new one.
+ *
+ * <p>Call it outside of any transaction: a waiting caller should not hold a database connection.
+ * Counts calls in {@code bookshop.singleflight.calls}, tagged with the flight name and whether the
+ * call ran the lookup ({@code executed}) or shared another one ({@code coalesced}).
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final Counter executed;
+  private final Counter coalesced;
+
+  /**
+   * @param name the flight name, tagging the metrics
+   * @param meterRegistry the registry receiving the call counters
+   */
+  public SingleFlight(String name, MeterRegistry meterRegistry) {
+    this.executed = Counter.builder("bookshop.singleflight.calls")
+        .description("Lookups run or shared with a concurrent lookup of the same key")
+        .tag("flight", name)
+        .tag("result", "executed")
+        .register(meterRegistry);
+    this.coalesced = Counter.builder("bookshop.singleflight.calls")
+        .description("Lookups run or shared with a concurrent lookup of the same key")
+        .tag("flight", name)
+        .tag("result", "coalesced")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the lookup of a key, or waits for the one already in flight.
+   *
+   * @param key the key
+   * @param lookup the lookup, run by one of the concurrent callers only
+   * @return the result of the lookup
+   */
+  public V execute(K key, Supplier<V> lookup) {
+    CompletableFuture<V> own = new CompletableFuture<>();
+    CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+    if (Objects.nonNull(running)) {
+      coalesced.increment();
+      return join(running);
+    }
+    executed.increment();
+    try {
+      V value = lookup.get();
+      own.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, own);
+    }
+  }
+
+  private static <V> V join(CompletableFuture<V> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.demobookshop.demobookshopservice.cache;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.MapEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapClearedListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} made of a bounded Caffeine near-cache in front of
+ * an optional Hazelcast map. Reads try the near-cache, then the distributed map, then the loader.
+ * Evictions replace the distributed entry with a short-lived tombstone, and every instance drops
+ * its near-cache copy when it receives the event, so invalidation reaches the whole cluster.
+ * Loaded values are only stored where the key holds neither a value nor a tombstone: a load that
+ * read the database before a commit and finishes after its eviction cannot bring the old value
+ * back for the distributed time to live. Concurrent misses of the same key share one load under
+ * Caffeine's per-key lock; its load statistics count them.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+  /** Distributed value of an evicted key, until no load started before the eviction can run. */
+  private enum Tombstone {
+    INSTANCE
+  }
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+  private final IMap<Object, Object> distributed;
+  private final long distributedTtlMillis;
+  private final long tombstoneTtlMillis;
+  private final Counter distributedHits;
+  private final Counter distributedMisses;
+
+  /**
+   * Creates a two-tier cache.
+   *
+   * @param name the cache name
+   * @param local the near-cache
+   * @param distributed the distributed map, or {@code null} to use the near-cache only
+   * @param distributedTtl the time to live of distributed entries
+   * @param tombstoneTtl the time to live of the tombstones of evicted keys, longer than any load
+   * @param meterRegistry the registry receiving distributed tier hit and miss counters
+   */
+  public TwoTierCache(
+      String name,
+      com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+      IMap<Object, Object> distributed,
+      Duration distributedTtl,
+      Duration tombstoneTtl,
+      MeterRegistry meterRegistry) {
+    super(false);
+    this.name = name;
+    this.local = local;
+    this.distributed = distributed;
+    this.distributedTtlMillis = distributedTtl.toMillis();
+    this.tombstoneTtlMillis = tombstoneTtl.toMillis();
+    this.distributedHits = Counter.builder("bookshop.cache.distributed.gets")
+        .tag("cache", name)
+        .tag("result", "hit")
+        .register(meterRegistry);
+    this.distributedMisses = Counter.builder("bookshop.cache.distributed.gets")
+        .tag("cache", name)
+        .tag("result", "miss")
+        .register(meterRegistry);
+    if (Objects.nonNull(distributed)) {
+      distributed.addEntryListener(new NearCacheInvalidationListener(), true);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return local;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    Object value = local.getIfPresent(key);
+    if (Objects.nonNull(value)) {
+      return value;
+    }
+    // Copied under Caffeine's per-key lock: a tombstone event arriving after the distributed read
+    // waits for the copy and removes it, instead of running first and being overwritten
+    return local.get(key, this::lookupDistributed);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    Object cached = local.getIfPresent(key);
+    if (Objects.nonNull(cached)) {
+      return (T) fromStoreValue(cached);
+    }
+    // Concurrent misses wait for one load, which Caffeine runs under its per-key lock. An eviction
+    // during the load waits for it and removes the loaded value, and a miss arriving after the
+    // eviction runs a new load instead of sharing the old one
+    return (T) fromStoreValue(local.get(key, k -> {
+      Object value = lookupDistributed(k);
+      if (Objects.isNull(value)) {
+        value = toStoreValue(load(k, valueLoader));
+        if (Objects.nonNull(distributed)) {
+          distributed.putIfAbsent(k, value, distributedTtlMillis, TimeUnit.MILLISECONDS);
+        }
+      }
+      return value;
+    }));
+  }
+
+  /**
+   * Gets the cached values of several keys. Near-cache misses are read from the distributed map
+   * with a single call. The values found there are not copied to the near-cache, where a tombstone
+   * event received during the call could not remove them. Nothing is loaded.
+   *
+   * @param keys the keys
+   * @return the cached values by key, without the keys that are not cached
+   */
+  public Map<Object, Object> getAllPresent(Collection<?> keys) {
+    Map<Object, Object> values = new HashMap<>(local.getAllPresent(keys));
+    if (Objects.isNull(distributed)) {
+      return values;
+    }
+    Set<Object> misses = new HashSet<>(keys);
+    misses.removeAll(values.keySet());
+    if (misses.isEmpty()) {
+      return values;
+    }
+    Map<Object, Object> found = new HashMap<>(distributed.getAll(misses));
+    found.values().removeIf(Tombstone.INSTANCE::equals);
+    distributedHits.increment(found.size());
+    distributedMisses.increment((double) misses.size() - found.size());
+    values.putAll(found);
+    return values;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    Object storeValue = toStoreValue(value);
+    local.put(key, storeValue);
+    if (Objects.nonNull(distributed)) {
+      distributed.set(key, storeValue, distributedTtlMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void evict(Object key) {
+    local.invalidate(key);
+    if (Objects.nonNull(distributed)) {
+      distributed.set(key, Tombstone.INSTANCE, tombstoneTtlMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public void clear() {
+    local.invalidateAll();
+    if (Objects.nonNull(distributed)) {
+      distributed.clear();
+    }
+  }
+
+  private Object lookupDistributed(Object key) {
+    if (Objects.isNull(distributed)) {
+      return null;
+    }
+    Object value = distributed.get(key);
+    if (Tombstone.INSTANCE.equals(value)) {
+      value = null;
+    }
+    (Objects.isNull(value) ? distributedMisses : distributedHits).increment();
+    return value;
+  }
+
+  private static <T> T load(Object key, Callable<T> valueLoader) {
+    try {
+      return valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+  }
+
+  /** Drops near-cache copies of entries evicted or removed by any instance. */
+  private class NearCacheInvalidationListener
+      implements EntryAddedListener<Object, Object>,
+          EntryUpdatedListener<Object, Object>,
+          EntryRemovedListener<Object, Object>,
+          MapClearedListener {
+
+    @Override
+    public void entryAdded(EntryEvent<Object, Object> event) {
+      invalidateOnTombstone(event);
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<Object, Object> event) {
+      invalidateOnTombstone(event);
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<Object, Object> event) {
+      local.invalidate(event.getKey());
+    }
+
+    @Override
+    public void mapCleared(MapEvent event) {
+      local.invalidateAll();
+    }
+
+    private void invalidateOnTombstone(EntryEvent<Object, Object> event) {
+      if (Tombstone.INSTANCE.equals(event.getValue())) {
+        local.invalidate(event.getKey());
+      }
+    }
+  }
+}
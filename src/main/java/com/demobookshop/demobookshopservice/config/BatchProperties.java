@@ -0,0 +1,14 @@
+package com.demobookshop.demobookshopservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Batch endpoint settings.
+ *
+ * @param maxItems maximum number of items accepted by a single batch request
+ * @param chunkSize number of items written in one transaction
+ */
+@ConfigurationProperties(prefix = "bookshop.batch")
+public record BatchProperties(
+    @DefaultValue("10000") int maxItems, @DefaultValue("500") int chunkSize) {}
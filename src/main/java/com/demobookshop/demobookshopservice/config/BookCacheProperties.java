@@ -0,0 +1,47 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Book entity cache settings.
+ *
+ * @param local the bounded in-process near-cache
+ * @param distributed the optional Hazelcast tier shared by all instances
+ */
+@ConfigurationProperties(prefix = "bookshop.cache")
+public record BookCacheProperties(
+    @DefaultValue Local local, @DefaultValue Distributed distributed) {
+
+  /**
+   * Near-cache settings.
+   *
+   * @param maximumWeight the maximum estimated heap size of all cached entries
+   * @param expireAfterWrite the time after which an entry is reloaded
+   */
+  public record Local(
+      @DefaultValue("64MB") DataSize maximumWeight,
+      @DefaultValue("10m") Duration expireAfterWrite) {}
+
+  /**
+   * Distributed tier settings.
+   *
+   * @param enabled whether the Hazelcast tier is used
+   * @param clusterName the Hazelcast cluster name
+   * @param members the addresses of the Hazelcast members
+   * @param mapName the name of the distributed map holding the books
+   * @param timeToLive the time after which a distributed entry expires
+   * @param tombstoneTimeToLive the time an evicted key refuses loaded values, longer than any
+   *     book load
+   */
+  public record Distributed(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("dev") String clusterName,
+      @DefaultValue("localhost:5701") List<String> members,
+      @DefaultValue("books") String mapName,
+      @DefaultValue("1h") Duration timeToLive,
+      @DefaultValue("30s") Duration tombstoneTimeToLive) {}
+}
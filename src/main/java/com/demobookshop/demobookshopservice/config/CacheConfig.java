@@ -0,0 +1,88 @@
+package com.demobookshop.demobookshopservice.config;
+
+import com.demobookshop.demobookshopservice.cache.TwoTierCache;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache configuration. The {@value #BOOKS_CACHE} cache is a {@link TwoTierCache}: a Caffeine
+ * near-cache bounded by estimated entry size and TTL, backed by a Hazelcast map when {@code
+ * bookshop.cache.distributed.enabled} is set.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  /** Cache of {@link BookDto} by book ID. */
+  public static final String BOOKS_CACHE = "books";
+
+  @Bean(destroyMethod = "shutdown")
+  @ConditionalOnProperty(prefix = "bookshop.cache.distributed", name = "enabled")
+  public HazelcastInstance hazelcastClient(BookCacheProperties properties) {
+    ClientConfig clientConfig = new ClientConfig();
+    clientConfig.setClusterName(properties.distributed().clusterName());
+    clientConfig.getNetworkConfig().setAddresses(properties.distributed().members());
+    return HazelcastClient.newHazelcastClient(clientConfig);
+  }
+
+  @Bean
+  public CacheManager cacheManager(
+      BookCacheProperties properties,
+      MeterRegistry meterRegistry,
+      ObjectProvider<HazelcastInstance> hazelcastInstance) {
+    Cache<Object, Object> local = Caffeine.newBuilder()
+        .maximumWeight(properties.local().maximumWeight().toBytes())
+        .weigher(CacheConfig::weigh)
+        .expireAfterWrite(properties.local().expireAfterWrite())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, local, BOOKS_CACHE);
+
+    HazelcastInstance instance = hazelcastInstance.getIfAvailable();
+    IMap<Object, Object> distributed =
+        Objects.isNull(instance) ? null : instance.getMap(properties.distributed().mapName());
+
+    SimpleCacheManager cacheManager = new SimpleCacheManager();
+    cacheManager.setCaches(List.of(new TwoTierCache(
+        BOOKS_CACHE,
+        local,
+        distributed,
+        properties.distributed().timeToLive(),
+        properties.distributed().tombstoneTimeToLive(),
+        meterRegistry)));
+    return cacheManager;
+  }
+
+  /**
+   * Estimates the heap size of a cache entry in bytes, so the near-cache is bounded by memory
+   * rather than by entry count.
+   */
+  private static int weigh(Object key, Object value) {
+    if (value instanceof BookDto book) {
+      return 128
+          + 2 * (length(book.uuid()) + length(book.parentUuid()))
+          + 2 * (length(book.title()) + length(book.author()));
+    }
+    return 64;
+  }
+
+  private static int length(String value) {
+    return Objects.isNull(value) ? 0 : value.length();
+  }
+}
@@ -0,0 +1,21 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Memory-mapped catalog snapshot settings.
+ *
+ * @param enabled whether the snapshot is exported and used for book, children and subtree reads
+ * @param directory the directory holding the snapshot file; local to the instance
+ * @param refreshInterval the delay between two exports
+ * @param maxAge the age after which a snapshot is no longer used, should exports keep failing
+ */
+@ConfigurationProperties(prefix = "bookshop.catalog-snapshot")
+public record CatalogSnapshotProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("catalog-snapshot") Path directory,
+    @DefaultValue("1m") Duration refreshInterval,
+    @DefaultValue("10m") Duration maxAge) {}
@@ -0,0 +1,20 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Catalog tree settings.
+ *
+ * @param maxDepth maximum number of levels walked by subtree and ancestor lookups; also guards
+ *     against cycles in PARENT_ID links
+ * @param indexEnabled whether the in-memory adjacency index is built and used for tree lookups
+ * @param refreshInterval the delay between two reads of the books written by other instances
+ *     into the index
+ */
+@ConfigurationProperties(prefix = "bookshop.catalog-tree")
+public record CatalogTreeProperties(
+    @DefaultValue("64") int maxDepth,
+    @DefaultValue("false") boolean indexEnabled,
+    @DefaultValue("10s") Duration refreshInterval) {}
@@ -0,0 +1,55 @@
+package com.demobookshop.demobookshopservice.config;
+
+import com.demobookshop.demobookshopservice.limit.ConcurrencyLimitFilter;
+import com.demobookshop.demobookshopservice.limit.ConcurrencyLimiter;
+import com.demobookshop.demobookshopservice.limit.GradientLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Load shedding configuration. The API is guarded by an adaptive concurrency limit, so a spike of
+ * full catalog reads is turned away with 503 before it exhausts the connection pool. The filter
+ * runs after the HTTP observation filter, so shed requests still show in {@code
+ * http.server.requests}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(
+    name = "bookshop.concurrency-limit.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  public ConcurrencyLimiter concurrencyLimiter(
+      ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+    GradientLimit limit = new GradientLimit(
+        properties.initialLimit(),
+        properties.minLimit(),
+        properties.maxLimit(),
+        properties.smoothing(),
+        properties.rttTolerance());
+    return new ConcurrencyLimiter(
+        limit,
+        properties.normalShare(),
+        properties.bulkShare(),
+        properties.queueTimeout(),
+        meterRegistry);
+  }
+
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      ConcurrencyLimiter concurrencyLimiter,
+      ConcurrencyLimitProperties properties,
+      JsonMapper jsonMapper) {
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+        new ConcurrencyLimitFilter(concurrencyLimiter, properties.retryAfter(), jsonMapper));
+    registration.addUrlPatterns("/api/*", "/graphql");
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+}
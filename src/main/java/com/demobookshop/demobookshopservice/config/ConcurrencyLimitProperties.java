@@ -0,0 +1,32 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Adaptive concurrency limit settings.
+ *
+ * @param enabled whether requests over the limit are shed
+ * @param initialLimit concurrent requests admitted before latency has been measured
+ * @param minLimit lowest limit, kept even when latency degrades
+ * @param maxLimit highest limit
+ * @param smoothing weight of a newly computed limit against the current one, between 0 and 1
+ * @param rttTolerance how much slower than usual requests may get before the limit is lowered
+ * @param normalShare share of the limit bounded reads may fill
+ * @param bulkShare share of the limit full catalog reads may fill
+ * @param queueTimeout how long writes and bounded reads wait for a permit before they are shed
+ * @param retryAfter delay sent in the Retry-After header of a shed request
+ */
+@ConfigurationProperties(prefix = "bookshop.concurrency-limit")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("20") int initialLimit,
+    @DefaultValue("4") int minLimit,
+    @DefaultValue("200") int maxLimit,
+    @DefaultValue("0.2") double smoothing,
+    @DefaultValue("1.5") double rttTolerance,
+    @DefaultValue("0.9") double normalShare,
+    @DefaultValue("0.5") double bulkShare,
+    @DefaultValue("50ms") Duration queueTimeout,
+    @DefaultValue("1s") Duration retryAfter) {}
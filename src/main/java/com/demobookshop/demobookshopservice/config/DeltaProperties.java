@@ -0,0 +1,17 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Delta sync settings.
+ *
+ * @param tombstoneRetention how long tombstones of deleted books are kept; delta tokens older
+ *     than that are rejected, as deletions may be missing
+ * @param compactionInterval the delay between two tombstone compactions
+ */
+@ConfigurationProperties(prefix = "bookshop.delta")
+public record DeltaProperties(
+    @DefaultValue("30d") Duration tombstoneRetention,
+    @DefaultValue("1d") Duration compactionInterval) {}
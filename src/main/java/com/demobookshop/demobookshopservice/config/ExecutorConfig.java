@@ -0,0 +1,41 @@
+package com.demobookshop.demobookshopservice.config;
+
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Executor configuration. Requests already run on virtual threads ({@code
+ * spring.threads.virtual.enabled}); the {@value #FAN_OUT_EXECUTOR} runs service-level fan-out on
+ * virtual threads as well. Virtual threads are cheap but database connections are not, so the
+ * fan-out is bounded by a concurrency limit rather than by a pool size.
+ */
+@Configuration
+public class ExecutorConfig {
+
+  /** Executor for parallel work inside a single request. */
+  public static final String FAN_OUT_EXECUTOR = "fanOutTaskExecutor";
+
+  @Bean(FAN_OUT_EXECUTOR)
+  public SimpleAsyncTaskExecutor fanOutTaskExecutor(FanOutProperties properties) {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("fan-out-");
+    executor.setVirtualThreads(true);
+    // Submitters block once the limit is reached, which back-pressures the request
+    executor.setConcurrencyLimit(properties.maxConcurrency());
+    executor.setTaskTerminationTimeout(10_000L);
+    return executor;
+  }
+
+  /**
+   * Publishes {@code jvm.threads.virtual.pinned} and {@code jvm.threads.virtual.submit.failed}
+   * from the JFR events of the same names, so pinned carrier threads show up before the
+   * scheduler runs out of them.
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnMissingBean
+  public VirtualThreadMetrics virtualThreadMetrics() {
+    return new VirtualThreadMetrics();
+  }
+}
@@ -0,0 +1,13 @@
+package com.demobookshop.demobookshopservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Service-level fan-out settings.
+ *
+ * @param maxConcurrency maximum number of fan-out tasks running at once; keep it below the
+ *     connection pool size, as every task may hold a connection
+ */
+@ConfigurationProperties(prefix = "bookshop.fan-out")
+public record FanOutProperties(@DefaultValue("8") int maxConcurrency) {}
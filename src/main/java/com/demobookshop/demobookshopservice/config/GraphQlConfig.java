@@ -0,0 +1,36 @@
+package com.demobookshop.demobookshopservice.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * GraphQL configuration. Queries deeper or costlier than the {@link GraphQlLimitsProperties} are
+ * rejected before any data is fetched, so a single request cannot walk the whole catalog tree.
+ * Per-field timings come from the Spring GraphQL observations ({@code graphql.datafetcher}).
+ */
+@Configuration
+public class GraphQlConfig {
+
+  @Bean
+  public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+      GraphQlLimitsProperties properties) {
+    return new MaxQueryDepthInstrumentation(properties.maxDepth());
+  }
+
+  @Bean
+  public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+      GraphQlLimitsProperties properties) {
+    int listFieldFactor = properties.listFieldFactor();
+    FieldComplexityCalculator calculator = (environment, childComplexity) ->
+        GraphQLTypeUtil.unwrapNonNull(environment.getFieldDefinition().getType())
+                instanceof GraphQLList
+            ? listFieldFactor * (1 + childComplexity)
+            : 1 + childComplexity;
+    return new MaxQueryComplexityInstrumentation(properties.maxComplexity(), calculator);
+  }
+}
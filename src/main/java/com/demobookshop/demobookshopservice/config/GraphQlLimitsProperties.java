@@ -0,0 +1,18 @@
+package com.demobookshop.demobookshopservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * GraphQL query limits, checked before a query is executed.
+ *
+ * @param maxDepth maximum nesting of selections, e.g. {@code book { children { children } }} is 3
+ * @param maxComplexity maximum query cost; every field costs 1 and list fields multiply the cost
+ *     of their selection by {@code listFieldFactor}
+ * @param listFieldFactor assumed number of elements of a list field when computing the cost
+ */
+@ConfigurationProperties(prefix = "bookshop.graphql")
+public record GraphQlLimitsProperties(
+    @DefaultValue("8") int maxDepth,
+    @DefaultValue("1000") int maxComplexity,
+    @DefaultValue("10") int listFieldFactor) {}
@@ -0,0 +1,14 @@
+package com.demobookshop.demobookshopservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bulk import settings.
+ *
+ * @param maxReportedErrors maximum number of rejected records listed in an import report
+ * @param retainedJobs number of finished imports kept for status queries
+ */
+@ConfigurationProperties(prefix = "bookshop.import")
+public record ImportProperties(
+    @DefaultValue("100") int maxReportedErrors, @DefaultValue("50") int retainedJobs) {}
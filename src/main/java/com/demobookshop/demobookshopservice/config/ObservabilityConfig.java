@@ -0,0 +1,21 @@
+package com.demobookshop.demobookshopservice.config;
+
+import com.demobookshop.demobookshopservice.observability.RequestQueryStatsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Observability configuration. Service and repository methods are timed through {@code @Observed}
+ * (enabled by {@code management.observations.annotations.enabled}); this adds the database work
+ * per request. Timers with histograms carry the trace ID of a sampled request as exemplar.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+  @Bean
+  public RequestQueryStatsFilter requestQueryStatsFilter(
+      MeterRegistry meterRegistry, ObservabilityProperties properties) {
+    return new RequestQueryStatsFilter(meterRegistry, properties.statementWarnThreshold());
+  }
+}
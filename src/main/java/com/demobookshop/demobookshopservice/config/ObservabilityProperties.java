@@ -0,0 +1,13 @@
+package com.demobookshop.demobookshopservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Observability settings.
+ *
+ * @param statementWarnThreshold number of SQL statements above which a request is logged as a
+ *     likely N+1
+ */
+@ConfigurationProperties(prefix = "bookshop.observability")
+public record ObservabilityProperties(@DefaultValue("50") int statementWarnThreshold) {}
@@ -0,0 +1,26 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Book change outbox and change stream settings.
+ *
+ * @param relayEnabled whether this instance runs the relay; instances compete for an advisory
+ *     lock, so only one publishes at a time
+ * @param relayInterval the delay between two relay runs
+ * @param batchSize the maximum number of changes published in one relay transaction
+ * @param retention how long published changes stay readable from the change stream
+ * @param pollInterval how often an open event stream checks for newly published changes
+ * @param streamDuration how long an event stream stays open before the client has to reconnect;
+ *     shorter than {@code spring.mvc.async.request-timeout}
+ */
+@ConfigurationProperties(prefix = "bookshop.outbox")
+public record OutboxProperties(
+    @DefaultValue("true") boolean relayEnabled,
+    @DefaultValue("500ms") Duration relayInterval,
+    @DefaultValue("500") int batchSize,
+    @DefaultValue("7d") Duration retention,
+    @DefaultValue("1s") Duration pollInterval,
+    @DefaultValue("5m") Duration streamDuration) {}
@@ -0,0 +1,75 @@
+package com.demobookshop.demobookshopservice.config;
+
+import com.demobookshop.demobookshopservice.datasource.ReadYourWritesFilter;
+import com.demobookshop.demobookshopservice.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Objects;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Read replica configuration. Read-only transactions ({@code @Transactional(readOnly = true)}) run
+ * on a replica pool, everything else on the primary. The application's data source hands out lazy
+ * connections, which pick a pool on the first statement, once the transaction has marked them
+ * read-only or not. Both pools publish the {@code hikaricp.connections.*} metrics, tagged with
+ * their pool names.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "bookshop.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+  public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+  @Bean(PRIMARY_DATA_SOURCE)
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean(REPLICA_DATA_SOURCE)
+  @ConfigurationProperties("bookshop.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      DataSourceProperties primary, ReplicaProperties replica) {
+    HikariDataSource dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(primary.determineDriverClassName())
+        .url(replica.url())
+        .username(Objects.requireNonNullElse(replica.username(), primary.determineUsername()))
+        .password(Objects.requireNonNullElse(replica.password(), primary.determinePassword()))
+        .build();
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  /**
+   * The application's data source, used by JPA, JDBC and Liquibase.
+   *
+   * @return lazy connections of the primary, or of the replica when read-only
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier(PRIMARY_DATA_SOURCE) DataSource primaryDataSource,
+      @Qualifier(REPLICA_DATA_SOURCE) DataSource replicaDataSource,
+      MeterRegistry meterRegistry) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(
+        new ReplicaRoutingDataSource(replicaDataSource, primaryDataSource, meterRegistry));
+    return dataSource;
+  }
+
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+    return new ReadYourWritesFilter(properties.readYourWritesWindow());
+  }
+}
@@ -0,0 +1,24 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Read replica settings. The replica pool itself is configured under {@code
+ * bookshop.datasource.replica.hikari}, like {@code spring.datasource.hikari} for the primary.
+ *
+ * @param enabled whether read-only transactions use the replica
+ * @param url JDBC URL of the replica
+ * @param username user of the replica, the primary's user if not set
+ * @param password password of the replica, the primary's password if not set
+ * @param readYourWritesWindow how long a client's reads stay on the primary after it sent a
+ *     write, covering the replication lag; zero turns stickiness off
+ */
+@ConfigurationProperties(prefix = "bookshop.datasource.replica")
+public record ReplicaProperties(
+    @DefaultValue("false") boolean enabled,
+    String url,
+    String username,
+    String password,
+    @DefaultValue("2s") Duration readYourWritesWindow) {}
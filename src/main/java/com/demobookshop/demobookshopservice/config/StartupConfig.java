@@ -0,0 +1,32 @@
+package com.demobookshop.demobookshopservice.config;
+
+import com.demobookshop.demobookshopservice.service.BookDeltaService;
+import com.demobookshop.demobookshopservice.service.BookOutboxRelay;
+import com.demobookshop.demobookshopservice.service.BookStatsService;
+import com.demobookshop.demobookshopservice.service.CatalogTreeIndex;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup configuration. With {@code spring.main.lazy-initialization} (the fast-start profile),
+ * beans are created on first use, except the ones excluded here: the JPA bootstrap, which would
+ * otherwise delay the first request, and the beans with scheduled jobs, which are only scheduled
+ * once created.
+ */
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+  @Bean
+  static LazyInitializationExcludeFilter eagerBeans() {
+    return LazyInitializationExcludeFilter.forBeanTypes(
+        EntityManagerFactory.class,
+        BookOutboxRelay.class,
+        BookDeltaService.class,
+        BookStatsService.class,
+        CatalogSnapshot.class,
+        CatalogTreeIndex.class);
+  }
+}
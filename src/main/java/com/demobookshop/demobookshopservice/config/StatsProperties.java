@@ -0,0 +1,20 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Catalog statistics settings.
+ *
+ * @param refreshEnabled whether this instance refreshes the books per depth; the refresh takes a
+ *     PostgreSQL advisory lock, so it is turned off on other databases
+ * @param refreshInterval the delay between two checks for changes since the last refresh of the
+ *     books per depth; the view is only refreshed when the catalog tree changed
+ * @param maxAuthors the maximum number of authors returned by one top-authors request
+ */
+@ConfigurationProperties(prefix = "bookshop.stats")
+public record StatsProperties(
+    @DefaultValue("true") boolean refreshEnabled,
+    @DefaultValue("30s") Duration refreshInterval,
+    @DefaultValue("100") int maxAuthors) {}
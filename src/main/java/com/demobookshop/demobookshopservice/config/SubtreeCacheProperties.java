@@ -0,0 +1,18 @@
+package com.demobookshop.demobookshopservice.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Subtree snapshot cache settings.
+ *
+ * @param maximumWeight the maximum total size of the cached JSON snapshots; {@code 0} disables
+ *     the cache
+ * @param expireAfterWrite the time after which a snapshot is rebuilt even if nothing changed; also
+ *     bounds how long changes of other instances go unseen without the Hazelcast tier
+ */
+@ConfigurationProperties(prefix = "bookshop.subtree-cache")
+public record SubtreeCacheProperties(
+    @DefaultValue("32MB") DataSize maximumWeight, @DefaultValue("10m") Duration expireAfterWrite) {}
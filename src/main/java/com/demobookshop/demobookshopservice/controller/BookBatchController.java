@@ -0,0 +1,106 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.service.BookBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2")
+@Tag(name = "Book batch", description = "Book batch management API")
+public class BookBatchController {
+
+  private final BookBatchService bookBatchService;
+
+  public BookBatchController(BookBatchService bookBatchService) {
+    this.bookBatchService = bookBatchService;
+  }
+
+  @Operation(
+      summary = "Add books in batch",
+      description = "Adds many books in one request. Every item gets its own result; a failed"
+          + " item does not roll back the others.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "207",
+            description = "Per-item results",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BookBatchResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Empty or too large batch"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping(
+      path = "/books:batch",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.MULTI_STATUS)
+  public List<BookBatchResultDto> addBooks(@RequestBody List<BookDto> newBooks) {
+    return bookBatchService.addBooks(newBooks);
+  }
+
+  @Operation(
+      summary = "Update books in batch",
+      description = "Updates many books in one request. Every item must carry the book ID.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "207",
+            description = "Per-item results",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BookBatchResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Empty or too large batch"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PutMapping(
+      path = "/books:batch",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.MULTI_STATUS)
+  public List<BookBatchResultDto> updateBooks(@RequestBody List<BookDto> books) {
+    return bookBatchService.updateBooks(books);
+  }
+
+  @Operation(
+      summary = "Delete books in batch",
+      description = "Deletes many books by ID in one request.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "207",
+            description = "Per-item results",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BookBatchResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Empty or too large batch"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @DeleteMapping(
+      path = "/books:batch",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.MULTI_STATUS)
+  public List<BookBatchResultDto> deleteBooks(@RequestBody List<Long> bookIds) {
+    return bookBatchService.deleteBooks(bookIds);
+  }
+}
@@ -0,0 +1,216 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.BookChangeDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDeltaDto;
+import com.demobookshop.demobookshopservice.service.BookChangeFeedService;
+import com.demobookshop.demobookshopservice.service.BookDeltaService;
+import com.demobookshop.demobookshopservice.service.BookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books")
+@Tag(name = "Book changes", description = "Change stream of books for incremental sync")
+public class BookChangeController {
+
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+  private final BookChangeFeedService bookChangeFeedService;
+  private final BookDeltaService bookDeltaService;
+  private final JsonMapper jsonMapper;
+
+  public BookChangeController(
+      BookChangeFeedService bookChangeFeedService,
+      BookDeltaService bookDeltaService,
+      JsonMapper jsonMapper) {
+    this.bookChangeFeedService = bookChangeFeedService;
+    this.bookDeltaService = bookDeltaService;
+    this.jsonMapper = jsonMapper;
+  }
+
+  /**
+   * Get the books changed since a delta token.
+   *
+   * @param since token returned by the previous call
+   * @param limit maximum number of changed books
+   * @return upserts and deleted IDs with the token of the next call
+   */
+  @Operation(
+      summary = "Get catalog delta",
+      description = "Retrieves the books created, updated or deleted since 'since'. Without"
+          + " 'since' the whole catalog is returned. Apply upserts and deletions to the local"
+          + " copy, then pass nextToken as 'since'; while hasMore is true, call again right"
+          + " away.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the delta",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = BookDeltaDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed token"),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Token is older than the tombstone retention, refresh the full catalog"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/delta",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public BookDeltaDto getDelta(
+      @Parameter(description = "Token returned by the previous call", example = "MTIzOjA6MTc2")
+          @RequestParam(name = "since", required = false)
+          String since,
+      @Parameter(
+              description = "Maximum number of changed books (1-" + BookService.MAX_PAGE_SIZE
+                  + ")",
+              example = "1000")
+          @RequestParam(name = "limit", defaultValue = "1000")
+          int limit) {
+    return bookDeltaService.getDelta(since, limit);
+  }
+
+  /**
+   * Get the changes published after a position as newline-delimited JSON.
+   *
+   * @param since position of the last change already read
+   * @param limit maximum number of changes
+   * @return streaming body writing one BookChangeDto per line, in stream order
+   */
+  @Operation(
+      summary = "Get book changes",
+      description = "Retrieves the book changes published after 'since', one JSON object per"
+          + " line. Pass the position of the last change read as 'since' to get the next batch;"
+          + " an empty body means the consumer is up to date.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the changes",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = BookChangeDto.class))),
+        @ApiResponse(responseCode = "400", description = "Negative position"),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Changes after the position are no longer kept, resync from a full read"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/changes",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<StreamingResponseBody> getChanges(
+      @Parameter(description = "Position of the last change already read", example = "0")
+          @RequestParam(name = "since", defaultValue = "0")
+          long since,
+      @Parameter(
+              description = "Maximum number of changes (1-" + BookService.MAX_PAGE_SIZE + ")",
+              example = "1000")
+          @RequestParam(name = "limit", defaultValue = "1000")
+          int limit) {
+    List<BookChangeDto> changes = bookChangeFeedService.getChanges(since, limit);
+    StreamingResponseBody body = outputStream -> {
+      for (BookChangeDto change : changes) {
+        outputStream.write(jsonMapper.writeValueAsBytes(change));
+        outputStream.write('\n');
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Follow the changes published after a position as server-sent events. The event ID is the
+   * position of the change, so a reconnecting client resumes with Last-Event-ID.
+   *
+   * @param since position of the last change already read
+   * @param lastEventId position of the last event received before reconnecting, wins over since
+   * @return streaming body writing one event per BookChangeDto, in stream order
+   */
+  @Operation(
+      summary = "Follow book changes",
+      description = "Streams the book changes published after 'since' as server-sent events and"
+          + " keeps streaming new changes as they are published. The event ID is the position"
+          + " of the change; on reconnect, Last-Event-ID takes precedence over 'since'. The"
+          + " stream ends after a few minutes, clients reconnect to continue.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully started the stream",
+            content =
+                @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(implementation = BookChangeDto.class))),
+        @ApiResponse(responseCode = "400", description = "Negative position"),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Changes after the position are no longer kept, resync from a full read"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/changes",
+      produces = {MediaType.TEXT_EVENT_STREAM_VALUE})
+  public ResponseEntity<StreamingResponseBody> followChanges(
+      @Parameter(description = "Position of the last change already read", example = "0")
+          @RequestParam(name = "since", defaultValue = "0")
+          long since,
+      @Parameter(description = "Position of the last event received", example = "42")
+          @RequestHeader(name = "Last-Event-ID", required = false)
+          Long lastEventId) {
+    long position = Objects.requireNonNullElse(lastEventId, since);
+    // Read the first batch before the response starts, so an expired position still gets 410
+    List<BookChangeDto> changes =
+        bookChangeFeedService.getChanges(position, BookService.MAX_PAGE_SIZE);
+    StreamingResponseBody body = outputStream -> {
+      writeEvents(outputStream, changes);
+      long last = changes.isEmpty() ? position : changes.getLast().position();
+      bookChangeFeedService.followChanges(last, batch -> writeEvents(outputStream, batch));
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .cacheControl(CacheControl.noStore())
+        .body(body);
+  }
+
+  private void writeEvents(OutputStream outputStream, List<BookChangeDto> changes) {
+    try {
+      if (changes.isEmpty()) {
+        outputStream.write(HEARTBEAT);
+      }
+      for (BookChangeDto change : changes) {
+        String header = "id: " + change.position() + "\ndata: ";
+        outputStream.write(header.getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(jsonMapper.writeValueAsBytes(change));
+        outputStream.write('\n');
+        outputStream.write('\n');
+      }
+      outputStream.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
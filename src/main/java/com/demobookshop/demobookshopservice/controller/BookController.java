@@ -1,7 +1,15 @@
 package com.demobookshop.demobookshopservice.controller;
 
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
 import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
 import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.util.encoding.BookProtobufWriter;
+import com.demobookshop.demobookshopservice.util.encoding.BookRowWriter;
+import com.demobookshop.demobookshopservice.util.encoding.BookTokenWriter;
+import com.demobookshop.demobookshopservice.util.http.BookETags;
+import com.demobookshop.demobookshopservice.util.http.BookMediaTypes;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -10,11 +18,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.util.Collection;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
 @RestController
 @Validated
@@ -22,41 +39,205 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Book", description = "Book management API")
 public class BookController {
 
+  /** Formats of {@link #getAllBooks}, the first one is the default. */
+  private static final List<MediaType> ALL_BOOKS_FORMATS = List.of(
+      MediaType.APPLICATION_JSON,
+      MediaType.APPLICATION_CBOR,
+      BookMediaTypes.APPLICATION_SMILE,
+      BookMediaTypes.APPLICATION_PROTOBUF);
+
   private final BookService bookService;
+  private final JsonMapper jsonMapper;
 
-  public BookController(BookService bookService) {
+  public BookController(BookService bookService, JsonMapper jsonMapper) {
     this.bookService = bookService;
+    this.jsonMapper = jsonMapper;
   }
 
   /**
-   * Get all books.
+   * Get all books. Answers 304 without reading the books when If-None-Match holds the current
+   * ETag of the collection.
    *
-   * @return Collection of BookDto
+   * @param request the current request, for the conditional check
+   * @param accept the Accept header, choosing JSON, CBOR, Smile or protobuf
+   * @return streaming body writing a list of BookDto ordered by ID
    */
   @Operation(
       summary = "Get all books",
-      description = "Retrieves a collection of all books in the system.")
+      description = "Retrieves all books in the system, ordered by ID. The response carries an"
+          + " ETag that changes whenever any book changes; send it back in If-None-Match to get"
+          + " 304 Not Modified while the collection is unchanged. Besides JSON, the books can be"
+          + " requested as CBOR or Smile, with the same fields, or as a protobuf BookList message"
+          + " of book.proto, with UUIDs as two fixed64 fields.")
   @ApiResponses(
       value = {
         @ApiResponse(
             responseCode = "200",
             description = "Successfully retrieved all books",
+            content = {
+              @Content(
+                  mediaType = MediaType.APPLICATION_JSON_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = BookDto.class))),
+              @Content(
+                  mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = BookDto.class))),
+              @Content(
+                  mediaType = BookMediaTypes.APPLICATION_SMILE_VALUE,
+                  array = @ArraySchema(schema = @Schema(implementation = BookDto.class))),
+              @Content(mediaType = BookMediaTypes.APPLICATION_PROTOBUF_VALUE)
+            }),
+        @ApiResponse(responseCode = "304", description = "Books not modified"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "",
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE,
+        BookMediaTypes.APPLICATION_SMILE_VALUE,
+        BookMediaTypes.APPLICATION_PROTOBUF_VALUE
+      })
+  public ResponseEntity<StreamingResponseBody> getAllBooks(
+      WebRequest request,
+      @Parameter(hidden = true) @RequestHeader(name = HttpHeaders.ACCEPT, required = false)
+          String accept) {
+    MediaType format = BookMediaTypes.select(accept, ALL_BOOKS_FORMATS);
+    if (request.checkNotModified(BookETags.of(bookService.getCollectionState(), format))) {
+      return null;
+    }
+    StreamingResponseBody body = outputStream -> {
+      BookRowWriter writer = newWriter(format, outputStream);
+      writer.beginArray();
+      bookService.writeAllBooks(writer);
+      writer.endArray();
+    };
+    return ResponseEntity.ok().contentType(format).varyBy(HttpHeaders.ACCEPT).body(body);
+  }
+
+  /**
+   * Get a keyset page of books ordered by ID.
+   *
+   * @param after opaque cursor of the previous page
+   * @param limit maximum number of books in the page
+   * @return page of BookDto with the cursor of the next page
+   */
+  @Operation(
+      summary = "Get a page of books",
+      description = "Retrieves a keyset page of books ordered by ID. Pass the returned"
+          + " nextCursor as 'after' to get the next page.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the page of books",
             content =
                 @Content(
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
-                    array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
+                    schema = @Schema(implementation = BookPageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed cursor"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @GetMapping(
       path = "",
+      params = "limit",
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        MediaType.APPLICATION_CBOR_VALUE,
+        BookMediaTypes.APPLICATION_SMILE_VALUE
+      })
+  @ResponseStatus(HttpStatus.OK)
+  public BookPageDto getBooksPage(
+      @Parameter(description = "Cursor returned with the previous page", example = "MTU")
+          @RequestParam(name = "after", required = false)
+          String after,
+      @Parameter(
+              description = "Maximum number of books in the page (1-" + BookService.MAX_PAGE_SIZE
+                  + ")",
+              example = "100",
+              required = true)
+          @RequestParam(name = "limit")
+          int limit) {
+    return bookService.getBooksPage(after, limit);
+  }
+
+  /**
+   * Get several books by ID in one round trip.
+   *
+   * @param ids IDs of the books
+   * @return one BookBatchResultDto per ID, in request order
+   */
+  @Operation(
+      summary = "Get books by ID",
+      description = "Retrieves up to " + BookService.MAX_LOOKUP_SIZE + " books by ID. Every"
+          + " requested ID gets a result in request order: status 200 with the book, or 404 if"
+          + " there is no such book. Cached books are served from the cache and the others are"
+          + " read with a single query.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Per-ID results",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BookBatchResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "No ID or too many IDs"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "",
+      params = {"ids", "!limit"},
       produces = {MediaType.APPLICATION_JSON_VALUE})
   @ResponseStatus(HttpStatus.OK)
-  public Collection<BookDto> getAllBooks() {
-    return bookService.getAllBooks();
+  public List<BookBatchResultDto> getBooksById(
+      @Parameter(
+              description = "Comma-separated IDs of the books",
+              example = "1,2,3",
+              required = true)
+          @RequestParam(name = "ids")
+          List<Long> ids) {
+    return bookService.getBooksById(ids);
+  }
+
+  /**
+   * Stream all books as newline-delimited JSON.
+   *
+   * @return streaming body writing one BookDto per line
+   */
+  @Operation(
+      summary = "Stream all books",
+      description = "Streams all books ordered by ID as newline-delimited JSON without loading"
+          + " the whole catalog into memory.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully streamed all books",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = BookDto.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/stream",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+    StreamingResponseBody body =
+        outputStream -> bookService.streamAllBooks(book -> writeLine(outputStream, book));
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
-  /** Get the book by ID. */
-  @Operation(summary = "Get book by ID", description = "Retrieves a book by its ID.")
+  /**
+   * Get the book by ID. Answers 304 without writing the body when If-None-Match holds the
+   * current ETag of the book.
+   */
+  @Operation(
+      summary = "Get book by ID",
+      description = "Retrieves a book by its ID. The response carries an ETag and Last-Modified;"
+          + " send the ETag back in If-None-Match to get 304 Not Modified while the book is"
+          + " unchanged.")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -66,18 +247,19 @@ public class BookController {
                 @Content(
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                     schema = @Schema(implementation = BookDto.class))),
+        @ApiResponse(responseCode = "304", description = "Book not modified"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @GetMapping(
       path = "/{id}",
       produces = {MediaType.APPLICATION_JSON_VALUE})
-  @ResponseStatus(HttpStatus.OK)
-  public BookDto getBookById(
+  public ResponseEntity<BookDto> getBookById(
       @Parameter(description = "ID of the book to retrieve", example = "15", required = true)
           @PathVariable("id")
           Long id) {
-    return bookService.getBookById(id);
+    // Spring answers 304 for a matching If-None-Match before the body is serialized
+    return withValidators(ResponseEntity.ok(), bookService.getBookById(id));
   }
 
   @Operation(summary = "Add a new book", description = "Adds a new book to the system.")
@@ -101,7 +283,10 @@ public class BookController {
     return bookService.addBook(newBook);
   }
 
-  @Operation(summary = "Update book by ID", description = "Updates a book by its ID.")
+  @Operation(
+      summary = "Update book by ID",
+      description = "Updates a book by its ID. With If-Match set to the ETag the client last read,"
+          + " the update is applied only if the book has not changed since.")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -112,19 +297,29 @@ public class BookController {
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
                     schema = @Schema(implementation = BookDto.class))),
         @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Book changed by a concurrent update, re-read and retry"),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Book changed since the ETag in If-Match was read"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
       })
   @PutMapping(
       path = "/{id}",
       consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.APPLICATION_JSON_VALUE)
-  @ResponseStatus(HttpStatus.OK)
-  public BookDto updateBook(
+  public ResponseEntity<BookDto> updateBook(
       @Parameter(description = "ID of the book to update", example = "15", required = true)
           @PathVariable("id")
           Long id,
+      @Parameter(description = "ETag of the book the update is based on", example = "\"15-3\"")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
       @RequestBody BookDto newBook) {
-    return bookService.updateBook(id, newBook);
+    BookDto updatedBook =
+        bookService.updateBook(id, newBook, BookETags.expectedVersion(id, ifMatch));
+    return withValidators(ResponseEntity.ok(), updatedBook);
   }
 
   @Operation(summary = "Delete book by ID", description = "Deletes a book by its ID.")
@@ -142,4 +337,35 @@ public class BookController {
           Long id) {
     bookService.deleteBook(id);
   }
+
+  private static BookRowWriter newWriter(MediaType format, OutputStream outputStream) {
+    if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format)) {
+      return BookTokenWriter.cbor(outputStream);
+    }
+    if (BookMediaTypes.APPLICATION_SMILE.equalsTypeAndSubtype(format)) {
+      return BookTokenWriter.smile(outputStream);
+    }
+    if (BookMediaTypes.APPLICATION_PROTOBUF.equalsTypeAndSubtype(format)) {
+      return new BookProtobufWriter(outputStream);
+    }
+    return new BookJsonWriter(outputStream);
+  }
+
+  private static ResponseEntity<BookDto> withValidators(
+      ResponseEntity.BodyBuilder response, BookDto book) {
+    response.eTag(BookETags.of(book));
+    if (Objects.nonNull(book.updatedAt())) {
+      response.lastModified(book.updatedAt());
+    }
+    return response.body(book);
+  }
+
+  private void writeLine(OutputStream outputStream, BookDto book) {
+    try {
+      outputStream.write(jsonMapper.writeValueAsBytes(book));
+      outputStream.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
 }
@@ -0,0 +1,136 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.service.CatalogTreeService;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Controller;
+
+/**
+ * GraphQL book API, see {@code graphql/book.graphqls}. The {@code parent}, {@code children} and
+ * {@code ancestors} fields are batch mappings: the DataLoader collects the books of one level of
+ * the response and resolves the field for all of them with one {@code IN (...)} query, instead of
+ * one lookup per book.
+ */
+@Controller
+public class BookGraphQlController {
+
+  private final BookService bookService;
+  private final CatalogTreeService catalogTreeService;
+
+  public BookGraphQlController(BookService bookService, CatalogTreeService catalogTreeService) {
+    this.bookService = bookService;
+    this.catalogTreeService = catalogTreeService;
+  }
+
+  /**
+   * Get the book by ID.
+   *
+   * @param id ID of the book
+   * @return BookDto
+   */
+  @QueryMapping
+  public BookDto book(@Argument Long id) {
+    return bookService.getBookById(id);
+  }
+
+  /**
+   * Get a keyset page of books ordered by ID.
+   *
+   * @param after opaque cursor of the previous page
+   * @param limit maximum number of books in the page
+   * @return page of BookDto with the cursor of the next page
+   */
+  @QueryMapping
+  public BookPageDto books(@Argument String after, @Argument int limit) {
+    return bookService.getBooksPage(after, limit);
+  }
+
+  /**
+   * Resolve the parents of a level of books with one query.
+   *
+   * @param books books of one level of the response
+   * @return the parent of each book that has one
+   */
+  @BatchMapping
+  public Map<BookDto, BookDto> parent(List<BookDto> books) {
+    Map<Long, BookDto> parents = catalogTreeService.getBooksById(books.stream()
+        .map(BookDto::parentId)
+        .filter(Objects::nonNull)
+        .distinct()
+        .toList());
+    return books.stream()
+        .filter(book -> parents.containsKey(book.parentId()))
+        .collect(Collectors.toMap(
+            Function.identity(), book -> parents.get(book.parentId()), (a, b) -> a));
+  }
+
+  /**
+   * Resolve the children of a level of books with one query.
+   *
+   * @param books books of one level of the response
+   * @return the children of each book, ordered by ID
+   */
+  @BatchMapping
+  public Map<BookDto, List<BookDto>> children(List<BookDto> books) {
+    Map<Long, List<BookDto>> children = catalogTreeService.getChildrenOf(books.stream()
+        .filter(BookDto::isCatalog)
+        .map(BookDto::id)
+        .distinct()
+        .toList());
+    return books.stream()
+        .collect(Collectors.toMap(
+            Function.identity(),
+            book -> children.getOrDefault(book.id(), List.of()),
+            (a, b) -> a));
+  }
+
+  /**
+   * Resolve the ancestors of a level of books with one query per ancestor level.
+   *
+   * @param books books of one level of the response
+   * @return the ancestors of each book, from the top-most one down to the direct parent
+   */
+  @BatchMapping
+  public Map<BookDto, List<BookDto>> ancestors(List<BookDto> books) {
+    Map<Long, List<BookDto>> ancestors = catalogTreeService.getAncestorsOf(books);
+    return books.stream()
+        .collect(Collectors.toMap(
+            Function.identity(),
+            book -> ancestors.getOrDefault(book.id(), List.of()),
+            (a, b) -> a));
+  }
+
+  @GraphQlExceptionHandler
+  public GraphQLError handleEntityNotFoundException(
+      EntityNotFoundException ex, DataFetchingEnvironment environment) {
+    return GraphqlErrorBuilder.newError(environment)
+        .errorType(ErrorType.NOT_FOUND)
+        .message(ex.getMessage())
+        .build();
+  }
+
+  @GraphQlExceptionHandler
+  public GraphQLError handleInvalidRequestException(
+      InvalidRequestException ex, DataFetchingEnvironment environment) {
+    return GraphqlErrorBuilder.newError(environment)
+        .errorType(ErrorType.BAD_REQUEST)
+        .message(ex.getMessage())
+        .build();
+  }
+}
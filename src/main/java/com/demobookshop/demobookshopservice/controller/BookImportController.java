@@ -0,0 +1,155 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.ImportJobDto;
+import com.demobookshop.demobookshopservice.service.BookImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books/imports")
+@Tag(name = "Book import", description = "Bulk import of catalog feeds")
+public class BookImportController {
+
+  /** Media type of CSV feeds. */
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  private final BookImportService bookImportService;
+
+  public BookImportController(BookImportService bookImportService) {
+    this.bookImportService = bookImportService;
+  }
+
+  /**
+   * Import a CSV catalog feed.
+   *
+   * @param feed CSV with a header line and the columns uuid, parentUuid, isCatalog, title, author
+   * @return import report
+   */
+  @Operation(
+      summary = "Import a CSV feed",
+      description = "Streams a CSV feed into the catalog. Books are inserted or updated by UUID;"
+          + " invalid records are skipped and listed in the report.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Feed imported",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed feed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping(
+      path = "",
+      consumes = TEXT_CSV_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.CREATED)
+  public ImportJobDto importCsv(InputStream feed) {
+    return bookImportService.importBooks(BookImportService.Format.CSV, feed);
+  }
+
+  /**
+   * Import an NDJSON catalog feed.
+   *
+   * @param feed one JSON book object per line
+   * @return import report
+   */
+  @Operation(
+      summary = "Import an NDJSON feed",
+      description = "Streams an NDJSON feed, one book object per line, into the catalog. Books"
+          + " are inserted or updated by UUID; invalid lines are skipped and listed in the"
+          + " report.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Feed imported",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "400", description = "Malformed feed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping(
+      path = "",
+      consumes = MediaType.APPLICATION_NDJSON_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.CREATED)
+  public ImportJobDto importNdjson(InputStream feed) {
+    return bookImportService.importBooks(BookImportService.Format.NDJSON, feed);
+  }
+
+  /**
+   * Get running and recent imports.
+   *
+   * @return List of ImportJobDto, newest first
+   */
+  @Operation(
+      summary = "Get imports",
+      description = "Retrieves the progress of running imports and the reports of recent ones.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the imports",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ImportJobDto.class)))),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<ImportJobDto> getImports() {
+    return bookImportService.getImports();
+  }
+
+  /**
+   * Get an import by ID.
+   *
+   * @param id ID of the import
+   * @return ImportJobDto
+   */
+  @Operation(
+      summary = "Get import by ID",
+      description = "Retrieves the progress or report of an import.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the import",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "404", description = "Import not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/{id}",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public ImportJobDto getImport(
+      @Parameter(description = "ID of the import", required = true) @PathVariable("id")
+          String id) {
+    return bookImportService.getImport(id);
+  }
+}
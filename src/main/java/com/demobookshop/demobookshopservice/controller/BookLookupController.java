@@ -0,0 +1,183 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookLinkDto;
+import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.util.http.BookETags;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books")
+@Tag(name = "Book lookup", description = "Book lookup by UUID and multi-get API")
+public class BookLookupController {
+
+  private final BookService bookService;
+
+  public BookLookupController(BookService bookService) {
+    this.bookService = bookService;
+  }
+
+  /**
+   * Get the book by UUID. Answers 304 without writing the body when If-None-Match holds the
+   * current ETag of the book.
+   *
+   * @param uuid UUID of the book
+   * @return the BookDto with its ETag and Last-Modified
+   */
+  @Operation(
+      summary = "Get book by UUID",
+      description = "Retrieves a book by its UUID. The response carries the same ETag and"
+          + " Last-Modified as the lookup by ID.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the book",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = BookDto.class))),
+        @ApiResponse(responseCode = "304", description = "Book not modified"),
+        @ApiResponse(responseCode = "400", description = "Malformed UUID"),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/by-uuid/{uuid}",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<BookDto> getBookByUuid(
+      @Parameter(
+              description = "UUID of the book to retrieve",
+              example = "123e4567-e89b-12d3-a456-426614174000",
+              required = true)
+          @PathVariable("uuid")
+          UUID uuid) {
+    BookDto book = bookService.getBookByUuid(uuid);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(BookETags.of(book));
+    if (Objects.nonNull(book.updatedAt())) {
+      response.lastModified(book.updatedAt());
+    }
+    return response.body(book);
+  }
+
+  /**
+   * Get several books by ID in one round trip, for ID lists too long for a query string.
+   *
+   * @param ids IDs of the books
+   * @return one BookBatchResultDto per ID, in request order
+   */
+  @Operation(
+      summary = "Get books by ID",
+      description = "Same as GET /api/v2/books?ids=..., with the IDs as a JSON array. Every"
+          + " requested ID gets a result in request order: status 200 with the book, or 404 if"
+          + " there is no such book.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Per-ID results",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = BookBatchResultDto.class)))),
+        @ApiResponse(responseCode = "400", description = "No ID or too many IDs"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping(
+      path = "/by-id:batch",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.OK)
+  public List<BookBatchResultDto> getBooksById(@RequestBody List<Long> ids) {
+    return bookService.getBooksById(ids);
+  }
+
+  /**
+   * Get several books by UUID with one request.
+   *
+   * @param uuids UUIDs of the books
+   * @return List of BookDto found, in the order of the request
+   */
+  @Operation(
+      summary = "Get books by UUID",
+      description = "Retrieves up to " + BookService.MAX_LOOKUP_SIZE + " books by UUID with a"
+          + " single query. The books come back in the order of the request; duplicate UUIDs"
+          + " are returned once and unknown UUIDs are left out.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the books",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "No UUID, a malformed UUID or too many UUIDs"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @PostMapping(
+      path = "/by-uuid:batch",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.OK)
+  public List<BookDto> getBooksByUuid(@RequestBody List<UUID> uuids) {
+    return bookService.getBooksByUuid(uuids);
+  }
+
+  /**
+   * Get the links to the direct children of a book by its UUID.
+   *
+   * @param uuid UUID of the parent book
+   * @return List of BookLinkDto ordered by ID
+   */
+  @Operation(
+      summary = "Get children by parent UUID",
+      description = "Retrieves the ID, UUID and catalog flag of the direct children of a book,"
+          + " ordered by ID. Fetch a child by ID or UUID for its content.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the children",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookLinkDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Malformed UUID"),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/by-uuid/{uuid}/children",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<BookLinkDto> getChildLinks(
+      @Parameter(
+              description = "UUID of the parent book",
+              example = "123e4567-e89b-12d3-a456-426614174000",
+              required = true)
+          @PathVariable("uuid")
+          UUID uuid) {
+    return bookService.getChildLinks(uuid);
+  }
+}
@@ -0,0 +1,74 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.service.BookSearchService;
+import com.demobookshop.demobookshopservice.service.BookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books")
+@Tag(name = "Book search", description = "Full-text book search API")
+public class BookSearchController {
+
+  private final BookSearchService bookSearchService;
+
+  public BookSearchController(BookSearchService bookSearchService) {
+    this.bookSearchService = bookSearchService;
+  }
+
+  /**
+   * Search books by title and author.
+   *
+   * @param q search text, every word is matched as a prefix
+   * @param after opaque cursor of the previous page
+   * @param limit maximum number of books in the page
+   * @return page of BookDto, most relevant first, with the cursor of the next page
+   */
+  @Operation(
+      summary = "Search books",
+      description = "Searches books by title and author. Every word is matched as a prefix;"
+          + " results are ranked by relevance. Pass the returned nextCursor as 'after' to get"
+          + " the next page.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully searched books",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = BookPageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Empty search text or malformed cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/search",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public BookPageDto searchBooks(
+      @Parameter(description = "Search text", example = "great gats", required = true)
+          @RequestParam(name = "q")
+          String q,
+      @Parameter(description = "Cursor returned with the previous page", example = "MC4xOjE1")
+          @RequestParam(name = "after", required = false)
+          String after,
+      @Parameter(
+              description = "Maximum number of books in the page (1-" + BookService.MAX_PAGE_SIZE
+                  + ")",
+              example = "20")
+          @RequestParam(name = "limit", defaultValue = "20")
+          int limit) {
+    return bookSearchService.search(q, after, limit);
+  }
+}
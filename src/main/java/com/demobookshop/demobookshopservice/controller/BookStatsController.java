@@ -0,0 +1,124 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.AuthorStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.BookStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.CatalogStatsDto;
+import com.demobookshop.demobookshopservice.service.BookStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books/stats")
+@Tag(name = "Book statistics", description = "Catalog statistics API")
+public class BookStatsController {
+
+  private final BookStatsService bookStatsService;
+
+  public BookStatsController(BookStatsService bookStatsService) {
+    this.bookStatsService = bookStatsService;
+  }
+
+  /**
+   * Get the catalog-wide statistics.
+   *
+   * @return BookStatsDto with the totals and the books per depth
+   */
+  @Operation(
+      summary = "Get catalog statistics",
+      description = "Retrieves the number of books and catalogs, in total and per depth of the"
+          + " catalog tree. The figures are precomputed and refreshed shortly after books"
+          + " change; refreshedAt tells how current they are.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the statistics",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = BookStatsDto.class))),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public BookStatsDto getBookStats() {
+    return bookStatsService.getBookStats();
+  }
+
+  /**
+   * Get the authors with the most books.
+   *
+   * @param limit maximum number of authors
+   * @return List of AuthorStatsDto by decreasing number of books
+   */
+  @Operation(
+      summary = "Get top authors",
+      description = "Retrieves the authors with the most books, catalogs excluded. The counts"
+          + " are always current.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the authors",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = AuthorStatsDto.class)))),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/authors",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<AuthorStatsDto> getTopAuthors(
+      @Parameter(description = "Maximum number of authors", example = "10")
+          @RequestParam(name = "limit", defaultValue = "10")
+          int limit) {
+    return bookStatsService.getTopAuthors(limit);
+  }
+
+  /**
+   * Get the number of direct children of a catalog.
+   *
+   * @param id ID of the catalog
+   * @return CatalogStatsDto with the counts
+   */
+  @Operation(
+      summary = "Get catalog children counts",
+      description = "Retrieves the number of books and catalogs directly in a catalog. The"
+          + " counts are always current.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the counts",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = CatalogStatsDto.class))),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/catalogs/{id}",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public CatalogStatsDto getCatalogStats(
+      @Parameter(description = "ID of the catalog", example = "1", required = true)
+          @PathVariable("id")
+          Long id) {
+    return bookStatsService.getCatalogStats(id);
+  }
+}
@@ -0,0 +1,139 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.service.CatalogTreeService;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService.SubtreeSnapshot;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Validated
+@RequestMapping(value = "/api/v2/books")
+@Tag(name = "Catalog tree", description = "Catalog hierarchy navigation API")
+public class CatalogTreeController {
+
+  private final CatalogTreeService catalogTreeService;
+  private final SubtreeSnapshotService subtreeSnapshotService;
+
+  public CatalogTreeController(
+      CatalogTreeService catalogTreeService, SubtreeSnapshotService subtreeSnapshotService) {
+    this.catalogTreeService = catalogTreeService;
+    this.subtreeSnapshotService = subtreeSnapshotService;
+  }
+
+  /**
+   * Get a book and all its descendants. The body is a cached, pre-encoded snapshot.
+   *
+   * @param id ID of the subtree root
+   * @return JSON array of BookDto, root first, level by level
+   */
+  @Operation(
+      summary = "Get subtree",
+      description = "Retrieves a book and all its descendants, level by level. The response"
+          + " carries an ETag; send it back in If-None-Match to get 304 Not Modified while the"
+          + " subtree is unchanged.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the subtree",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
+        @ApiResponse(responseCode = "304", description = "Subtree not modified"),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/{id}/subtree",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<byte[]> getSubtree(
+      @Parameter(description = "ID of the subtree root", example = "1", required = true)
+          @PathVariable("id")
+          Long id) {
+    SubtreeSnapshot snapshot = subtreeSnapshotService.getSubtree(id);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(snapshot.eTag())
+        .body(snapshot.json());
+  }
+
+  /**
+   * Get the ancestors of a book.
+   *
+   * @param id ID of the book
+   * @return List of BookDto from the top-most ancestor down to the direct parent
+   */
+  @Operation(
+      summary = "Get ancestors path",
+      description = "Retrieves the ancestors of a book from the top-most catalog down to its"
+          + " direct parent.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the ancestors",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
+        @ApiResponse(responseCode = "404", description = "Book not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/{id}/ancestors",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<BookDto> getAncestors(
+      @Parameter(description = "ID of the book", example = "2", required = true)
+          @PathVariable("id")
+          Long id) {
+    return catalogTreeService.getAncestors(id);
+  }
+
+  /**
+   * Get the direct children of a catalog.
+   *
+   * @param id ID of the catalog
+   * @return List of BookDto ordered by ID
+   */
+  @Operation(
+      summary = "Get catalog children",
+      description = "Retrieves the direct children of a catalog.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the children",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookDto.class)))),
+        @ApiResponse(responseCode = "404", description = "Catalog not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+      })
+  @GetMapping(
+      path = "/{id}/children",
+      produces = {MediaType.APPLICATION_JSON_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<BookDto> getChildren(
+      @Parameter(description = "ID of the catalog", example = "1", required = true)
+          @PathVariable("id")
+          Long id) {
+    return catalogTreeService.getChildren(id);
+  }
+}
@@ -1,11 +1,18 @@
 package com.demobookshop.demobookshopservice.controller;
 
+import com.demobookshop.demobookshopservice.exception.ChangesExpiredException;
 import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.exception.PreconditionFailedException;
 import com.demobookshop.demobookshopservice.model.ApiErrorResponse;
 import io.swagger.v3.oas.annotations.Hidden;
 import java.time.LocalDateTime;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
@@ -24,4 +31,77 @@ public class GlobalExceptionHandler {
         HttpStatus.NOT_FOUND.value());
     return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
   }
+
+  @ExceptionHandler(InvalidRequestException.class)
+  public ResponseEntity<ApiErrorResponse> handleInvalidRequestException(
+      InvalidRequestException ex, WebRequest request) {
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        ex.getMessage(),
+        ex.getMessage(),
+        LocalDateTime.now().toString(),
+        HttpStatus.BAD_REQUEST.value());
+    return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<ApiErrorResponse> handlePreconditionFailedException(
+      PreconditionFailedException ex, WebRequest request) {
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        ex.getMessage(),
+        ex.getMessage(),
+        LocalDateTime.now().toString(),
+        HttpStatus.PRECONDITION_FAILED.value());
+    return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+  }
+
+  /**
+   * Answers 410 when a change stream consumer asks for changes that were already deleted. The
+   * consumer has to resync from a full read and continue from the current position. The content
+   * type is set explicitly, as change stream clients accept NDJSON or event streams only.
+   */
+  @ExceptionHandler(ChangesExpiredException.class)
+  public ResponseEntity<ApiErrorResponse> handleChangesExpiredException(
+      ChangesExpiredException ex, WebRequest request) {
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        ex.getMessage(),
+        ex.getMessage(),
+        LocalDateTime.now().toString(),
+        HttpStatus.GONE.value());
+    return ResponseEntity.status(HttpStatus.GONE)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(errorResponse);
+  }
+
+  /**
+   * Answers 409 when a concurrent update committed between reading a book and writing it, so the
+   * version check of the UPDATE failed. The client should re-read the book and retry.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ApiErrorResponse> handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException ex, WebRequest request) {
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        "Book was changed by a concurrent update, re-read and retry",
+        ex.getMessage(),
+        LocalDateTime.now().toString(),
+        HttpStatus.CONFLICT.value());
+    return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+  }
+
+  /**
+   * Answers 503 when no database connection could be acquired within the pool's connection
+   * timeout. With virtual threads, requests queue on the pool rather than on the web server, so
+   * this is the signal that the service is saturated.
+   */
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  public ResponseEntity<ApiErrorResponse> handleCannotCreateTransactionException(
+      CannotCreateTransactionException ex, WebRequest request) {
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        "Service is overloaded, retry later",
+        ex.getMessage(),
+        LocalDateTime.now().toString(),
+        HttpStatus.SERVICE_UNAVAILABLE.value());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(errorResponse);
+  }
 }
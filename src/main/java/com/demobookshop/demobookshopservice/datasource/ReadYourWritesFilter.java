@@ -0,0 +1,79 @@
+package com.demobookshop.demobookshopservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Keeps a client's reads on the primary for a short window after it sent a write, so it reads its
+ * own writes although the replica lags behind. A write request, any method but GET, HEAD, OPTIONS
+ * and TRACE, sets a cookie holding the end of the window; while it lasts, the requests of that
+ * client are pinned to the primary. Only the request thread is pinned, bodies streamed on the
+ * async executor read the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  /** Cookie holding the epoch millisecond until which reads go to the primary. */
+  public static final String COOKIE_NAME = "bookshop-primary-until";
+
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return window.isZero() || window.isNegative();
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long now = System.currentTimeMillis();
+    boolean write = !SAFE_METHODS.contains(request.getMethod());
+    if (write) {
+      // Set before the chain runs, the response may be committed by then
+      Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + window.toMillis()));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+      response.addCookie(cookie);
+    }
+    if (write || primaryUntil(request) > now) {
+      ReplicaRoutingDataSource.pinToPrimary();
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReplicaRoutingDataSource.unpin();
+    }
+  }
+
+  private static long primaryUntil(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (Objects.isNull(cookies)) {
+      return 0L;
+    }
+    for (Cookie cookie : cookies) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+          return 0L;
+        }
+      }
+    }
+    return 0L;
+  }
+}
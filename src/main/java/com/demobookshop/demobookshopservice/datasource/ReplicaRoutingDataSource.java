@@ -0,0 +1,100 @@
+package com.demobookshop.demobookshopservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Data source of read-only transactions. They go to the replica unless the current thread is
+ * pinned to the primary, as a request is right after its client sent a write. Counts the
+ * connections per target as {@code bookshop.datasource.read.connections}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+  private enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private final Counter primaryConnections;
+  private final Counter replicaConnections;
+
+  /**
+   * Creates the data source.
+   *
+   * @param replica the replica pool
+   * @param primary the primary pool
+   * @param meterRegistry the registry of the connection counters
+   */
+  public ReplicaRoutingDataSource(
+      DataSource replica, DataSource primary, MeterRegistry meterRegistry) {
+    setTargetDataSources(Map.of(Target.REPLICA, replica, Target.PRIMARY, primary));
+    setDefaultTargetDataSource(replica);
+    setLenientFallback(false);
+    afterPropertiesSet();
+    this.primaryConnections = readConnections(meterRegistry, Target.PRIMARY);
+    this.replicaConnections = readConnections(meterRegistry, Target.REPLICA);
+  }
+
+  /** Sends the read-only transactions of the current thread to the primary. */
+  public static void pinToPrimary() {
+    PINNED_TO_PRIMARY.set(Boolean.TRUE);
+  }
+
+  /** Sends the read-only transactions of the current thread back to the replica. */
+  public static void unpin() {
+    PINNED_TO_PRIMARY.remove();
+  }
+
+  /**
+   * Runs work with the read-only transactions of the current thread on the primary, for reads
+   * whose result outlives the request and must not lag behind. A pin already held by the thread
+   * is kept.
+   *
+   * @param work the work to run
+   * @param <T> the type of the result
+   * @return the result of {@code work}
+   */
+  public static <T> T onPrimary(Supplier<T> work) {
+    if (isPinnedToPrimary()) {
+      return work.get();
+    }
+    pinToPrimary();
+    try {
+      return work.get();
+    } finally {
+      unpin();
+    }
+  }
+
+  /**
+   * Tells whether the read-only transactions of the current thread go to the primary.
+   *
+   * @return {@code true} if the thread is pinned to the primary
+   */
+  public static boolean isPinnedToPrimary() {
+    return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (isPinnedToPrimary()) {
+      primaryConnections.increment();
+      return Target.PRIMARY;
+    }
+    replicaConnections.increment();
+    return Target.REPLICA;
+  }
+
+  private static Counter readConnections(MeterRegistry meterRegistry, Target target) {
+    return Counter.builder("bookshop.datasource.read.connections")
+        .description("Connections of read-only transactions")
+        .tag("target", target.name().toLowerCase())
+        .register(meterRegistry);
+  }
+}
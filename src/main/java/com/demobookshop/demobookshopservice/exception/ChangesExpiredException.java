@@ -0,0 +1,21 @@
+package com.demobookshop.demobookshopservice.exception;
+
+import java.io.Serial;
+
+public class ChangesExpiredException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1_345_681L;
+
+  public ChangesExpiredException(String message) {
+    super(message);
+  }
+
+  public ChangesExpiredException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ChangesExpiredException(Throwable cause) {
+    super(cause);
+  }
+}
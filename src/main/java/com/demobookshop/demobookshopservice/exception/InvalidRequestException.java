@@ -0,0 +1,21 @@
+package com.demobookshop.demobookshopservice.exception;
+
+import java.io.Serial;
+
+public class InvalidRequestException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1_345_679L;
+
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+
+  public InvalidRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public InvalidRequestException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -0,0 +1,21 @@
+package com.demobookshop.demobookshopservice.exception;
+
+import java.io.Serial;
+
+public class PreconditionFailedException extends RuntimeException {
+
+  @Serial
+  private static final long serialVersionUID = 1_345_680L;
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+
+  public PreconditionFailedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public PreconditionFailedException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -0,0 +1,110 @@
+package com.demobookshop.demobookshopservice.limit;
+
+import com.demobookshop.demobookshopservice.model.ApiErrorResponse;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Sheds load before it reaches the controllers. A request is admitted by the {@link
+ * ConcurrencyLimiter} according to its {@link RequestPriority}, or answered 503 with Retry-After
+ * right away, without touching the connection pool. Streamed responses keep their permit until
+ * the async request completes, as they hold a connection until then. Change feed event streams
+ * bypass the limiter, see {@link RequestPriority#isEventStream}. A 503 from the application,
+ * raised when no connection could be acquired, counts as a dropped request and backs the limit
+ * off.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private final ConcurrencyLimiter limiter;
+  private final Duration retryAfter;
+  private final JsonMapper jsonMapper;
+
+  public ConcurrencyLimitFilter(
+      ConcurrencyLimiter limiter, Duration retryAfter, JsonMapper jsonMapper) {
+    this.limiter = limiter;
+    this.retryAfter = retryAfter;
+    this.jsonMapper = jsonMapper;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (RequestPriority.isEventStream(request)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    Optional<ConcurrencyLimiter.Permit> permit = limiter.tryAcquire(RequestPriority.of(request));
+    if (permit.isEmpty()) {
+      reject(response);
+      return;
+    }
+    boolean async = false;
+    try {
+      filterChain.doFilter(request, response);
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new PermitReleasingListener(permit.get()));
+        async = true;
+      }
+    } finally {
+      if (!async) {
+        permit.get().release(isDropped(response));
+      }
+    }
+  }
+
+  private void reject(HttpServletResponse response) throws IOException {
+    String message = "Service is overloaded, retry later";
+    ApiErrorResponse errorResponse = new ApiErrorResponse(
+        message,
+        "Concurrency limit of " + limiter.getLimit() + " reached",
+        LocalDateTime.now().toString(),
+        HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+    response.setHeader(
+        HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1L, retryAfter.toSeconds())));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    jsonMapper.writeValue(response.getOutputStream(), errorResponse);
+  }
+
+  private static boolean isDropped(HttpServletResponse response) {
+    return response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+  }
+
+  private record PermitReleasingListener(ConcurrencyLimiter.Permit permit)
+      implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      permit.release(isDropped((HttpServletResponse) event.getSuppliedResponse()));
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      permit.release(true);
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      permit.release(false);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // The listener is registered on the running async request, nothing to do on a restart
+    }
+  }
+}
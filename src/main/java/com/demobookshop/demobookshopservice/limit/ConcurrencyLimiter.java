@@ -0,0 +1,195 @@
+package com.demobookshop.demobookshopservice.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits requests up to the adaptive concurrency limit. Each priority class may fill a share of
+ * the limit, so critical requests still get in while bulk reads are turned away. Critical and
+ * normal requests over their share wait briefly for a permit; bulk requests are rejected at once.
+ * The time a bulk read takes grows with the catalog, not with queueing, so it is not fed to the
+ * limit as a latency sample; only its drops are.
+ *
+ * <p>Publishes {@code bookshop.concurrency.limit}, {@code .inflight} and {@code .queued} gauges,
+ * the {@code bookshop.concurrency.rejected} counter and the {@code
+ * bookshop.concurrency.queue.wait} timer, tagged with the priority class.
+ */
+public class ConcurrencyLimiter {
+
+  private final GradientLimit limit;
+  private final Map<RequestPriority, Double> shares;
+  private final long queueTimeoutNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permitReleased = lock.newCondition();
+  private int inflight;
+  private int queued;
+
+  private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+  private final Map<RequestPriority, Timer> queueWait = new EnumMap<>(RequestPriority.class);
+
+  /**
+   * @param limit the adaptive limit
+   * @param normalShare share of the limit normal requests may fill
+   * @param bulkShare share of the limit bulk requests may fill
+   * @param queueTimeout how long critical and normal requests wait for a permit
+   * @param meterRegistry registry of the limiter metrics
+   */
+  public ConcurrencyLimiter(
+      GradientLimit limit,
+      double normalShare,
+      double bulkShare,
+      Duration queueTimeout,
+      MeterRegistry meterRegistry) {
+    this.limit = limit;
+    this.shares = Map.of(
+        RequestPriority.CRITICAL, 1.0,
+        RequestPriority.NORMAL, normalShare,
+        RequestPriority.BULK, bulkShare);
+    this.queueTimeoutNanos = queueTimeout.toNanos();
+    Gauge.builder("bookshop.concurrency.limit", limit, GradientLimit::getLimit)
+        .description("Adaptive limit of concurrent requests")
+        .register(meterRegistry);
+    Gauge.builder("bookshop.concurrency.inflight", this, ConcurrencyLimiter::getInflight)
+        .description("Requests holding a permit")
+        .register(meterRegistry);
+    Gauge.builder("bookshop.concurrency.queued", this, ConcurrencyLimiter::getQueued)
+        .description("Requests waiting for a permit")
+        .register(meterRegistry);
+    for (RequestPriority priority : RequestPriority.values()) {
+      String tag = priority.name().toLowerCase(Locale.ROOT);
+      rejected.put(
+          priority,
+          Counter.builder("bookshop.concurrency.rejected")
+              .description("Requests rejected over the concurrency limit")
+              .tag("priority", tag)
+              .register(meterRegistry));
+      queueWait.put(
+          priority,
+          Timer.builder("bookshop.concurrency.queue.wait")
+              .description("Time requests waited for a permit")
+              .tag("priority", tag)
+              .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Acquires a permit for a request, waiting up to the queue timeout unless it is a bulk request.
+   *
+   * @param priority priority class of the request
+   * @return the permit, empty if the request is rejected
+   */
+  public Optional<Permit> tryAcquire(RequestPriority priority) {
+    long start = System.nanoTime();
+    long remaining = priority == RequestPriority.BULK ? 0L : queueTimeoutNanos;
+    boolean waited = false;
+    int inflightAtStart;
+    lock.lock();
+    try {
+      while (inflight >= allowed(priority)) {
+        if (remaining <= 0L) {
+          rejected.get(priority).increment();
+          return Optional.empty();
+        }
+        waited = true;
+        queued++;
+        try {
+          remaining = permitReleased.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          rejected.get(priority).increment();
+          return Optional.empty();
+        } finally {
+          queued--;
+        }
+      }
+      inflightAtStart = ++inflight;
+    } finally {
+      lock.unlock();
+    }
+    long acquired = System.nanoTime();
+    if (waited) {
+      queueWait.get(priority).record(acquired - start, TimeUnit.NANOSECONDS);
+    }
+    return Optional.of(
+        new Permit(acquired, inflightAtStart, priority != RequestPriority.BULK));
+  }
+
+  /** Gets the current concurrency limit. */
+  public int getLimit() {
+    return limit.getLimit();
+  }
+
+  int getInflight() {
+    lock.lock();
+    try {
+      return inflight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getQueued() {
+    lock.lock();
+    try {
+      return queued;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int allowed(RequestPriority priority) {
+    return Math.max(1, (int) (limit.getLimit() * shares.get(priority)));
+  }
+
+  private void release(Permit permit, boolean dropped) {
+    if (permit.sampled || dropped) {
+      limit.onSample(System.nanoTime() - permit.acquiredNanos, permit.inflight, dropped);
+    }
+    lock.lock();
+    try {
+      inflight--;
+      permitReleased.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Admission of one request, released once when the request completes. */
+  public final class Permit {
+
+    private final long acquiredNanos;
+    private final int inflight;
+    private final boolean sampled;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long acquiredNanos, int inflight, boolean sampled) {
+      this.acquiredNanos = acquiredNanos;
+      this.inflight = inflight;
+      this.sampled = sampled;
+    }
+
+    /**
+     * Releases the permit and feeds the request's latency, unless it was a bulk read, to the
+     * limit. Later calls do nothing.
+     *
+     * @param dropped whether the request failed for lack of resources
+     */
+    public void release(boolean dropped) {
+      if (released.compareAndSet(false, true)) {
+        ConcurrencyLimiter.this.release(this, dropped);
+      }
+    }
+  }
+}
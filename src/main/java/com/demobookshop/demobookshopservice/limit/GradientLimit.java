@@ -0,0 +1,83 @@
+package com.demobookshop.demobookshopservice.limit;
+
+/**
+ * Concurrency limit adjusted from the latency of completed requests, after the gradient algorithm
+ * of Netflix' concurrency-limits. A short and a long exponential average of the round trip time
+ * are kept; while the short one stays near the long one, the limit grows by a small queue
+ * allowance, and once requests queue up, for instance on the connection pool, the short average
+ * rises and the gradient {@code long / short} scales the limit down. A dropped request, one the
+ * service failed to serve for lack of resources, backs the limit off at once.
+ */
+public class GradientLimit {
+
+  private static final int SHORT_WINDOW = 10;
+  private static final int LONG_WINDOW = 600;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double DROP_BACKOFF = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double smoothing;
+  private final double rttTolerance;
+
+  private volatile double limit;
+  private double shortRtt;
+  private double longRtt;
+
+  /**
+   * @param initialLimit limit before the first sample
+   * @param minLimit lowest limit, kept even when latency degrades
+   * @param maxLimit highest limit
+   * @param smoothing weight of a new limit against the current one, between 0 and 1
+   * @param rttTolerance how much slower than the long average requests may get before the limit
+   *     is lowered, at least 1
+   */
+  public GradientLimit(
+      int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.smoothing = smoothing;
+    this.rttTolerance = rttTolerance;
+    this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  /** Gets the current limit. */
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Adjusts the limit to a completed request.
+   *
+   * @param rttNanos time the request took
+   * @param inflight requests in flight when it started, itself included
+   * @param dropped whether the request failed for lack of resources
+   * @return the new limit
+   */
+  public synchronized int onSample(long rttNanos, int inflight, boolean dropped) {
+    double current = limit;
+    if (dropped) {
+      limit = Math.max(minLimit, current * DROP_BACKOFF);
+      return getLimit();
+    }
+    double rtt = Math.max(1L, rttNanos);
+    if (longRtt == 0.0) {
+      shortRtt = rtt;
+      longRtt = rtt;
+    }
+    shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+    longRtt += (rtt - longRtt) / LONG_WINDOW;
+    // After a long overload the long average is inflated, let it follow the recovery quickly
+    if (longRtt / shortRtt > 2.0) {
+      longRtt *= 0.95;
+    }
+    // Latency says nothing about a limit the traffic does not come near
+    if (inflight < current / 2) {
+      return getLimit();
+    }
+    double gradient = Math.clamp(rttTolerance * longRtt / shortRtt, MIN_GRADIENT, 1.0);
+    double target = current * gradient + Math.sqrt(current);
+    limit = Math.clamp(current * (1 - smoothing) + target * smoothing, minLimit, maxLimit);
+    return getLimit();
+  }
+}
@@ -0,0 +1,79 @@
+package com.demobookshop.demobookshopservice.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Priority classes of book requests under load. Full scans hold a database connection for the
+ * whole response and are shed first; writes and single book reads are served as long as possible.
+ * Followers of the change feed are not limited at all: the stream lasts minutes but only borrows a
+ * connection for each short poll.
+ */
+public enum RequestPriority {
+  /** Writes and reads of a single book by ID or UUID. */
+  CRITICAL,
+  /** Bounded reads: pages, multi-gets, search, catalog tree, change pages, statistics. */
+  NORMAL,
+  /** Reads of the whole catalog: the unpaged book list and the NDJSON stream. */
+  BULK;
+
+  private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private static final Pattern BOOK_BY_ID = Pattern.compile("/api/(v1/book|v2/books)/\\d+/?");
+  private static final Pattern BOOK_BY_UUID =
+      Pattern.compile("/api/v2/books/by-uuid/[0-9a-fA-F-]{36}/?");
+  private static final Pattern BATCH_LOOKUP = Pattern.compile("/api/v2/books/by-(id|uuid):batch");
+  private static final Pattern ALL_BOOKS = Pattern.compile("/api/(v1/book|v2/books)(/stream)?/?");
+  private static final Pattern CHANGES = Pattern.compile("/api/v2/books/changes/?");
+
+  /**
+   * Tells whether a request follows the change feed as server-sent events, which is left out of
+   * the limit.
+   *
+   * @param request the request
+   * @return {@code true} for a change feed event stream
+   */
+  public static boolean isEventStream(HttpServletRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    return "GET".equals(request.getMethod())
+        && CHANGES.matcher(path(request)).matches()
+        && Objects.nonNull(accept)
+        && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+  }
+
+  /**
+   * Classifies a request by its method and path.
+   *
+   * @param request the request
+   * @return its priority class
+   */
+  public static RequestPriority of(HttpServletRequest request) {
+    String path = path(request);
+    // Batch lookups are reads sent as POST
+    if (BATCH_LOOKUP.matcher(path).matches()) {
+      return NORMAL;
+    }
+    if (!SAFE_METHODS.contains(request.getMethod())) {
+      return CRITICAL;
+    }
+    if (BOOK_BY_ID.matcher(path).matches() || BOOK_BY_UUID.matcher(path).matches()) {
+      return CRITICAL;
+    }
+    // A limit parameter turns the book list into a keyset page, an ids parameter into a multi-get
+    if (ALL_BOOKS.matcher(path).matches()
+        && (path.contains("/stream")
+            || (Objects.isNull(request.getParameter("limit"))
+                && Objects.isNull(request.getParameter("ids"))))) {
+      return BULK;
+    }
+    return NORMAL;
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+}
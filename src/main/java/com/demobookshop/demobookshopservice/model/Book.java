@@ -1,17 +1,34 @@
 package com.demobookshop.demobookshopservice.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 import org.hibernate.annotations.Comment;
-
+import org.hibernate.annotations.SoftDelete;
+import org.hibernate.annotations.SoftDeleteType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * Book or catalog entity. Deleting a book only sets its DELETED column: the row stays as a
+ * tombstone for delta sync and is left out of every entity query. Native queries have to filter
+ * on {@code NOT DELETED} themselves.
+ */
 @Entity
 @Table(name = "BOOKS")
+@SoftDelete(columnName = "DELETED", strategy = SoftDeleteType.DELETED)
 public class Book {
 
+  /** Number of IDs reserved by one call to BOOKS_ID_SEQ. */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
   @Column(name = "ID")
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_id_seq")
+  @SequenceGenerator(
+      name = "books_id_seq",
+      sequenceName = "BOOKS_ID_SEQ",
+      allocationSize = ID_ALLOCATION_SIZE)
   @Comment("Unique identifier for the book - PRIMARY KEY.")
   private Long id;
 
@@ -34,6 +51,16 @@ public class Book {
   @Column(name = "AUTHOR")
   private String author;
 
+  @Version
+  @Column(name = "VERSION")
+  @Comment("Optimistic lock counter, incremented by every update.")
+  private long version;
+
+  @UpdateTimestamp
+  @Column(name = "UPDATED_AT")
+  @Comment("Time of the last change.")
+  private Instant updatedAt;
+
   public Book() {}
 
   public Book(
@@ -109,6 +136,22 @@ public class Book {
     this.author = author;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -136,6 +179,7 @@ public class Book {
         + parentUuid + ", isCatalog="
         + isCatalog + ", title='"
         + title + '\'' + ", author='"
-        + author + '\'' + '}';
+        + author + '\'' + ", version="
+        + version + '}';
   }
 }
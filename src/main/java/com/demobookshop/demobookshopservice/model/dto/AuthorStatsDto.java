@@ -0,0 +1,24 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Number of books of an author.
+ *
+ * @param author book author
+ * @param bookCount number of books of the author, catalogs excluded
+ */
+@Schema(name = "Author stats", description = "Number of books of an author")
+public record AuthorStatsDto(
+    @Schema(description = "Book Author", example = "J.R.R. Tolkien") @JsonProperty("author")
+    String author,
+
+    @Schema(description = "Number of books", example = "12") @JsonProperty("bookCount")
+    long bookCount)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
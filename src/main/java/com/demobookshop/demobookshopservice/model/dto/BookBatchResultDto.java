@@ -0,0 +1,52 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Result of one item of a batch request.
+ *
+ * @param index position of the item in the request
+ * @param status HTTP status code of the item
+ * @param id ID of the affected book, if known
+ * @param book state of the book after the operation, for creations and updates
+ * @param error error message of a failed item
+ */
+@Schema(name = "BookBatchResult", description = "Result of one item of a batch request")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookBatchResultDto(
+    @Schema(description = "Position of the item in the request", example = "0")
+    @JsonProperty("index")
+    int index,
+
+    @Schema(description = "HTTP status code of the item", example = "201") @JsonProperty("status")
+    int status,
+
+    @Schema(description = "Book ID", example = "1") @JsonProperty("id")
+    Long id,
+
+    @Schema(description = "Book after the operation") @JsonProperty("book")
+    BookDto book,
+
+    @Schema(description = "Error message", example = "Book not found with ID: 99")
+    @JsonProperty("error")
+    String error)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+
+  public static BookBatchResultDto succeeded(int index, int status, BookDto book) {
+    return new BookBatchResultDto(index, status, book.id(), book, null);
+  }
+
+  public static BookBatchResultDto deleted(int index, Long id) {
+    return new BookBatchResultDto(index, 204, id, null, null);
+  }
+
+  public static BookBatchResultDto failed(int index, int status, Long id, String error) {
+    return new BookBatchResultDto(index, status, id, null, error);
+  }
+}
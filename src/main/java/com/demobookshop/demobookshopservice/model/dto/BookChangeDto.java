@@ -0,0 +1,47 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent.ChangeType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Published change of a book, read from the outbox.
+ *
+ * @param position offset of the change in the stream; pass the last one read as {@code since} to
+ *     resume
+ * @param type the kind of change
+ * @param bookId ID of the changed book
+ * @param book the book after the change, or its last state for deletions, as the JSON written
+ *     with the change
+ * @param changedAt time of the change
+ */
+@Schema(name = "BookChange", description = "Published change of a book")
+public record BookChangeDto(
+    @Schema(description = "Offset of the change in the stream", example = "42")
+    @JsonProperty("position")
+    long position,
+
+    @Schema(description = "Kind of change", example = "UPDATED") @JsonProperty("type")
+    ChangeType type,
+
+    @Schema(description = "ID of the changed book", example = "15") @JsonProperty("bookId")
+    long bookId,
+
+    @Schema(
+        description = "Book after the change, last state for deletions",
+        implementation = BookDto.class)
+    @JsonProperty("book")
+    @JsonRawValue
+    String book,
+
+    @Schema(description = "Time of the change", example = "2026-10-18T12:00:00Z")
+    @JsonProperty("changedAt")
+    Instant changedAt)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,36 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Books changed since a delta token.
+ *
+ * @param upserts books created or updated since the token, to insert or replace by ID
+ * @param deletedIds IDs of books deleted since the token
+ * @param nextToken opaque token to pass as {@code since} on the next call
+ * @param hasMore whether more changes are waiting; call again right away with {@code nextToken}
+ */
+@Schema(name = "BookDelta", description = "Books changed since a delta token")
+public record BookDeltaDto(
+    @Schema(description = "Books created or updated since the token") @JsonProperty("upserts")
+    List<BookDto> upserts,
+
+    @Schema(description = "IDs of books deleted since the token", example = "[15, 16]")
+    @JsonProperty("deletedIds")
+    List<Long> deletedIds,
+
+    @Schema(description = "Token to pass as 'since' on the next call", example = "MTIzOjA6MTc2")
+    @JsonProperty("nextToken")
+    String nextToken,
+
+    @Schema(description = "Whether more changes are waiting", example = "false")
+    @JsonProperty("hasMore")
+    boolean hasMore)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -1,9 +1,13 @@
 package com.demobookshop.demobookshopservice.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.io.Serial;
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Book Data Transfer Object (DTO).
@@ -15,6 +19,10 @@ import java.io.Serializable;
  * @param isCatalog Indicates if the entity is a catalog.
  * @param title book Title.
  * @param author book Author.
+ * @param version optimistic lock version, {@code null} if not read from the database. Not part of
+ *     the JSON body; sent as the ETag.
+ * @param updatedAt time of the last change, {@code null} if not read from the database. Not part
+ *     of the JSON body; sent as Last-Modified.
  */
 @Schema(name = "Book", description = "Book DTO")
 public record BookDto(
@@ -39,8 +47,51 @@ public record BookDto(
     String title,
 
     @Schema(description = "Book Author", example = "F. Scott Fitzgerald") @JsonProperty("author")
-    String author)
+    String author,
+
+    @Schema(hidden = true) @JsonIgnore
+    Long version,
+
+    @Schema(hidden = true) @JsonIgnore
+    Instant updatedAt)
     implements Serializable {
   @Serial
-  private static final long serialVersionUID = 12L;
+  private static final long serialVersionUID = 13L;
+
+  public BookDto(
+      Long id,
+      String uuid,
+      Long parentId,
+      String parentUuid,
+      boolean isCatalog,
+      String title,
+      String author) {
+    this(id, uuid, parentId, parentUuid, isCatalog, title, author, null, null);
+  }
+
+  /**
+   * Creates a DTO from the column values of a book, as selected by the {@code BOOK_DTO}
+   * constructor expression of {@code BookRepository}.
+   */
+  public BookDto(
+      Long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author,
+      long version,
+      Instant updatedAt) {
+    this(
+        id,
+        uuid.toString(),
+        parentId,
+        Objects.isNull(parentUuid) ? null : parentUuid.toString(),
+        isCatalog,
+        title,
+        author,
+        version,
+        updatedAt);
+  }
 }
@@ -0,0 +1,29 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Link to a book: its identifiers and whether it is a catalog, without its content.
+ *
+ * @param id book ID
+ * @param uuid book UUID
+ * @param isCatalog Indicates if the entity is a catalog.
+ */
+@Schema(name = "Book link", description = "Identifiers of a book")
+public record BookLinkDto(
+    @Schema(description = "Book ID", example = "2") @JsonProperty("id")
+    Long id,
+
+    @Schema(description = "Book UUID", example = "123e4567-e89b-12d3-a456-426614174000")
+    @JsonProperty("uuid")
+    String uuid,
+
+    @Schema(description = "Element is Catalog", example = "false") @JsonProperty("isCatalog")
+    boolean isCatalog)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
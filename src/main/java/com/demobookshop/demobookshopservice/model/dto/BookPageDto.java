@@ -0,0 +1,26 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Keyset page of books.
+ *
+ * @param items books of the page, in the order of the listing
+ * @param nextCursor opaque cursor of the next page, {@code null} on the last page
+ */
+@Schema(name = "BookPage", description = "Keyset page of books")
+public record BookPageDto(
+    @Schema(description = "Books of the page in listing order") @JsonProperty("items")
+    List<BookDto> items,
+
+    @Schema(description = "Opaque cursor of the next page, null on the last page", example = "MTU")
+    @JsonProperty("nextCursor")
+    String nextCursor)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
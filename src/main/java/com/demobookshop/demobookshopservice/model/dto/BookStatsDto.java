@@ -0,0 +1,40 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Catalog-wide statistics, as of the last refresh of the books per depth.
+ *
+ * @param bookCount total number of books
+ * @param catalogCount total number of catalogs
+ * @param maxDepth depth of the deepest element, {@code -1} for an empty catalog
+ * @param byDepth books and catalogs per depth, by increasing depth
+ * @param refreshedAt time of the last refresh, {@code null} for an empty catalog
+ */
+@Schema(name = "Book stats", description = "Catalog-wide statistics")
+public record BookStatsDto(
+    @Schema(description = "Total number of books", example = "1200") @JsonProperty("bookCount")
+    long bookCount,
+
+    @Schema(description = "Total number of catalogs", example = "40") @JsonProperty("catalogCount")
+    long catalogCount,
+
+    @Schema(description = "Depth of the deepest element, -1 if empty", example = "3")
+    @JsonProperty("maxDepth")
+    int maxDepth,
+
+    @Schema(description = "Books and catalogs per depth") @JsonProperty("byDepth")
+    List<DepthStatsDto> byDepth,
+
+    @Schema(description = "Time of the last refresh", example = "2026-10-18T10:15:30Z")
+    @JsonProperty("refreshedAt")
+    Instant refreshedAt)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,30 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Number of direct children of a catalog.
+ *
+ * @param catalogId catalog ID
+ * @param bookCount number of books directly in the catalog
+ * @param catalogCount number of catalogs directly in the catalog
+ */
+@Schema(name = "Catalog stats", description = "Number of direct children of a catalog")
+public record CatalogStatsDto(
+    @Schema(description = "Catalog ID", example = "1") @JsonProperty("catalogId")
+    Long catalogId,
+
+    @Schema(description = "Number of books directly in the catalog", example = "25")
+    @JsonProperty("bookCount")
+    long bookCount,
+
+    @Schema(description = "Number of catalogs directly in the catalog", example = "2")
+    @JsonProperty("catalogCount")
+    long catalogCount)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,29 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Number of books and catalogs at one depth of the catalog tree.
+ *
+ * @param depth depth in the tree, {@code 0} for top-level books
+ * @param bookCount number of books at that depth
+ * @param catalogCount number of catalogs at that depth
+ */
+@Schema(name = "Depth stats", description = "Books and catalogs at one depth of the catalog tree")
+public record DepthStatsDto(
+    @Schema(description = "Depth in the tree, 0 for top-level books", example = "1")
+    @JsonProperty("depth")
+    int depth,
+
+    @Schema(description = "Number of books", example = "120") @JsonProperty("bookCount")
+    long bookCount,
+
+    @Schema(description = "Number of catalogs", example = "4") @JsonProperty("catalogCount")
+    long catalogCount)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,25 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Rejected record of a bulk import.
+ *
+ * @param line line of the record in the uploaded feed
+ * @param error reason of the rejection
+ */
+@Schema(name = "ImportError", description = "Rejected record of a bulk import")
+public record ImportErrorDto(
+    @Schema(description = "Line of the record in the feed", example = "3") @JsonProperty("line")
+    long line,
+
+    @Schema(description = "Reason of the rejection", example = "Invalid UUID: 123")
+    @JsonProperty("error")
+    String error)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,78 @@
+package com.demobookshop.demobookshopservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Progress and outcome of a bulk import.
+ *
+ * @param id import ID
+ * @param format feed format, {@code CSV} or {@code NDJSON}
+ * @param status current phase of the import
+ * @param bytesRead number of feed bytes received so far
+ * @param rowsStaged number of records copied into the staging table
+ * @param rowsInserted number of new books
+ * @param rowsUpdated number of existing books updated by UUID
+ * @param rowsRejected number of records rejected by validation
+ * @param startedAt start time, ISO-8601
+ * @param finishedAt end time, ISO-8601, while running {@code null}
+ * @param durationMillis elapsed time in milliseconds
+ * @param rowsPerSecond staged records per second
+ * @param errors first rejected records, in feed order
+ * @param message failure message of a failed import
+ */
+@Schema(name = "ImportJob", description = "Progress and outcome of a bulk import")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportJobDto(
+    @Schema(description = "Import ID", example = "5f0c6d2e-3b1a-4f7e-9a51-0c2d8e4b7a10")
+    @JsonProperty("id")
+    String id,
+
+    @Schema(description = "Feed format", example = "CSV") @JsonProperty("format")
+    String format,
+
+    @Schema(description = "Current phase", example = "COMPLETED") @JsonProperty("status")
+    String status,
+
+    @Schema(description = "Feed bytes received", example = "1048576") @JsonProperty("bytesRead")
+    long bytesRead,
+
+    @Schema(description = "Records staged", example = "10000") @JsonProperty("rowsStaged")
+    long rowsStaged,
+
+    @Schema(description = "Books inserted", example = "9000") @JsonProperty("rowsInserted")
+    long rowsInserted,
+
+    @Schema(description = "Books updated", example = "990") @JsonProperty("rowsUpdated")
+    long rowsUpdated,
+
+    @Schema(description = "Records rejected", example = "10") @JsonProperty("rowsRejected")
+    long rowsRejected,
+
+    @Schema(description = "Start time", example = "2026-10-18T10:15:30Z") @JsonProperty("startedAt")
+    String startedAt,
+
+    @Schema(description = "End time", example = "2026-10-18T10:15:32Z") @JsonProperty("finishedAt")
+    String finishedAt,
+
+    @Schema(description = "Elapsed time in milliseconds", example = "2000")
+    @JsonProperty("durationMillis")
+    long durationMillis,
+
+    @Schema(description = "Staged records per second", example = "5000")
+    @JsonProperty("rowsPerSecond")
+    long rowsPerSecond,
+
+    @Schema(description = "First rejected records") @JsonProperty("errors")
+    List<ImportErrorDto> errors,
+
+    @Schema(description = "Failure message") @JsonProperty("message")
+    String message)
+    implements Serializable {
+  @Serial
+  private static final long serialVersionUID = 1L;
+}
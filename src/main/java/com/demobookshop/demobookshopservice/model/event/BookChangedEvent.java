@@ -0,0 +1,33 @@
+package com.demobookshop.demobookshopservice.model.event;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+
+/**
+ * Application event published by the service layer whenever a book is created, updated or
+ * deleted. Listeners that keep derived state (indexes, caches) react to it after commit.
+ *
+ * @param type the kind of change
+ * @param book the state of the book after the change, or the last state for deletions
+ * @param previousParentId the parent ID before the change, {@code null} for creations
+ */
+public record BookChangedEvent(ChangeType type, BookDto book, Long previousParentId) {
+
+  /** Kind of change applied to a book. */
+  public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+
+  public static BookChangedEvent created(BookDto book) {
+    return new BookChangedEvent(ChangeType.CREATED, book, null);
+  }
+
+  public static BookChangedEvent updated(BookDto book, Long previousParentId) {
+    return new BookChangedEvent(ChangeType.UPDATED, book, previousParentId);
+  }
+
+  public static BookChangedEvent deleted(BookDto book) {
+    return new BookChangedEvent(ChangeType.DELETED, book, book.parentId());
+  }
+}
@@ -0,0 +1,10 @@
+package com.demobookshop.demobookshopservice.model.event;
+
+/**
+ * Application event published after a bulk operation changed books outside the entity lifecycle,
+ * so no {@link BookChangedEvent} exists per book. Listeners drop or rebuild their derived state.
+ *
+ * @param source short name of the operation, e.g. {@code import}
+ * @param affectedRows number of inserted and updated rows
+ */
+public record BooksBulkChangedEvent(String source, long affectedRows) {}
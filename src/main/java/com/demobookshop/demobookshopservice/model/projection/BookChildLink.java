@@ -0,0 +1,13 @@
+package com.demobookshop.demobookshopservice.model.projection;
+
+import java.util.UUID;
+
+/** Projection of a child link of a book, read by an index-only scan of IDX_BOOKS_PARENT_UUID. */
+public interface BookChildLink {
+
+  Long getId();
+
+  UUID getUuid();
+
+  Boolean getIsCatalog();
+}
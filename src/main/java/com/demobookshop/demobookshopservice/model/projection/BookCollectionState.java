@@ -0,0 +1,14 @@
+package com.demobookshop.demobookshopservice.model.projection;
+
+/**
+ * Projection of aggregates that change whenever any book is created, updated or deleted: the
+ * number of books, the highest ID and the sum of versions.
+ */
+public interface BookCollectionState {
+
+  Long getBookCount();
+
+  Long getMaxId();
+
+  Long getVersionSum();
+}
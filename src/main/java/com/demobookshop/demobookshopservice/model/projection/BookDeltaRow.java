@@ -0,0 +1,25 @@
+package com.demobookshop.demobookshopservice.model.projection;
+
+import java.util.UUID;
+
+/** Projection of a book row read by delta sync, live or tombstone. */
+public interface BookDeltaRow {
+
+  Long getId();
+
+  UUID getUuid();
+
+  Long getParentId();
+
+  UUID getParentUuid();
+
+  Boolean getIsCatalog();
+
+  String getTitle();
+
+  String getAuthor();
+
+  Boolean getDeleted();
+
+  Long getChangeXid();
+}
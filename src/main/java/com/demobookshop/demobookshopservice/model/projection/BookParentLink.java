@@ -0,0 +1,9 @@
+package com.demobookshop.demobookshopservice.model.projection;
+
+/** Projection of the parent link of a book, used to build the in-memory catalog tree index. */
+public interface BookParentLink {
+
+  Long getId();
+
+  Long getParentId();
+}
@@ -0,0 +1,9 @@
+package com.demobookshop.demobookshopservice.model.projection;
+
+/** Projection of a full-text search match: the book ID and its relevance. */
+public interface BookSearchHit {
+
+  Long getId();
+
+  Float getRank();
+}
@@ -0,0 +1,26 @@
+package com.demobookshop.demobookshopservice.observability;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+
+/**
+ * Counts the entity loads of the current request in {@link RequestQueryStats}. Registered with
+ * Hibernate through {@code META-INF/services}.
+ */
+public class EntityLoadCountingIntegrator implements Integrator {
+
+  private static final PostLoadEventListener COUNT_LOAD =
+      event -> RequestQueryStats.entityLoaded();
+
+  @Override
+  public void integrate(
+      Metadata metadata,
+      BootstrapContext bootstrapContext,
+      SessionFactoryImplementor sessionFactory) {
+    sessionFactory.getEventListenerRegistry().appendListeners(EventType.POST_LOAD, COUNT_LOAD);
+  }
+}
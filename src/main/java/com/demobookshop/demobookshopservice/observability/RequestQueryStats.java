@@ -0,0 +1,61 @@
+package com.demobookshop.demobookshopservice.observability;
+
+import java.util.Objects;
+
+/**
+ * Counts the SQL statements and entity loads of the current request. Hibernate reports them on
+ * the thread running the session, so work handed to another thread, such as a streamed body, is
+ * not counted.
+ */
+public final class RequestQueryStats {
+
+  private static final ThreadLocal<long[]> COUNTS = new ThreadLocal<>();
+
+  private static final int STATEMENTS = 0;
+  private static final int ENTITY_LOADS = 1;
+
+  private RequestQueryStats() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /** Starts counting on the current thread. */
+  public static void start() {
+    COUNTS.set(new long[2]);
+  }
+
+  /**
+   * Stops counting on the current thread.
+   *
+   * @return the counts since {@link #start()}
+   */
+  public static Counts stop() {
+    long[] counts = COUNTS.get();
+    COUNTS.remove();
+    return Objects.isNull(counts)
+        ? new Counts(0L, 0L)
+        : new Counts(counts[STATEMENTS], counts[ENTITY_LOADS]);
+  }
+
+  static void statementPrepared() {
+    increment(STATEMENTS);
+  }
+
+  static void entityLoaded() {
+    increment(ENTITY_LOADS);
+  }
+
+  private static void increment(int index) {
+    long[] counts = COUNTS.get();
+    if (Objects.nonNull(counts)) {
+      counts[index]++;
+    }
+  }
+
+  /**
+   * Database work of one request.
+   *
+   * @param statements the SQL statements Hibernate prepared
+   * @param entityLoads the entities Hibernate loaded from result rows
+   */
+  public record Counts(long statements, long entityLoads) {}
+}
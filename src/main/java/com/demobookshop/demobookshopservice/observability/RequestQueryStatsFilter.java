@@ -0,0 +1,70 @@
+package com.demobookshop.demobookshopservice.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the database work of every request as {@code bookshop.request.statements} and {@code
+ * bookshop.request.entity.loads}, tagged with the method and URI template like {@code
+ * http.server.requests}. A request running more statements than the threshold is logged, which is
+ * how N+1 selects show up.
+ */
+public class RequestQueryStatsFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(RequestQueryStatsFilter.class);
+
+  private static final String UNKNOWN_URI = "UNKNOWN";
+
+  private final MeterRegistry meterRegistry;
+  private final int statementWarnThreshold;
+
+  public RequestQueryStatsFilter(MeterRegistry meterRegistry, int statementWarnThreshold) {
+    this.meterRegistry = meterRegistry;
+    this.statementWarnThreshold = statementWarnThreshold;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    RequestQueryStats.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RequestQueryStats.Counts counts = RequestQueryStats.stop();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      String uri = Objects.isNull(pattern) ? UNKNOWN_URI : pattern.toString();
+      summary("bookshop.request.statements", "SQL statements per request", request, uri)
+          .record(counts.statements());
+      summary("bookshop.request.entity.loads", "Entities loaded per request", request, uri)
+          .record(counts.entityLoads());
+      if (counts.statements() > statementWarnThreshold) {
+        log.warn(
+            "{} {} ran {} statements and loaded {} entities",
+            request.getMethod(),
+            uri,
+            counts.statements(),
+            counts.entityLoads());
+      }
+    }
+  }
+
+  private DistributionSummary summary(
+      String name, String description, HttpServletRequest request, String uri) {
+    return DistributionSummary.builder(name)
+        .description(description)
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,16 @@
+package com.demobookshop.demobookshopservice.observability;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the statements of the current request in {@link RequestQueryStats}, leaving the SQL
+ * unchanged. Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    RequestQueryStats.statementPrepared();
+    return sql;
+  }
+}
@@ -0,0 +1,299 @@
+package com.demobookshop.demobookshopservice.repository;
+
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.ImportErrorDto;
+import io.micrometer.observation.annotation.Observed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * PostgreSQL-specific statements of the bulk import. Records are streamed with {@code COPY} into a
+ * temporary staging table, validated there with set-based updates and merged into BOOKS in one
+ * statement. Every method must run inside the transaction of the import, as the staging table is
+ * dropped on commit.
+ */
+@Observed(name = "bookshop.repository")
+@Repository
+public class BookImportRepository {
+
+  private static final String STAGING = "BOOKS_IMPORT_STAGING";
+
+  /** Canonical UUID form, the one {@link java.util.UUID#toString()} produces. */
+  private static final String UUID_PATTERN =
+      "'^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$'";
+
+  private static final String CREATE_STAGING = """
+      CREATE TEMPORARY TABLE %s (
+        LINE_NO BIGINT GENERATED ALWAYS AS IDENTITY,
+        RAW_UUID TEXT,
+        RAW_PARENT_UUID TEXT,
+        RAW_IS_CATALOG TEXT,
+        TITLE TEXT,
+        AUTHOR TEXT,
+        DOC TEXT,
+        UUID UUID,
+        PARENT_UUID UUID,
+        IS_CATALOG BOOLEAN,
+        ERROR TEXT,
+        INSERTED BOOLEAN
+      ) ON COMMIT DROP
+      """.formatted(STAGING);
+
+  private static final String COPY_CSV = """
+      COPY %s (RAW_UUID, RAW_PARENT_UUID, RAW_IS_CATALOG, TITLE, AUTHOR)
+      FROM STDIN WITH (FORMAT csv, HEADER true)
+      """.formatted(STAGING);
+
+  // One JSON document per line: quote and delimiter are set to bytes that never occur in JSON
+  // text, so COPY takes every line verbatim
+  private static final String COPY_NDJSON = """
+      COPY %s (DOC) FROM STDIN WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')
+      """.formatted(STAGING);
+
+  private static final String PARSE_NDJSON = """
+      UPDATE %1$s s SET
+        ERROR = CASE WHEN pg_input_is_valid(s.DOC, 'jsonb') THEN NULL ELSE 'Invalid JSON' END
+      WHERE s.DOC IS NOT NULL AND btrim(s.DOC) <> ''
+      ;
+      DELETE FROM %1$s WHERE DOC IS NULL OR btrim(DOC) = ''
+      ;
+      UPDATE %1$s s SET
+        RAW_UUID = d.J ->> 'uuid',
+        RAW_PARENT_UUID = d.J ->> 'parentUuid',
+        RAW_IS_CATALOG = d.J ->> 'isCatalog',
+        TITLE = d.J ->> 'title',
+        AUTHOR = d.J ->> 'author'
+      FROM (SELECT LINE_NO, DOC::jsonb AS J FROM %1$s WHERE ERROR IS NULL) d
+      WHERE s.LINE_NO = d.LINE_NO
+      """.formatted(STAGING);
+
+  private static final String CONVERT = """
+      UPDATE %1$s SET
+        UUID = CASE WHEN btrim(RAW_UUID) ~* %2$s THEN btrim(RAW_UUID)::uuid END,
+        PARENT_UUID = CASE
+          WHEN btrim(RAW_PARENT_UUID) ~* %2$s THEN btrim(RAW_PARENT_UUID)::uuid
+        END,
+        IS_CATALOG = CASE
+          WHEN coalesce(btrim(RAW_IS_CATALOG), '') = '' THEN FALSE
+          WHEN lower(btrim(RAW_IS_CATALOG)) IN ('true', 't', '1') THEN TRUE
+          WHEN lower(btrim(RAW_IS_CATALOG)) IN ('false', 'f', '0') THEN FALSE
+        END
+      WHERE ERROR IS NULL
+      """.formatted(STAGING, UUID_PATTERN);
+
+  private static final String VALIDATE_FIELDS = """
+      UPDATE %s SET ERROR = CASE
+        WHEN UUID IS NULL THEN 'Invalid UUID: ' || coalesce(RAW_UUID, '<missing>')
+        WHEN PARENT_UUID IS NULL AND coalesce(btrim(RAW_PARENT_UUID), '') <> ''
+          THEN 'Invalid parent UUID: ' || RAW_PARENT_UUID
+        WHEN PARENT_UUID = UUID THEN 'Book cannot be its own parent'
+        WHEN IS_CATALOG IS NULL THEN 'Invalid isCatalog value: ' || RAW_IS_CATALOG
+        WHEN coalesce(btrim(TITLE), '') = '' OR coalesce(btrim(AUTHOR), '') = ''
+          THEN 'Book title and author are required'
+        WHEN length(TITLE) > 255 OR length(AUTHOR) > 255
+          THEN 'Book title and author must not exceed 255 characters'
+      END
+      WHERE ERROR IS NULL
+      """.formatted(STAGING);
+
+  private static final String INDEX_STAGING =
+      "CREATE INDEX ON %1$s (UUID); ANALYZE %1$s".formatted(STAGING);
+
+  // The last record of a UUID wins, as if the feed was applied line by line
+  private static final String REJECT_DUPLICATES = """
+      UPDATE %1$s s SET ERROR = 'Duplicate UUID, superseded by line ' || (d.LAST_LINE_NO + ?)
+      FROM (
+        SELECT UUID, max(LINE_NO) AS LAST_LINE_NO FROM %1$s
+        WHERE ERROR IS NULL GROUP BY UUID HAVING count(*) > 1
+      ) d
+      WHERE s.ERROR IS NULL AND s.UUID = d.UUID AND s.LINE_NO < d.LAST_LINE_NO
+      """.formatted(STAGING);
+
+  private static final String REJECT_MISSING_PARENTS = """
+      UPDATE %1$s s SET ERROR = 'Parent not found: ' || s.PARENT_UUID
+      WHERE s.ERROR IS NULL
+        AND s.PARENT_UUID IS NOT NULL
+        AND NOT EXISTS (
+          SELECT 1 FROM %2$s.BOOKS b WHERE b.UUID = s.PARENT_UUID AND NOT b.DELETED
+        )
+        AND NOT EXISTS (SELECT 1 FROM %1$s p WHERE p.UUID = s.PARENT_UUID AND p.ERROR IS NULL)
+      """;
+
+  // IDs come from BOOKS_ID_SEQ the way Hibernate's pooled optimizer takes them: every nextval
+  // reserves the block of ID_ALLOCATION_SIZE IDs ending at the returned value
+  private static final String UPSERT = """
+      WITH VALID AS (
+        SELECT UUID, PARENT_UUID, IS_CATALOG, TITLE, AUTHOR,
+               row_number() OVER (ORDER BY LINE_NO) - 1 AS N
+        FROM %1$s WHERE ERROR IS NULL
+      ), BLOCKS AS (
+        SELECT B, nextval('%2$s.BOOKS_ID_SEQ') AS HI
+        FROM generate_series(0, (SELECT (count(*) - 1) / %3$d FROM VALID)) AS B
+      ), UPSERTED AS (
+        INSERT INTO %2$s.BOOKS AS b (ID, UUID, PARENT_UUID, IS_CATALOG, TITLE, AUTHOR)
+        SELECT k.HI - %3$d + 1 + v.N %% %3$d, v.UUID, v.PARENT_UUID, v.IS_CATALOG, v.TITLE, v.AUTHOR
+        FROM VALID v JOIN BLOCKS k ON k.B = v.N / %3$d
+        ORDER BY v.N
+        ON CONFLICT (UUID) WHERE NOT DELETED DO UPDATE SET
+          PARENT_UUID = EXCLUDED.PARENT_UUID,
+          IS_CATALOG = EXCLUDED.IS_CATALOG,
+          TITLE = EXCLUDED.TITLE,
+          AUTHOR = EXCLUDED.AUTHOR,
+          VERSION = b.VERSION + 1,
+          UPDATED_AT = now()
+        RETURNING b.UUID, (xmax = 0) AS INSERTED
+      ), MARKED AS (
+        UPDATE %1$s s SET INSERTED = u.INSERTED FROM UPSERTED u
+        WHERE s.ERROR IS NULL AND s.UUID = u.UUID
+      )
+      SELECT count(*) FILTER (WHERE INSERTED), count(*) FILTER (WHERE NOT INSERTED) FROM UPSERTED
+      """;
+
+  private static final String RESOLVE_PARENT_IDS = """
+      UPDATE %2$s.BOOKS b SET PARENT_ID = p.ID, VERSION = b.VERSION + 1, UPDATED_AT = now()
+      FROM %1$s s LEFT JOIN %2$s.BOOKS p ON p.UUID = s.PARENT_UUID AND NOT p.DELETED
+      WHERE s.ERROR IS NULL AND b.UUID = s.UUID AND NOT b.DELETED
+        AND b.PARENT_ID IS DISTINCT FROM p.ID
+      """;
+
+  // Payloads have the JSON shape of BookDto, so consumers of the change stream read imported
+  // changes like any other
+  private static final String WRITE_OUTBOX = """
+      INSERT INTO %2$s.BOOK_OUTBOX (BOOK_ID, CHANGE_TYPE, PAYLOAD)
+      SELECT b.ID, CASE WHEN s.INSERTED THEN 'CREATED' ELSE 'UPDATED' END,
+             json_build_object(
+               'id', b.ID, 'uuid', b.UUID, 'parentId', b.PARENT_ID, 'parentUuid', b.PARENT_UUID,
+               'isCatalog', b.IS_CATALOG, 'title', b.TITLE, 'author', b.AUTHOR)::text
+      FROM %1$s s JOIN %2$s.BOOKS b ON b.UUID = s.UUID AND NOT b.DELETED
+      WHERE s.ERROR IS NULL
+      ORDER BY s.LINE_NO
+      """;
+
+  private static final String COUNT_REJECTED =
+      "SELECT count(*) FROM %s WHERE ERROR IS NOT NULL".formatted(STAGING);
+
+  private static final String FIND_REJECTED = """
+      SELECT LINE_NO + ? AS LINE, ERROR FROM %s
+      WHERE ERROR IS NOT NULL ORDER BY LINE_NO LIMIT ?
+      """.formatted(STAGING);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String rejectMissingParents;
+  private final String upsert;
+  private final String resolveParentIds;
+  private final String writeOutbox;
+
+  public BookImportRepository(
+      JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.rejectMissingParents = REJECT_MISSING_PARENTS.formatted(STAGING, schema);
+    this.upsert = UPSERT.formatted(STAGING, schema, Book.ID_ALLOCATION_SIZE);
+    this.resolveParentIds = RESOLVE_PARENT_IDS.formatted(STAGING, schema);
+    this.writeOutbox = WRITE_OUTBOX.formatted(STAGING, schema);
+  }
+
+  /** Creates the staging table of the current transaction. */
+  public void createStaging() {
+    jdbcTemplate.execute(CREATE_STAGING);
+  }
+
+  /**
+   * Streams a CSV feed with a header line and the columns {@code uuid, parentUuid, isCatalog,
+   * title, author} into the staging table.
+   *
+   * @param feed the CSV feed
+   * @return the number of staged records
+   */
+  public long copyCsv(InputStream feed) {
+    return copy(COPY_CSV, feed);
+  }
+
+  /**
+   * Streams an NDJSON feed of book objects into the staging table and extracts their fields.
+   * Blank lines are skipped, lines that are not JSON are rejected.
+   *
+   * @param feed the NDJSON feed
+   * @return the number of staged records
+   */
+  public long copyNdjson(InputStream feed) {
+    long staged = copy(COPY_NDJSON, feed);
+    jdbcTemplate.execute(PARSE_NDJSON);
+    return staged;
+  }
+
+  /**
+   * Converts and validates the staged records. Rejected records keep the reason in their ERROR
+   * column and are left out of the merge.
+   *
+   * @param lineOffset the difference between feed line numbers and staging row numbers
+   */
+  public void validate(int lineOffset) {
+    jdbcTemplate.update(CONVERT);
+    jdbcTemplate.update(VALIDATE_FIELDS);
+    jdbcTemplate.execute(INDEX_STAGING);
+    jdbcTemplate.update(REJECT_DUPLICATES, lineOffset);
+    // Rejecting a parent orphans its staged children, repeat until no chain is left
+    int rejected;
+    do {
+      rejected = jdbcTemplate.update(rejectMissingParents);
+    } while (rejected > 0);
+  }
+
+  /**
+   * Inserts or updates the valid staged records by UUID, links them to their parents and writes
+   * their final state to the book change outbox.
+   *
+   * @return the number of inserted and of updated books
+   */
+  public long[] merge() {
+    long[] counts = jdbcTemplate.queryForObject(
+        upsert, (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+    jdbcTemplate.update(resolveParentIds);
+    jdbcTemplate.update(writeOutbox);
+    return Objects.requireNonNull(counts);
+  }
+
+  /**
+   * Counts the rejected records.
+   *
+   * @return the number of rejected records
+   */
+  public long countRejected() {
+    return Objects.requireNonNull(jdbcTemplate.queryForObject(COUNT_REJECTED, Long.class));
+  }
+
+  /**
+   * Lists the first rejected records in feed order.
+   *
+   * @param lineOffset the difference between feed line numbers and staging row numbers
+   * @param limit the maximum number of records
+   * @return the rejected records
+   */
+  public List<ImportErrorDto> findRejected(int lineOffset, int limit) {
+    return jdbcTemplate.query(
+        FIND_REJECTED,
+        (rs, rowNum) -> new ImportErrorDto(rs.getLong("LINE"), rs.getString("ERROR")),
+        lineOffset,
+        limit);
+  }
+
+  private long copy(String sql, InputStream feed) {
+    Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+      try {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, feed);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return Objects.requireNonNull(rows);
+  }
+}
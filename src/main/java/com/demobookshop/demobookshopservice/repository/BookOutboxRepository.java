@@ -0,0 +1,152 @@
+package com.demobookshop.demobookshopservice.repository;
+
+import com.demobookshop.demobookshopservice.model.dto.BookChangeDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent.ChangeType;
+import io.micrometer.observation.annotation.Observed;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * PostgreSQL-specific statements of the book change outbox. Changes are written unpublished, in
+ * the transaction of the change; the relay then numbers them with stream positions in publish
+ * order. Readers only ever see published changes, so a change committed after a later one is
+ * still read after it.
+ */
+@Observed(name = "bookshop.repository")
+@Repository
+public class BookOutboxRepository {
+
+  /** Key of the advisory lock that lets a single instance run the relay at a time. */
+  private static final long RELAY_LOCK_KEY = 0x426F_6F6B_4F75_74L;
+
+  private static final String INSERT = """
+      INSERT INTO %s.BOOK_OUTBOX (BOOK_ID, CHANGE_TYPE, PAYLOAD) VALUES (?, ?, ?)
+      """;
+
+  private static final String TRY_LOCK_RELAY = "SELECT pg_try_advisory_xact_lock(?)";
+
+  // PENDING is materialized in ID order and NUMBERED reads it in that order, so positions follow
+  // the order the changes were written in
+  private static final String PUBLISH_PENDING = """
+      WITH PENDING AS (
+        SELECT ID FROM %1$s.BOOK_OUTBOX WHERE POSITION IS NULL ORDER BY ID LIMIT ?
+      ), NUMBERED AS (
+        SELECT ID, nextval('%1$s.BOOK_OUTBOX_POSITION_SEQ') AS POSITION FROM PENDING
+      )
+      UPDATE %1$s.BOOK_OUTBOX o SET POSITION = n.POSITION, PUBLISHED_AT = now()
+      FROM NUMBERED n
+      WHERE o.ID = n.ID
+      """;
+
+  private static final String DELETE_PUBLISHED_BEFORE = """
+      DELETE FROM %s.BOOK_OUTBOX WHERE POSITION IS NOT NULL AND PUBLISHED_AT < ?
+      """;
+
+  private static final String FIND_PUBLISHED_AFTER = """
+      SELECT POSITION, CHANGE_TYPE, BOOK_ID, PAYLOAD, CREATED_AT FROM %s.BOOK_OUTBOX
+      WHERE POSITION > ? ORDER BY POSITION LIMIT ?
+      """;
+
+  private static final String FIND_OLDEST_POSITION =
+      "SELECT min(POSITION) FROM %s.BOOK_OUTBOX WHERE POSITION IS NOT NULL";
+
+  private static final RowMapper<BookChangeDto> CHANGE_MAPPER = (rs, rowNum) -> new BookChangeDto(
+      rs.getLong("POSITION"),
+      ChangeType.valueOf(rs.getString("CHANGE_TYPE")),
+      rs.getLong("BOOK_ID"),
+      rs.getString("PAYLOAD"),
+      rs.getObject("CREATED_AT", OffsetDateTime.class).toInstant());
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JsonMapper jsonMapper;
+  private final String insert;
+  private final String publishPending;
+  private final String deletePublishedBefore;
+  private final String findPublishedAfter;
+  private final String findOldestPosition;
+
+  public BookOutboxRepository(
+      JdbcTemplate jdbcTemplate,
+      JsonMapper jsonMapper,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.jsonMapper = jsonMapper;
+    this.insert = INSERT.formatted(schema);
+    this.publishPending = PUBLISH_PENDING.formatted(schema);
+    this.deletePublishedBefore = DELETE_PUBLISHED_BEFORE.formatted(schema);
+    this.findPublishedAfter = FIND_PUBLISHED_AFTER.formatted(schema);
+    this.findOldestPosition = FIND_OLDEST_POSITION.formatted(schema);
+  }
+
+  /**
+   * Writes changes as unpublished outbox rows, in list order, with one JDBC batch.
+   *
+   * @param changes the changes to write
+   */
+  public void insertAll(List<BookChangedEvent> changes) {
+    jdbcTemplate.batchUpdate(insert, changes, changes.size(), (ps, change) -> {
+      ps.setLong(1, change.book().id());
+      ps.setString(2, change.type().name());
+      ps.setString(3, jsonMapper.writeValueAsString(change.book()));
+    });
+  }
+
+  /**
+   * Takes the relay lock until the end of the current transaction, without waiting.
+   *
+   * @return whether the lock was taken; {@code false} if another instance holds it
+   */
+  public boolean tryLockRelay() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(TRY_LOCK_RELAY, Boolean.class, RELAY_LOCK_KEY));
+  }
+
+  /**
+   * Publishes the oldest unpublished changes by giving them the next stream positions. Must run
+   * under the relay lock, so positions become visible in increasing order.
+   *
+   * @param batchSize the maximum number of changes to publish
+   * @return the number of published changes
+   */
+  public int publishPending(int batchSize) {
+    return jdbcTemplate.update(publishPending, batchSize);
+  }
+
+  /**
+   * Deletes the changes published before the given time.
+   *
+   * @param cutoff the oldest publication time to keep
+   * @return the number of deleted changes
+   */
+  public int deletePublishedBefore(Instant cutoff) {
+    return jdbcTemplate.update(deletePublishedBefore, Timestamp.from(cutoff));
+  }
+
+  /**
+   * Reads published changes in stream order.
+   *
+   * @param since the position of the last change already read, {@code 0} to read from the start
+   * @param limit the maximum number of changes
+   * @return the changes after {@code since}
+   */
+  public List<BookChangeDto> findPublishedAfter(long since, int limit) {
+    return jdbcTemplate.query(findPublishedAfter, CHANGE_MAPPER, since, limit);
+  }
+
+  /**
+   * Finds the position of the oldest change still kept.
+   *
+   * @return the oldest position, or {@code null} if no published change is kept
+   */
+  public Long findOldestPosition() {
+    return jdbcTemplate.queryForObject(findOldestPosition, Long.class);
+  }
+}
@@ -1,8 +1,286 @@
 package com.demobookshop.demobookshopservice.repository;
 
 import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.projection.BookChildLink;
+import com.demobookshop.demobookshopservice.model.projection.BookCollectionState;
+import com.demobookshop.demobookshopservice.model.projection.BookDeltaRow;
+import com.demobookshop.demobookshopservice.model.projection.BookParentLink;
+import com.demobookshop.demobookshopservice.model.projection.BookSearchHit;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {}
+public interface BookRepository extends JpaRepository<Book, Long> {
+
+  /** Columns of the BOOKS table mapped by {@link Book}, for native queries aliasing it as b. */
+  String BOOK_COLUMNS = "b.ID, b.UUID, b.PARENT_ID, b.PARENT_UUID, b.IS_CATALOG, b.TITLE,"
+      + " b.AUTHOR, b.VERSION, b.UPDATED_AT";
+
+  /**
+   * JPQL constructor expression building a {@link BookDto} from a book aliased as b. Queries
+   * selecting it return DTOs straight from the result set: no entity is hydrated or kept in the
+   * persistence context for dirty checking.
+   */
+  String BOOK_DTO = "new com.demobookshop.demobookshopservice.model.dto.BookDto(b.id, b.uuid,"
+      + " b.parentId, b.parentUuid, b.isCatalog, b.title, b.author, b.version, b.updatedAt)";
+
+  /**
+   * Finds all books ordered by ID as DTOs.
+   *
+   * @return all books ordered by ID
+   */
+  @Query("select " + BOOK_DTO + " from Book b order by b.id")
+  List<BookDto> findAllDtosOrderedById();
+
+  /**
+   * Finds the next keyset page of books ordered by ID as DTOs.
+   *
+   * @param id the ID of the last book of the previous page
+   * @param limit the maximum number of books to return
+   * @return books with an ID greater than {@code id}, ordered by ID
+   */
+  @Query("select " + BOOK_DTO + " from Book b where b.id > :id order by b.id")
+  List<BookDto> findDtosAfterId(@Param("id") Long id, Limit limit);
+
+  /**
+   * Streams all books ordered by ID as DTOs using a bounded JDBC fetch size, so the driver never
+   * buffers the whole result set. Must be consumed inside a transaction and closed after use.
+   *
+   * @return a stream of all books ordered by ID
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("select " + BOOK_DTO + " from Book b order by b.id")
+  Stream<BookDto> streamAllDtosOrderedById();
+
+  /**
+   * Streams the column values of all books ordered by ID, without creating entities. Every row is
+   * {@code [id, uuid, parentId, parentUuid, isCatalog, title, author]}. Must be consumed inside a
+   * transaction and closed after use.
+   *
+   * @return a stream of book rows ordered by ID
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("select b.id, b.uuid, b.parentId, b.parentUuid, b.isCatalog, b.title, b.author"
+      + " from Book b order by b.id")
+  Stream<Object[]> streamAllRowsOrderedById();
+
+  /**
+   * Reads the aggregates identifying the current state of the collection: every create raises
+   * the count and the highest ID, every update raises the version sum, every delete lowers the
+   * count.
+   *
+   * @return the number of books, the highest ID and the sum of versions
+   */
+  @Query("select count(b) as bookCount, coalesce(max(b.id), 0) as maxId,"
+      + " coalesce(sum(b.version), 0) as versionSum from Book b")
+  BookCollectionState findCollectionState();
+
+  /**
+   * Finds a book and all its descendants with a single recursive query.
+   *
+   * @param rootId the ID of the subtree root
+   * @param maxDepth the maximum number of levels to descend
+   * @return the root followed by its descendants, ordered by depth and ID; empty if the root does
+   *     not exist
+   */
+  @Query(
+      value = "WITH RECURSIVE SUBTREE (ID, DEPTH) AS ("
+          + " SELECT ID, 0 FROM {h-schema}BOOKS WHERE ID = :rootId AND NOT DELETED"
+          + " UNION ALL"
+          + " SELECT c.ID, s.DEPTH + 1 FROM {h-schema}BOOKS c JOIN SUBTREE s ON c.PARENT_ID = s.ID"
+          + " WHERE s.DEPTH < :maxDepth AND NOT c.DELETED)"
+          + " SELECT " + BOOK_COLUMNS + " FROM {h-schema}BOOKS b JOIN SUBTREE s ON b.ID = s.ID"
+          + " ORDER BY s.DEPTH, b.ID",
+      nativeQuery = true)
+  List<Book> findSubtree(@Param("rootId") Long rootId, @Param("maxDepth") int maxDepth);
+
+  /**
+   * Finds a book and its ancestors with a single recursive query.
+   *
+   * @param bookId the ID of the book
+   * @param maxDepth the maximum number of levels to ascend
+   * @return the path from the top-most ancestor down to the book itself; empty if the book does
+   *     not exist
+   */
+  @Query(
+      value = "WITH RECURSIVE ANCESTORS (ID, PARENT_ID, DEPTH) AS ("
+          + " SELECT ID, PARENT_ID, 0 FROM {h-schema}BOOKS WHERE ID = :bookId AND NOT DELETED"
+          + " UNION ALL"
+          + " SELECT p.ID, p.PARENT_ID, a.DEPTH + 1 FROM {h-schema}BOOKS p"
+          + " JOIN ANCESTORS a ON p.ID = a.PARENT_ID WHERE a.DEPTH < :maxDepth AND NOT p.DELETED)"
+          + " SELECT " + BOOK_COLUMNS + " FROM {h-schema}BOOKS b JOIN ANCESTORS a ON b.ID = a.ID"
+          + " ORDER BY a.DEPTH DESC",
+      nativeQuery = true)
+  List<Book> findPathToRoot(@Param("bookId") Long bookId, @Param("maxDepth") int maxDepth);
+
+  /**
+   * Finds the direct children of a book.
+   *
+   * @param parentId the ID of the parent book
+   * @return the children ordered by ID
+   */
+  List<Book> findByParentIdOrderByIdAsc(Long parentId);
+
+  /**
+   * Finds the direct children of several books with one query.
+   *
+   * @param parentIds the IDs of the parent books
+   * @return the children of all the given books ordered by ID
+   */
+  List<Book> findByParentIdInOrderByIdAsc(Collection<Long> parentIds);
+
+  /**
+   * Finds several books by ID with one query. The IDs are bound as a single array parameter, so
+   * the statement is the same for any number of IDs.
+   *
+   * @param ids the IDs of the books
+   * @return the books found, in no particular order
+   */
+  @Query(
+      value = "SELECT " + BOOK_COLUMNS + " FROM {h-schema}BOOKS b"
+          + " WHERE b.ID = ANY(:ids) AND NOT b.DELETED",
+      nativeQuery = true)
+  List<Book> findAllByIdIn(@Param("ids") Long[] ids);
+
+  /**
+   * Finds a book by its UUID as a DTO, using the unique index on UUID.
+   *
+   * @param uuid the UUID of the book
+   * @return the book, empty if no live book has the UUID
+   */
+  @Query("select " + BOOK_DTO + " from Book b where b.uuid = :uuid")
+  Optional<BookDto> findDtoByUuid(@Param("uuid") UUID uuid);
+
+  /**
+   * Finds several books by UUID as DTOs with one query.
+   *
+   * @param uuids the UUIDs of the books
+   * @return the books found, in no particular order
+   */
+  @Query("select " + BOOK_DTO + " from Book b where b.uuid in :uuids")
+  List<BookDto> findDtosByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+  /**
+   * Indicates whether a live book has the given UUID.
+   *
+   * @param uuid the UUID of the book
+   * @return {@code true} if the book exists
+   */
+  boolean existsByUuid(UUID uuid);
+
+  /**
+   * Finds the links to the direct children of a book by the parent's UUID. The query reads only
+   * columns of IDX_BOOKS_PARENT_UUID, so it runs as an index-only scan.
+   *
+   * @param parentUuid the UUID of the parent book
+   * @return the child links ordered by ID
+   */
+  @Query(
+      value = "SELECT b.ID AS id, b.UUID AS uuid, b.IS_CATALOG AS isCatalog"
+          + " FROM {h-schema}BOOKS b"
+          + " WHERE b.PARENT_UUID = :parentUuid AND NOT b.DELETED"
+          + " ORDER BY b.ID",
+      nativeQuery = true)
+  List<BookChildLink> findChildLinksByParentUuid(@Param("parentUuid") UUID parentUuid);
+
+  /**
+   * Streams the parent link of every book.
+   *
+   * @return a stream of ID and parent ID pairs
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+  @Query("select b.id as id, b.parentId as parentId from Book b")
+  Stream<BookParentLink> streamAllParentLinks();
+
+  /**
+   * Finds the next keyset page of full-text matches over title and author, ordered by relevance
+   * and then by ID. The match uses the GIN index on SEARCH_VECTOR.
+   *
+   * @param query the text search query in {@code to_tsquery} syntax
+   * @param afterRank the rank of the last match of the previous page, or positive infinity
+   * @param afterId the ID of the last match of the previous page, or {@code 0}
+   * @param limit the maximum number of matches to return
+   * @return the matches ordered by rank descending, then by ID
+   */
+  @Query(
+      value = "SELECT s.ID AS id, s.RANK AS rank FROM ("
+          + " SELECT b.ID, ts_rank_cd(b.SEARCH_VECTOR, q.QUERY) AS RANK"
+          + " FROM {h-schema}BOOKS b, to_tsquery('simple', :query) AS q (QUERY)"
+          + " WHERE b.SEARCH_VECTOR @@ q.QUERY AND NOT b.DELETED) s"
+          + " WHERE s.RANK < CAST(:afterRank AS real)"
+          + " OR (s.RANK = CAST(:afterRank AS real) AND s.ID > :afterId)"
+          + " ORDER BY s.RANK DESC, s.ID"
+          + " LIMIT :limit",
+      nativeQuery = true)
+  List<BookSearchHit> search(
+      @Param("query") String query,
+      @Param("afterRank") float afterRank,
+      @Param("afterId") long afterId,
+      @Param("limit") int limit);
+
+  /**
+   * Reads the delta horizon: the oldest transaction ID still running, or the next one if none
+   * is. Every transaction with a lower ID has finished, so all its writes are visible.
+   *
+   * @return the xmin of the current snapshot
+   */
+  @Query(
+      value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)",
+      nativeQuery = true)
+  long findDeltaHorizon();
+
+  /**
+   * Finds the next page of books written, including tombstones, ordered by writing transaction
+   * and ID. Only rows written by transactions below the horizon are returned, so a page never
+   * moves past a transaction that may still commit. Uses the index on (CHANGE_XID, ID).
+   *
+   * @param afterXid the writing transaction of the last row already read
+   * @param afterId the ID of the last row already read
+   * @param horizon the delta horizon read by {@link #findDeltaHorizon()}
+   * @param limit the maximum number of rows to return
+   * @return the changed rows, live books and tombstones
+   */
+  @Query(
+      value = "SELECT b.ID AS id, b.UUID AS uuid, b.PARENT_ID AS parentId,"
+          + " b.PARENT_UUID AS parentUuid, b.IS_CATALOG AS isCatalog, b.TITLE AS title,"
+          + " b.AUTHOR AS author, b.DELETED AS deleted, b.CHANGE_XID AS changeXid"
+          + " FROM {h-schema}BOOKS b"
+          + " WHERE (b.CHANGE_XID, b.ID) > (:afterXid, :afterId) AND b.CHANGE_XID < :horizon"
+          + " ORDER BY b.CHANGE_XID, b.ID"
+          + " LIMIT :limit",
+      nativeQuery = true)
+  List<BookDeltaRow> findChangedAfter(
+      @Param("afterXid") long afterXid,
+      @Param("afterId") long afterId,
+      @Param("horizon") long horizon,
+      @Param("limit") int limit);
+
+  /**
+   * Deletes the tombstones of books deleted before the given time.
+   *
+   * @param cutoff the oldest deletion time to keep
+   * @return the number of deleted tombstones
+   */
+  @Modifying
+  @Query(
+      value = "DELETE FROM {h-schema}BOOKS WHERE DELETED AND UPDATED_AT < :cutoff",
+      nativeQuery = true)
+  int deleteTombstonesBefore(@Param("cutoff") Instant cutoff);
+}
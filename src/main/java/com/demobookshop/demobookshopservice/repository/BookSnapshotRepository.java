@@ -0,0 +1,78 @@
+package com.demobookshop.demobookshopservice.repository;
+
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshotWriter;
+import io.micrometer.observation.annotation.Observed;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * PostgreSQL-specific statements exporting the live books into a catalog snapshot. Rows are
+ * streamed from the result set straight into the snapshot writer, in pages of {@value
+ * #FETCH_SIZE}, so the export uses no more memory for ten million books than for ten. Run both
+ * exports in one repeatable-read transaction, so the books and child links agree.
+ */
+@Observed(name = "bookshop.repository")
+@Repository
+public class BookSnapshotRepository {
+
+  private static final int FETCH_SIZE = 5000;
+
+  private static final String EXPORT_BOOKS = """
+      SELECT ID, UUID, PARENT_ID, PARENT_UUID, IS_CATALOG, TITLE, AUTHOR, VERSION, UPDATED_AT
+      FROM %s.BOOKS WHERE NOT DELETED ORDER BY ID
+      """;
+
+  private static final String EXPORT_CHILD_LINKS = """
+      SELECT PARENT_ID, ID FROM %s.BOOKS WHERE NOT DELETED ORDER BY PARENT_ID NULLS FIRST, ID
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String exportBooks;
+  private final String exportChildLinks;
+
+  public BookSnapshotRepository(
+      JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    // Own template: the fetch size makes the driver stream the rows instead of reading them all
+    this.jdbcTemplate = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    this.exportBooks = EXPORT_BOOKS.formatted(schema);
+    this.exportChildLinks = EXPORT_CHILD_LINKS.formatted(schema);
+  }
+
+  /**
+   * Writes all live books to the snapshot, ordered by ID.
+   *
+   * @param writer the snapshot writer
+   */
+  public void exportBooks(CatalogSnapshotWriter writer) {
+    jdbcTemplate.query(exportBooks, rs -> {
+      OffsetDateTime updatedAt = rs.getObject("UPDATED_AT", OffsetDateTime.class);
+      writer.writeBook(
+          rs.getLong("ID"),
+          rs.getObject("UUID", UUID.class),
+          rs.getObject("PARENT_ID", Long.class),
+          rs.getObject("PARENT_UUID", UUID.class),
+          rs.getBoolean("IS_CATALOG"),
+          rs.getString("TITLE"),
+          rs.getString("AUTHOR"),
+          rs.getLong("VERSION"),
+          Objects.isNull(updatedAt) ? null : updatedAt.toInstant());
+    });
+  }
+
+  /**
+   * Writes the (parent ID, ID) link of every live book to the snapshot, top-level books first.
+   *
+   * @param writer the snapshot writer
+   */
+  public void exportChildLinks(CatalogSnapshotWriter writer) {
+    jdbcTemplate.query(
+        exportChildLinks,
+        rs -> writer.writeChildLink(rs.getObject("PARENT_ID", Long.class), rs.getLong("ID")));
+  }
+}
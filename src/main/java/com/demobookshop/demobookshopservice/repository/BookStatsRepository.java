@@ -0,0 +1,133 @@
+package com.demobookshop.demobookshopservice.repository;
+
+import com.demobookshop.demobookshopservice.model.dto.AuthorStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.BookStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.CatalogStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.DepthStatsDto;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * PostgreSQL-specific statements of the catalog statistics. The counts per catalog and per author
+ * are kept up to date by triggers on BOOKS, so reading them is a primary key or index lookup. The
+ * books per depth are a materialized view, current as of its last refresh.
+ */
+@Observed(name = "bookshop.repository")
+@Repository
+public class BookStatsRepository {
+
+  /** Key of the advisory lock that lets a single instance refresh the view at a time. */
+  private static final long REFRESH_LOCK_KEY = 0x426F_6F6B_5374_61L;
+
+  private static final String TRY_LOCK_REFRESH = "SELECT pg_try_advisory_xact_lock(?)";
+
+  private static final String REFRESH_DEPTH_STATS =
+      "REFRESH MATERIALIZED VIEW CONCURRENTLY %s.BOOK_DEPTH_STATS";
+
+  private static final String FIND_DEPTH_STATS = """
+      SELECT DEPTH, BOOK_COUNT, CATALOG_COUNT, REFRESHED_AT FROM %s.BOOK_DEPTH_STATS
+      ORDER BY DEPTH
+      """;
+
+  private static final String FIND_TOP_AUTHORS = """
+      SELECT AUTHOR, BOOK_COUNT FROM %s.BOOK_AUTHOR_STATS WHERE BOOK_COUNT > 0
+      ORDER BY BOOK_COUNT DESC, AUTHOR LIMIT ?
+      """;
+
+  private static final String FIND_CATALOG_STATS = """
+      SELECT CATALOG_ID, BOOK_COUNT, CATALOG_COUNT FROM %s.BOOK_CATALOG_STATS WHERE CATALOG_ID = ?
+      """;
+
+  private static final RowMapper<AuthorStatsDto> AUTHOR_MAPPER = (rs, rowNum) ->
+      new AuthorStatsDto(rs.getString("AUTHOR"), rs.getLong("BOOK_COUNT"));
+
+  private static final RowMapper<CatalogStatsDto> CATALOG_MAPPER = (rs, rowNum) ->
+      new CatalogStatsDto(
+          rs.getLong("CATALOG_ID"), rs.getLong("BOOK_COUNT"), rs.getLong("CATALOG_COUNT"));
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String refreshDepthStats;
+  private final String findDepthStats;
+  private final String findTopAuthors;
+  private final String findCatalogStats;
+
+  public BookStatsRepository(
+      JdbcTemplate jdbcTemplate,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.refreshDepthStats = REFRESH_DEPTH_STATS.formatted(schema);
+    this.findDepthStats = FIND_DEPTH_STATS.formatted(schema);
+    this.findTopAuthors = FIND_TOP_AUTHORS.formatted(schema);
+    this.findCatalogStats = FIND_CATALOG_STATS.formatted(schema);
+  }
+
+  /**
+   * Takes the refresh lock until the end of the current transaction, without waiting.
+   *
+   * @return whether the lock was taken; {@code false} if another instance holds it
+   */
+  public boolean tryLockRefresh() {
+    return Boolean.TRUE.equals(
+        jdbcTemplate.queryForObject(TRY_LOCK_REFRESH, Boolean.class, REFRESH_LOCK_KEY));
+  }
+
+  /**
+   * Recomputes the books per depth. Readers keep seeing the previous content until the refresh
+   * commits.
+   */
+  public void refreshDepthStats() {
+    jdbcTemplate.execute(refreshDepthStats);
+  }
+
+  /**
+   * Reads the books per depth and their totals.
+   *
+   * @return the catalog-wide statistics as of the last refresh
+   */
+  public BookStatsDto findBookStats() {
+    return jdbcTemplate.query(findDepthStats, rs -> {
+      List<DepthStatsDto> byDepth = new ArrayList<>();
+      long bookCount = 0;
+      long catalogCount = 0;
+      Instant refreshedAt = null;
+      while (rs.next()) {
+        DepthStatsDto depth = new DepthStatsDto(
+            rs.getInt("DEPTH"), rs.getLong("BOOK_COUNT"), rs.getLong("CATALOG_COUNT"));
+        byDepth.add(depth);
+        bookCount += depth.bookCount();
+        catalogCount += depth.catalogCount();
+        refreshedAt = rs.getObject("REFRESHED_AT", OffsetDateTime.class).toInstant();
+      }
+      int maxDepth = byDepth.isEmpty() ? -1 : byDepth.getLast().depth();
+      return new BookStatsDto(bookCount, catalogCount, maxDepth, byDepth, refreshedAt);
+    });
+  }
+
+  /**
+   * Reads the authors with the most books.
+   *
+   * @param limit the maximum number of authors
+   * @return the authors by decreasing number of books, then by name
+   */
+  public List<AuthorStatsDto> findTopAuthors(int limit) {
+    return jdbcTemplate.query(findTopAuthors, AUTHOR_MAPPER, limit);
+  }
+
+  /**
+   * Reads the number of direct children of a catalog.
+   *
+   * @param catalogId the catalog ID
+   * @return the counts, empty if the catalog never had a child
+   */
+  public Optional<CatalogStatsDto> findCatalogStats(long catalogId) {
+    return jdbcTemplate.query(findCatalogStats, CATALOG_MAPPER, catalogId).stream().findFirst();
+  }
+}
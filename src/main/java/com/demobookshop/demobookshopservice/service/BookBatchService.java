@@ -0,0 +1,286 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookDtoToBook;
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.config.BatchProperties;
+import com.demobookshop.demobookshopservice.config.ExecutorConfig;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for batch creation, update and deletion of books. Items are written in chunks of
+ * {@code bookshop.batch.chunk-size}, one transaction per chunk, so Hibernate can send them as JDBC
+ * batches. When a chunk fails in the database, it is rolled back and its items are retried one
+ * transaction each, so a single bad item never fails its neighbours. Chunks are independent and
+ * run in parallel on the {@value ExecutorConfig#FAN_OUT_EXECUTOR}.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookBatchService {
+
+  private static final Logger log = LoggerFactory.getLogger(BookBatchService.class);
+
+  private final BookRepository bookRepository;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor fanOutExecutor;
+  private final int maxItems;
+  private final int chunkSize;
+
+  public BookBatchService(
+      BookRepository bookRepository,
+      EntityManager entityManager,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager,
+      @Qualifier(ExecutorConfig.FAN_OUT_EXECUTOR) Executor fanOutExecutor,
+      BatchProperties properties) {
+    this.bookRepository = bookRepository;
+    this.entityManager = entityManager;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.fanOutExecutor = fanOutExecutor;
+    this.maxItems = properties.maxItems();
+    this.chunkSize = properties.chunkSize();
+  }
+
+  /**
+   * Adds new books.
+   *
+   * @param newBooks the books to add
+   * @return the result of every item, in request order
+   * @throws InvalidRequestException if the batch is empty or too large
+   */
+  public List<BookBatchResultDto> addBooks(List<BookDto> newBooks) {
+    return process(newBooks, this::addChunk);
+  }
+
+  /**
+   * Updates existing books. Every item must carry the ID of the book to update.
+   *
+   * @param books the new values of the books
+   * @return the result of every item, in request order
+   * @throws InvalidRequestException if the batch is empty or too large
+   */
+  public List<BookBatchResultDto> updateBooks(List<BookDto> books) {
+    return process(books, this::updateChunk);
+  }
+
+  /**
+   * Deletes books by ID.
+   *
+   * @param bookIds the IDs of the books to delete
+   * @return the result of every item, in request order
+   * @throws InvalidRequestException if the batch is empty or too large
+   */
+  public List<BookBatchResultDto> deleteBooks(List<Long> bookIds) {
+    return process(bookIds, this::deleteChunk);
+  }
+
+  private <T> List<BookBatchResultDto> process(List<T> items, ChunkOperation<T> operation) {
+    if (Objects.isNull(items) || items.isEmpty() || items.size() > maxItems) {
+      throw new InvalidRequestException(
+          "Batch must contain between 1 and " + maxItems + " items");
+    }
+    if (items.size() <= chunkSize) {
+      return processChunk(items, 0, operation);
+    }
+    List<CompletableFuture<List<BookBatchResultDto>>> chunks = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += chunkSize) {
+      List<T> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+      int offset = from;
+      chunks.add(CompletableFuture.supplyAsync(
+          () -> processChunk(chunk, offset, operation), fanOutExecutor));
+    }
+    List<BookBatchResultDto> results = new ArrayList<>(items.size());
+    try {
+      chunks.forEach(chunk -> results.addAll(chunk.join()));
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return results;
+  }
+
+  private <T> List<BookBatchResultDto> processChunk(
+      List<T> chunk, int offset, ChunkOperation<T> operation) {
+    try {
+      return transactionTemplate.execute(status -> operation.apply(chunk, offset));
+    } catch (RuntimeException e) {
+      log.warn(
+          "Batch chunk at offset {} failed, retrying its {} items one by one",
+          offset,
+          chunk.size(),
+          e);
+    }
+    List<BookBatchResultDto> results = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      int index = offset + i;
+      List<T> item = List.of(chunk.get(i));
+      try {
+        results.addAll(transactionTemplate.execute(status -> operation.apply(item, index)));
+      } catch (RuntimeException e) {
+        results.add(BookBatchResultDto.failed(
+            index, HttpStatus.CONFLICT.value(), null, rootCauseMessage(e)));
+      }
+    }
+    return results;
+  }
+
+  private List<BookBatchResultDto> addChunk(List<BookDto> chunk, int offset) {
+    List<BookBatchResultDto> results = new ArrayList<>(chunk.size());
+    List<Book> books = new ArrayList<>(chunk.size());
+    List<Integer> indexes = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      BookDto newBook = chunk.get(i);
+      String error = validate(newBook);
+      if (Objects.nonNull(error)) {
+        results.add(failed(offset + i, HttpStatus.BAD_REQUEST, null, error));
+        continue;
+      }
+      books.add(bookDtoToBook.apply(newBook));
+      indexes.add(offset + i);
+    }
+    List<Book> savedBooks = bookRepository.saveAll(books);
+    entityManager.flush();
+    for (int i = 0; i < savedBooks.size(); i++) {
+      BookDto addedBook = bookToBookDto.apply(savedBooks.get(i));
+      eventPublisher.publishEvent(BookChangedEvent.created(addedBook));
+      results.add(
+          BookBatchResultDto.succeeded(indexes.get(i), HttpStatus.CREATED.value(), addedBook));
+    }
+    return inRequestOrder(results);
+  }
+
+  private List<BookBatchResultDto> updateChunk(List<BookDto> chunk, int offset) {
+    Map<Long, Book> existingBooks =
+        bookRepository
+            .findAllById(chunk.stream().map(BookDto::id).filter(Objects::nonNull).toList())
+            .stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    List<BookBatchResultDto> results = new ArrayList<>(chunk.size());
+    List<Book> books = new ArrayList<>(chunk.size());
+    List<Integer> indexes = new ArrayList<>(chunk.size());
+    List<Long> previousParentIds = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      BookDto newBook = chunk.get(i);
+      String error = Objects.isNull(newBook.id()) ? "Book ID is required" : validate(newBook);
+      if (Objects.nonNull(error)) {
+        results.add(failed(offset + i, HttpStatus.BAD_REQUEST, newBook.id(), error));
+        continue;
+      }
+      Book existingBook = existingBooks.get(newBook.id());
+      if (Objects.isNull(existingBook)) {
+        results.add(failed(
+            offset + i,
+            HttpStatus.NOT_FOUND,
+            newBook.id(),
+            "Book not found with ID: " + newBook.id()));
+        continue;
+      }
+      previousParentIds.add(existingBook.getParentId());
+      BookService.copyProperties(bookDtoToBook.apply(newBook), existingBook);
+      books.add(existingBook);
+      indexes.add(offset + i);
+    }
+    // The version and update time are only assigned on flush, the results and events carry them
+    entityManager.flush();
+    for (int i = 0; i < books.size(); i++) {
+      BookDto updatedBook = bookToBookDto.apply(books.get(i));
+      eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook, previousParentIds.get(i)));
+      results.add(
+          BookBatchResultDto.succeeded(indexes.get(i), HttpStatus.OK.value(), updatedBook));
+    }
+    return inRequestOrder(results);
+  }
+
+  private List<BookBatchResultDto> deleteChunk(List<Long> chunk, int offset) {
+    Map<Long, Book> existingBooks = bookRepository
+        .findAllById(chunk.stream().filter(Objects::nonNull).toList())
+        .stream()
+        .collect(Collectors.toMap(Book::getId, Function.identity()));
+    List<BookBatchResultDto> results = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      Long bookId = chunk.get(i);
+      Book existingBook = Objects.isNull(bookId) ? null : existingBooks.remove(bookId);
+      if (Objects.isNull(existingBook)) {
+        results.add(failed(
+            offset + i, HttpStatus.NOT_FOUND, bookId, "Book not found with ID: " + bookId));
+        continue;
+      }
+      bookRepository.delete(existingBook);
+      eventPublisher.publishEvent(BookChangedEvent.deleted(bookToBookDto.apply(existingBook)));
+      results.add(BookBatchResultDto.deleted(offset + i, bookId));
+    }
+    entityManager.flush();
+    return results;
+  }
+
+  /**
+   * Validates a book before it is written, so common errors fail the item instead of the chunk.
+   *
+   * @param book the book to validate
+   * @return the error message, or {@code null} if the book is valid
+   */
+  private static String validate(BookDto book) {
+    if (Objects.isNull(book.uuid()) || Objects.isNull(book.title())
+        || Objects.isNull(book.author())) {
+      return "Book UUID, title and author are required";
+    }
+    try {
+      bookDtoToBook.apply(book);
+      return null;
+    } catch (IllegalArgumentException e) {
+      return "Invalid UUID: " + e.getMessage();
+    }
+  }
+
+  private static BookBatchResultDto failed(int index, HttpStatus status, Long id, String error) {
+    return BookBatchResultDto.failed(index, status.value(), id, error);
+  }
+
+  private static List<BookBatchResultDto> inRequestOrder(List<BookBatchResultDto> results) {
+    results.sort(Comparator.comparingInt(BookBatchResultDto::index));
+    return results;
+  }
+
+  private static String rootCauseMessage(Throwable e) {
+    Throwable cause = e;
+    while (Objects.nonNull(cause.getCause()) && cause.getCause() != cause) {
+      cause = cause.getCause();
+    }
+    return cause.getMessage();
+  }
+
+  @FunctionalInterface
+  private interface ChunkOperation<T> {
+    List<BookBatchResultDto> apply(List<T> chunk, int offset);
+  }
+}
@@ -0,0 +1,89 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.OutboxProperties;
+import com.demobookshop.demobookshopservice.exception.ChangesExpiredException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.BookChangeDto;
+import com.demobookshop.demobookshopservice.repository.BookOutboxRepository;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service class reading the change stream of books, for consumers that sync incrementally rather
+ * than scanning the catalog. Changes are read by position from the published outbox; a consumer
+ * keeps the position of the last change it applied and resumes after it.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookChangeFeedService {
+
+  private final BookOutboxRepository bookOutboxRepository;
+  private final Duration pollInterval;
+  private final Duration streamDuration;
+
+  public BookChangeFeedService(
+      BookOutboxRepository bookOutboxRepository, OutboxProperties properties) {
+    this.bookOutboxRepository = bookOutboxRepository;
+    this.pollInterval = properties.pollInterval();
+    this.streamDuration = properties.streamDuration();
+  }
+
+  /**
+   * Retrieves the changes published after a position.
+   *
+   * @param since the position of the last change already read, {@code 0} to read from the start
+   * @param limit the maximum number of changes, clamped to [1, {@link BookService#MAX_PAGE_SIZE}]
+   * @return the changes in stream order; empty if the consumer is up to date
+   * @throws InvalidRequestException if the position is negative
+   * @throws ChangesExpiredException if changes after the position were already deleted, so the
+   *     consumer has to resync from a full read
+   */
+  public List<BookChangeDto> getChanges(long since, int limit) {
+    if (since < 0) {
+      throw new InvalidRequestException("Position must not be negative: " + since);
+    }
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    List<BookChangeDto> changes = bookOutboxRepository.findPublishedAfter(since, pageSize);
+    // Positions may skip values, so a gap only means expiry if nothing up to 'since' is kept
+    if (since > 0 && !changes.isEmpty() && changes.getFirst().position() > since + 1) {
+      Long oldest = bookOutboxRepository.findOldestPosition();
+      if (Objects.nonNull(oldest) && oldest > since) {
+        throw new ChangesExpiredException("Changes after position " + since
+            + " are no longer kept, the oldest kept position is " + oldest);
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Follows the change stream: hands every newly published batch to the consumer, and an empty
+   * batch whenever nothing was published within the poll interval. Returns after the stream
+   * duration, or when the consumer throws, e.g. because the client went away.
+   *
+   * @param since the position of the last change already read
+   * @param consumer the consumer receiving the batches in stream order
+   */
+  public void followChanges(long since, Consumer<List<BookChangeDto>> consumer) {
+    long position = since;
+    long deadline = System.nanoTime() + streamDuration.toNanos();
+    while (System.nanoTime() < deadline) {
+      List<BookChangeDto> changes = getChanges(position, BookService.MAX_PAGE_SIZE);
+      consumer.accept(changes);
+      if (!changes.isEmpty()) {
+        position = changes.getLast().position();
+      }
+      if (changes.size() < BookService.MAX_PAGE_SIZE) {
+        try {
+          Thread.sleep(pollInterval);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
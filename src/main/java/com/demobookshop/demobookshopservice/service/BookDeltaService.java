@@ -0,0 +1,139 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.DeltaProperties;
+import com.demobookshop.demobookshopservice.exception.ChangesExpiredException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.BookDeltaDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.projection.BookDeltaRow;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.util.pagination.KeysetCursor;
+import io.micrometer.observation.annotation.Observed;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for delta sync of the catalog. A delta token is the (CHANGE_XID, ID) position of
+ * the last row a client has read plus the time the token chain started. A read returns the rows
+ * written after that position by transactions below the current horizon, live books as upserts
+ * and tombstones as deleted IDs. Tombstones are compacted after the retention; tokens older than
+ * that are rejected, since deletions may have been compacted away.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookDeltaService {
+
+  private static final Logger log = LoggerFactory.getLogger(BookDeltaService.class);
+
+  /** Extra time tombstones are kept, for deletions running while a token was issued. */
+  private static final Duration TRANSACTION_GRACE = Duration.ofHours(1);
+
+  private final BookRepository bookRepository;
+  private final Duration tombstoneRetention;
+
+  public BookDeltaService(BookRepository bookRepository, DeltaProperties properties) {
+    this.bookRepository = bookRepository;
+    this.tombstoneRetention = properties.tombstoneRetention();
+  }
+
+  /**
+   * Retrieves the books changed since a delta token.
+   *
+   * @param since the token returned by the previous call, {@code null} to read the whole catalog
+   * @param limit the maximum number of changed books, clamped to [1, {@link
+   *     BookService#MAX_PAGE_SIZE}]
+   * @return the upserts and deletions, with the token of the next call
+   * @throws InvalidRequestException if the token is malformed
+   * @throws ChangesExpiredException if the token is older than the tombstone retention, so the
+   *     client has to refresh the full catalog
+   */
+  @Transactional(readOnly = true)
+  public BookDeltaDto getDelta(String since, int limit) {
+    Instant now = Instant.now();
+    DeltaToken token = Objects.isNull(since) || since.isBlank()
+        ? new DeltaToken(0L, 0L, now.getEpochSecond())
+        : DeltaToken.decode(since);
+    if (Instant.ofEpochSecond(token.startedAt()).isBefore(now.minus(tombstoneRetention))) {
+      throw new ChangesExpiredException(
+          "Delta token is older than " + tombstoneRetention + ", refresh the full catalog");
+    }
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    long horizon = bookRepository.findDeltaHorizon();
+    // Fetch one extra row to find out whether more changes are waiting
+    List<BookDeltaRow> rows = bookRepository.findChangedAfter(
+        token.changeXid(), token.id(), horizon, pageSize + 1);
+    boolean hasMore = rows.size() > pageSize;
+    List<BookDeltaRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+    List<BookDto> upserts = new ArrayList<>(page.size());
+    List<Long> deletedIds = new ArrayList<>();
+    for (BookDeltaRow row : page) {
+      if (Boolean.TRUE.equals(row.getDeleted())) {
+        deletedIds.add(row.getId());
+      } else {
+        upserts.add(toBookDto(row));
+      }
+    }
+    // A continuation keeps the start of its chain; a caught-up client starts a new one that
+    // resumes with the first transaction at or above the horizon
+    DeltaToken next = hasMore
+        ? new DeltaToken(page.getLast().getChangeXid(), page.getLast().getId(), token.startedAt())
+        : new DeltaToken(horizon - 1, Long.MAX_VALUE, now.getEpochSecond());
+    return new BookDeltaDto(upserts, deletedIds, next.encode(), hasMore);
+  }
+
+  /** Deletes the tombstones that no valid delta token can still need. */
+  @Scheduled(
+      fixedDelayString = "${bookshop.delta.compaction-interval:1d}",
+      initialDelayString = "1h")
+  @Transactional(rollbackFor = Exception.class)
+  public void compactTombstones() {
+    Instant cutoff = Instant.now().minus(tombstoneRetention).minus(TRANSACTION_GRACE);
+    int deleted = bookRepository.deleteTombstonesBefore(cutoff);
+    if (deleted > 0) {
+      log.info("Compacted {} tombstones of books deleted before {}", deleted, cutoff);
+    }
+  }
+
+  private static BookDto toBookDto(BookDeltaRow row) {
+    return new BookDto(
+        row.getId(),
+        row.getUuid().toString(),
+        row.getParentId(),
+        Objects.isNull(row.getParentUuid()) ? null : row.getParentUuid().toString(),
+        row.getIsCatalog(),
+        row.getTitle(),
+        row.getAuthor());
+  }
+
+  /**
+   * Position of a client in the delta stream.
+   *
+   * @param changeXid the writing transaction of the last row read
+   * @param id the ID of the last row read
+   * @param startedAt the epoch second the token chain started
+   */
+  record DeltaToken(long changeXid, long id, long startedAt) {
+
+    String encode() {
+      return KeysetCursor.encode(changeXid, id, startedAt);
+    }
+
+    static DeltaToken decode(String token) {
+      String[] keys = KeysetCursor.decode(token, 3);
+      try {
+        return new DeltaToken(
+            Long.parseLong(keys[0]), Long.parseLong(keys[1]), Long.parseLong(keys[2]));
+      } catch (NumberFormatException e) {
+        throw new InvalidRequestException("Malformed delta token: " + token, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.ImportProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.ImportJobDto;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookImportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for bulk imports of catalog feeds. A feed is streamed with {@code COPY} into a
+ * staging table, validated and merged into BOOKS by UUID, all in one transaction, so an import is
+ * applied completely or not at all. Records failing validation are skipped and reported.
+ *
+ * <p>Progress of running and recent imports is kept in memory and exposed through {@link
+ * #getImport(String)}; totals are published as {@code bookshop.import.*} metrics.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+  /** SQLSTATE class of data exceptions, raised by COPY for malformed input. */
+  private static final String DATA_EXCEPTION_CLASS = "22";
+
+  /** Supported feed formats. */
+  public enum Format {
+    /** CSV with a header line and the columns uuid, parentUuid, isCatalog, title, author. */
+    CSV(1),
+    /** One JSON book object per line. */
+    NDJSON(0);
+
+    /** Difference between feed line numbers and staging row numbers. */
+    private final int lineOffset;
+
+    Format(int lineOffset) {
+      this.lineOffset = lineOffset;
+    }
+  }
+
+  private final BookImportRepository bookImportRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final MeterRegistry meterRegistry;
+  private final int maxReportedErrors;
+  private final int retainedJobs;
+
+  private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+  private final Deque<String> finishedJobIds = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger activeImports = new AtomicInteger();
+
+  public BookImportService(
+      BookImportRepository bookImportRepository,
+      PlatformTransactionManager transactionManager,
+      ApplicationEventPublisher eventPublisher,
+      MeterRegistry meterRegistry,
+      ImportProperties properties) {
+    this.bookImportRepository = bookImportRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.meterRegistry = meterRegistry;
+    this.maxReportedErrors = properties.maxReportedErrors();
+    this.retainedJobs = properties.retainedJobs();
+    meterRegistry.gauge("bookshop.import.active", activeImports);
+  }
+
+  /**
+   * Imports a catalog feed. Books are matched by UUID: unknown UUIDs are inserted, known ones
+   * updated. Parent references are resolved by parent UUID against BOOKS and the feed itself.
+   *
+   * @param format the feed format
+   * @param feed the feed content
+   * @return the import report
+   * @throws InvalidRequestException if the feed cannot be parsed
+   */
+  public ImportJobDto importBooks(Format format, InputStream feed) {
+    ImportJob job = new ImportJob(format);
+    jobs.put(job.id(), job);
+    activeImports.incrementAndGet();
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "failure";
+    try {
+      InputStream countingFeed = new CountingInputStream(feed, job);
+      transactionTemplate.executeWithoutResult(status -> run(job, format, countingFeed));
+      long affectedRows = job.rowsInserted() + job.rowsUpdated();
+      if (affectedRows > 0) {
+        eventPublisher.publishEvent(new BooksBulkChangedEvent("import", affectedRows));
+      }
+      job.complete();
+      outcome = "success";
+      countRows(format, "inserted", job.rowsInserted());
+      countRows(format, "updated", job.rowsUpdated());
+      countRows(format, "rejected", job.rowsRejected());
+      return job.toDto();
+    } catch (DataAccessException e) {
+      String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+      job.fail(message);
+      if (isMalformedFeed(e)) {
+        throw new InvalidRequestException("Import rejected: " + message);
+      }
+      throw e;
+    } catch (RuntimeException e) {
+      job.fail(e.getMessage());
+      throw e;
+    } finally {
+      sample.stop(Timer.builder("bookshop.import.duration")
+          .tag("format", format.name())
+          .tag("outcome", outcome)
+          .register(meterRegistry));
+      Counter.builder("bookshop.import.bytes")
+          .tag("format", format.name())
+          .register(meterRegistry)
+          .increment(job.bytesRead());
+      activeImports.decrementAndGet();
+      retire(job);
+      log.info("Import {} finished: {}", job.id(), job.toDto());
+    }
+  }
+
+  /**
+   * Retrieves the progress of a running or recent import.
+   *
+   * @param importId the import ID
+   * @return the import report
+   * @throws EntityNotFoundException if no import is known with the specified ID
+   */
+  public ImportJobDto getImport(String importId) {
+    ImportJob job = jobs.get(importId);
+    if (Objects.isNull(job)) {
+      throw new EntityNotFoundException("Import not found with ID: " + importId);
+    }
+    return job.toDto();
+  }
+
+  /**
+   * Retrieves the running and recent imports.
+   *
+   * @return the import reports, newest first
+   */
+  public List<ImportJobDto> getImports() {
+    return jobs.values().stream()
+        .sorted(Comparator.comparing(ImportJob::startedAt).reversed())
+        .map(ImportJob::toDto)
+        .toList();
+  }
+
+  private void run(ImportJob job, Format format, InputStream feed) {
+    bookImportRepository.createStaging();
+    long staged = switch (format) {
+      case CSV -> bookImportRepository.copyCsv(feed);
+      case NDJSON -> bookImportRepository.copyNdjson(feed);
+    };
+    job.staged(staged);
+    bookImportRepository.validate(format.lineOffset);
+    job.validated(
+        bookImportRepository.countRejected(),
+        bookImportRepository.findRejected(format.lineOffset, maxReportedErrors));
+    if (staged > job.rowsRejected()) {
+      long[] counts = bookImportRepository.merge();
+      job.merged(counts[0], counts[1]);
+    }
+  }
+
+  private void countRows(Format format, String result, long rows) {
+    Counter.builder("bookshop.import.rows")
+        .tag("format", format.name())
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment(rows);
+  }
+
+  private void retire(ImportJob job) {
+    finishedJobIds.addLast(job.id());
+    while (finishedJobIds.size() > retainedJobs) {
+      String oldest = finishedJobIds.pollFirst();
+      if (Objects.nonNull(oldest)) {
+        jobs.remove(oldest);
+      }
+    }
+  }
+
+  private static boolean isMalformedFeed(DataAccessException e) {
+    return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sqlException
+        && Objects.nonNull(sqlException.getSQLState())
+        && sqlException.getSQLState().startsWith(DATA_EXCEPTION_CLASS);
+  }
+
+  /** Reports the bytes read from the feed to the import progress. */
+  private static class CountingInputStream extends FilterInputStream {
+
+    private final ImportJob job;
+
+    CountingInputStream(InputStream in, ImportJob job) {
+      super(in);
+      this.job = job;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        job.addBytesRead(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        job.addBytesRead(n);
+      }
+      return n;
+    }
+  }
+}
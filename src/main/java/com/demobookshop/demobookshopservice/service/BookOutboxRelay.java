@@ -0,0 +1,86 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.OutboxProperties;
+import com.demobookshop.demobookshopservice.repository.BookOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes outbox rows to the change stream in batches. Every run takes a transaction-scoped
+ * advisory lock first, so with several instances one relay publishes and the others skip the
+ * run; positions therefore become visible in increasing order. A run publishes batches until the
+ * outbox is drained. Published changes are deleted once they are older than the retention.
+ */
+@Component
+@ConditionalOnProperty(
+    prefix = "bookshop.outbox",
+    name = "relay-enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class BookOutboxRelay {
+
+  private static final Logger log = LoggerFactory.getLogger(BookOutboxRelay.class);
+
+  private final BookOutboxRepository bookOutboxRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Duration retention;
+  private final Counter published;
+
+  public BookOutboxRelay(
+      BookOutboxRepository bookOutboxRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      OutboxProperties properties) {
+    this.bookOutboxRepository = bookOutboxRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = properties.batchSize();
+    this.retention = properties.retention();
+    this.published = Counter.builder("bookshop.outbox.published")
+        .description("Book changes published to the change stream")
+        .register(meterRegistry);
+  }
+
+  /** Publishes pending changes, one transaction per batch. */
+  @Scheduled(fixedDelayString = "${bookshop.outbox.relay-interval:500ms}")
+  public void publishPending() {
+    int count;
+    do {
+      count = underRelayLock(() -> bookOutboxRepository.publishPending(batchSize));
+      published.increment(count);
+    } while (count == batchSize);
+  }
+
+  /** Deletes published changes older than the retention. */
+  @Scheduled(fixedDelayString = "1h", initialDelayString = "1m")
+  public void deleteExpired() {
+    Instant cutoff = Instant.now().minus(retention);
+    int deleted = underRelayLock(() -> bookOutboxRepository.deletePublishedBefore(cutoff));
+    if (deleted > 0) {
+      log.info("Deleted {} book changes published before {}", deleted, cutoff);
+    }
+  }
+
+  /**
+   * Runs work in a new transaction if the relay lock can be taken.
+   *
+   * @param work the work, returning the number of affected changes
+   * @return the number of affected changes, {@code 0} if another instance holds the lock
+   */
+  private int underRelayLock(IntSupplier work) {
+    Integer count = transactionTemplate.execute(
+        status -> bookOutboxRepository.tryLockRelay() ? work.getAsInt() : 0);
+    return Objects.requireNonNull(count);
+  }
+}
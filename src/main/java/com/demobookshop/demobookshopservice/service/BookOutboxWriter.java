@@ -0,0 +1,74 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookOutboxRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes every book change to the outbox in the transaction that makes it, so a change is
+ * published if and only if it commits. Changes are collected while the transaction runs and
+ * written with one JDBC batch just before commit, after pending entity changes are flushed: the
+ * outbox rows of two changes to the same book are then numbered in the order the row locks were
+ * taken.
+ */
+@Component
+public class BookOutboxWriter {
+
+  private final BookOutboxRepository bookOutboxRepository;
+  private final EntityManager entityManager;
+
+  public BookOutboxWriter(BookOutboxRepository bookOutboxRepository, EntityManager entityManager) {
+    this.bookOutboxRepository = bookOutboxRepository;
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Queues a change for the outbox of the current transaction. Without a transaction the change
+   * is written at once.
+   *
+   * @param event the change
+   */
+  @EventListener
+  public void onBookChanged(BookChangedEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      bookOutboxRepository.insertAll(List.of(event));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<BookChangedEvent> pending =
+        (List<BookChangedEvent>) TransactionSynchronizationManager.getResource(this);
+    if (Objects.isNull(pending)) {
+      pending = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(new OutboxFlush(pending));
+    }
+    pending.add(event);
+  }
+
+  private final class OutboxFlush implements TransactionSynchronization {
+
+    private final List<BookChangedEvent> pending;
+
+    private OutboxFlush(List<BookChangedEvent> pending) {
+      this.pending = pending;
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      entityManager.flush();
+      bookOutboxRepository.insertAll(pending);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(BookOutboxWriter.this);
+    }
+  }
+}
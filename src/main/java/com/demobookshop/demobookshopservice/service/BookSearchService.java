@@ -0,0 +1,131 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.model.projection.BookSearchHit;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.util.pagination.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service class for full-text search over book titles and authors. Every word of the query is
+ * matched as a prefix, so partial input works for typeahead. Results are ranked by relevance, with
+ * title matches ahead of author matches, and paged with a keyset cursor over (rank, ID).
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookSearchService {
+
+  /** Maximum number of words taken from a query. */
+  static final int MAX_QUERY_TERMS = 8;
+
+  private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
+  private final BookRepository bookRepository;
+  private final Timer searchTimer;
+
+  public BookSearchService(BookRepository bookRepository, MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.searchTimer = Timer.builder("bookshop.search.duration")
+        .description("Latency of the full-text match query")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  /**
+   * Searches books by title and author.
+   *
+   * @param text the search text; every word is matched as a prefix
+   * @param after the cursor returned with the previous page, or {@code null} for the first page
+   * @param limit the maximum number of books to return, clamped to [1, {@link
+   *     BookService#MAX_PAGE_SIZE}]
+   * @return the page of matches, most relevant first, and the cursor of the next page
+   * @throws InvalidRequestException if the text has no words or the cursor is malformed
+   */
+  @Transactional(readOnly = true)
+  public BookPageDto search(String text, String after, int limit) {
+    String query = toPrefixQuery(text);
+    int pageSize = Math.clamp(limit, 1, BookService.MAX_PAGE_SIZE);
+    float afterRank = Float.POSITIVE_INFINITY;
+    long afterId = 0L;
+    if (Objects.nonNull(after) && !after.isBlank()) {
+      String[] keys = KeysetCursor.decode(after, 2);
+      try {
+        afterRank = Float.parseFloat(keys[0]);
+        afterId = Long.parseLong(keys[1]);
+      } catch (NumberFormatException e) {
+        throw new InvalidRequestException("Malformed cursor: " + after, e);
+      }
+    }
+    float rank = afterRank;
+    long id = afterId;
+    // Fetch one extra match to find out whether there is a next page
+    List<BookSearchHit> hits =
+        searchTimer.record(() -> bookRepository.search(query, rank, id, pageSize + 1));
+    boolean hasNext = hits.size() > pageSize;
+    List<BookSearchHit> page = hasNext ? hits.subList(0, pageSize) : hits;
+    List<BookDto> books = findAllInOrder(page);
+    if (!hasNext) {
+      return new BookPageDto(books, null);
+    }
+    BookSearchHit last = page.getLast();
+    return new BookPageDto(books, KeysetCursor.encode(last.getRank(), last.getId()));
+  }
+
+  /**
+   * Turns free text into a {@code to_tsquery} expression matching every word as a prefix. Only
+   * letters and digits are kept, so user input can never inject query operators.
+   *
+   * @param text the search text
+   * @return the query, e.g. {@code great:* & gats:*}
+   * @throws InvalidRequestException if the text has no words
+   */
+  static String toPrefixQuery(String text) {
+    if (Objects.isNull(text)) {
+      throw new InvalidRequestException("Search text must contain letters or digits");
+    }
+    Matcher matcher = TERM.matcher(text.toLowerCase(Locale.ROOT));
+    StringBuilder query = new StringBuilder();
+    int terms = 0;
+    while (terms < MAX_QUERY_TERMS && matcher.find()) {
+      if (terms++ > 0) {
+        query.append(" & ");
+      }
+      query.append(matcher.group()).append(":*");
+    }
+    if (terms == 0) {
+      throw new InvalidRequestException("Search text must contain letters or digits");
+    }
+    return query.toString();
+  }
+
+  private List<BookDto> findAllInOrder(List<BookSearchHit> hits) {
+    if (hits.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, Book> booksById =
+        bookRepository.findAllById(hits.stream().map(BookSearchHit::getId).toList()).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    return hits.stream()
+        .map(hit -> booksById.get(hit.getId()))
+        .filter(Objects::nonNull)
+        .map(bookToBookDto)
+        .toList();
+  }
+}
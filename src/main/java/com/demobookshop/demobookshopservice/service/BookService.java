@@ -2,52 +2,299 @@ package com.demobookshop.demobookshopservice.service;
 
 import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookDtoToBook;
 import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.childLinkToBookLinkDto;
 
+import com.demobookshop.demobookshopservice.cache.SingleFlight;
+import com.demobookshop.demobookshopservice.cache.TwoTierCache;
+import com.demobookshop.demobookshopservice.config.CacheConfig;
+import com.demobookshop.demobookshopservice.datasource.ReplicaRoutingDataSource;
 import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.exception.PreconditionFailedException;
 import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
 import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookLinkDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.projection.BookCollectionState;
 import com.demobookshop.demobookshopservice.repository.BookRepository;
-import java.util.Collection;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import com.demobookshop.demobookshopservice.util.encoding.BookRowWriter;
+import com.demobookshop.demobookshopservice.util.pagination.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service class for managing books in the demo bookshop application. This class provides methods to
  * retrieve books from the repository and convert them to DTOs.
  */
+@Observed(name = "bookshop.service")
 @Service
 public class BookService {
 
+  /** Maximum number of books returned by a single keyset page. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  /** Maximum number of IDs or UUIDs resolved by a single batch lookup. */
+  public static final int MAX_LOOKUP_SIZE = 1000;
+
   private final BookRepository bookRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CacheManager cacheManager;
+  private final CatalogSnapshot catalogSnapshot;
+  private final TransactionTemplate readOnlyTransaction;
+  private final SingleFlight<PageKey, BookPageDto> pageLookups;
 
-  public BookService(BookRepository bookRepository) {
+  public BookService(
+      BookRepository bookRepository,
+      ApplicationEventPublisher eventPublisher,
+      CacheManager cacheManager,
+      CatalogSnapshot catalogSnapshot,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
     this.bookRepository = bookRepository;
+    this.eventPublisher = eventPublisher;
+    this.cacheManager = cacheManager;
+    this.catalogSnapshot = catalogSnapshot;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.pageLookups = new SingleFlight<>("pages", meterRegistry);
+  }
+
+  /** Identifies a keyset page: the ID after which it starts and its size. */
+  private record PageKey(long afterId, int pageSize) {}
+
+  /**
+   * Retrieves all books as DTOs, selected straight from the result set without loading entities.
+   *
+   * @return a list of BookDto objects representing all books, ordered by ID
+   */
+  @Transactional(readOnly = true)
+  public List<BookDto> getAllBooks() {
+    return bookRepository.findAllDtosOrderedById();
   }
 
   /**
-   * Retrieves all books from the repository and converts them to Collection DTOs.
+   * Reads the aggregates identifying the current state of the collection. They change whenever
+   * any book is created, updated or deleted, so clients can revalidate the collection without the
+   * books being read.
    *
-   * @return a collection of BookDto objects representing all books
+   * @return the number of books, the highest ID and the sum of versions
    */
-  public Collection<BookDto> getAllBooks() {
-    return bookRepository.findAll().stream()
-        .map(bookToBookDto)
-        .collect(Collectors.toUnmodifiableSet());
+  @Transactional(readOnly = true)
+  public BookCollectionState getCollectionState() {
+    return bookRepository.findCollectionState();
   }
 
   /**
-   * Retrieves a book by its ID and converts it to a DTO.
+   * Writes all books ordered by ID as list elements of the writer's format. Rows go from the JDBC
+   * result set to the writer without entities or DTOs, so memory use and allocation do not grow
+   * with the catalog.
+   *
+   * @param writer the writer receiving every book
+   */
+  @Transactional(readOnly = true)
+  public void writeAllBooks(BookRowWriter writer) {
+    try (Stream<Object[]> rows = bookRepository.streamAllRowsOrderedById()) {
+      rows.forEach(row -> writer.writeBook(
+          (Long) row[0],
+          (UUID) row[1],
+          (Long) row[2],
+          (UUID) row[3],
+          (Boolean) row[4],
+          (String) row[5],
+          (String) row[6]));
+    }
+  }
+
+  /**
+   * Retrieves a keyset page of books ordered by ID. Concurrent requests for the same page, most
+   * often the first one, share one query; its read-only transaction starts inside the shared
+   * lookup, so waiting requests hold no connection.
+   *
+   * @param after opaque cursor returned with the previous page, {@code null} for the first page
+   * @param limit the maximum number of books to return, clamped to [1, {@link #MAX_PAGE_SIZE}]
+   * @return the page of books and the cursor of the next page
+   * @throws com.demobookshop.demobookshopservice.exception.InvalidRequestException if the cursor
+   *     is malformed
+   */
+  public BookPageDto getBooksPage(String after, int limit) {
+    PageKey key = new PageKey(KeysetCursor.decodeId(after), Math.clamp(limit, 1, MAX_PAGE_SIZE));
+    return pageLookups.execute(
+        key, () -> readOnlyTransaction.execute(status -> loadPage(key.afterId(), key.pageSize())));
+  }
+
+  private BookPageDto loadPage(long afterId, int pageSize) {
+    // Fetch one extra row to find out whether there is a next page
+    List<BookDto> books = bookRepository.findDtosAfterId(afterId, Limit.of(pageSize + 1));
+    if (books.size() <= pageSize) {
+      return new BookPageDto(books, null);
+    }
+    List<BookDto> page = books.subList(0, pageSize);
+    return new BookPageDto(page, KeysetCursor.encodeId(page.getLast().id()));
+  }
+
+  /**
+   * Streams all books ordered by ID to the given consumer. Books are read as DTOs, never as
+   * managed entities, so memory use does not depend on the size of the catalog.
+   *
+   * @param consumer the consumer receiving every book as a DTO
+   */
+  @Transactional(readOnly = true)
+  public void streamAllBooks(Consumer<BookDto> consumer) {
+    try (Stream<BookDto> books = bookRepository.streamAllDtosOrderedById()) {
+      books.forEach(consumer);
+    }
+  }
+
+  /**
+   * Retrieves a book by its ID and converts it to a DTO. A book held by the {@link
+   * CatalogSnapshot} is read from it, bypassing the cache and the database.
    *
    * @param bookId the ID of the book to retrieve
    * @return a BookDto object representing the book with the specified ID
    * @throws EntityNotFoundException if no book is found with the specified ID
    */
+  @Cacheable(
+      cacheNames = CacheConfig.BOOKS_CACHE,
+      key = "#bookId",
+      sync = true,
+      condition = "!@catalogSnapshot.contains(#bookId)")
   public BookDto getBookById(Long bookId) {
-    Book optionalResult = bookRepository
-        .findById(bookId)
-        .orElseThrow(() -> new EntityNotFoundException("Book not found with ID: " + bookId));
-    return bookToBookDto.apply(optionalResult);
+    // A cache miss reads the primary, so a lagging replica cannot put a stale book back into the
+    // cache right after the change evicted it
+    return catalogSnapshot.findBook(bookId).orElseGet(() -> {
+      Book optionalResult = ReplicaRoutingDataSource.onPrimary(
+              () -> bookRepository.findById(bookId))
+          .orElseThrow(() -> new EntityNotFoundException("Book not found with ID: " + bookId));
+      return bookToBookDto.apply(optionalResult);
+    });
+  }
+
+  /**
+   * Retrieves several books by ID. Books are taken from the {@value CacheConfig#BOOKS_CACHE}
+   * cache first; the misses are read with a single query, outside of any transaction while the
+   * cache is consulted.
+   *
+   * @param ids the IDs of the books to retrieve, at most {@link #MAX_LOOKUP_SIZE} distinct ones
+   * @return one result per requested ID, in request order: status 200 with the book, or 404
+   * @throws InvalidRequestException if no ID or more than {@link #MAX_LOOKUP_SIZE} distinct IDs
+   *     are given
+   */
+  public List<BookBatchResultDto> getBooksById(List<Long> ids) {
+    if (Objects.isNull(ids) || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+      throw new InvalidRequestException("At least one ID is required, without nulls");
+    }
+    LinkedHashSet<Long> distinct = new LinkedHashSet<>(ids);
+    if (distinct.size() > MAX_LOOKUP_SIZE) {
+      throw new InvalidRequestException(
+          "At most " + MAX_LOOKUP_SIZE + " IDs can be looked up at once");
+    }
+    Map<Long, BookDto> books = new HashMap<>();
+    booksCache()
+        .getAllPresent(distinct)
+        .forEach((id, book) -> books.put((Long) id, (BookDto) book));
+    Long[] misses = distinct.stream().filter(id -> !books.containsKey(id)).toArray(Long[]::new);
+    if (misses.length > 0) {
+      // Misses are not cached: unlike getBookById, the read does not hold the cache's per-key
+      // lock, so an update committed in between would be cached in its old state
+      readOnlyTransaction.executeWithoutResult(status -> bookRepository
+          .findAllByIdIn(misses)
+          .forEach(book -> books.put(book.getId(), bookToBookDto.apply(book))));
+    }
+    List<BookBatchResultDto> results = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Long id = ids.get(i);
+      BookDto book = books.get(id);
+      results.add(
+          Objects.isNull(book)
+              ? BookBatchResultDto.failed(
+                  i, HttpStatus.NOT_FOUND.value(), id, "Book not found with ID: " + id)
+              : BookBatchResultDto.succeeded(i, HttpStatus.OK.value(), book));
+    }
+    return results;
+  }
+
+  /**
+   * Retrieves a book by its UUID and converts it to a DTO.
+   *
+   * @param uuid the UUID of the book to retrieve
+   * @return a BookDto object representing the book with the specified UUID
+   * @throws EntityNotFoundException if no book is found with the specified UUID
+   */
+  @Transactional(readOnly = true)
+  public BookDto getBookByUuid(UUID uuid) {
+    return bookRepository
+        .findDtoByUuid(uuid)
+        .orElseThrow(() -> new EntityNotFoundException("Book not found with UUID: " + uuid));
+  }
+
+  /**
+   * Retrieves several books by UUID with a single query. Duplicates are resolved once and UUIDs
+   * of unknown books are left out.
+   *
+   * @param uuids the UUIDs of the books to retrieve, at most {@link #MAX_LOOKUP_SIZE} distinct ones
+   * @return the books found, in the order of their first UUID in the request
+   * @throws InvalidRequestException if no UUID or more than {@link #MAX_LOOKUP_SIZE} distinct
+   *     UUIDs are given
+   */
+  @Transactional(readOnly = true)
+  public List<BookDto> getBooksByUuid(List<UUID> uuids) {
+    if (Objects.isNull(uuids) || uuids.isEmpty() || uuids.stream().anyMatch(Objects::isNull)) {
+      throw new InvalidRequestException("At least one UUID is required, without nulls");
+    }
+    LinkedHashSet<UUID> distinct = new LinkedHashSet<>(uuids);
+    if (distinct.size() > MAX_LOOKUP_SIZE) {
+      throw new InvalidRequestException(
+          "At most " + MAX_LOOKUP_SIZE + " UUIDs can be looked up at once");
+    }
+    Map<String, BookDto> found = bookRepository.findDtosByUuidIn(distinct).stream()
+        .collect(Collectors.toMap(BookDto::uuid, Function.identity()));
+    return distinct.stream()
+        .map(uuid -> found.get(uuid.toString()))
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  /**
+   * Retrieves the links to the direct children of a book, found by the parent's UUID with an
+   * index-only scan.
+   *
+   * @param parentUuid the UUID of the parent book
+   * @return the links to the children ordered by ID, empty if the book has none
+   * @throws EntityNotFoundException if no book is found with the specified UUID
+   */
+  @Transactional(readOnly = true)
+  public List<BookLinkDto> getChildLinks(UUID parentUuid) {
+    List<BookLinkDto> children = bookRepository.findChildLinksByParentUuid(parentUuid).stream()
+        .map(childLinkToBookLinkDto)
+        .toList();
+    // Only a childless or unknown parent needs the extra existence check
+    if (children.isEmpty() && !bookRepository.existsByUuid(parentUuid)) {
+      throw new EntityNotFoundException("Book not found with UUID: " + parentUuid);
+    }
+    return children;
   }
 
   /**
@@ -59,7 +306,9 @@ public class BookService {
   @Transactional(rollbackFor = Exception.class)
   public BookDto addBook(BookDto newBook) {
     Book book = bookDtoToBook.apply(newBook);
-    return bookToBookDto.apply(bookRepository.save(book));
+    BookDto addedBook = bookToBookDto.apply(bookRepository.save(book));
+    eventPublisher.publishEvent(BookChangedEvent.created(addedBook));
+    return addedBook;
   }
 
   /**
@@ -67,26 +316,46 @@ public class BookService {
    *
    * @param bookId the ID of the book to update
    * @param newBook the BookDto object containing the new values for the book
-   * @return a BookDto object representing the updated book
+   * @param expectedVersion the version the client last read, or {@code null} to update
+   *     unconditionally
+   * @return a BookDto object representing the updated book, with its new version
+   * @throws EntityNotFoundException if no book is found with the specified ID
+   * @throws PreconditionFailedException if the book no longer has the expected version
    */
   @Transactional(rollbackFor = Exception.class)
-  public BookDto updateBook(Long bookId, BookDto newBook) {
+  public BookDto updateBook(Long bookId, BookDto newBook, Long expectedVersion) {
     // Here you would typically update the fields of the existing book with the new values
     Book existingBook = findBookById(bookId);
+    if (Objects.nonNull(expectedVersion) && existingBook.getVersion() != expectedVersion) {
+      throw new PreconditionFailedException("Book with ID: " + bookId
+          + " has changed, current version: " + existingBook.getVersion());
+    }
+    Long previousParentId = existingBook.getParentId();
     Book updatedBook = bookDtoToBook.apply(newBook);
     copyProperties(updatedBook, existingBook);
-    // Save the updated book back to the repository
-    return bookToBookDto.apply(bookRepository.save(existingBook));
+    // Flush so the returned book carries the incremented version; a concurrent update that
+    // committed since the read fails the version check of the UPDATE
+    BookDto savedBook = bookToBookDto.apply(bookRepository.saveAndFlush(existingBook));
+    eventPublisher.publishEvent(BookChangedEvent.updated(savedBook, previousParentId));
+    return savedBook;
   }
 
   /**
-   * Deletes a book from the repository by its ID.
+   * Deletes a book from the repository by its ID. The row is kept as a tombstone, so delta sync
+   * clients learn about the deletion, until {@link BookDeltaService} compacts it.
    *
    * @param bookId the ID of the book to delete
    * @throws EntityNotFoundException if no book is found with the specified ID
    */
+  @Transactional(rollbackFor = Exception.class)
   public void deleteBook(Long bookId) {
-    bookRepository.deleteById(bookId);
+    Book existingBook = findBookById(bookId);
+    bookRepository.delete(existingBook);
+    eventPublisher.publishEvent(BookChangedEvent.deleted(bookToBookDto.apply(existingBook)));
+  }
+
+  private TwoTierCache booksCache() {
+    return (TwoTierCache) Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOKS_CACHE));
   }
 
   /**
@@ -108,7 +377,7 @@ public class BookService {
    * @param source the source BookDto object
    * @param target the target Book entity to update
    */
-  private void copyProperties(Book source, Book target) {
+  static void copyProperties(Book source, Book target) {
     target.setUuid(source.getUuid());
     target.setParentId(source.getParentId());
     target.setParentUuid(source.getParentUuid());
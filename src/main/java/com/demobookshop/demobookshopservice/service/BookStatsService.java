@@ -0,0 +1,137 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.StatsProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.dto.AuthorStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.BookStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.CatalogStatsDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.repository.BookStatsRepository;
+import io.micrometer.observation.annotation.Observed;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for the catalog statistics. The counts per catalog and per author are maintained
+ * by the database on every write and are always current. The books per depth change for a whole
+ * subtree when a catalog moves, so they are recomputed in the background instead: committed
+ * changes mark the statistics as stale, and the next scheduled run refreshes them under an
+ * advisory lock, so with several instances only one refreshes at a time.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class BookStatsService {
+
+  private final BookStatsRepository bookStatsRepository;
+  private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final int maxAuthors;
+  private final boolean refreshEnabled;
+
+  /** Whether books changed since the last refresh; set at startup to catch up on any change. */
+  private final AtomicBoolean stale = new AtomicBoolean(true);
+
+  public BookStatsService(
+      BookStatsRepository bookStatsRepository,
+      BookRepository bookRepository,
+      PlatformTransactionManager transactionManager,
+      StatsProperties properties) {
+    this.bookStatsRepository = bookStatsRepository;
+    this.bookRepository = bookRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.maxAuthors = properties.maxAuthors();
+    this.refreshEnabled = properties.refreshEnabled();
+  }
+
+  /**
+   * Retrieves the catalog-wide statistics.
+   *
+   * @return the totals and the books per depth, as of the last refresh
+   */
+  @Transactional(readOnly = true)
+  public BookStatsDto getBookStats() {
+    return bookStatsRepository.findBookStats();
+  }
+
+  /**
+   * Retrieves the authors with the most books.
+   *
+   * @param limit the maximum number of authors, clamped to [1, {@code bookshop.stats.max-authors}]
+   * @return the authors by decreasing number of books
+   */
+  @Transactional(readOnly = true)
+  public List<AuthorStatsDto> getTopAuthors(int limit) {
+    return bookStatsRepository.findTopAuthors(Math.clamp(limit, 1, maxAuthors));
+  }
+
+  /**
+   * Retrieves the number of direct children of a catalog.
+   *
+   * @param id the catalog ID
+   * @return the counts, zero for a book without children
+   * @throws EntityNotFoundException if there is no book with that ID
+   */
+  @Transactional(readOnly = true)
+  public CatalogStatsDto getCatalogStats(Long id) {
+    if (!bookRepository.existsById(id)) {
+      throw new EntityNotFoundException("Book not found with ID: " + id);
+    }
+    return bookStatsRepository
+        .findCatalogStats(id)
+        .orElseGet(() -> new CatalogStatsDto(id, 0L, 0L));
+  }
+
+  /**
+   * Marks the statistics as stale after a committed book change.
+   *
+   * @param event the book change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    stale.set(true);
+  }
+
+  /**
+   * Marks the statistics as stale after a committed bulk change.
+   *
+   * @param event the bulk change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksBulkChanged(BooksBulkChangedEvent event) {
+    stale.set(true);
+  }
+
+  /**
+   * Refreshes the books per depth if books changed since the last refresh. A run that cannot take
+   * the refresh lock, or fails, leaves the statistics stale for the next run. Does nothing unless
+   * {@code bookshop.stats.refresh-enabled} is set.
+   */
+  @Scheduled(fixedDelayString = "${bookshop.stats.refresh-interval:30s}")
+  public void refreshIfStale() {
+    if (!refreshEnabled || !stale.getAndSet(false)) {
+      return;
+    }
+    boolean refreshed = false;
+    try {
+      refreshed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+        if (!bookStatsRepository.tryLockRefresh()) {
+          return false;
+        }
+        bookStatsRepository.refreshDepthStats();
+        return true;
+      }));
+    } finally {
+      if (!refreshed) {
+        stale.set(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,339 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.datasource.ReplicaRoutingDataSource;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.model.projection.BookDeltaRow;
+import com.demobookshop.demobookshopservice.model.projection.BookParentLink;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-memory adjacency index of the catalog tree. Every parent ID maps to a primitive array
+ * of child IDs, so subtree and ancestor walks never leave the heap. The index is built once at
+ * startup and then maintained incrementally from {@link BookChangedEvent}s after commit. Writes of
+ * other instances publish no local events; they are read on a schedule, as the rows written since
+ * the last (CHANGE_XID, ID) position, so they reach the index within the refresh interval. Builds
+ * and refreshes read the primary in their own transaction, one at a time.
+ */
+@Component
+public class CatalogTreeIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogTreeIndex.class);
+
+  /** Parent value of books without a parent. */
+  private static final long NO_PARENT = 0L;
+
+  private static final long[] NO_CHILDREN = new long[0];
+
+  /** Rows read per refresh query. */
+  private static final int REFRESH_PAGE_SIZE = 1000;
+
+  private final BookRepository bookRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+
+  /** Serializes builds and refreshes, which own the refresh position. */
+  private final ReentrantLock loadLock = new ReentrantLock();
+
+  private long refreshXid;
+  private long refreshId;
+
+  private volatile Map<Long, long[]> children = new ConcurrentHashMap<>();
+  private volatile Map<Long, Long> parents = new ConcurrentHashMap<>();
+  private volatile boolean ready;
+
+  /** Changes received while a rebuild is running, replayed once it completes. */
+  private List<BookChangedEvent> pendingChanges;
+
+  public CatalogTreeIndex(
+      BookRepository bookRepository,
+      PlatformTransactionManager transactionManager,
+      CatalogTreeProperties properties) {
+    this.bookRepository = bookRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    // Builds also run after commit, where the finished transaction must not be joined
+    this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.enabled = properties.indexEnabled();
+  }
+
+  /**
+   * Indicates whether the index is enabled and fully built.
+   *
+   * @return {@code true} if lookups can be answered from the index
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Indicates whether the index knows the given book.
+   *
+   * @param bookId the ID of the book
+   * @return {@code true} if the book exists in the index
+   */
+  public boolean contains(long bookId) {
+    return parents.containsKey(bookId);
+  }
+
+  /**
+   * Returns the direct children of a book.
+   *
+   * @param parentId the ID of the parent book
+   * @return the child IDs in ascending order
+   */
+  public long[] childrenOf(long parentId) {
+    return children.getOrDefault(parentId, NO_CHILDREN);
+  }
+
+  /**
+   * Returns a book and all its descendants in breadth-first order.
+   *
+   * @param rootId the ID of the subtree root
+   * @param maxDepth the maximum number of levels to descend
+   * @return the subtree IDs starting with the root; empty if the root is unknown
+   */
+  public long[] subtreeOf(long rootId, int maxDepth) {
+    if (!contains(rootId)) {
+      return NO_CHILDREN;
+    }
+    long[] result = new long[16];
+    result[0] = rootId;
+    int size = 1;
+    int levelStart = 0;
+    for (int depth = 0; depth < maxDepth && levelStart < size; depth++) {
+      int levelEnd = size;
+      for (int i = levelStart; i < levelEnd; i++) {
+        long[] childIds = childrenOf(result[i]);
+        if (size + childIds.length > result.length) {
+          result = Arrays.copyOf(result, Math.max(result.length * 2, size + childIds.length));
+        }
+        System.arraycopy(childIds, 0, result, size, childIds.length);
+        size += childIds.length;
+      }
+      levelStart = levelEnd;
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Returns the path from the top-most ancestor down to the given book.
+   *
+   * @param bookId the ID of the book
+   * @param maxDepth the maximum number of levels to ascend
+   * @return the path IDs ending with the book itself; empty if the book is unknown
+   */
+  public long[] pathToRoot(long bookId, int maxDepth) {
+    long[] path = new long[8];
+    int size = 0;
+    long current = bookId;
+    // Changes are applied while readers walk: read each link once, a book gone in between ends
+    // the path
+    Long parent = parents.get(current);
+    while (size <= maxDepth && Objects.nonNull(parent)) {
+      if (size == path.length) {
+        path = Arrays.copyOf(path, size * 2);
+      }
+      path[size++] = current;
+      current = parent;
+      parent = current == NO_PARENT ? null : parents.get(current);
+    }
+    long[] result = new long[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = path[size - 1 - i];
+    }
+    return result;
+  }
+
+  /** Builds the index from the BOOKS table once the application has started. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    if (!enabled) {
+      return;
+    }
+    loadLock.lock();
+    try {
+      synchronized (this) {
+        pendingChanges = new ArrayList<>();
+      }
+      Map<Long, Long> newParents = new ConcurrentHashMap<>();
+      long horizon = ReplicaRoutingDataSource.onPrimary(
+          () -> readOnlyTransaction.execute(status -> {
+            // Rows of transactions at or above the horizon may be missed, the next refresh
+            // reads them again
+            long xmin = bookRepository.findDeltaHorizon();
+            try (Stream<BookParentLink> links = bookRepository.streamAllParentLinks()) {
+              links.forEach(link -> newParents.put(
+                  link.getId(), Objects.requireNonNullElse(link.getParentId(), NO_PARENT)));
+            }
+            return xmin;
+          }));
+      Map<Long, long[]> newChildren = buildChildren(newParents);
+      synchronized (this) {
+        children = newChildren;
+        parents = newParents;
+        pendingChanges.forEach(this::apply);
+        pendingChanges = null;
+        ready = true;
+      }
+      refreshXid = horizon - 1;
+      refreshId = Long.MAX_VALUE;
+      log.info("Catalog tree index built with {} books", newParents.size());
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  /** Applies the rows written since the last build or refresh, by this or any other instance. */
+  @Scheduled(
+      fixedDelayString = "${bookshop.catalog-tree.refresh-interval:10s}",
+      initialDelayString = "${bookshop.catalog-tree.refresh-interval:10s}")
+  public void refresh() {
+    if (!enabled || !ready || !loadLock.tryLock()) {
+      return;
+    }
+    try {
+      int applied = 0;
+      List<BookDeltaRow> rows;
+      do {
+        RefreshPage page = ReplicaRoutingDataSource.onPrimary(
+            () -> readOnlyTransaction.execute(status -> {
+              long horizon = bookRepository.findDeltaHorizon();
+              return new RefreshPage(
+                  horizon,
+                  bookRepository.findChangedAfter(
+                      refreshXid, refreshId, horizon, REFRESH_PAGE_SIZE));
+            }));
+        rows = page.rows();
+        synchronized (this) {
+          rows.forEach(row -> apply(
+              row.getId(), row.getParentId(), Boolean.TRUE.equals(row.getDeleted())));
+        }
+        applied += rows.size();
+        if (rows.size() < REFRESH_PAGE_SIZE) {
+          // Caught up: resume with the first transaction that may still have been running
+          refreshXid = page.horizon() - 1;
+          refreshId = Long.MAX_VALUE;
+        } else {
+          refreshXid = rows.getLast().getChangeXid();
+          refreshId = rows.getLast().getId();
+        }
+      } while (rows.size() == REFRESH_PAGE_SIZE);
+      log.debug("Catalog tree index refreshed with {} changed books", applied);
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  /**
+   * Applies a committed book change to the index.
+   *
+   * @param event the book change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBookChanged(BookChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    if (Objects.nonNull(pendingChanges)) {
+      pendingChanges.add(event);
+    } else {
+      apply(event);
+    }
+  }
+
+  /**
+   * Rebuilds the index after a committed bulk change, which carries no per-book events.
+   *
+   * @param event the bulk change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksBulkChanged(BooksBulkChangedEvent event) {
+    rebuild();
+  }
+
+  private void apply(BookChangedEvent event) {
+    apply(
+        event.book().id(),
+        event.book().parentId(),
+        event.type() == BookChangedEvent.ChangeType.DELETED);
+  }
+
+  private void apply(long bookId, Long newParentId, boolean deleted) {
+    // Replace the link in one step, so lock-free readers never miss a book that moves
+    long parentId = Objects.requireNonNullElse(newParentId, NO_PARENT);
+    Long previousParent = deleted ? parents.remove(bookId) : parents.put(bookId, parentId);
+    if (Objects.nonNull(previousParent) && previousParent != NO_PARENT) {
+      children.computeIfPresent(previousParent, (key, ids) -> remove(ids, bookId));
+    }
+    if (deleted) {
+      return;
+    }
+    if (parentId != NO_PARENT) {
+      children.merge(parentId, new long[] {bookId}, CatalogTreeIndex::merge);
+    }
+  }
+
+  /** Rows written after the refresh position, below the delta horizon they were read at. */
+  private record RefreshPage(long horizon, List<BookDeltaRow> rows) {}
+
+  private static Map<Long, long[]> buildChildren(Map<Long, Long> parents) {
+    // Size every child array exactly first, so the rebuild allocates each array once
+    Map<Long, int[]> counts = new HashMap<>();
+    parents.values().forEach(parentId -> {
+      if (parentId != NO_PARENT) {
+        counts.computeIfAbsent(parentId, key -> new int[1])[0]++;
+      }
+    });
+    Map<Long, long[]> result = new ConcurrentHashMap<>(Math.max(16, counts.size() * 2));
+    counts.forEach((parentId, count) -> result.put(parentId, new long[count[0]]));
+    parents.forEach((bookId, parentId) -> {
+      if (parentId != NO_PARENT) {
+        result.get(parentId)[--counts.get(parentId)[0]] = bookId;
+      }
+    });
+    result.values().forEach(Arrays::sort);
+    return result;
+  }
+
+  private static long[] merge(long[] ids, long[] added) {
+    long[] merged = Arrays.copyOf(ids, ids.length + added.length);
+    System.arraycopy(added, 0, merged, ids.length, added.length);
+    Arrays.sort(merged);
+    return merged;
+  }
+
+  private static long[] remove(long[] ids, long removed) {
+    int index = Arrays.binarySearch(ids, removed);
+    if (index < 0) {
+      return ids;
+    }
+    if (ids.length == 1) {
+      return null;
+    }
+    long[] result = new long[ids.length - 1];
+    System.arraycopy(ids, 0, result, 0, index);
+    System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+    return result;
+  }
+}
@@ -0,0 +1,231 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+
+import com.demobookshop.demobookshopservice.cache.SingleFlight;
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service class for walking the catalog hierarchy built from PARENT_ID links. Lookups are answered
+ * with a single recursive query, or from the {@link CatalogTreeIndex} plus one ID lookup when the
+ * index is enabled. Subtrees and children held by the {@link CatalogSnapshot}, when it is enabled,
+ * are read from it without a transaction. Concurrent reads of the ancestors or children of the
+ * same book share one lookup; they start their read-only transaction inside it, so waiting readers
+ * hold no connection.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class CatalogTreeService {
+
+  private final BookRepository bookRepository;
+  private final CatalogTreeIndex catalogTreeIndex;
+  private final CatalogSnapshot catalogSnapshot;
+  private final TransactionTemplate readOnlyTransaction;
+  private final SingleFlight<Long, List<BookDto>> ancestorLookups;
+  private final SingleFlight<Long, List<BookDto>> childLookups;
+  private final int maxDepth;
+
+  public CatalogTreeService(
+      BookRepository bookRepository,
+      CatalogTreeIndex catalogTreeIndex,
+      CatalogSnapshot catalogSnapshot,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      CatalogTreeProperties properties) {
+    this.bookRepository = bookRepository;
+    this.catalogTreeIndex = catalogTreeIndex;
+    this.catalogSnapshot = catalogSnapshot;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.ancestorLookups = new SingleFlight<>("ancestors", meterRegistry);
+    this.childLookups = new SingleFlight<>("children", meterRegistry);
+    this.maxDepth = properties.maxDepth();
+  }
+
+  /**
+   * Retrieves a book and all its descendants.
+   *
+   * @param rootId the ID of the subtree root
+   * @return the root followed by its descendants, level by level
+   * @throws EntityNotFoundException if no book is found with the specified ID
+   */
+  public List<BookDto> getSubtree(Long rootId) {
+    return catalogSnapshot
+        .findSubtree(rootId, maxDepth)
+        .orElseGet(() -> readOnlyTransaction.execute(status -> loadSubtree(rootId)));
+  }
+
+  /**
+   * Retrieves the ancestors of a book.
+   *
+   * @param bookId the ID of the book
+   * @return the ancestors from the top-most one down to the direct parent
+   * @throws EntityNotFoundException if no book is found with the specified ID
+   */
+  public List<BookDto> getAncestors(Long bookId) {
+    return ancestorLookups.execute(
+        bookId, () -> readOnlyTransaction.execute(status -> loadAncestors(bookId)));
+  }
+
+  /**
+   * Retrieves the direct children of a catalog.
+   *
+   * @param catalogId the ID of the catalog
+   * @return the children ordered by ID
+   * @throws EntityNotFoundException if no book is found with the specified ID
+   */
+  public List<BookDto> getChildren(Long catalogId) {
+    return catalogSnapshot
+        .findChildren(catalogId)
+        .orElseGet(() -> childLookups.execute(
+            catalogId, () -> readOnlyTransaction.execute(status -> loadChildren(catalogId))));
+  }
+
+  private List<BookDto> loadSubtree(Long rootId) {
+    List<Book> books = catalogTreeIndex.isReady()
+        ? findAllInOrder(catalogTreeIndex.subtreeOf(rootId, maxDepth))
+        : bookRepository.findSubtree(rootId, maxDepth);
+    if (books.isEmpty()) {
+      throw new EntityNotFoundException("Book not found with ID: " + rootId);
+    }
+    return books.stream().map(bookToBookDto).toList();
+  }
+
+  private List<BookDto> loadAncestors(Long bookId) {
+    List<Book> path = catalogTreeIndex.isReady()
+        ? findAllInOrder(catalogTreeIndex.pathToRoot(bookId, maxDepth))
+        : bookRepository.findPathToRoot(bookId, maxDepth);
+    if (path.isEmpty()) {
+      throw new EntityNotFoundException("Book not found with ID: " + bookId);
+    }
+    // The path ends with the book itself
+    return path.subList(0, path.size() - 1).stream().map(bookToBookDto).toList();
+  }
+
+  private List<BookDto> loadChildren(Long catalogId) {
+    if (catalogTreeIndex.isReady()) {
+      if (!catalogTreeIndex.contains(catalogId)) {
+        throw new EntityNotFoundException("Book not found with ID: " + catalogId);
+      }
+      return findAllInOrder(catalogTreeIndex.childrenOf(catalogId)).stream()
+          .map(bookToBookDto)
+          .toList();
+    }
+    if (!bookRepository.existsById(catalogId)) {
+      throw new EntityNotFoundException("Book not found with ID: " + catalogId);
+    }
+    return bookRepository.findByParentIdOrderByIdAsc(catalogId).stream()
+        .map(bookToBookDto)
+        .toList();
+  }
+
+  /**
+   * Retrieves several books with one ID lookup. Used to resolve the parents of many books at once.
+   *
+   * @param ids the IDs of the books
+   * @return the books found, by ID; unknown IDs are absent
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, BookDto> getBooksById(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return bookRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Book::getId, bookToBookDto));
+  }
+
+  /**
+   * Retrieves the direct children of several catalogs with one query.
+   *
+   * @param catalogIds the IDs of the catalogs
+   * @return the children ordered by ID, by parent ID; catalogs without children are absent
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, List<BookDto>> getChildrenOf(Collection<Long> catalogIds) {
+    if (catalogIds.isEmpty()) {
+      return Map.of();
+    }
+    return bookRepository.findByParentIdInOrderByIdAsc(catalogIds).stream()
+        .map(bookToBookDto)
+        .collect(Collectors.groupingBy(BookDto::parentId));
+  }
+
+  /**
+   * Retrieves the ancestors of several books with one ID lookup per level, however many books
+   * are given. Ancestors shared by several books are loaded once.
+   *
+   * @param books the books
+   * @return the ancestors from the top-most one down to the direct parent, by book ID
+   */
+  @Transactional(readOnly = true)
+  public Map<Long, List<BookDto>> getAncestorsOf(Collection<BookDto> books) {
+    Map<Long, BookDto> known = new HashMap<>();
+    books.forEach(book -> known.put(book.id(), book));
+    Set<Long> missing = missingParentIds(books, known);
+    for (int depth = 0; depth < maxDepth && !missing.isEmpty(); depth++) {
+      List<BookDto> parents =
+          bookRepository.findAllById(missing).stream().map(bookToBookDto).toList();
+      parents.forEach(parent -> known.put(parent.id(), parent));
+      missing = missingParentIds(parents, known);
+    }
+    Map<Long, List<BookDto>> ancestors = new HashMap<>();
+    for (BookDto book : books) {
+      List<BookDto> path = new ArrayList<>();
+      BookDto parent = known.get(book.parentId());
+      // The depth limit also stops at cycles in PARENT_ID links
+      while (Objects.nonNull(parent) && path.size() < maxDepth) {
+        path.add(parent);
+        parent = known.get(parent.parentId());
+      }
+      ancestors.put(book.id(), path.reversed());
+    }
+    return ancestors;
+  }
+
+  private static Set<Long> missingParentIds(Collection<BookDto> books, Map<Long, BookDto> known) {
+    return books.stream()
+        .map(BookDto::parentId)
+        .filter(parentId -> Objects.nonNull(parentId) && !known.containsKey(parentId))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Loads books with one ID lookup and returns them in the order of the given IDs.
+   *
+   * @param ids the IDs of the books
+   * @return the books found, in the order of {@code ids}
+   */
+  private List<Book> findAllInOrder(long[] ids) {
+    if (ids.length == 0) {
+      return List.of();
+    }
+    Map<Long, Book> booksById =
+        bookRepository.findAllById(Arrays.stream(ids).boxed().toList()).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    return Arrays.stream(ids)
+        .mapToObj(booksById::get)
+        .filter(Objects::nonNull)
+        .toList();
+  }
+}
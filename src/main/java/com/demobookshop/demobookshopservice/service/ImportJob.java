@@ -0,0 +1,124 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.model.dto.ImportErrorDto;
+import com.demobookshop.demobookshopservice.model.dto.ImportJobDto;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutable progress of one bulk import. Written by the importing thread only and read by status
+ * queries, so plain volatile fields are enough.
+ */
+class ImportJob {
+
+  /** Phase of an import. */
+  enum Status {
+    RECEIVING,
+    VALIDATING,
+    MERGING,
+    COMPLETED,
+    FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  private final BookImportService.Format format;
+  private final Instant startedAt = Instant.now();
+  private final long startedNanos = System.nanoTime();
+
+  private volatile Status status = Status.RECEIVING;
+  private volatile long bytesRead;
+  private volatile long rowsStaged;
+  private volatile long rowsInserted;
+  private volatile long rowsUpdated;
+  private volatile long rowsRejected;
+  private volatile List<ImportErrorDto> errors;
+  private volatile Instant finishedAt;
+  private volatile long finishedNanos;
+  private volatile String message;
+
+  ImportJob(BookImportService.Format format) {
+    this.format = format;
+  }
+
+  String id() {
+    return id;
+  }
+
+  Instant startedAt() {
+    return startedAt;
+  }
+
+  void addBytesRead(long bytes) {
+    bytesRead += bytes;
+  }
+
+  void staged(long rows) {
+    rowsStaged = rows;
+    status = Status.VALIDATING;
+  }
+
+  void validated(long rejected, List<ImportErrorDto> firstErrors) {
+    rowsRejected = rejected;
+    errors = firstErrors;
+    status = Status.MERGING;
+  }
+
+  void merged(long inserted, long updated) {
+    rowsInserted = inserted;
+    rowsUpdated = updated;
+  }
+
+  void complete() {
+    finish(Status.COMPLETED, null);
+  }
+
+  void fail(String failureMessage) {
+    finish(Status.FAILED, failureMessage);
+  }
+
+  long rowsInserted() {
+    return rowsInserted;
+  }
+
+  long rowsUpdated() {
+    return rowsUpdated;
+  }
+
+  long rowsRejected() {
+    return rowsRejected;
+  }
+
+  long bytesRead() {
+    return bytesRead;
+  }
+
+  ImportJobDto toDto() {
+    long endNanos = Objects.isNull(finishedAt) ? System.nanoTime() : finishedNanos;
+    long durationMillis = TimeUnit.NANOSECONDS.toMillis(endNanos - startedNanos);
+    return new ImportJobDto(
+        id,
+        format.name(),
+        status.name(),
+        bytesRead,
+        rowsStaged,
+        rowsInserted,
+        rowsUpdated,
+        rowsRejected,
+        startedAt.toString(),
+        Objects.isNull(finishedAt) ? null : finishedAt.toString(),
+        durationMillis,
+        rowsStaged * 1000 / Math.max(1, durationMillis),
+        errors,
+        message);
+  }
+
+  private void finish(Status finalStatus, String failureMessage) {
+    finishedNanos = System.nanoTime();
+    message = failureMessage;
+    status = finalStatus;
+    finishedAt = Instant.now();
+  }
+}
@@ -0,0 +1,204 @@
+package com.demobookshop.demobookshopservice.service;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.config.SubtreeCacheProperties;
+import com.demobookshop.demobookshopservice.datasource.ReplicaRoutingDataSource;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.observation.annotation.Observed;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Service class serving catalog subtrees as pre-encoded JSON snapshots. A snapshot is built once
+ * per subtree root and kept until a book inside it changes. A change can only affect the subtrees
+ * rooted at the book itself or at one of its ancestors, so after commit exactly that chain,
+ * followed through PARENT_ID links, is evicted; every other snapshot stays cached. Snapshots are
+ * built from the primary, as one read from a lagging replica would be cached until it expires.
+ *
+ * <p>With the Hazelcast tier enabled, the evicted roots are published on the {@value
+ * #EVICTION_TOPIC} topic and every instance evicts them too. Without it, changes made by other
+ * instances show after at most {@code bookshop.subtree-cache.expire-after-write}.
+ */
+@Observed(name = "bookshop.service")
+@Service
+public class SubtreeSnapshotService {
+
+  /** Hazelcast topic of evicted subtree roots; an empty array evicts every snapshot. */
+  public static final String EVICTION_TOPIC = "subtree-evictions";
+
+  /** Parent value of books without a parent. */
+  private static final long NO_PARENT = 0L;
+
+  private static final long[] ALL_ROOTS = new long[0];
+
+  /**
+   * Pre-encoded JSON array of a subtree, root first, level by level.
+   *
+   * @param json the UTF-8 JSON; shared by all readers and never modified
+   * @param eTag the strong ETag of {@code json}
+   */
+  public record SubtreeSnapshot(byte[] json, String eTag) {}
+
+  private final CatalogTreeService catalogTreeService;
+  private final CatalogTreeIndex catalogTreeIndex;
+  private final BookRepository bookRepository;
+  private final TransactionTemplate ancestorLookups;
+  private final JsonMapper jsonMapper;
+  private final int maxDepth;
+  private final Cache<Long, SubtreeSnapshot> snapshots;
+  private final Counter invalidations;
+  private final ITopic<long[]> evictions;
+
+  public SubtreeSnapshotService(
+      CatalogTreeService catalogTreeService,
+      CatalogTreeIndex catalogTreeIndex,
+      BookRepository bookRepository,
+      PlatformTransactionManager transactionManager,
+      ObjectProvider<HazelcastInstance> hazelcastInstance,
+      JsonMapper jsonMapper,
+      MeterRegistry meterRegistry,
+      CatalogTreeProperties catalogTreeProperties,
+      SubtreeCacheProperties properties) {
+    this.catalogTreeService = catalogTreeService;
+    this.catalogTreeIndex = catalogTreeIndex;
+    this.bookRepository = bookRepository;
+    // Ancestors are looked up after commit, where the finished transaction must not be joined
+    this.ancestorLookups = new TransactionTemplate(transactionManager);
+    this.ancestorLookups.setReadOnly(true);
+    this.ancestorLookups.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.jsonMapper = jsonMapper;
+    this.maxDepth = catalogTreeProperties.maxDepth();
+    this.snapshots = Caffeine.newBuilder()
+        .maximumWeight(properties.maximumWeight().toBytes())
+        .weigher((Long rootId, SubtreeSnapshot snapshot) -> snapshot.json().length)
+        .expireAfterWrite(properties.expireAfterWrite())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "subtrees");
+    this.invalidations = Counter.builder("bookshop.subtree-cache.invalidations")
+        .description("Subtree snapshots evicted because a book inside them changed")
+        .register(meterRegistry);
+    HazelcastInstance instance = hazelcastInstance.getIfAvailable();
+    this.evictions = Objects.isNull(instance) ? null : instance.getTopic(EVICTION_TOPIC);
+    if (Objects.nonNull(evictions)) {
+      evictions.addMessageListener(message -> evict(message.getMessageObject()));
+    }
+  }
+
+  /**
+   * Retrieves a book and all its descendants as a JSON snapshot.
+   *
+   * @param rootId the ID of the subtree root
+   * @return the snapshot, built on the first request after a change
+   * @throws com.demobookshop.demobookshopservice.exception.EntityNotFoundException if no book is
+   *     found with the specified ID
+   */
+  public SubtreeSnapshot getSubtree(Long rootId) {
+    SubtreeSnapshot snapshot = snapshots.getIfPresent(rootId);
+    if (Objects.nonNull(snapshot)) {
+      return snapshot;
+    }
+    // Concurrent requests for a cold root share one build under Caffeine's per-key lock. A build
+    // running while the root is evicted completes first and is then evicted, and requests
+    // arriving after the eviction build again, so a snapshot read before a commit never outlives
+    // it
+    return snapshots.get(rootId, this::load);
+  }
+
+  /**
+   * Evicts the snapshots rooted at a committed change's book and at all its ancestors, before
+   * and after the change.
+   *
+   * @param event the book change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    // Other instances may hold snapshots this one does not
+    if (snapshots.estimatedSize() == 0 && Objects.isNull(evictions)) {
+      return;
+    }
+    Set<Long> roots = new HashSet<>();
+    roots.add(event.book().id());
+    addAncestorChain(roots, event.book().parentId());
+    addAncestorChain(roots, event.previousParentId());
+    long[] evicted = roots.stream().mapToLong(Long::longValue).toArray();
+    evict(evicted);
+    publish(evicted);
+  }
+
+  /**
+   * Evicts all snapshots after a committed bulk change, which carries no per-book events.
+   *
+   * @param event the bulk change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksBulkChanged(BooksBulkChangedEvent event) {
+    evict(ALL_ROOTS);
+    publish(ALL_ROOTS);
+  }
+
+  private void evict(long[] roots) {
+    if (roots.length == 0) {
+      invalidations.increment(snapshots.estimatedSize());
+      snapshots.invalidateAll();
+      return;
+    }
+    for (long rootId : roots) {
+      snapshots.invalidate(rootId);
+    }
+    invalidations.increment(roots.length);
+  }
+
+  /** Sends evicted roots to the other instances; this one receives them too, harmlessly. */
+  private void publish(long[] roots) {
+    if (Objects.nonNull(evictions)) {
+      evictions.publish(roots);
+    }
+  }
+
+  private SubtreeSnapshot load(Long rootId) {
+    // A snapshot is cached far longer than the replica lags, so it is built from the primary
+    byte[] json = jsonMapper.writeValueAsBytes(
+        ReplicaRoutingDataSource.onPrimary(() -> catalogTreeService.getSubtree(rootId)));
+    return new SubtreeSnapshot(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+  }
+
+  /** Adds a book and its ancestors, from the tree index when it is built, else with one query. */
+  private void addAncestorChain(Set<Long> roots, Long bookId) {
+    if (Objects.isNull(bookId) || bookId == NO_PARENT || roots.contains(bookId)) {
+      return;
+    }
+    if (catalogTreeIndex.isReady()) {
+      for (long id : catalogTreeIndex.pathToRoot(bookId, maxDepth)) {
+        roots.add(id);
+      }
+    } else {
+      // The chain must be current: read it from the primary, in a transaction of its own
+      List<Book> path = ReplicaRoutingDataSource.onPrimary(() -> ancestorLookups.execute(
+          status -> bookRepository.findPathToRoot(bookId, maxDepth)));
+      path.stream().map(Book::getId).forEach(roots::add);
+    }
+    // The parent may already be gone, its snapshot must go all the same
+    roots.add(bookId);
+  }
+}
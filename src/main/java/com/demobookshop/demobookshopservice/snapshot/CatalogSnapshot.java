@@ -0,0 +1,296 @@
+package com.demobookshop.demobookshopservice.snapshot;
+
+import com.demobookshop.demobookshopservice.config.CatalogSnapshotProperties;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional memory-mapped snapshot of the catalog, for reads that should touch neither the
+ * database nor the heap caches. The live books are exported periodically into a
+ * {@link CatalogSnapshotFile}, which replaces the previous file and the previous mapping
+ * atomically; readers holding the old mapping finish on it.
+ *
+ * <p>A snapshot only answers for books it is known to hold current data for. Committed changes
+ * mark the changed book and its old and new parents, and a bulk change the whole snapshot, as
+ * changed until a snapshot exported after the change is mapped. Reads of changed books, and of
+ * books the snapshot does not have, fall back to the database, so an instance always reads its own
+ * writes; changes made by other instances show up with the next export.
+ */
+@Component
+public class CatalogSnapshot {
+
+  private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+  private static final String FILE_NAME = "catalog.snapshot";
+
+  /**
+   * A mapped snapshot.
+   *
+   * @param file the mapped file
+   * @param sequence the last change sequence the snapshot is known to contain
+   */
+  private record Generation(CatalogSnapshotFile file, long sequence) {}
+
+  private final BookSnapshotRepository bookSnapshotRepository;
+  private final TransactionTemplate exportTransaction;
+  private final boolean enabled;
+  private final Path directory;
+  private final Duration maxAge;
+  private final Counter hits;
+  private final Counter fallbacks;
+
+  /** Numbers committed changes in the order their events were received. */
+  private final AtomicLong changeSequence = new AtomicLong();
+
+  /** Sequence of the last change of each changed book not yet in the snapshot. */
+  private final Map<Long, Long> changedIds = new ConcurrentHashMap<>();
+
+  private volatile long bulkChangeSequence;
+  private volatile Generation current;
+
+  public CatalogSnapshot(
+      BookSnapshotRepository bookSnapshotRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      CatalogSnapshotProperties properties) {
+    this.bookSnapshotRepository = bookSnapshotRepository;
+    // Not read-only on purpose: the export reads the primary, which has every committed change
+    this.exportTransaction = new TransactionTemplate(transactionManager);
+    this.exportTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.enabled = properties.enabled();
+    this.directory = properties.directory();
+    this.maxAge = properties.maxAge();
+    this.hits = Counter.builder("bookshop.catalog-snapshot.reads")
+        .description("Reads answered by the catalog snapshot or falling back to the database")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    this.fallbacks = Counter.builder("bookshop.catalog-snapshot.reads")
+        .description("Reads answered by the catalog snapshot or falling back to the database")
+        .tag("result", "fallback")
+        .register(meterRegistry);
+    Gauge.builder("bookshop.catalog-snapshot.books", this, CatalogSnapshot::size)
+        .description("Books in the mapped catalog snapshot")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Indicates whether a book can be read from the snapshot.
+   *
+   * @param id the ID of the book
+   * @return {@code true} if {@link #findBook} would find the book
+   */
+  public boolean contains(long id) {
+    Generation generation = usable();
+    return Objects.nonNull(generation)
+        && !changed(generation, id)
+        && generation.file().indexOf(id) >= 0;
+  }
+
+  /**
+   * Reads a book from the snapshot.
+   *
+   * @param id the ID of the book
+   * @return the book, or empty if it has to be read from the database
+   */
+  public Optional<BookDto> findBook(long id) {
+    return find(generation -> {
+      int index = generation.file().indexOf(id);
+      return index < 0 || changed(generation, id)
+          ? Optional.empty()
+          : Optional.of(generation.file().book(index));
+    });
+  }
+
+  /**
+   * Reads the direct children of a book from the snapshot.
+   *
+   * @param parentId the ID of the parent book
+   * @return the children ordered by ID, or empty if they have to be read from the database
+   */
+  public Optional<List<BookDto>> findChildren(long parentId) {
+    return find(generation -> generation.file().indexOf(parentId) < 0
+        ? Optional.empty()
+        : books(generation, generation.file().childrenOf(parentId), parentId));
+  }
+
+  /**
+   * Reads a book and all its descendants from the snapshot.
+   *
+   * @param rootId the ID of the subtree root
+   * @param maxDepth the maximum number of levels to descend
+   * @return the root followed by its descendants, level by level, or empty if they have to be
+   *     read from the database
+   */
+  public Optional<List<BookDto>> findSubtree(long rootId, int maxDepth) {
+    return find(generation -> {
+      long[] ids = generation.file().subtreeOf(rootId, maxDepth);
+      return ids.length == 0 ? Optional.empty() : books(generation, ids);
+    });
+  }
+
+  /**
+   * Marks a committed change's book and its parents, before and after the change, as changed.
+   *
+   * @param event the book change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    long sequence = changeSequence.incrementAndGet();
+    markChanged(event.book().id(), sequence);
+    markChanged(event.book().parentId(), sequence);
+    markChanged(event.previousParentId(), sequence);
+  }
+
+  /**
+   * Marks the whole snapshot as changed after a committed bulk change.
+   *
+   * @param event the bulk change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBooksBulkChanged(BooksBulkChangedEvent event) {
+    if (enabled) {
+      bulkChangeSequence = changeSequence.incrementAndGet();
+    }
+  }
+
+  /**
+   * Exports the catalog and swaps the new snapshot in. A failed export keeps the current
+   * snapshot, which is used until it is older than {@code bookshop.catalog-snapshot.max-age}.
+   */
+  @Scheduled(fixedDelayString = "${bookshop.catalog-snapshot.refresh-interval:1m}")
+  public void refresh() {
+    if (!enabled) {
+      return;
+    }
+    if (Objects.isNull(current)) {
+      deleteTemporaryFiles();
+    }
+    // Changes numbered up to here were committed before the export transaction starts
+    long sequence = changeSequence.get();
+    Instant startedAt = Instant.now();
+    Path target = directory.resolve(FILE_NAME);
+    CatalogSnapshotFile file;
+    try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(directory)) {
+      exportTransaction.executeWithoutResult(status -> {
+        bookSnapshotRepository.exportBooks(writer);
+        bookSnapshotRepository.exportChildLinks(writer);
+      });
+      writer.finish(target, startedAt);
+      file = CatalogSnapshotFile.open(target);
+    } catch (RuntimeException e) {
+      log.warn("Catalog snapshot export failed, keeping the current snapshot", e);
+      return;
+    }
+    current = new Generation(file, sequence);
+    changedIds.entrySet().removeIf(entry -> entry.getValue() <= sequence);
+    log.info(
+        "Catalog snapshot of {} books mapped in {}",
+        file.size(),
+        Duration.between(startedAt, Instant.now()));
+  }
+
+  private int size() {
+    Generation generation = current;
+    return Objects.isNull(generation) ? 0 : generation.file().size();
+  }
+
+  /** Returns the current snapshot if it has no bulk change pending and is recent enough. */
+  private Generation usable() {
+    Generation generation = current;
+    if (Objects.isNull(generation)
+        || generation.sequence() < bulkChangeSequence
+        || generation.file().createdAt().isBefore(Instant.now().minus(maxAge))) {
+      return null;
+    }
+    return generation;
+  }
+
+  private <T> Optional<T> find(Function<Generation, Optional<T>> lookup) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    Optional<T> result = Optional.ofNullable(usable()).flatMap(lookup);
+    (result.isPresent() ? hits : fallbacks).increment();
+    return result;
+  }
+
+  /**
+   * Decodes books, unless one of them, or one of the other given books, changed since the export.
+   *
+   * @return the books in the order of the IDs, or empty
+   */
+  private Optional<List<BookDto>> books(Generation generation, long[] ids, long... alsoUnchanged) {
+    for (long id : alsoUnchanged) {
+      if (changed(generation, id)) {
+        return Optional.empty();
+      }
+    }
+    List<BookDto> books = new ArrayList<>(ids.length);
+    for (long id : ids) {
+      int index = generation.file().indexOf(id);
+      if (index < 0 || changed(generation, id)) {
+        return Optional.empty();
+      }
+      books.add(generation.file().book(index));
+    }
+    return Optional.of(books);
+  }
+
+  private void markChanged(Long id, long sequence) {
+    if (Objects.nonNull(id)) {
+      changedIds.put(id, sequence);
+    }
+  }
+
+  private boolean changed(Generation generation, long id) {
+    if (changedIds.isEmpty()) {
+      return false;
+    }
+    Long sequence = changedIds.get(id);
+    return Objects.nonNull(sequence) && sequence > generation.sequence();
+  }
+
+  /** Deletes the temporary files a previous process may have left behind. */
+  private void deleteTemporaryFiles() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.tmp")) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException e) {
+      log.warn("Could not delete the temporary files in {}", directory, e);
+    }
+  }
+}
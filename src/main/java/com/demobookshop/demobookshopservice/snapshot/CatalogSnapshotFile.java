@@ -0,0 +1,239 @@
+package com.demobookshop.demobookshopservice.snapshot;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Read-only, memory-mapped catalog snapshot. The file holds a 64-byte header followed by
+ * fixed-width little-endian columns of {@code long}s, one value per book, and a string arena:
+ *
+ * <ul>
+ *   <li>ID, PARENT_ID (0 for top-level books), UUID and PARENT_UUID as two columns each (0/0 for
+ *       no parent), VERSION, UPDATED_AT (epoch microseconds), META (title length in bytes shifted
+ *       left by one, catalog flag in bit 0) and STRING_END, all ordered by ID;
+ *   <li>CHILD_PARENT and CHILD_ID, the (parent ID, ID) pairs of all books in that order;
+ *   <li>the UTF-8 titles and authors, title first, each book's strings ending at STRING_END.
+ * </ul>
+ *
+ * <p>Books are found by binary search over the ID column and children by binary search over the
+ * CHILD_PARENT column, so a lookup reads a few pages of the mapping and allocates nothing but the
+ * returned DTO. The mapping is released by the garbage collector once no reader holds the
+ * snapshot any more; instances are immutable and thread-safe.
+ */
+public final class CatalogSnapshotFile {
+
+  static final long MAGIC = 0x5041_4E53_4B4F_4F42L; // "BOOKSNAP" in little-endian order
+  static final long FORMAT_VERSION = 1L;
+  static final long HEADER_SIZE = 64L;
+
+  static final int ID = 0;
+  static final int PARENT_ID = 1;
+  static final int UUID_MSB = 2;
+  static final int UUID_LSB = 3;
+  static final int PARENT_UUID_MSB = 4;
+  static final int PARENT_UUID_LSB = 5;
+  static final int VERSION = 6;
+  static final int UPDATED_AT = 7;
+  static final int META = 8;
+  static final int STRING_END = 9;
+  static final int CHILD_PARENT = 10;
+  static final int CHILD_ID = 11;
+  static final int COLUMNS = 12;
+
+  static final long NO_PARENT = 0L;
+  static final long NO_TIME = Long.MIN_VALUE;
+  static final long CATALOG_FLAG = 1L;
+
+  private static final ValueLayout.OfLong LONG =
+      ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final long[] NO_IDS = new long[0];
+
+  private final MemorySegment segment;
+  private final int size;
+  private final long stringsOffset;
+  private final Instant createdAt;
+
+  private CatalogSnapshotFile(MemorySegment segment) {
+    if (segment.byteSize() < HEADER_SIZE
+        || segment.get(LONG, 0) != MAGIC
+        || segment.get(LONG, 8) != FORMAT_VERSION) {
+      throw new IllegalStateException("Not a catalog snapshot of format " + FORMAT_VERSION);
+    }
+    this.segment = segment;
+    this.size = Math.toIntExact(segment.get(LONG, 16));
+    this.stringsOffset = HEADER_SIZE + (long) COLUMNS * size * Long.BYTES;
+    this.createdAt = Instant.ofEpochMilli(segment.get(LONG, 32));
+    if (segment.byteSize() < stringsOffset + segment.get(LONG, 24)) {
+      throw new IllegalStateException("Truncated catalog snapshot");
+    }
+  }
+
+  /**
+   * Maps a snapshot file read-only.
+   *
+   * @param file the snapshot file
+   * @return the mapped snapshot; it stays valid after the file is replaced or deleted
+   */
+  public static CatalogSnapshotFile open(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new CatalogSnapshotFile(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the number of books.
+   *
+   * @return the number of books in the snapshot
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the time the snapshot data was read from the database.
+   *
+   * @return the creation time
+   */
+  public Instant createdAt() {
+    return createdAt;
+  }
+
+  /**
+   * Finds the position of a book.
+   *
+   * @param id the ID of the book
+   * @return its index, or a negative value if the snapshot has no such book
+   */
+  public int indexOf(long id) {
+    return search(ID, id, false);
+  }
+
+  /**
+   * Decodes the book at a position.
+   *
+   * @param index the index of the book, as returned by {@link #indexOf}
+   * @return the book, with its version and time of last change
+   */
+  public BookDto book(int index) {
+    long parentId = get(PARENT_ID, index);
+    long parentUuidMsb = get(PARENT_UUID_MSB, index);
+    long parentUuidLsb = get(PARENT_UUID_LSB, index);
+    long updatedAt = get(UPDATED_AT, index);
+    long meta = get(META, index);
+    long stringStart = index == 0 ? 0L : get(STRING_END, index - 1);
+    long titleEnd = stringStart + (meta >>> 1);
+    return new BookDto(
+        get(ID, index),
+        new UUID(get(UUID_MSB, index), get(UUID_LSB, index)),
+        parentId == NO_PARENT ? null : parentId,
+        parentUuidMsb == 0L && parentUuidLsb == 0L
+            ? null
+            : new UUID(parentUuidMsb, parentUuidLsb),
+        (meta & CATALOG_FLAG) != 0,
+        string(stringStart, titleEnd),
+        string(titleEnd, get(STRING_END, index)),
+        get(VERSION, index),
+        updatedAt == NO_TIME ? null : Instant.EPOCH.plus(updatedAt, ChronoUnit.MICROS));
+  }
+
+  /**
+   * Returns the direct children of a book.
+   *
+   * @param parentId the ID of the parent book
+   * @return the child IDs in ascending order
+   */
+  public long[] childrenOf(long parentId) {
+    int from = search(CHILD_PARENT, parentId, true);
+    if (from >= size || get(CHILD_PARENT, from) != parentId) {
+      return NO_IDS;
+    }
+    int to = search(CHILD_PARENT, parentId + 1, true);
+    long[] ids = new long[to - from];
+    MemorySegment.copy(segment, LONG, offset(CHILD_ID, from), ids, 0, ids.length);
+    return ids;
+  }
+
+  /**
+   * Returns a book and all its descendants in breadth-first order.
+   *
+   * @param rootId the ID of the subtree root
+   * @param maxDepth the maximum number of levels to descend
+   * @return the subtree IDs starting with the root; empty if the root is unknown
+   */
+  public long[] subtreeOf(long rootId, int maxDepth) {
+    if (indexOf(rootId) < 0) {
+      return NO_IDS;
+    }
+    long[] result = new long[16];
+    result[0] = rootId;
+    int count = 1;
+    int levelStart = 0;
+    for (int depth = 0; depth < maxDepth && levelStart < count; depth++) {
+      int levelEnd = count;
+      for (int i = levelStart; i < levelEnd; i++) {
+        long[] childIds = childrenOf(result[i]);
+        if (count + childIds.length > result.length) {
+          result = Arrays.copyOf(result, Math.max(result.length * 2, count + childIds.length));
+        }
+        System.arraycopy(childIds, 0, result, count, childIds.length);
+        count += childIds.length;
+      }
+      levelStart = levelEnd;
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Binary search over a sorted column.
+   *
+   * @param lowerBound {@code true} to return the first index whose value is not less than the key,
+   *     {@code false} to return the index of the key or {@code -1}
+   */
+  private int search(int column, long key, boolean lowerBound) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long value = get(column, mid);
+      if (value < key) {
+        low = mid + 1;
+      } else if (value > key || lowerBound) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return lowerBound ? low : -1;
+  }
+
+  private long get(int column, int index) {
+    return segment.get(LONG, offset(column, index));
+  }
+
+  private long offset(int column, int index) {
+    return HEADER_SIZE + ((long) column * size + index) * Long.BYTES;
+  }
+
+  private String string(long start, long end) {
+    byte[] bytes = segment
+        .asSlice(stringsOffset + start, end - start)
+        .toArray(ValueLayout.JAVA_BYTE);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
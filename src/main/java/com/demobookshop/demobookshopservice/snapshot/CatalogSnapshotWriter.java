@@ -0,0 +1,259 @@
+package com.demobookshop.demobookshopservice.snapshot;
+
+import static com.demobookshop.demobookshopservice.snapshot.CatalogSnapshotFile.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes a catalog snapshot file in the {@link CatalogSnapshotFile} format. Books and child links
+ * are streamed in; every column goes to its own temporary file, so memory use does not grow with
+ * the catalog. {@link #finish} then assembles the columns into the snapshot and moves it into
+ * place atomically, so a reader mapping the target sees either the previous or the new snapshot.
+ * Not thread-safe.
+ */
+public class CatalogSnapshotWriter implements Closeable {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path directory;
+  private final List<Column> columns = new ArrayList<>(COLUMNS);
+  private final Column strings;
+  private long bookCount;
+  private long linkCount;
+  private long lastId = Long.MIN_VALUE;
+  private long lastLinkParent = Long.MIN_VALUE;
+  private long lastLinkId = Long.MIN_VALUE;
+  private long stringsSize;
+
+  /**
+   * Creates a writer keeping its temporary files in the given directory.
+   *
+   * @param directory the directory of the snapshot; must be on the same file system as the target
+   */
+  public CatalogSnapshotWriter(Path directory) {
+    this.directory = directory;
+    try {
+      Files.createDirectories(directory);
+      for (int i = 0; i < COLUMNS; i++) {
+        columns.add(new Column(directory));
+      }
+      strings = new Column(directory);
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Appends a book. Books must come in ascending ID order.
+   *
+   * @param id book ID
+   * @param uuid book UUID
+   * @param parentId parent ID, {@code null} for a top-level book
+   * @param parentUuid parent UUID, may be {@code null}
+   * @param isCatalog whether the book is a catalog
+   * @param title book title
+   * @param author book author
+   * @param version book version
+   * @param updatedAt time of the last change, may be {@code null}
+   */
+  public void writeBook(
+      long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author,
+      long version,
+      Instant updatedAt) {
+    if (id <= lastId) {
+      throw new IllegalStateException("Books must be written in ascending ID order: " + id);
+    }
+    lastId = id;
+    byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+    byte[] authorBytes = author.getBytes(StandardCharsets.UTF_8);
+    stringsSize += titleBytes.length + authorBytes.length;
+    put(ID, id);
+    put(PARENT_ID, Objects.requireNonNullElse(parentId, NO_PARENT));
+    put(UUID_MSB, uuid.getMostSignificantBits());
+    put(UUID_LSB, uuid.getLeastSignificantBits());
+    put(PARENT_UUID_MSB, Objects.isNull(parentUuid) ? 0L : parentUuid.getMostSignificantBits());
+    put(PARENT_UUID_LSB, Objects.isNull(parentUuid) ? 0L : parentUuid.getLeastSignificantBits());
+    put(VERSION, version);
+    put(
+        UPDATED_AT,
+        Objects.isNull(updatedAt) ? NO_TIME : ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt));
+    put(META, ((long) titleBytes.length << 1) | (isCatalog ? CATALOG_FLAG : 0L));
+    put(STRING_END, stringsSize);
+    strings.put(titleBytes);
+    strings.put(authorBytes);
+    bookCount++;
+  }
+
+  /**
+   * Appends the child link of a book. Links must come in ascending (parent ID, ID) order, one per
+   * book written.
+   *
+   * @param parentId parent ID, {@code null} for a top-level book
+   * @param id book ID
+   */
+  public void writeChildLink(Long parentId, long id) {
+    long parent = Objects.requireNonNullElse(parentId, NO_PARENT);
+    if (parent < lastLinkParent || (parent == lastLinkParent && id <= lastLinkId)) {
+      throw new IllegalStateException(
+          "Child links must be written in ascending (parent ID, ID) order: " + id);
+    }
+    lastLinkParent = parent;
+    lastLinkId = id;
+    put(CHILD_PARENT, parent);
+    put(CHILD_ID, id);
+    linkCount++;
+  }
+
+  /**
+   * Assembles the snapshot and atomically replaces the target with it.
+   *
+   * @param target the snapshot file
+   * @param createdAt the time the exported data was read
+   * @throws IllegalStateException if the number of child links differs from the number of books
+   */
+  public void finish(Path target, Instant createdAt) {
+    if (linkCount != bookCount) {
+      throw new IllegalStateException(
+          "Expected " + bookCount + " child links, got " + linkCount);
+    }
+    Path assembled = null;
+    try {
+      assembled = Files.createTempFile(directory, "snapshot-", ".tmp");
+      try (FileChannel out = FileChannel.open(assembled, StandardOpenOption.WRITE)) {
+        ByteBuffer header = ByteBuffer.allocate((int) HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putLong(FORMAT_VERSION).putLong(bookCount).putLong(stringsSize);
+        header.putLong(createdAt.toEpochMilli()).clear();
+        writeFully(out, header);
+        for (Column column : columns) {
+          column.transferTo(out);
+        }
+        strings.transferTo(out);
+      }
+      Files.move(
+          assembled, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deleteQuietly(assembled);
+    }
+  }
+
+  /** Deletes the temporary column files. */
+  @Override
+  public void close() {
+    columns.forEach(Column::close);
+    if (Objects.nonNull(strings)) {
+      strings.close();
+    }
+  }
+
+  private void put(int column, long value) {
+    columns.get(column).put(value);
+  }
+
+  private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (Objects.isNull(file)) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      // Temporary file in the snapshot directory, overwritten by the next snapshot's cleanup
+    }
+  }
+
+  /** A column buffered in memory and spilled to a temporary file. */
+  private static final class Column {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    Column(Path directory) throws IOException {
+      this.file = Files.createTempFile(directory, "column-", ".tmp");
+      this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    void put(long value) {
+      if (buffer.remaining() < Long.BYTES) {
+        flush();
+      }
+      buffer.putLong(value);
+    }
+
+    void put(byte[] bytes) {
+      if (buffer.remaining() < bytes.length) {
+        flush();
+      }
+      if (bytes.length > buffer.capacity()) {
+        write(ByteBuffer.wrap(bytes));
+      } else {
+        buffer.put(bytes);
+      }
+    }
+
+    /** Appends the column to the output, padded to a multiple of 8 bytes. */
+    void transferTo(FileChannel out) throws IOException {
+      flush();
+      long size = channel.size();
+      for (long position = 0; position < size; ) {
+        position += channel.transferTo(position, size - position, out);
+      }
+      long padding = -size & (Long.BYTES - 1);
+      writeFully(out, ByteBuffer.allocate((int) padding));
+    }
+
+    void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Nothing was left to write
+      }
+      deleteQuietly(file);
+    }
+
+    private void flush() {
+      buffer.flip();
+      write(buffer);
+      buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) {
+      try {
+        writeFully(channel, bytes);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -2,6 +2,8 @@ package com.demobookshop.demobookshopservice.util.converter;
 
 import com.demobookshop.demobookshopservice.model.Book;
 import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookLinkDto;
+import com.demobookshop.demobookshopservice.model.projection.BookChildLink;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -28,7 +30,9 @@ public class BookDtoConverter {
       Objects.isNull(b.getParentUuid()) ? null : b.getParentUuid().toString(),
       b.isCatalog(),
       b.getTitle(),
-      b.getAuthor());
+      b.getAuthor(),
+      b.getVersion(),
+      b.getUpdatedAt());
 
   /**
    * Function to convert a BookDto to a Book entity.
@@ -44,4 +48,14 @@ public class BookDtoConverter {
       b.isCatalog(),
       b.title(),
       b.author());
+
+  /**
+   * Function to convert a child link projection to a BookLinkDto.
+   *
+   * @param l the child link to convert
+   * @return a BookLinkDto representation of the child link
+   */
+  public static final Function<BookChildLink, BookLinkDto> childLinkToBookLinkDto =
+      l -> new BookLinkDto(
+          l.getId(), l.getUuid().toString(), Boolean.TRUE.equals(l.getIsCatalog()));
 }
@@ -0,0 +1,239 @@
+package com.demobookshop.demobookshopservice.util.encoding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes books as a protobuf {@code BookList} message, as defined in {@code book.proto}, straight
+ * from column values. The list is a sequence of length-delimited {@code Book} fields with no
+ * header, so it streams like the JSON array; each book's size is computed up front and the fields
+ * are encoded into one reusable buffer, so writing a row allocates nothing. Not thread-safe; use
+ * one writer per response.
+ */
+public final class BookProtobufWriter implements BookRowWriter {
+
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  /** Largest part of a book around its strings: the list tag and size, then the other fields. */
+  private static final int MAX_FIXED_SIZE = 1 + 5 + 11 + 18 + 11 + 18 + 2;
+
+  private static final int WIRE_VARINT = 0;
+  private static final int WIRE_FIXED64 = 1;
+  private static final int WIRE_LENGTH_DELIMITED = 2;
+
+  private static final int BOOKS = tag(1, WIRE_LENGTH_DELIMITED);
+  private static final int ID = tag(1, WIRE_VARINT);
+  private static final int UUID_MSB = tag(2, WIRE_FIXED64);
+  private static final int UUID_LSB = tag(3, WIRE_FIXED64);
+  private static final int PARENT_ID = tag(4, WIRE_VARINT);
+  private static final int PARENT_UUID_MSB = tag(5, WIRE_FIXED64);
+  private static final int PARENT_UUID_LSB = tag(6, WIRE_FIXED64);
+  private static final int IS_CATALOG = tag(7, WIRE_VARINT);
+  private static final int TITLE = tag(8, WIRE_LENGTH_DELIMITED);
+  private static final int AUTHOR = tag(9, WIRE_LENGTH_DELIMITED);
+
+  private final OutputStream out;
+  private final byte[] buffer;
+  private int position;
+
+  public BookProtobufWriter(OutputStream out) {
+    this(out, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a writer.
+   *
+   * @param out the stream receiving the message
+   * @param bufferSize the size of the write buffer, at least 128 bytes
+   */
+  public BookProtobufWriter(OutputStream out, int bufferSize) {
+    this.out = out;
+    this.buffer = new byte[Math.max(128, bufferSize)];
+  }
+
+  /** Does nothing, a repeated field needs no opening. */
+  @Override
+  public void beginArray() {
+    // The list is the concatenation of its elements
+  }
+
+  /** Flushes the buffer. */
+  @Override
+  public void endArray() {
+    flush();
+  }
+
+  @Override
+  public void writeBook(
+      Long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author) {
+    long idValue = Objects.isNull(id) ? 0L : id;
+    int titleLength = utf8Length(title);
+    int authorLength = utf8Length(author);
+    int size = 1 + varintSize(idValue) + 18;
+    if (Objects.nonNull(parentId)) {
+      size += 1 + varintSize(parentId);
+    }
+    if (Objects.nonNull(parentUuid)) {
+      size += 18;
+    }
+    if (isCatalog) {
+      size += 2;
+    }
+    if (Objects.nonNull(title)) {
+      size += 1 + varintSize(titleLength) + titleLength;
+    }
+    if (Objects.nonNull(author)) {
+      size += 1 + varintSize(authorLength) + authorLength;
+    }
+    ensure(MAX_FIXED_SIZE);
+    buffer[position++] = (byte) BOOKS;
+    writeVarint(size);
+    buffer[position++] = (byte) ID;
+    writeVarint(idValue);
+    writeUuid(UUID_MSB, UUID_LSB, uuid);
+    if (Objects.nonNull(parentId)) {
+      buffer[position++] = (byte) PARENT_ID;
+      writeVarint(parentId);
+    }
+    if (Objects.nonNull(parentUuid)) {
+      writeUuid(PARENT_UUID_MSB, PARENT_UUID_LSB, parentUuid);
+    }
+    if (isCatalog) {
+      buffer[position++] = (byte) IS_CATALOG;
+      buffer[position++] = 1;
+    }
+    writeString(TITLE, title, titleLength);
+    writeString(AUTHOR, author, authorLength);
+  }
+
+  /** Writes the buffered bytes to the stream and flushes it. */
+  @Override
+  public void flush() {
+    try {
+      drain();
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeUuid(int msbTag, int lsbTag, UUID uuid) {
+    buffer[position++] = (byte) msbTag;
+    writeFixed64(uuid.getMostSignificantBits());
+    buffer[position++] = (byte) lsbTag;
+    writeFixed64(uuid.getLeastSignificantBits());
+  }
+
+  private void writeFixed64(long value) {
+    for (int i = 0; i < Long.BYTES; i++) {
+      buffer[position++] = (byte) value;
+      value >>>= 8;
+    }
+  }
+
+  /** Writes a varint; negative values take ten bytes, as protobuf encodes int64. */
+  private void writeVarint(long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+
+  private void writeString(int tag, String value, int utf8Length) {
+    if (Objects.isNull(value)) {
+      return;
+    }
+    ensure(16);
+    buffer[position++] = (byte) tag;
+    writeVarint(utf8Length);
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      ensure(4);
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else {
+        // Unpaired surrogates cannot be encoded and become U+FFFD, as in String.getBytes
+        char encodable = Character.isSurrogate(c) ? '\uFFFD' : c;
+        buffer[position++] = (byte) (0xE0 | (encodable >> 12));
+        buffer[position++] = (byte) (0x80 | ((encodable >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (encodable & 0x3F));
+      }
+    }
+  }
+
+  private void ensure(int bytes) {
+    if (position + bytes > buffer.length) {
+      try {
+        drain();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private void drain() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  /** Counts the UTF-8 bytes {@link #writeString} writes, without encoding the string. */
+  private static int utf8Length(String value) {
+    if (Objects.isNull(value)) {
+      return 0;
+    }
+    int length = value.length();
+    int bytes = length;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x800) {
+        bytes += 2;
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(value.charAt(i + 1))) {
+          // A surrogate pair is two chars and four bytes
+          i++;
+        }
+      } else if (c >= 0x80) {
+        bytes += 1;
+      }
+    }
+    return bytes;
+  }
+
+  private static int varintSize(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static int tag(int fieldNumber, int wireType) {
+    return (fieldNumber << 3) | wireType;
+  }
+}
@@ -0,0 +1,42 @@
+package com.demobookshop.demobookshopservice.util.encoding;
+
+import java.io.Flushable;
+import java.util.UUID;
+
+/**
+ * Writes a list of books in one response format straight from column values, so the rows of a
+ * query reach the client without being converted to {@code BookDto} first. Implementations are
+ * not thread-safe; use one writer per response.
+ */
+public interface BookRowWriter extends Flushable {
+
+  /** Opens the list. */
+  void beginArray();
+
+  /** Closes the list and flushes the buffered output. */
+  void endArray();
+
+  /**
+   * Writes one book as the next list element.
+   *
+   * @param id book ID
+   * @param uuid book UUID
+   * @param parentId parent ID, may be {@code null}
+   * @param parentUuid parent UUID, may be {@code null}
+   * @param isCatalog whether the book is a catalog
+   * @param title book title, may be {@code null}
+   * @param author book author, may be {@code null}
+   */
+  void writeBook(
+      Long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author);
+
+  /** Writes the buffered output to the stream and flushes it. */
+  @Override
+  void flush();
+}
@@ -0,0 +1,116 @@
+package com.demobookshop.demobookshopservice.util.encoding;
+
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.UUID;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Writes books through a Jackson generator of a binary format, CBOR or Smile, straight from column
+ * values. The books have the same fields as {@code BookDto} in JSON, so clients decode them into
+ * the same type; UUIDs stay strings for that reason. Smile refers back to repeated field names
+ * and short values instead of writing them again.
+ */
+public final class BookTokenWriter implements BookRowWriter {
+
+  private static final ObjectMapper CBOR_MAPPER = CBORMapper.builder().build();
+  private static final ObjectMapper SMILE_MAPPER = SmileMapper.builder().build();
+
+  private static final SerializableString ID = new SerializedString("id");
+  private static final SerializableString UUID_FIELD = new SerializedString("uuid");
+  private static final SerializableString PARENT_ID = new SerializedString("parentId");
+  private static final SerializableString PARENT_UUID = new SerializedString("parentUuid");
+  private static final SerializableString IS_CATALOG = new SerializedString("isCatalog");
+  private static final SerializableString TITLE = new SerializedString("title");
+  private static final SerializableString AUTHOR = new SerializedString("author");
+
+  private final JsonGenerator generator;
+
+  private BookTokenWriter(JsonGenerator generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * Creates a writer of CBOR.
+   *
+   * @param out the stream receiving the books
+   * @return the writer
+   */
+  public static BookTokenWriter cbor(OutputStream out) {
+    return new BookTokenWriter(CBOR_MAPPER.createGenerator(out));
+  }
+
+  /**
+   * Creates a writer of Smile.
+   *
+   * @param out the stream receiving the books
+   * @return the writer
+   */
+  public static BookTokenWriter smile(OutputStream out) {
+    return new BookTokenWriter(SMILE_MAPPER.createGenerator(out));
+  }
+
+  @Override
+  public void beginArray() {
+    generator.writeStartArray();
+  }
+
+  @Override
+  public void endArray() {
+    generator.writeEndArray();
+    flush();
+  }
+
+  @Override
+  public void writeBook(
+      Long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author) {
+    generator.writeStartObject();
+    generator.writeName(ID);
+    writeLong(id);
+    generator.writeName(UUID_FIELD);
+    writeString(Objects.isNull(uuid) ? null : uuid.toString());
+    generator.writeName(PARENT_ID);
+    writeLong(parentId);
+    generator.writeName(PARENT_UUID);
+    writeString(Objects.isNull(parentUuid) ? null : parentUuid.toString());
+    generator.writeName(IS_CATALOG);
+    generator.writeBoolean(isCatalog);
+    generator.writeName(TITLE);
+    writeString(title);
+    generator.writeName(AUTHOR);
+    writeString(author);
+    generator.writeEndObject();
+  }
+
+  @Override
+  public void flush() {
+    generator.flush();
+  }
+
+  private void writeLong(Long value) {
+    if (Objects.isNull(value)) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value.longValue());
+    }
+  }
+
+  private void writeString(String value) {
+    if (Objects.isNull(value)) {
+      generator.writeNull();
+    } else {
+      generator.writeString(value);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.demobookshop.demobookshopservice.util.http;
+
+import com.demobookshop.demobookshopservice.exception.PreconditionFailedException;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.projection.BookCollectionState;
+import java.util.Objects;
+import org.springframework.http.MediaType;
+
+/**
+ * Utility class for the strong ETags of book resources. A book's ETag is its ID and version, so it
+ * changes with every update; the collection's ETag is built from aggregates that change whenever
+ * any book is created, updated or deleted, so it is known without reading the books.
+ */
+public class BookETags {
+
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  private BookETags() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Builds the ETag of a book.
+   *
+   * @param book the book, as read from the database
+   * @return the quoted ETag, e.g. {@code "15-3"}
+   */
+  public static String of(BookDto book) {
+    return "\"" + book.id() + "-" + book.version() + "\"";
+  }
+
+  /**
+   * Builds the ETag of the book collection.
+   *
+   * @param state the aggregates of the BOOKS table
+   * @return the quoted ETag
+   */
+  public static String of(BookCollectionState state) {
+    return "\"" + Long.toString(state.getBookCount(), 36)
+        + "-" + Long.toString(state.getMaxId(), 36)
+        + "-" + Long.toString(state.getVersionSum(), 36) + "\"";
+  }
+
+  /**
+   * Builds the ETag of one format of the book collection. A strong ETag stands for the exact
+   * bytes, so formats other than JSON get the subtype appended.
+   *
+   * @param state the aggregates of the BOOKS table
+   * @param format the media type of the response
+   * @return the quoted ETag
+   */
+  public static String of(BookCollectionState state, MediaType format) {
+    String eTag = of(state);
+    if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format)) {
+      return eTag;
+    }
+    return eTag.substring(0, eTag.length() - 1) + "-" + format.getSubtype() + "\"";
+  }
+
+  /**
+   * Reads the version a client expects a book to have from an If-Match header. Weak ETags never
+   * match, as If-Match uses the strong comparison.
+   *
+   * @param bookId the ID of the book
+   * @param ifMatch the If-Match header, may be {@code null}
+   * @return the expected version, or {@code null} if the header is absent or {@code *}
+   * @throws PreconditionFailedException if the header lists no strong ETag of the book
+   */
+  public static Long expectedVersion(Long bookId, String ifMatch) {
+    if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+      return null;
+    }
+    String prefix = bookId + "-";
+    for (String tag : ifMatch.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.startsWith(WEAK_PREFIX) || trimmed.length() < 2) {
+        continue;
+      }
+      String value = trimmed.substring(1, trimmed.length() - 1);
+      if (value.startsWith(prefix)) {
+        try {
+          return Long.parseLong(value.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+          // Not one of ours, try the next tag
+        }
+      }
+    }
+    throw new PreconditionFailedException("If-Match does not match book with ID: " + bookId);
+  }
+}
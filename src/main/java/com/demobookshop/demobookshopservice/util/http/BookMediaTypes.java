@@ -0,0 +1,55 @@
+package com.demobookshop.demobookshopservice.util.http;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+
+/**
+ * Utility class for the media types of the binary book formats. CBOR is
+ * {@link MediaType#APPLICATION_CBOR}.
+ */
+public class BookMediaTypes {
+
+  /** Smile, the binary JSON of Jackson. */
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+  /** Protobuf {@code BookList} message of {@code book.proto}. */
+  public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+
+  public static final MediaType APPLICATION_PROTOBUF =
+      MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+
+  private BookMediaTypes() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Chooses the response format of a handler producing several formats. The format with the
+   * highest quality in the Accept header wins; ties and a missing header go to the earlier format.
+   *
+   * @param accept the Accept header, may be {@code null}
+   * @param producible the formats of the handler, in order of preference
+   * @return the format to write
+   */
+  public static MediaType select(String accept, List<MediaType> producible) {
+    List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+    if (accepted.isEmpty()) {
+      return producible.getFirst();
+    }
+    MediaType selected = producible.getFirst();
+    double selectedQuality = 0;
+    for (MediaType candidate : producible) {
+      double quality = accepted.stream()
+          .filter(type -> type.includes(candidate))
+          .mapToDouble(MediaType::getQualityValue)
+          .max()
+          .orElse(0);
+      if (quality > selectedQuality) {
+        selected = candidate;
+        selectedQuality = quality;
+      }
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,274 @@
+package com.demobookshop.demobookshopservice.util.json;
+
+import com.demobookshop.demobookshopservice.util.encoding.BookRowWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes a JSON array of books, in the same shape Jackson gives {@code BookDto}, straight from
+ * column values. Field names are pre-encoded, UUIDs and numbers are formatted in place and
+ * everything goes through one reusable buffer, so writing a row allocates nothing. Not thread-safe;
+ * use one writer per response.
+ */
+public final class BookJsonWriter implements BookRowWriter {
+
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  /** Worst case of one UTF-16 char in JSON, a six-byte escape such as {@code \\u001f}. */
+  private static final int MAX_BYTES_PER_CHAR = 6;
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] NULL = ascii("null");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+  private static final byte[] LONG_MIN_VALUE = ascii(Long.toString(Long.MIN_VALUE));
+
+  private static final byte[] ID = ascii("{\"id\":");
+  private static final byte[] UUID_FIELD = ascii(",\"uuid\":");
+  private static final byte[] PARENT_ID = ascii(",\"parentId\":");
+  private static final byte[] PARENT_UUID = ascii(",\"parentUuid\":");
+  private static final byte[] IS_CATALOG = ascii(",\"isCatalog\":");
+  private static final byte[] TITLE = ascii(",\"title\":");
+  private static final byte[] AUTHOR = ascii(",\"author\":");
+
+  private final OutputStream out;
+  private final byte[] buffer;
+  private int position;
+  private boolean firstElement = true;
+
+  public BookJsonWriter(OutputStream out) {
+    this(out, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a writer.
+   *
+   * @param out the stream receiving the JSON, UTF-8 encoded
+   * @param bufferSize the size of the write buffer, at least 64 bytes
+   */
+  public BookJsonWriter(OutputStream out, int bufferSize) {
+    this.out = out;
+    this.buffer = new byte[Math.max(64, bufferSize)];
+  }
+
+  /** Opens the array. */
+  @Override
+  public void beginArray() {
+    ensure(1);
+    buffer[position++] = '[';
+    firstElement = true;
+  }
+
+  /** Closes the array and flushes the buffer. */
+  @Override
+  public void endArray() {
+    ensure(1);
+    buffer[position++] = ']';
+    flush();
+  }
+
+  /**
+   * Writes one book as the next array element.
+   *
+   * @param id book ID
+   * @param uuid book UUID
+   * @param parentId parent ID, may be {@code null}
+   * @param parentUuid parent UUID, may be {@code null}
+   * @param isCatalog whether the book is a catalog
+   * @param title book title, may be {@code null}
+   * @param author book author, may be {@code null}
+   */
+  @Override
+  public void writeBook(
+      Long id,
+      UUID uuid,
+      Long parentId,
+      UUID parentUuid,
+      boolean isCatalog,
+      String title,
+      String author) {
+    if (!firstElement) {
+      ensure(1);
+      buffer[position++] = ',';
+    }
+    firstElement = false;
+    writeRaw(ID);
+    writeLong(id);
+    writeRaw(UUID_FIELD);
+    writeUuid(uuid);
+    writeRaw(PARENT_ID);
+    writeLong(parentId);
+    writeRaw(PARENT_UUID);
+    writeUuid(parentUuid);
+    writeRaw(IS_CATALOG);
+    writeRaw(isCatalog ? TRUE : FALSE);
+    writeRaw(TITLE);
+    writeString(title);
+    writeRaw(AUTHOR);
+    writeString(author);
+    ensure(1);
+    buffer[position++] = '}';
+  }
+
+  /** Writes the buffered bytes to the stream and flushes it. */
+  @Override
+  public void flush() {
+    try {
+      drain();
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeLong(Long value) {
+    if (Objects.isNull(value)) {
+      writeRaw(NULL);
+      return;
+    }
+    long v = value;
+    if (v == Long.MIN_VALUE) {
+      writeRaw(LONG_MIN_VALUE);
+      return;
+    }
+    ensure(20);
+    if (v < 0) {
+      buffer[position++] = '-';
+      v = -v;
+    }
+    int length = 1;
+    for (long rest = v / 10; rest > 0; rest /= 10) {
+      length++;
+    }
+    int index = position + length;
+    do {
+      buffer[--index] = (byte) ('0' + v % 10);
+      v /= 10;
+    } while (v > 0);
+    position += length;
+  }
+
+  private void writeUuid(UUID uuid) {
+    if (Objects.isNull(uuid)) {
+      writeRaw(NULL);
+      return;
+    }
+    ensure(38);
+    long msb = uuid.getMostSignificantBits();
+    long lsb = uuid.getLeastSignificantBits();
+    buffer[position++] = '"';
+    writeHex(msb >>> 32, 8);
+    buffer[position++] = '-';
+    writeHex(msb >>> 16, 4);
+    buffer[position++] = '-';
+    writeHex(msb, 4);
+    buffer[position++] = '-';
+    writeHex(lsb >>> 48, 4);
+    buffer[position++] = '-';
+    writeHex(lsb, 12);
+    buffer[position++] = '"';
+  }
+
+  private void writeHex(long value, int digits) {
+    for (int i = digits - 1; i >= 0; i--) {
+      buffer[position + i] = HEX[(int) (value & 0xF)];
+      value >>>= 4;
+    }
+    position += digits;
+  }
+
+  private void writeString(String value) {
+    if (Objects.isNull(value)) {
+      writeRaw(NULL);
+      return;
+    }
+    int length = value.length();
+    // Reserve the worst case once per string when it fits, otherwise per char
+    boolean reserved = (long) length * MAX_BYTES_PER_CHAR + 2 <= buffer.length;
+    ensure(reserved ? length * MAX_BYTES_PER_CHAR + 2 : 1);
+    buffer[position++] = '"';
+    for (int i = 0; i < length; i++) {
+      if (!reserved) {
+        ensure(MAX_BYTES_PER_CHAR);
+      }
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if (c < 0x20 || c == '"' || c == '\\') {
+          writeEscaped(c);
+        } else {
+          buffer[position++] = (byte) c;
+        }
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else {
+        // Unpaired surrogates cannot be encoded and become U+FFFD, as in String.getBytes
+        char encodable = Character.isSurrogate(c) ? '\uFFFD' : c;
+        buffer[position++] = (byte) (0xE0 | (encodable >> 12));
+        buffer[position++] = (byte) (0x80 | ((encodable >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (encodable & 0x3F));
+      }
+    }
+    ensure(1);
+    buffer[position++] = '"';
+  }
+
+  private void writeEscaped(char c) {
+    buffer[position++] = '\\';
+    switch (c) {
+      case '"' -> buffer[position++] = '"';
+      case '\\' -> buffer[position++] = '\\';
+      case '\n' -> buffer[position++] = 'n';
+      case '\r' -> buffer[position++] = 'r';
+      case '\t' -> buffer[position++] = 't';
+      case '\b' -> buffer[position++] = 'b';
+      case '\f' -> buffer[position++] = 'f';
+      default -> {
+        buffer[position++] = 'u';
+        buffer[position++] = '0';
+        buffer[position++] = '0';
+        buffer[position++] = HEX[c >> 4];
+        buffer[position++] = HEX[c & 0xF];
+      }
+    }
+  }
+
+  private void writeRaw(byte[] bytes) {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void ensure(int bytes) {
+    if (position + bytes > buffer.length) {
+      try {
+        drain();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private void drain() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,87 @@
+package com.demobookshop.demobookshopservice.util.pagination;
+
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Utility class for opaque keyset cursors. A cursor is the URL-safe Base64 form of the sort key
+ * values of the last returned row, so clients can pass it back without knowing its structure.
+ */
+public class KeysetCursor {
+
+  private static final String SEPARATOR = ":";
+
+  private KeysetCursor() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Encodes the sort key values of the last returned row into an opaque cursor.
+   *
+   * @param keys the sort key values, in sort order
+   * @return the opaque cursor
+   */
+  public static String encode(Object... keys) {
+    StringBuilder raw = new StringBuilder();
+    for (Object key : keys) {
+      if (!raw.isEmpty()) {
+        raw.append(SEPARATOR);
+      }
+      raw.append(key);
+    }
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes an opaque cursor into its sort key values.
+   *
+   * @param cursor the opaque cursor
+   * @param keyCount the expected number of sort key values
+   * @return the sort key values, in sort order
+   * @throws InvalidRequestException if the cursor is malformed
+   */
+  public static String[] decode(String cursor, int keyCount) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] keys = raw.split(SEPARATOR, -1);
+      if (keys.length != keyCount) {
+        throw new InvalidRequestException("Malformed cursor: " + cursor);
+      }
+      return keys;
+    } catch (IllegalArgumentException e) {
+      throw new InvalidRequestException("Malformed cursor: " + cursor, e);
+    }
+  }
+
+  /**
+   * Encodes the ID of the last returned row into an opaque cursor.
+   *
+   * @param lastId the ID of the last returned row
+   * @return the opaque cursor
+   */
+  public static String encodeId(long lastId) {
+    return encode(lastId);
+  }
+
+  /**
+   * Decodes an opaque cursor created by {@link #encodeId(long)}.
+   *
+   * @param cursor the opaque cursor, may be {@code null} for the first page
+   * @return the ID of the last returned row, or {@code 0} if the cursor is {@code null}
+   * @throws InvalidRequestException if the cursor is malformed
+   */
+  public static long decodeId(String cursor) {
+    if (Objects.isNull(cursor) || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(decode(cursor, 1)[0]);
+    } catch (NumberFormatException e) {
+      throw new InvalidRequestException("Malformed cursor: " + cursor, e);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.demobookshop.demobookshopservice.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static final int CALLERS = 8;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SingleFlight<Long, String> flight = new SingleFlight<>("books", meterRegistry);
+
+  @Test
+  @DisplayName("Run one lookup for concurrent calls of the same key and share its result")
+  void test_execute_coalescesConcurrentCalls() throws Exception {
+    // Arrange
+    AtomicInteger lookups = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    // Act
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CALLERS; i++) {
+        results.add(executor.submit(() -> flight.execute(1L, () -> {
+          lookups.incrementAndGet();
+          await(release);
+          return "book-1";
+        })));
+      }
+      // Let every caller join the running lookup before it completes
+      while (calls("executed") + calls("coalesced") < CALLERS) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+      // Assert
+      for (Future<String> result : results) {
+        assertEquals("book-1", result.get(5, TimeUnit.SECONDS));
+      }
+    }
+    assertEquals(1, lookups.get(), "Lookup should run once");
+    assertEquals(1.0, calls("executed"));
+    assertEquals(CALLERS - 1.0, calls("coalesced"));
+    assertEquals("book-2", flight.execute(1L, () -> "book-2"), "A later call looks up again");
+  }
+
+  @Test
+  @DisplayName("Share the exception of a failed lookup")
+  void test_execute_sharesException() throws Exception {
+    // Arrange
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // Act
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+        started.countDown();
+        await(release);
+        throw new EntityNotFoundException("Book not found with ID: 1");
+      }));
+      await(started);
+      Future<String> follower =
+          executor.submit(() -> flight.execute(1L, () -> fail("Lookup should be shared")));
+      while (calls("coalesced") < 1.0) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+      // Assert
+      for (Future<String> result : List.of(leader, follower)) {
+        try {
+          result.get(5, TimeUnit.SECONDS);
+          fail("EntityNotFoundException should be thrown");
+        } catch (ExecutionException e) {
+          assertInstanceOf(EntityNotFoundException.class, e.getCause());
+        }
+      }
+    }
+  }
+
+  private double calls(String result) {
+    return meterRegistry
+        .get("bookshop.singleflight.calls")
+        .tag("flight", "books")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
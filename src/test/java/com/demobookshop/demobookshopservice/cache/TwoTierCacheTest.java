@@ -0,0 +1,192 @@
+package com.demobookshop.demobookshopservice.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache.ValueWrapper;
+
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+  private static final Duration DISTRIBUTED_TTL = Duration.ofHours(1);
+  private static final Duration TOMBSTONE_TTL = Duration.ofSeconds(30);
+
+  @Mock
+  private IMap<Object, Object> distributed;
+
+  private Cache<Object, Object> local;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    local = Caffeine.newBuilder().maximumSize(100).build();
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  @DisplayName("Load once and serve from the near-cache (TwoTierCache.get(key, loader))")
+  void test_get_loadsOnce() {
+    // Arrange
+    TwoTierCache cache = cache(local, null);
+    AtomicInteger loads = new AtomicInteger();
+    // Act
+    String first = cache.get(1L, () -> "book-" + loads.incrementAndGet());
+    String second = cache.get(1L, () -> "book-" + loads.incrementAndGet());
+    // Assert
+    assertEquals("book-1", first);
+    assertEquals("book-1", second, "Second read should be served from the near-cache");
+    assertEquals(1, loads.get(), "Loader should run once");
+  }
+
+  @Test
+  @DisplayName("Read through the distributed tier on a near-cache miss")
+  void test_get_readsDistributedTier() {
+    // Arrange
+    TwoTierCache cache = cache(local, distributed);
+    when(distributed.get(1L)).thenReturn("remote-book");
+    // Act
+    String value = cache.get(1L, () -> fail("Loader should not run on a distributed hit"));
+    // Assert
+    assertEquals("remote-book", value);
+    assertEquals("remote-book", local.getIfPresent(1L), "Near-cache should be populated");
+    double hits = meterRegistry
+        .get("bookshop.cache.distributed.gets")
+        .tag("result", "hit")
+        .counter()
+        .count();
+    assertEquals(1.0, hits, "Distributed hit should be counted");
+  }
+
+  @Test
+  @DisplayName("Store loaded values in both tiers (TwoTierCache.get(key, loader))")
+  void test_get_populatesDistributedTier() {
+    // Arrange
+    TwoTierCache cache = cache(local, distributed);
+    // Act
+    cache.get(1L, () -> "db-book");
+    // Assert
+    verify(distributed)
+        .putIfAbsent(1L, "db-book", DISTRIBUTED_TTL.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  @DisplayName("Evict from both tiers, leaving a tombstone (TwoTierCache.evict(key))")
+  void test_evict() {
+    // Arrange
+    TwoTierCache cache = cache(local, distributed);
+    local.put(1L, "book");
+    // Act
+    cache.evict(1L);
+    // Assert
+    assertNull(local.getIfPresent(1L), "Near-cache entry should be evicted");
+    verify(distributed)
+        .set(eq(1L), notNull(), eq(TOMBSTONE_TTL.toMillis()), eq(TimeUnit.MILLISECONDS));
+    verify(distributed, never()).delete(any());
+  }
+
+  @Test
+  @DisplayName("Keep a load that finishes after an eviction out of the distributed tier")
+  void test_get_loadInterleavedWithEvict() {
+    // Arrange
+    HazelcastInstance member = Hazelcast.newHazelcastInstance(memberConfig());
+    try {
+      IMap<Object, Object> books = member.getMap("books");
+      TwoTierCache writer = cache(Caffeine.newBuilder().maximumSize(100).build(), books);
+      TwoTierCache reader = cache(local, books);
+      // Act: the reader reads the old row, then the writer commits and evicts the key
+      String loaded = reader.get(1L, () -> {
+        writer.evict(1L);
+        return "old-book";
+      });
+      // Assert
+      assertEquals("old-book", loaded, "The running request still gets what it read");
+      assertNotEquals("old-book", books.get(1L), "The old row should not reach other instances");
+      assertNull(writer.get(1L), "The tombstone should read as a miss");
+      assertTrue(writer.getAllPresent(Set.of(1L)).isEmpty());
+      assertEquals("new-book", writer.get(1L, () -> "new-book"));
+    } finally {
+      member.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("Read near-cache misses from the distributed tier at once (getAllPresent(keys))")
+  void test_getAllPresent_readsDistributedTierOnce() {
+    // Arrange
+    TwoTierCache cache = cache(local, distributed);
+    local.put(1L, "local-book");
+    when(distributed.getAll(Set.of(2L, 3L))).thenReturn(Map.of(2L, "remote-book"));
+    // Act
+    Map<Object, Object> values = cache.getAllPresent(Set.of(1L, 2L, 3L));
+    // Assert
+    assertEquals(Map.of(1L, "local-book", 2L, "remote-book"), values);
+    assertNull(local.getIfPresent(2L), "Bulk reads should not populate the near-cache");
+    verify(distributed, never()).get(any());
+  }
+
+  @Test
+  @DisplayName("Drop a distributed value evicted while it is copied to the near-cache")
+  @SuppressWarnings("unchecked")
+  void test_get_evictedDuringCopy() throws InterruptedException {
+    // Arrange
+    TwoTierCache cache = cache(local, distributed);
+    ArgumentCaptor<MapListener> listener = ArgumentCaptor.forClass(MapListener.class);
+    verify(distributed).addEntryListener(listener.capture(), eq(true));
+    ArgumentCaptor<Object> tombstone = ArgumentCaptor.forClass(Object.class);
+    cache.evict(2L);
+    verify(distributed).set(eq(2L), tombstone.capture(), anyLong(), any());
+    EntryEvent<Object, Object> evicted = mock(EntryEvent.class);
+    when(evicted.getKey()).thenReturn(1L);
+    when(evicted.getValue()).thenReturn(tombstone.getValue());
+    Thread invalidation = Thread.ofVirtual().unstarted(() ->
+        ((EntryUpdatedListener<Object, Object>) listener.getValue()).entryUpdated(evicted));
+    // Another instance evicts the key right after this one read it from the distributed tier
+    when(distributed.get(1L)).thenAnswer(invocation -> {
+      invalidation.start();
+      return "old-book";
+    });
+    // Act
+    ValueWrapper value = cache.get(1L);
+    invalidation.join();
+    // Assert
+    assertNotNull(value);
+    assertEquals("old-book", value.get(), "The running request still gets what it read");
+    assertNull(local.getIfPresent(1L), "The evicted value should not stay in the near-cache");
+  }
+
+  private TwoTierCache cache(Cache<Object, Object> near, IMap<Object, Object> map) {
+    return new TwoTierCache("books", near, map, DISTRIBUTED_TTL, TOMBSTONE_TTL, meterRegistry);
+  }
+
+  private static Config memberConfig() {
+    Config config = new Config().setClusterName("two-tier-cache-test");
+    config.setProperty("hazelcast.phone.home.enabled", "false");
+    JoinConfig join = config.getNetworkConfig().getJoin();
+    join.getMulticastConfig().setEnabled(false);
+    join.getAutoDetectionConfig().setEnabled(false);
+    return config;
+  }
+}
@@ -0,0 +1,98 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.service.BookBatchService;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest(BookBatchController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookBatchControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookBatchService bookBatchService;
+
+  @Test
+  @DisplayName("Add books in batch by POST /api/v2/books:batch")
+  void test_addBooks_207_Multi_Status() {
+    // Arrange
+    BookDto newBook =
+        new BookDto(null, UUID.randomUUID().toString(), null, null, false, "New Book", "Author");
+    BookDto addedBook = new BookDto(
+        101L, newBook.uuid(), null, null, false, newBook.title(), newBook.author());
+    List<BookDto> newBooks = List.of(newBook, newBook);
+    when(bookBatchService.addBooks(newBooks))
+        .thenReturn(List.of(
+            BookBatchResultDto.succeeded(0, 201, addedBook),
+            BookBatchResultDto.failed(1, 409, null, "duplicate key value")));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(post("/api/v2/books:batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(new ObjectMapper().writeValueAsString(newBooks)))
+          .andExpect(status().isMultiStatus())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].status").value(201))
+          .andExpect(jsonPath("$[1].error").value("duplicate key value"))
+          .andDo(document(
+              "add-books-batch",
+              responseFields(
+                  fieldWithPath("[].index").description("Position of the item in the request"),
+                  fieldWithPath("[].status").description("HTTP status code of the item"),
+                  fieldWithPath("[].id").optional().description("Book ID"),
+                  subsectionWithPath("[].book").optional().description("Book after the operation"),
+                  fieldWithPath("[].error").optional().description("Error message"))));
+    } catch (Exception e) {
+      fail("Exception occurred while adding books in batch: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Delete books in batch by DELETE /api/v2/books:batch")
+  void test_deleteBooks_207_Multi_Status() {
+    // Arrange
+    when(bookBatchService.deleteBooks(List.of(1L, 2L)))
+        .thenReturn(List.of(
+            BookBatchResultDto.deleted(0, 1L),
+            BookBatchResultDto.failed(1, 404, 2L, "Book not found with ID: 2")));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(delete("/api/v2/books:batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("[1,2]"))
+          .andExpect(status().isMultiStatus())
+          .andExpect(jsonPath("$[0].status").value(204))
+          .andExpect(jsonPath("$[1].status").value(404));
+    } catch (Exception e) {
+      fail("Exception occurred while deleting books in batch: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.exception.ChangesExpiredException;
+import com.demobookshop.demobookshopservice.model.dto.BookChangeDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDeltaDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent.ChangeType;
+import com.demobookshop.demobookshopservice.service.BookChangeFeedService;
+import com.demobookshop.demobookshopservice.service.BookDeltaService;
+import java.time.Instant;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(BookChangeController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookChangeControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookChangeFeedService bookChangeFeedService;
+
+  @MockitoBean
+  private BookDeltaService bookDeltaService;
+
+  private final List<BookChangeDto> changes = List.of(
+      new BookChangeDto(
+          42L,
+          ChangeType.CREATED,
+          7L,
+          "{\"id\":7,\"uuid\":\"" + UUID.randomUUID() + "\",\"parentId\":null,"
+              + "\"parentUuid\":null,\"isCatalog\":false,\"title\":\"Book\",\"author\":\"A\"}",
+          Instant.parse("2026-10-18T12:00:00Z")),
+      new BookChangeDto(
+          43L,
+          ChangeType.DELETED,
+          5L,
+          "{\"id\":5,\"title\":\"Old\"}",
+          Instant.parse("2026-10-18T12:00:01Z")));
+
+  @Test
+  @DisplayName("Get changes as NDJSON by GET /api/v2/books/changes")
+  void test_getChanges_200_Ok() {
+    // Arrange
+    when(bookChangeFeedService.getChanges(41L, 100)).thenReturn(changes);
+
+    // Act & Assert
+    try {
+      MvcResult result = mockMvc
+          .perform(get("/api/v2/books/changes")
+              .param("since", "41")
+              .param("limit", "100")
+              .accept(MediaType.APPLICATION_NDJSON))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      String body = mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+          .andDo(document(
+              "get-book-changes",
+              queryParameters(
+                  parameterWithName("since").description("Position of the last change read"),
+                  parameterWithName("limit").description("Maximum number of changes"))))
+          .andReturn()
+          .getResponse()
+          .getContentAsString();
+      String[] lines = body.split("\n");
+      assertEquals(2, lines.length, "Every change should be written on its own line");
+      assertTrue(lines[0].startsWith("{\"position\":42,\"type\":\"CREATED\",\"bookId\":7,"));
+      assertTrue(
+          lines[0].contains("\"book\":{\"id\":7,"), "Book should be embedded as a JSON object");
+    } catch (Exception e) {
+      fail("Exception occurred while getting changes: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Follow changes as server-sent events from Last-Event-ID")
+  void test_followChanges_200_Ok() {
+    // Arrange
+    when(bookChangeFeedService.getChanges(41L, 1000)).thenReturn(changes);
+
+    // Act & Assert
+    try {
+      MvcResult result = mockMvc
+          .perform(get("/api/v2/books/changes")
+              .param("since", "1")
+              .header("Last-Event-ID", "41")
+              .accept(MediaType.TEXT_EVENT_STREAM))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      String body = mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+          .andReturn()
+          .getResponse()
+          .getContentAsString();
+      assertTrue(body.startsWith("id: 42\ndata: {\"position\":42,"), "Event ID is the position");
+      assertTrue(body.contains("\n\nid: 43\ndata: "), "Events should be blank-line separated");
+      verify(bookChangeFeedService, times(1)).followChanges(eq(43L), any());
+    } catch (Exception e) {
+      fail("Exception occurred while following changes: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Answer 410 for a position whose changes were deleted")
+  void test_getChanges_410_Gone() {
+    // Arrange
+    when(bookChangeFeedService.getChanges(anyLong(), anyInt()))
+        .thenThrow(new ChangesExpiredException("Changes after position 3 are no longer kept"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/changes")
+              .param("since", "3")
+              .accept(MediaType.APPLICATION_NDJSON))
+          .andExpect(status().isGone());
+    } catch (Exception e) {
+      fail("Exception occurred while getting changes: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get catalog delta by GET /api/v2/books/delta")
+  void test_getDelta_200_Ok() {
+    // Arrange
+    BookDto book =
+        new BookDto(7L, UUID.randomUUID().toString(), 1L, null, false, "Book Seven", "Author");
+    when(bookDeltaService.getDelta("MTIzOjA6MTc2", 100))
+        .thenReturn(new BookDeltaDto(List.of(book), List.of(5L), "MTI0OjA6MTc3", false));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/delta").param("since", "MTIzOjA6MTc2").param("limit", "100"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.upserts[0].title").value("Book Seven"))
+          .andExpect(jsonPath("$.deletedIds[0]").value(5L))
+          .andExpect(jsonPath("$.nextToken").value("MTI0OjA6MTc3"))
+          .andExpect(jsonPath("$.hasMore").value(false))
+          .andDo(document(
+              "get-book-delta",
+              queryParameters(
+                  parameterWithName("since").description("Token returned by the previous call"),
+                  parameterWithName("limit").description("Maximum number of changed books")),
+              responseFields(
+                  fieldWithPath("upserts[].id").description("Book ID"),
+                  fieldWithPath("upserts[].uuid").description("Book UUID"),
+                  fieldWithPath("upserts[].parentId").description("Parent ID"),
+                  fieldWithPath("upserts[].parentUuid").description("Parent UUID"),
+                  fieldWithPath("upserts[].isCatalog").description("Element is Catalog"),
+                  fieldWithPath("upserts[].title").description("Book Title"),
+                  fieldWithPath("upserts[].author").description("Book Author"),
+                  fieldWithPath("deletedIds").description("IDs of deleted books"),
+                  fieldWithPath("nextToken").description("Token of the next call"),
+                  fieldWithPath("hasMore").description("Whether more changes are waiting"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting delta: " + e.getMessage());
+    }
+  }
+}
@@ -7,14 +7,26 @@ import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.docu
 import static org.springframework.restdocs.payload.PayloadDocumentation.*;
 import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
 import static org.springframework.restdocs.request.RequestDocumentation.pathParameters;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.PreconditionFailedException;
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
 import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.model.projection.BookCollectionState;
 import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.util.encoding.BookRowWriter;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
@@ -22,10 +34,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
 @WebMvcTest(BookController.class)
 @AutoConfigureRestDocs(
@@ -40,12 +57,7 @@ class BookControllerTest {
   @MockitoBean
   private BookService bookService;
 
-  /**
-   * * A sorted set of books for testing (we expect that in
-   * {@link BookControllerTest#test_getAllBooks_200_Ok()} the books are sorted by ID, and we expect
-   * right order in the response - fist element should be "Catalog one" and the second - "Book
-   * Two").
-   */
+  /** Books for testing, ordered by ID as the service returns them. */
   private final Collection<BookDto> books = List.of(
       new BookDto(1L, UUID.randomUUID().toString(), 0L, null, true, "Catalog One", "Catalog One"),
       new BookDto(2L, UUID.randomUUID().toString(), 1L, null, false, "Book Two", "Author B"));
@@ -60,22 +72,34 @@ class BookControllerTest {
   @DisplayName("Get all books by GET /api/v1/book, /api/v2/books")
   void test_getAllBooks_200_Ok() {
     // Arrange
-    Collection<BookDto> booksSorted = new TreeSet<>(Comparator.comparing(BookDto::id)) {
-      {
-        addAll(books);
-      }
-    };
-
-    when(bookService.getAllBooks()).thenReturn(booksSorted);
+    when(bookService.getCollectionState()).thenReturn(collectionState(2L, 2L, 5L));
+    doAnswer(invocation -> {
+          BookJsonWriter writer = invocation.getArgument(0);
+          books.forEach(book -> writer.writeBook(
+              book.id(),
+              UUID.fromString(book.uuid()),
+              book.parentId(),
+              null,
+              book.isCatalog(),
+              book.title(),
+              book.author()));
+          return null;
+        })
+        .when(bookService)
+        .writeAllBooks(any());
 
     // Act & Assert
     try {
+      MvcResult result =
+          mockMvc.perform(get("/api/v1/book")).andExpect(request().asyncStarted()).andReturn();
       mockMvc
-          .perform(get("/api/v1/book"))
+          .perform(asyncDispatch(result))
           .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
           .andExpect(jsonPath("$", hasSize(2)))
           .andExpect(jsonPath("$[0].title").value("Catalog One"))
           .andExpect(jsonPath("$[1].title").value("Book Two"))
+          .andExpect(header().string(HttpHeaders.ETAG, "\"2-2-5\""))
           .andDo(document(
               "get-all-books",
               responseFields(
@@ -92,13 +116,170 @@ class BookControllerTest {
     }
   }
 
+  @Test
+  @DisplayName("Get all books as CBOR by GET /api/v2/books with Accept: application/cbor")
+  void test_getAllBooks_cbor_200_Ok() {
+    // Arrange
+    when(bookService.getCollectionState()).thenReturn(collectionState(2L, 2L, 5L));
+    doAnswer(invocation -> {
+          BookRowWriter writer = invocation.getArgument(0);
+          books.forEach(book -> writer.writeBook(
+              book.id(),
+              UUID.fromString(book.uuid()),
+              book.parentId(),
+              null,
+              book.isCatalog(),
+              book.title(),
+              book.author()));
+          return null;
+        })
+        .when(bookService)
+        .writeAllBooks(any());
+
+    // Act & Assert
+    try {
+      MvcResult result = mockMvc
+          .perform(get("/api/v2/books")
+              .accept(MediaType.APPLICATION_JSON.withQuality(0.5), MediaType.APPLICATION_CBOR))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      byte[] body = mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+          .andExpect(header().string(HttpHeaders.ETAG, "\"2-2-5-cbor\""))
+          .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+          .andReturn()
+          .getResponse()
+          .getContentAsByteArray();
+      List<BookDto> decoded =
+          CBORMapper.builder().build().readValue(body, new TypeReference<List<BookDto>>() {});
+      assertEquals(books, decoded, "CBOR should decode to the same books");
+    } catch (Exception e) {
+      fail("Exception occurred while getting all books as CBOR: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get books page by GET /api/v2/books?after={cursor}&limit={limit}")
+  void test_getBooksPage_200_Ok() {
+    // Arrange
+    BookPageDto page = new BookPageDto(List.copyOf(books), "Mg");
+    when(bookService.getBooksPage("MQ", 2)).thenReturn(page);
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books").param("after", "MQ").param("limit", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items", hasSize(2)))
+          .andExpect(jsonPath("$.items[0].title").value("Catalog One"))
+          .andExpect(jsonPath("$.nextCursor").value("Mg"))
+          .andDo(document(
+              "get-books-page",
+              queryParameters(
+                  parameterWithName("after").description("Cursor returned with the previous page"),
+                  parameterWithName("limit").description("Maximum number of books in the page")),
+              responseFields(
+                  fieldWithPath("items[].id").description("Book ID"),
+                  fieldWithPath("items[].uuid").description("Book UUID"),
+                  fieldWithPath("items[].parentId").description("Parent ID"),
+                  fieldWithPath("items[].parentUuid").description("Parent UUID"),
+                  fieldWithPath("items[].isCatalog").description("Element is Catalog"),
+                  fieldWithPath("items[].title").description("Book Title"),
+                  fieldWithPath("items[].author").description("Book Author"),
+                  fieldWithPath("nextCursor")
+                      .description("Cursor of the next page, null on the last page"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting books page: " + e.getMessage());
+    }
+    verify(bookService, never()).writeAllBooks(any());
+  }
+
+  @Test
+  @DisplayName("Get books by ID by GET /api/v2/books?ids={ids}")
+  void test_getBooksById_200_Ok() {
+    // Arrange
+    BookDto book = books.getFirst();
+    when(bookService.getBooksById(List.of(1L, 99L)))
+        .thenReturn(List.of(
+            BookBatchResultDto.succeeded(0, 200, book),
+            BookBatchResultDto.failed(1, 404, 99L, "Book not found with ID: 99")));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books").param("ids", "1,99"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].status").value(200))
+          .andExpect(jsonPath("$[0].book.title").value("Catalog One"))
+          .andExpect(jsonPath("$[1].status").value(404))
+          .andExpect(jsonPath("$[1].id").value(99L))
+          .andDo(document(
+              "get-books-by-id",
+              queryParameters(
+                  parameterWithName("ids").description("Comma-separated IDs of the books")),
+              responseFields(
+                  fieldWithPath("[].index").description("Position of the ID in the request"),
+                  fieldWithPath("[].status").description("200 if found, 404 otherwise"),
+                  fieldWithPath("[].id").description("Book ID"),
+                  subsectionWithPath("[].book").optional().description("Book, if found"),
+                  fieldWithPath("[].error").optional().description("Error message"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting books by ID: " + e.getMessage());
+    }
+    verify(bookService, never()).writeAllBooks(any());
+  }
+
+  @Test
+  @DisplayName("Stream all books by GET /api/v2/books/stream")
+  void test_streamAllBooks_200_Ok() {
+    // Arrange
+    doAnswer(invocation -> {
+          Consumer<BookDto> consumer = invocation.getArgument(0);
+          books.forEach(consumer);
+          return null;
+        })
+        .when(bookService)
+        .streamAllBooks(any());
+
+    // Act & Assert
+    try {
+      MvcResult result = mockMvc
+          .perform(get("/api/v2/books/stream").accept(MediaType.APPLICATION_NDJSON))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+      String body = mockMvc
+          .perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+          .andReturn()
+          .getResponse()
+          .getContentAsString();
+      String[] lines = body.split("\n");
+      assertEquals(2, lines.length, "Every book should be written on its own line");
+      assertTrue(lines[0].contains("\"title\":\"Catalog One\""), "First line should be book 1");
+    } catch (Exception e) {
+      fail("Exception occurred while streaming all books: " + e.getMessage());
+    }
+  }
+
   @Test
   @DisplayName("Get book by ID by GET /api/v1/book/{id}, /api/v2/books/{id}")
   void test_getBookById_200_Ok() {
     // Arrange
     Long bookId = 1L;
     BookDto book = new BookDto(
-        bookId, UUID.randomUUID().toString(), null, null, false, "Book One", "Author One");
+        bookId,
+        UUID.randomUUID().toString(),
+        null,
+        null,
+        false,
+        "Book One",
+        "Author One",
+        3L,
+        Instant.parse("2026-10-18T10:15:30Z"));
 
     when(bookService.getBookById(bookId)).thenReturn(book);
 
@@ -107,6 +288,8 @@ class BookControllerTest {
       mockMvc
           .perform(get("/api/v1/book/{id}", bookId))
           .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+          .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sun, 18 Oct 2026 10:15:30 GMT"))
           .andExpect(jsonPath("$.id").value(bookId))
           .andExpect(jsonPath("$.isCatalog").value(false))
           .andExpect(jsonPath("$.title").value("Book One"))
@@ -176,15 +359,25 @@ class BookControllerTest {
     BookDto updatedBook = new BookDto(
         2L, UUID.randomUUID().toString(), 0L, null, true, "Updated Book", "Updated Author");
     BookDto updatedBookResult = new BookDto(
-        1L, UUID.randomUUID().toString(), 0L, null, true, "Updated Book", "Updated Author");
-    when(bookService.updateBook(1L, updatedBook)).thenReturn(updatedBookResult);
+        1L,
+        UUID.randomUUID().toString(),
+        0L,
+        null,
+        true,
+        "Updated Book",
+        "Updated Author",
+        4L,
+        Instant.parse("2026-10-18T10:15:30Z"));
+    when(bookService.updateBook(1L, updatedBook, 3L)).thenReturn(updatedBookResult);
     // Act & Assert
     try {
       mockMvc
           .perform(put("/api/v1/book/{id}", 1L)
+              .header(HttpHeaders.IF_MATCH, "\"1-3\"")
               .contentType(MediaType.APPLICATION_JSON)
               .content(new ObjectMapper().writeValueAsString(updatedBook)))
           .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
           .andExpect(jsonPath("$.title").value("Updated Book"))
           .andExpect(jsonPath("$.author").value("Updated Author"))
           .andDo(document(
@@ -211,6 +404,70 @@ class BookControllerTest {
     }
   }
 
+  @Test
+  @DisplayName("Get unchanged books with If-None-Match by GET /api/v1/book, /api/v2/books")
+  void test_getAllBooks_304_Not_Modified() {
+    // Arrange
+    when(bookService.getCollectionState()).thenReturn(collectionState(2L, 2L, 5L));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books").header(HttpHeaders.IF_NONE_MATCH, "\"2-2-5\""))
+          .andExpect(status().isNotModified())
+          .andExpect(content().string(""));
+    } catch (Exception e) {
+      fail("Exception occurred while getting all books: " + e.getMessage());
+    }
+
+    verify(bookService, never()).writeAllBooks(any());
+  }
+
+  @Test
+  @DisplayName("Get unchanged book with If-None-Match by GET /api/v1/book/{id}, /api/v2/books/{id}")
+  void test_getBookById_304_Not_Modified() {
+    // Arrange
+    Long bookId = 1L;
+    BookDto book = new BookDto(
+        bookId, UUID.randomUUID().toString(), null, null, false, "Book", "Author", 3L, null);
+    when(bookService.getBookById(bookId)).thenReturn(book);
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(
+              get("/api/v2/books/{id}", bookId).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+          .andExpect(content().string(""));
+    } catch (Exception e) {
+      fail("Exception occurred while getting book by ID: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Update changed book with stale If-Match by PUT /api/v2/books/{id}")
+  void test_updateBookById_412_Precondition_Failed() {
+    // Arrange
+    BookDto updatedBook = new BookDto(
+        1L, UUID.randomUUID().toString(), 0L, null, true, "Updated Book", "Updated Author");
+    when(bookService.updateBook(1L, updatedBook, 2L))
+        .thenThrow(new PreconditionFailedException("Book with ID: 1 has changed"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(put("/api/v2/books/{id}", 1L)
+              .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(new ObjectMapper().writeValueAsString(updatedBook)))
+          .andExpect(status().isPreconditionFailed())
+          .andExpect(jsonPath("$.statusCode").value(412));
+    } catch (Exception e) {
+      fail("Exception occurred while updating book by ID: " + e.getMessage());
+    }
+  }
+
   @Test
   @DisplayName("Delete book by ID by DELETE /api/v1/book/{id}, /api/v2/books/{id}")
   void test_deleteBookById_204_No_Content() {
@@ -250,4 +507,31 @@ class BookControllerTest {
     }
     verify(bookService).getBookById(bookId);
   }
+
+  @Test
+  @DisplayName("Get book by ID with exhausted connection pool by GET /api/v2/books/{id}")
+  void test_getBookById_503_Service_Unavailable() {
+    // Arrange
+    Long bookId = 1L;
+    when(bookService.getBookById(bookId))
+        .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/{id}", bookId))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    } catch (Exception e) {
+      fail("Exception occurred while getting book with exhausted pool: " + e.getMessage());
+    }
+  }
+
+  private static BookCollectionState collectionState(long bookCount, long maxId, long versionSum) {
+    BookCollectionState state = mock(BookCollectionState.class);
+    when(state.getBookCount()).thenReturn(bookCount);
+    when(state.getMaxId()).thenReturn(maxId);
+    when(state.getVersionSum()).thenReturn(versionSum);
+    return state;
+  }
 }
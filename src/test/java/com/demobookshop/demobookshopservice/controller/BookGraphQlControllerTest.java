@@ -0,0 +1,126 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.GraphQlConfig;
+import com.demobookshop.demobookshopservice.config.GraphQlLimitsProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.service.CatalogTreeService;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.graphql.test.autoconfigure.GraphQlTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@GraphQlTest(BookGraphQlController.class)
+@Import(GraphQlConfig.class)
+@EnableConfigurationProperties(GraphQlLimitsProperties.class)
+class BookGraphQlControllerTest {
+
+  @Autowired
+  private GraphQlTester graphQlTester;
+
+  @MockitoBean
+  private BookService bookService;
+
+  @MockitoBean
+  private CatalogTreeService catalogTreeService;
+
+  private final BookDto root =
+      new BookDto(1L, UUID.randomUUID().toString(), null, null, true, "Root", "Various");
+  private final BookDto catalogA =
+      new BookDto(2L, UUID.randomUUID().toString(), 1L, root.uuid(), true, "Catalog A", "A");
+  private final BookDto catalogB =
+      new BookDto(3L, UUID.randomUUID().toString(), 1L, root.uuid(), true, "Catalog B", "B");
+  private final BookDto bookA =
+      new BookDto(4L, UUID.randomUUID().toString(), 2L, catalogA.uuid(), false, "Book A", "A");
+  private final BookDto bookB =
+      new BookDto(5L, UUID.randomUUID().toString(), 3L, catalogB.uuid(), false, "Book B", "B");
+
+  @Test
+  @DisplayName("Resolve children and parents of a page with one lookup per level")
+  void test_books_batchesChildrenAndParents() {
+    // Arrange
+    when(bookService.getBooksPage(null, 2))
+        .thenReturn(new BookPageDto(List.of(catalogA, catalogB), null));
+    when(catalogTreeService.getChildrenOf(anyCollection()))
+        .thenReturn(Map.of(2L, List.of(bookA), 3L, List.of(bookB)));
+    when(catalogTreeService.getBooksById(anyCollection()))
+        .thenReturn(Map.of(2L, catalogA, 3L, catalogB));
+
+    // Act & Assert
+    graphQlTester
+        .document("{ books(limit: 2) { items { id children { id title parent { title } } } } }")
+        .execute()
+        .path("books.items[*].children[*].title")
+        .entityList(String.class)
+        .containsExactly("Book A", "Book B")
+        .path("books.items[*].children[*].parent.title")
+        .entityList(String.class)
+        .containsExactly("Catalog A", "Catalog B");
+
+    verify(catalogTreeService, times(1)).getChildrenOf(List.of(2L, 3L));
+    verify(catalogTreeService, times(1)).getBooksById(List.of(2L, 3L));
+  }
+
+  @Test
+  @DisplayName("Resolve ancestors of a book")
+  void test_book_ancestors() {
+    // Arrange
+    when(bookService.getBookById(4L)).thenReturn(bookA);
+    when(catalogTreeService.getAncestorsOf(List.of(bookA)))
+        .thenReturn(Map.of(4L, List.of(root, catalogA)));
+
+    // Act & Assert
+    graphQlTester
+        .document("{ book(id: 4) { title ancestors { id } } }")
+        .execute()
+        .path("book.ancestors[*].id")
+        .entityList(String.class)
+        .containsExactly("1", "2");
+  }
+
+  @Test
+  @DisplayName("Answer a missing book with null and a NOT_FOUND error")
+  void test_book_notFound() {
+    // Arrange
+    when(bookService.getBookById(99L))
+        .thenThrow(new EntityNotFoundException("Book not found with ID: 99"));
+
+    // Act & Assert
+    graphQlTester
+        .document("{ book(id: 99) { title } }")
+        .execute()
+        .errors()
+        .expect(error -> error.getErrorType() == ErrorType.NOT_FOUND)
+        .verify()
+        .path("book")
+        .valueIsNull();
+  }
+
+  @Test
+  @DisplayName("Reject queries deeper than the configured limit before fetching data")
+  void test_book_depthLimit() {
+    // Arrange
+    String query = "{ book(id: 1) { " + "children { ".repeat(8) + "id" + " }".repeat(9) + " }";
+
+    // Act & Assert
+    graphQlTester
+        .document(query)
+        .execute()
+        .errors()
+        .satisfy(errors -> assertFalse(errors.isEmpty(), "Deep query should be rejected"));
+
+    verifyNoInteractions(bookService, catalogTreeService);
+  }
+}
@@ -0,0 +1,170 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.dto.ImportErrorDto;
+import com.demobookshop.demobookshopservice.model.dto.ImportJobDto;
+import com.demobookshop.demobookshopservice.service.BookImportService;
+import java.io.InputStream;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(BookImportController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookImportControllerTest {
+
+  private static final FieldDescriptor[] IMPORT_FIELDS = {
+    fieldWithPath("id").description("Import ID"),
+    fieldWithPath("format").description("Feed format, CSV or NDJSON"),
+    fieldWithPath("status").description("Current phase of the import"),
+    fieldWithPath("bytesRead").description("Feed bytes received"),
+    fieldWithPath("rowsStaged").description("Records copied into the staging table"),
+    fieldWithPath("rowsInserted").description("Books inserted"),
+    fieldWithPath("rowsUpdated").description("Books updated by UUID"),
+    fieldWithPath("rowsRejected").description("Records rejected by validation"),
+    fieldWithPath("startedAt").description("Start time"),
+    fieldWithPath("finishedAt").optional().description("End time"),
+    fieldWithPath("durationMillis").description("Elapsed time in milliseconds"),
+    fieldWithPath("rowsPerSecond").description("Staged records per second"),
+    fieldWithPath("errors").optional().description("First rejected records"),
+    fieldWithPath("errors[].line").optional().description("Line of the record in the feed"),
+    fieldWithPath("errors[].error").optional().description("Reason of the rejection"),
+    fieldWithPath("message").optional().description("Failure message")
+  };
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookImportService bookImportService;
+
+  private static ImportJobDto completedImport(String format) {
+    return new ImportJobDto(
+        "5f0c6d2e-3b1a-4f7e-9a51-0c2d8e4b7a10",
+        format,
+        "COMPLETED",
+        245L,
+        3L,
+        1L,
+        1L,
+        1L,
+        "2026-10-18T10:15:30Z",
+        "2026-10-18T10:15:30.120Z",
+        120L,
+        25L,
+        List.of(new ImportErrorDto(4L, "Invalid UUID: not-a-uuid")),
+        null);
+  }
+
+  @Test
+  @DisplayName("Import a CSV feed by POST /api/v2/books/imports")
+  void test_importCsv_201_Created() {
+    // Arrange
+    String feed = """
+        uuid,parentUuid,isCatalog,title,author
+        f47ac10b-58cc-4372-a567-0e02b2c3d479,,true,Programming Books Catalog,Various Authors
+        d2c1f8b0-3e4f-4c5a-9b6c-7d8e9f0a1b2c,f47ac10b-58cc-4372-a567-0e02b2c3d479,false,Intro,John
+        not-a-uuid,,false,Broken,Nobody
+        """;
+    when(bookImportService.importBooks(eq(BookImportService.Format.CSV), any(InputStream.class)))
+        .thenReturn(completedImport("CSV"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(post("/api/v2/books/imports")
+              .contentType(BookImportController.TEXT_CSV_VALUE)
+              .content(feed))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.status").value("COMPLETED"))
+          .andExpect(jsonPath("$.errors", hasSize(1)))
+          .andDo(document("import-books-csv", responseFields(IMPORT_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while importing a CSV feed: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Import an NDJSON feed by POST /api/v2/books/imports")
+  void test_importNdjson_201_Created() {
+    // Arrange
+    String feed = """
+        {"uuid":"f47ac10b-58cc-4372-a567-0e02b2c3d479","title":"Catalog","author":"Various"}
+        """;
+    when(bookImportService.importBooks(
+            eq(BookImportService.Format.NDJSON), any(InputStream.class)))
+        .thenReturn(completedImport("NDJSON"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(post("/api/v2/books/imports")
+              .contentType(MediaType.APPLICATION_NDJSON)
+              .content(feed))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.format").value("NDJSON"));
+    } catch (Exception e) {
+      fail("Exception occurred while importing an NDJSON feed: " + e.getMessage());
+    }
+    verify(bookImportService)
+        .importBooks(eq(BookImportService.Format.NDJSON), any(InputStream.class));
+  }
+
+  @Test
+  @DisplayName("Get import by ID by GET /api/v2/books/imports/{id}")
+  void test_getImport_200_OK() {
+    // Arrange
+    ImportJobDto job = completedImport("CSV");
+    when(bookImportService.getImport(job.id())).thenReturn(job);
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/imports/{id}", job.id()))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.id").value(job.id()))
+          .andExpect(jsonPath("$.rowsInserted").value(1))
+          .andDo(document("get-import", responseFields(IMPORT_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while getting an import: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get unknown import by GET /api/v2/books/imports/{id}")
+  void test_getImport_404_Not_Found() {
+    // Arrange
+    when(bookImportService.getImport("unknown"))
+        .thenThrow(new EntityNotFoundException("Import not found with ID: unknown"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/imports/{id}", "unknown"))
+          .andExpect(status().isNotFound());
+    } catch (Exception e) {
+      fail("Exception occurred while getting an unknown import: " + e.getMessage());
+    }
+  }
+}
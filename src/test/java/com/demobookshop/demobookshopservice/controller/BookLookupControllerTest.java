@@ -0,0 +1,201 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.pathParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookLinkDto;
+import com.demobookshop.demobookshopservice.service.BookService;
+import java.time.Instant;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+
+@WebMvcTest(BookLookupController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookLookupControllerTest {
+
+  private static final FieldDescriptor[] BOOK_LIST_FIELDS = {
+    fieldWithPath("[].id").description("Book ID"),
+    fieldWithPath("[].uuid").description("Book UUID"),
+    fieldWithPath("[].parentId").description("Parent ID"),
+    fieldWithPath("[].parentUuid").description("Parent UUID"),
+    fieldWithPath("[].isCatalog").description("Element is Catalog"),
+    fieldWithPath("[].title").description("Book Title"),
+    fieldWithPath("[].author").description("Book Author")
+  };
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookService bookService;
+
+  private final UUID catalogUuid = UUID.randomUUID();
+  private final UUID bookUuid = UUID.randomUUID();
+  private final BookDto catalog = new BookDto(
+      1L,
+      catalogUuid.toString(),
+      null,
+      null,
+      true,
+      "Catalog One",
+      "Various",
+      3L,
+      Instant.parse("2026-10-18T10:15:30Z"));
+  private final BookDto book = new BookDto(
+      2L, bookUuid.toString(), 1L, catalogUuid.toString(), false, "Book Two", "Author B");
+
+  @Test
+  @DisplayName("Get book by UUID by GET /api/v2/books/by-uuid/{uuid}")
+  void test_getBookByUuid_200_Ok() {
+    // Arrange
+    when(bookService.getBookByUuid(catalogUuid)).thenReturn(catalog);
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/by-uuid/{uuid}", catalogUuid))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+          .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Sun, 18 Oct 2026 10:15:30 GMT"))
+          .andExpect(jsonPath("$.uuid").value(catalogUuid.toString()))
+          .andExpect(jsonPath("$.title").value("Catalog One"))
+          .andDo(document(
+              "get-book-by-uuid",
+              pathParameters(parameterWithName("uuid").description("UUID of the book")),
+              responseFields(
+                  fieldWithPath("id").description("Book ID"),
+                  fieldWithPath("uuid").description("Book UUID"),
+                  fieldWithPath("parentId").description("Parent ID"),
+                  fieldWithPath("parentUuid").description("Parent UUID"),
+                  fieldWithPath("isCatalog").description("Element is Catalog"),
+                  fieldWithPath("title").description("Book Title"),
+                  fieldWithPath("author").description("Book Author"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting book by UUID: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Reject a malformed UUID by GET /api/v2/books/by-uuid/{uuid}")
+  void test_getBookByUuid_400_Bad_Request() {
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/by-uuid/{uuid}", "not-a-uuid"))
+          .andExpect(status().isBadRequest());
+    } catch (Exception e) {
+      fail("Exception occurred while getting book by malformed UUID: " + e.getMessage());
+    }
+    verifyNoInteractions(bookService);
+  }
+
+  @Test
+  @DisplayName("Get books by ID by POST /api/v2/books/by-id:batch")
+  void test_getBooksById_200_Ok() {
+    // Arrange
+    when(bookService.getBooksById(List.of(2L, 99L)))
+        .thenReturn(List.of(
+            BookBatchResultDto.succeeded(0, 200, book),
+            BookBatchResultDto.failed(1, 404, 99L, "Book not found with ID: 99")));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(post("/api/v2/books/by-id:batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("[2,99]"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].book.uuid").value(bookUuid.toString()))
+          .andExpect(jsonPath("$[1].status").value(404))
+          .andDo(document(
+              "get-books-by-id-batch",
+              requestFields(fieldWithPath("[]").description("IDs of the books")),
+              responseFields(
+                  fieldWithPath("[].index").description("Position of the ID in the request"),
+                  fieldWithPath("[].status").description("200 if found, 404 otherwise"),
+                  fieldWithPath("[].id").description("Book ID"),
+                  subsectionWithPath("[].book").optional().description("Book, if found"),
+                  fieldWithPath("[].error").optional().description("Error message"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting books by ID: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get books by UUID by POST /api/v2/books/by-uuid:batch")
+  void test_getBooksByUuid_200_Ok() {
+    // Arrange
+    List<UUID> uuids = List.of(bookUuid, catalogUuid);
+    when(bookService.getBooksByUuid(uuids)).thenReturn(List.of(book, catalog));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(post("/api/v2/books/by-uuid:batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(JsonMapper.builder().build().writeValueAsString(uuids)))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].uuid").value(bookUuid.toString()))
+          .andExpect(jsonPath("$[1].uuid").value(catalogUuid.toString()))
+          .andDo(document(
+              "get-books-by-uuid",
+              requestFields(fieldWithPath("[]").description("UUIDs of the books")),
+              responseFields(BOOK_LIST_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while getting books by UUID: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get children links by GET /api/v2/books/by-uuid/{uuid}/children")
+  void test_getChildLinks_200_Ok() {
+    // Arrange
+    when(bookService.getChildLinks(catalogUuid))
+        .thenReturn(List.of(new BookLinkDto(2L, bookUuid.toString(), false)));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/by-uuid/{uuid}/children", catalogUuid))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(jsonPath("$[0].id").value(2L))
+          .andExpect(jsonPath("$[0].isCatalog").value(false))
+          .andDo(document(
+              "get-children-by-parent-uuid",
+              pathParameters(parameterWithName("uuid").description("UUID of the parent book")),
+              responseFields(
+                  fieldWithPath("[].id").description("Book ID"),
+                  fieldWithPath("[].uuid").description("Book UUID"),
+                  fieldWithPath("[].isCatalog").description("Element is Catalog"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting children by parent UUID: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.service.BookSearchService;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(BookSearchController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookSearchControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookSearchService bookSearchService;
+
+  @Test
+  @DisplayName("Search books by GET /api/v2/books/search")
+  void test_searchBooks_200_OK() {
+    // Arrange
+    BookDto book = new BookDto(
+        7L, UUID.randomUUID().toString(), null, null, false, "The Great Gatsby", "Fitzgerald");
+    when(bookSearchService.search("great gats", null, 20))
+        .thenReturn(new BookPageDto(List.of(book), "MC41Ojc"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/search").param("q", "great gats"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items", hasSize(1)))
+          .andExpect(jsonPath("$.items[0].title").value("The Great Gatsby"))
+          .andExpect(jsonPath("$.nextCursor").value("MC41Ojc"))
+          .andDo(document(
+              "search-books",
+              queryParameters(
+                  parameterWithName("q").description("Search text, words match as prefixes"),
+                  parameterWithName("after")
+                      .optional()
+                      .description("Cursor returned with the previous page"),
+                  parameterWithName("limit")
+                      .optional()
+                      .description("Maximum number of books in the page, 20 by default")),
+              responseFields(
+                  fieldWithPath("items[].id").description("Book ID"),
+                  fieldWithPath("items[].uuid").description("Book UUID"),
+                  fieldWithPath("items[].parentId").description("Parent ID"),
+                  fieldWithPath("items[].parentUuid").description("Parent UUID"),
+                  fieldWithPath("items[].isCatalog").description("Element is Catalog"),
+                  fieldWithPath("items[].title").description("Book Title"),
+                  fieldWithPath("items[].author").description("Book Author"),
+                  fieldWithPath("nextCursor")
+                      .description("Cursor of the next page, null on the last page"))));
+    } catch (Exception e) {
+      fail("Exception occurred while searching books: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Search with empty text by GET /api/v2/books/search")
+  void test_searchBooks_400_Bad_Request() {
+    // Arrange
+    when(bookSearchService.search("!!", null, 20))
+        .thenThrow(new InvalidRequestException("Search text must contain letters or digits"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/search").param("q", "!!"))
+          .andExpect(status().isBadRequest());
+    } catch (Exception e) {
+      fail("Exception occurred while searching books: " + e.getMessage());
+    }
+  }
+}
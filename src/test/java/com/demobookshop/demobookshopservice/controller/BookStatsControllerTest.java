@@ -0,0 +1,146 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.pathParameters;
+import static org.springframework.restdocs.request.RequestDocumentation.queryParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.dto.AuthorStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.BookStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.CatalogStatsDto;
+import com.demobookshop.demobookshopservice.model.dto.DepthStatsDto;
+import com.demobookshop.demobookshopservice.service.BookStatsService;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(BookStatsController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class BookStatsControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private BookStatsService bookStatsService;
+
+  @Test
+  @DisplayName("Get catalog statistics by GET /api/v2/books/stats")
+  void test_getBookStats_200_Ok() {
+    // Arrange
+    when(bookStatsService.getBookStats())
+        .thenReturn(new BookStatsDto(
+            5L,
+            3L,
+            1,
+            List.of(new DepthStatsDto(0, 1L, 2L), new DepthStatsDto(1, 4L, 1L)),
+            Instant.parse("2026-10-18T10:15:30Z")));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/stats"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.bookCount").value(5))
+          .andExpect(jsonPath("$.byDepth", hasSize(2)))
+          .andExpect(jsonPath("$.byDepth[1].depth").value(1))
+          .andDo(document(
+              "get-book-stats",
+              responseFields(
+                  fieldWithPath("bookCount").description("Total number of books"),
+                  fieldWithPath("catalogCount").description("Total number of catalogs"),
+                  fieldWithPath("maxDepth").description("Depth of the deepest element"),
+                  fieldWithPath("byDepth[].depth").description("Depth in the catalog tree"),
+                  fieldWithPath("byDepth[].bookCount").description("Books at that depth"),
+                  fieldWithPath("byDepth[].catalogCount").description("Catalogs at that depth"),
+                  fieldWithPath("refreshedAt").description("Time of the last refresh"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting catalog statistics: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get top authors by GET /api/v2/books/stats/authors")
+  void test_getTopAuthors_200_Ok() {
+    // Arrange
+    when(bookStatsService.getTopAuthors(2))
+        .thenReturn(List.of(new AuthorStatsDto("Author A", 12L), new AuthorStatsDto("B", 3L)));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/stats/authors").param("limit", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].author").value("Author A"))
+          .andExpect(jsonPath("$[0].bookCount").value(12))
+          .andDo(document(
+              "get-top-authors",
+              queryParameters(parameterWithName("limit").description("Maximum number of authors")),
+              responseFields(
+                  fieldWithPath("[].author").description("Book Author"),
+                  fieldWithPath("[].bookCount").description("Number of books of the author"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting top authors: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get catalog children counts by GET /api/v2/books/stats/catalogs/{id}")
+  void test_getCatalogStats_200_Ok() {
+    // Arrange
+    when(bookStatsService.getCatalogStats(1L)).thenReturn(new CatalogStatsDto(1L, 25L, 2L));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/stats/catalogs/{id}", 1L))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.bookCount").value(25))
+          .andExpect(jsonPath("$.catalogCount").value(2))
+          .andDo(document(
+              "get-catalog-stats",
+              pathParameters(parameterWithName("id").description("ID of the catalog")),
+              responseFields(
+                  fieldWithPath("catalogId").description("Catalog ID"),
+                  fieldWithPath("bookCount").description("Books directly in the catalog"),
+                  fieldWithPath("catalogCount").description("Catalogs directly in the catalog"))));
+    } catch (Exception e) {
+      fail("Exception occurred while getting catalog children counts: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get 404 for the counts of an unknown book")
+  void test_getCatalogStats_404_Not_Found() {
+    // Arrange
+    when(bookStatsService.getCatalogStats(99L))
+        .thenThrow(new EntityNotFoundException("Book not found with ID: 99"));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/stats/catalogs/{id}", 99L))
+          .andExpect(status().isNotFound());
+    } catch (Exception e) {
+      fail("Exception occurred while getting counts of an unknown book: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.demobookshop.demobookshopservice.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
+import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.pathParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.service.CatalogTreeService;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService.SubtreeSnapshot;
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.restdocs.test.autoconfigure.AutoConfigureRestDocs;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.restdocs.payload.FieldDescriptor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+
+@WebMvcTest(CatalogTreeController.class)
+@AutoConfigureRestDocs(
+    outputDir = "build/generated-snippets",
+    uriScheme = "https",
+    uriHost = "api.demobookshop.com")
+class CatalogTreeControllerTest {
+
+  private static final FieldDescriptor[] BOOK_LIST_FIELDS = {
+    fieldWithPath("[].id").description("Book ID"),
+    fieldWithPath("[].uuid").description("Book UUID"),
+    fieldWithPath("[].parentId").description("Parent ID"),
+    fieldWithPath("[].parentUuid").description("Parent UUID"),
+    fieldWithPath("[].isCatalog").description("Element is Catalog"),
+    fieldWithPath("[].title").description("Book Title"),
+    fieldWithPath("[].author").description("Book Author")
+  };
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private CatalogTreeService catalogTreeService;
+
+  @MockitoBean
+  private SubtreeSnapshotService subtreeSnapshotService;
+
+  private final BookDto catalog =
+      new BookDto(1L, UUID.randomUUID().toString(), null, null, true, "Catalog One", "Various");
+  private final BookDto book =
+      new BookDto(2L, UUID.randomUUID().toString(), 1L, catalog.uuid(), false, "Book Two", "B");
+
+  @Test
+  @DisplayName("Get subtree by GET /api/v2/books/{id}/subtree")
+  void test_getSubtree_200_Ok() {
+    // Arrange
+    byte[] json = JsonMapper.builder().build().writeValueAsBytes(List.of(catalog, book));
+    when(subtreeSnapshotService.getSubtree(1L)).thenReturn(new SubtreeSnapshot(json, "\"a1\""));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/{id}/subtree", 1L))
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, "\"a1\""))
+          .andExpect(jsonPath("$", hasSize(2)))
+          .andExpect(jsonPath("$[0].title").value("Catalog One"))
+          .andDo(document(
+              "get-book-subtree",
+              pathParameters(parameterWithName("id").description("ID of the subtree root")),
+              responseFields(BOOK_LIST_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while getting subtree: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get unchanged subtree with If-None-Match by GET /api/v2/books/{id}/subtree")
+  void test_getSubtree_304_Not_Modified() {
+    // Arrange
+    byte[] json = JsonMapper.builder().build().writeValueAsBytes(List.of(catalog, book));
+    when(subtreeSnapshotService.getSubtree(1L)).thenReturn(new SubtreeSnapshot(json, "\"a1\""));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(
+              get("/api/v2/books/{id}/subtree", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"a1\""))
+          .andExpect(status().isNotModified())
+          .andExpect(content().string(""));
+    } catch (Exception e) {
+      fail("Exception occurred while getting subtree: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get ancestors by GET /api/v2/books/{id}/ancestors")
+  void test_getAncestors_200_Ok() {
+    // Arrange
+    when(catalogTreeService.getAncestors(2L)).thenReturn(List.of(catalog));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/{id}/ancestors", 2L))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(jsonPath("$[0].id").value(1L))
+          .andDo(document(
+              "get-book-ancestors",
+              pathParameters(parameterWithName("id").description("ID of the book")),
+              responseFields(BOOK_LIST_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while getting ancestors: " + e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Get catalog children by GET /api/v2/books/{id}/children")
+  void test_getChildren_200_Ok() {
+    // Arrange
+    when(catalogTreeService.getChildren(1L)).thenReturn(List.of(book));
+
+    // Act & Assert
+    try {
+      mockMvc
+          .perform(get("/api/v2/books/{id}/children", 1L))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$", hasSize(1)))
+          .andExpect(jsonPath("$[0].parentId").value(1L))
+          .andDo(document(
+              "get-catalog-children",
+              pathParameters(parameterWithName("id").description("ID of the catalog")),
+              responseFields(BOOK_LIST_FIELDS)));
+    } catch (Exception e) {
+      fail("Exception occurred while getting catalog children: " + e.getMessage());
+    }
+  }
+}
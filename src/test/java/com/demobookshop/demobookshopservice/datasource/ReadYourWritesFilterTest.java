@@ -0,0 +1,60 @@
+package com.demobookshop.demobookshopservice.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ReadYourWritesFilterTest {
+
+  private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(2));
+
+  @Test
+  @DisplayName("Pin a write to the primary and set the window cookie")
+  void test_write_setsCookie() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v2/books/1");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    // Act
+    boolean pinned = filter(request, response);
+    // Assert
+    assertTrue(pinned, "A write should run pinned to the primary");
+    Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    assertNotNull(cookie);
+    assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+    assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary(), "Pin should end with the request");
+  }
+
+  @Test
+  @DisplayName("Pin reads to the primary only while the window lasts")
+  void test_read_followsCookie() throws Exception {
+    // Arrange
+    long now = System.currentTimeMillis();
+    MockHttpServletRequest recent = new MockHttpServletRequest("GET", "/api/v2/books/1");
+    recent.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(now + 1000)));
+    MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/v2/books/1");
+    expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(now - 1)));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    // Act & Assert
+    assertTrue(filter(recent, response));
+    assertFalse(filter(expired, response));
+    assertFalse(filter(new MockHttpServletRequest("GET", "/api/v2/books"), response));
+    assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME), "Reads set no cookie");
+  }
+
+  private boolean filter(MockHttpServletRequest request, MockHttpServletResponse response)
+      throws Exception {
+    AtomicBoolean pinned = new AtomicBoolean();
+    filter.doFilter(
+        request,
+        response,
+        (servletRequest, servletResponse) ->
+            pinned.set(ReplicaRoutingDataSource.isPinnedToPrimary()));
+    return pinned.get();
+  }
+}
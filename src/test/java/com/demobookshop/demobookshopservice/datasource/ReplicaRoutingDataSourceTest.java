@@ -0,0 +1,187 @@
+package com.demobookshop.demobookshopservice.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.config.ReplicaDataSourceConfig;
+import com.demobookshop.demobookshopservice.config.SubtreeCacheProperties;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.service.BookService;
+import com.demobookshop.demobookshopservice.service.CatalogTreeIndex;
+import com.demobookshop.demobookshopservice.service.CatalogTreeService;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import com.hazelcast.core.HazelcastInstance;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Routes between two independent PostgreSQL containers standing in for the primary and the
+ * replica; the database name tells which one served a transaction.
+ */
+@Testcontainers
+class ReplicaRoutingDataSourceTest {
+
+  private static final String CURRENT_DATABASE = "SELECT current_database()";
+
+  @Container
+  public static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:latest")
+      .withDatabaseName("primarydb")
+      .withUsername("sa")
+      .withPassword("sa");
+
+  @Container
+  public static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:latest")
+      .withDatabaseName("replicadb")
+      .withUsername("sa")
+      .withPassword("sa");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private HikariDataSource primaryPool;
+  private HikariDataSource replicaPool;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  void setUp() {
+    primaryPool = pool(primary);
+    replicaPool = pool(replica);
+    DataSource dataSource =
+        new ReplicaDataSourceConfig().dataSource(primaryPool, replicaPool, meterRegistry);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReplicaRoutingDataSource.unpin();
+    primaryPool.close();
+    replicaPool.close();
+  }
+
+  @Test
+  @DisplayName("Run read-only transactions on the replica and the others on the primary")
+  void test_routing_byTransaction() {
+    assertEquals("replicadb", readOnly.execute(status -> currentDatabase()));
+    assertEquals("primarydb", readWrite.execute(status -> currentDatabase()));
+    assertEquals("primarydb", currentDatabase(), "Statements outside of a transaction");
+    assertEquals(1.0, readConnections("replica"));
+  }
+
+  @Test
+  @DisplayName("Run read-only transactions on the primary while pinned to it")
+  void test_routing_pinnedToPrimary() {
+    // Arrange
+    ReplicaRoutingDataSource.pinToPrimary();
+    // Act & Assert
+    assertEquals("primarydb", readOnly.execute(status -> currentDatabase()));
+    assertEquals(1.0, readConnections("primary"));
+    ReplicaRoutingDataSource.unpin();
+    assertEquals("replicadb", readOnly.execute(status -> currentDatabase()));
+  }
+
+  @Test
+  @DisplayName("Build subtree snapshots on the primary and leave the thread unpinned")
+  void test_routing_subtreeSnapshotOnPrimary() {
+    // Arrange
+    CatalogTreeService catalogTreeService = mock(CatalogTreeService.class);
+    when(catalogTreeService.getSubtree(1L)).thenAnswer(invocation -> List.of(new BookDto(
+        1L, "uuid", null, null, true, readOnly.execute(status -> currentDatabase()), "Author")));
+    SubtreeSnapshotService subtreeSnapshotService = new SubtreeSnapshotService(
+        catalogTreeService,
+        mock(CatalogTreeIndex.class),
+        mock(BookRepository.class),
+        mock(PlatformTransactionManager.class),
+        noHazelcast(),
+        JsonMapper.builder().build(),
+        meterRegistry,
+        new CatalogTreeProperties(64, true, Duration.ofSeconds(10)),
+        new SubtreeCacheProperties(DataSize.ofMegabytes(1), Duration.ofHours(1)));
+    // Act
+    String json = new String(subtreeSnapshotService.getSubtree(1L).json(), StandardCharsets.UTF_8);
+    // Assert
+    assertTrue(json.contains("\"title\":\"primarydb\""), json);
+    assertEquals(1.0, readConnections("primary"));
+    assertEquals(0.0, readConnections("replica"));
+    assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+  }
+
+  @Test
+  @DisplayName("Load a book cache miss from the primary")
+  void test_routing_bookCacheMissOnPrimary() {
+    // Arrange
+    BookRepository bookRepository = mock(BookRepository.class);
+    when(bookRepository.findById(1L)).thenAnswer(invocation -> Optional.of(new Book(
+        1L, UUID.randomUUID(), null, null, false, readOnly.execute(status -> currentDatabase()),
+        "Author")));
+    BookService bookService = new BookService(
+        bookRepository,
+        mock(ApplicationEventPublisher.class),
+        mock(CacheManager.class),
+        mock(CatalogSnapshot.class),
+        mock(PlatformTransactionManager.class),
+        meterRegistry);
+    // Act
+    BookDto book = bookService.getBookById(1L);
+    // Assert
+    assertEquals("primarydb", book.title());
+    assertEquals(1.0, readConnections("primary"));
+    assertEquals(0.0, readConnections("replica"));
+    assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectProvider<HazelcastInstance> noHazelcast() {
+    return mock(ObjectProvider.class);
+  }
+
+  private String currentDatabase() {
+    return jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class);
+  }
+
+  private double readConnections(String target) {
+    return meterRegistry
+        .get("bookshop.datasource.read.connections")
+        .tag("target", target)
+        .counter()
+        .count();
+  }
+
+  private static HikariDataSource pool(PostgreSQLContainer<?> container) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setJdbcUrl(container.getJdbcUrl());
+    pool.setUsername(container.getUsername());
+    pool.setPassword(container.getPassword());
+    pool.setMaximumPoolSize(2);
+    return pool;
+  }
+}
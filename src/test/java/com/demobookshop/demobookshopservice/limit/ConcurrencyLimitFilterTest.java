@@ -0,0 +1,97 @@
+package com.demobookshop.demobookshopservice.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+class ConcurrencyLimitFilterTest {
+
+  private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+      new GradientLimit(2, 1, 10, 0.2, 1.5),
+      0.9,
+      0.5,
+      Duration.ZERO,
+      new SimpleMeterRegistry());
+  private final ConcurrencyLimitFilter filter =
+      new ConcurrencyLimitFilter(limiter, Duration.ofSeconds(2), JsonMapper.builder().build());
+
+  @Test
+  @DisplayName("Answer 503 with Retry-After to a full scan over its share of the limit")
+  void test_doFilter_shedsBulkRead() throws Exception {
+    // Arrange
+    limiter.tryAcquire(RequestPriority.BULK);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    // Act
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v2/books"),
+        response,
+        (servletRequest, servletResponse) -> fail("A shed request should not reach the chain"));
+    // Assert
+    assertEquals(503, response.getStatus());
+    assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+    assertTrue(response.getContentAsString().contains("Service is overloaded"));
+  }
+
+  @Test
+  @DisplayName("Admit a single book read and release its permit afterwards")
+  void test_doFilter_admitsCriticalRead() throws Exception {
+    // Arrange
+    limiter.tryAcquire(RequestPriority.BULK);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    // Act
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v2/books/15"),
+        response,
+        (servletRequest, servletResponse) -> assertEquals(2, limiter.getInflight()));
+    // Assert
+    assertEquals(200, response.getStatus());
+    assertEquals(1, limiter.getInflight(), "Permit should be released with the response");
+  }
+
+  @Test
+  @DisplayName("Let a change feed event stream through without a permit or a latency sample")
+  void test_doFilter_bypassesEventStream() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/books/changes");
+    request.addHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+    int limit = limiter.getLimit();
+    // Act
+    filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+      assertEquals(0, limiter.getInflight(), "The stream should hold no permit");
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+    });
+    // Assert
+    assertEquals(limit, limiter.getLimit(), "The stream should not lower the limit");
+    assertFalse(RequestPriority.isEventStream(
+        new MockHttpServletRequest("GET", "/api/v2/books/changes")));
+  }
+
+  @Test
+  @DisplayName("Classify requests into priority classes")
+  void test_requestPriority_of() {
+    assertEquals(RequestPriority.CRITICAL, priority("DELETE", "/api/v2/books/15", null));
+    assertEquals(RequestPriority.CRITICAL, priority("GET", "/api/v1/book/15", null));
+    assertEquals(RequestPriority.BULK, priority("GET", "/api/v2/books", null));
+    assertEquals(RequestPriority.BULK, priority("GET", "/api/v2/books/stream", null));
+    assertEquals(RequestPriority.NORMAL, priority("GET", "/api/v2/books", "100"));
+    assertEquals(RequestPriority.NORMAL, priority("GET", "/api/v2/books/search", null));
+  }
+
+  private static RequestPriority priority(String method, String uri, String limit) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    if (limit != null) {
+      request.setParameter("limit", limit);
+    }
+    return RequestPriority.of(request);
+  }
+}
@@ -0,0 +1,113 @@
+package com.demobookshop.demobookshopservice.limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("Shed bulk reads at their share of the limit and admit critical requests")
+  void test_tryAcquire_byPriority() {
+    // Arrange
+    ConcurrencyLimiter limiter = limiter(new GradientLimit(4, 1, 10, 0.2, 1.5));
+    // Act
+    Optional<ConcurrencyLimiter.Permit> bulk1 = limiter.tryAcquire(RequestPriority.BULK);
+    Optional<ConcurrencyLimiter.Permit> bulk2 = limiter.tryAcquire(RequestPriority.BULK);
+    Optional<ConcurrencyLimiter.Permit> bulk3 = limiter.tryAcquire(RequestPriority.BULK);
+    Optional<ConcurrencyLimiter.Permit> critical = limiter.tryAcquire(RequestPriority.CRITICAL);
+    // Assert
+    assertTrue(bulk1.isPresent());
+    assertTrue(bulk2.isPresent());
+    assertTrue(bulk3.isEmpty(), "Bulk reads may fill half of the limit");
+    assertTrue(critical.isPresent(), "Critical requests may fill the whole limit");
+    assertEquals(3, limiter.getInflight());
+    assertEquals(1.0, rejected("bulk"));
+    // Releasing twice frees a single slot
+    bulk1.get().release(false);
+    bulk1.get().release(false);
+    assertEquals(2, limiter.getInflight());
+    assertTrue(limiter.tryAcquire(RequestPriority.NORMAL).isPresent());
+  }
+
+  @Test
+  @DisplayName("Reject a critical request that found no permit within the queue timeout")
+  void test_tryAcquire_queueTimeout() {
+    // Arrange
+    ConcurrencyLimiter limiter = limiter(new GradientLimit(1, 1, 10, 0.2, 1.5));
+    limiter.tryAcquire(RequestPriority.CRITICAL);
+    // Act
+    Optional<ConcurrencyLimiter.Permit> permit = limiter.tryAcquire(RequestPriority.CRITICAL);
+    // Assert
+    assertTrue(permit.isEmpty());
+    assertEquals(1.0, rejected("critical"));
+    assertEquals(0, limiter.getQueued());
+    assertEquals(
+        0L,
+        meterRegistry
+            .get("bookshop.concurrency.queue.wait")
+            .tag("priority", "critical")
+            .timer()
+            .count(),
+        "The wait is recorded only for admitted requests");
+  }
+
+  @Test
+  @DisplayName("Keep the limit when a long bulk read completes")
+  void test_release_bulkReadNotSampled() throws InterruptedException {
+    // Arrange
+    ConcurrencyLimiter limiter = limiter(new GradientLimit(2, 1, 10, 0.2, 1.5));
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire(RequestPriority.CRITICAL).orElseThrow().release(false);
+    }
+    int limit = limiter.getLimit();
+    ConcurrencyLimiter.Permit bulk = limiter.tryAcquire(RequestPriority.BULK).orElseThrow();
+    // Act
+    Thread.sleep(50);
+    bulk.release(false);
+    // Assert
+    assertEquals(limit, limiter.getLimit(), "A bulk read should not count as a latency sample");
+    assertEquals(0, limiter.getInflight());
+  }
+
+  @Test
+  @DisplayName("Lower the limit when latency rises and back off on a dropped request")
+  void test_gradientLimit_followsLatency() {
+    // Arrange
+    GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5);
+    long fast = TimeUnit.MILLISECONDS.toNanos(10);
+    long slow = TimeUnit.MILLISECONDS.toNanos(100);
+    // Act & Assert
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(fast, limit.getLimit(), false);
+    }
+    int grown = limit.getLimit();
+    assertTrue(grown > 20, "Limit should grow while latency is steady, was " + grown);
+    for (int i = 0; i < 50; i++) {
+      limit.onSample(slow, limit.getLimit(), false);
+    }
+    int lowered = limit.getLimit();
+    assertTrue(lowered < grown, "Limit should fall as latency rises, was " + lowered);
+    assertEquals((int) (lowered * 0.9), limit.onSample(slow, lowered, true), 1);
+    assertEquals(4, new GradientLimit(4, 4, 200, 0.2, 1.5).onSample(fast, 4, true));
+  }
+
+  private ConcurrencyLimiter limiter(GradientLimit limit) {
+    return new ConcurrencyLimiter(limit, 0.9, 0.5, Duration.ofMillis(10), meterRegistry);
+  }
+
+  private double rejected(String priority) {
+    return meterRegistry
+        .get("bookshop.concurrency.rejected")
+        .tag("priority", priority)
+        .counter()
+        .count();
+  }
+}
@@ -0,0 +1,54 @@
+package com.demobookshop.demobookshopservice.observability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class RequestQueryStatsFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RequestQueryStatsFilter filter = new RequestQueryStatsFilter(meterRegistry, 50);
+
+  @Test
+  @DisplayName("Record the statements and entity loads of a request by its URI template")
+  void test_doFilter_recordsCounts() throws Exception {
+    // Arrange
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v2/books/1");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v2/books/{id}");
+    // Act
+    filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+      RequestQueryStats.statementPrepared();
+      RequestQueryStats.statementPrepared();
+      RequestQueryStats.entityLoaded();
+    });
+    // Assert
+    DistributionSummary statements = summary("bookshop.request.statements");
+    assertEquals(1L, statements.count());
+    assertEquals(2.0, statements.totalAmount());
+    assertEquals(1.0, summary("bookshop.request.entity.loads").totalAmount());
+    assertEquals(0L, RequestQueryStats.stop().statements(), "Counting should end with the request");
+  }
+
+  @Test
+  @DisplayName("Ignore statements run outside of a request")
+  void test_statementPrepared_outsideRequest() {
+    // Act
+    RequestQueryStats.statementPrepared();
+    // Assert
+    assertEquals(new RequestQueryStats.Counts(0L, 0L), RequestQueryStats.stop());
+  }
+
+  private DistributionSummary summary(String name) {
+    return meterRegistry
+        .get(name)
+        .tag("method", "GET")
+        .tag("uri", "/api/v2/books/{id}")
+        .summary();
+  }
+}
@@ -0,0 +1,208 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.BatchProperties;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookBatchServiceTest {
+
+  @Mock
+  private BookRepository bookRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private BookBatchService bookBatchService;
+
+  @BeforeEach
+  void setUp() {
+    bookBatchService = new BookBatchService(
+        bookRepository,
+        entityManager,
+        eventPublisher,
+        transactionManager,
+        Runnable::run,
+        new BatchProperties(10, 2));
+  }
+
+  private static BookDto newBook(String title) {
+    return new BookDto(null, UUID.randomUUID().toString(), null, null, false, title, "Author");
+  }
+
+  private static List<Book> withIds(List<Book> books) {
+    for (int i = 0; i < books.size(); i++) {
+      books.get(i).setId(100L + i);
+    }
+    return books;
+  }
+
+  @Test
+  @DisplayName("Add books in chunks (BookBatchService.addBooks(List<BookDto> newBooks))")
+  void test_addBooks() {
+    // Arrange
+    when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(
+        new ArrayList<>(invocation.<List<Book>>getArgument(0))));
+    // Act
+    List<BookBatchResultDto> results =
+        bookBatchService.addBooks(List.of(newBook("A"), newBook("B"), newBook("C")));
+    // Assert
+    assertEquals(3, results.size(), "Every item should have a result");
+    assertTrue(results.stream().allMatch(r -> r.status() == 201), "Every item should be created");
+    verify(bookRepository, times(2)).saveAll(anyList());
+    verify(eventPublisher, times(3)).publishEvent(any(BookChangedEvent.class));
+  }
+
+  @Test
+  @DisplayName("Invalid items fail alone (BookBatchService.addBooks(List<BookDto> newBooks))")
+  void test_addBooks_invalidItem() {
+    // Arrange
+    BookDto invalid = new BookDto(null, "not-a-uuid", null, null, false, "B", "Author");
+    when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(
+        new ArrayList<>(invocation.<List<Book>>getArgument(0))));
+    // Act
+    List<BookBatchResultDto> results = bookBatchService.addBooks(List.of(newBook("A"), invalid));
+    // Assert
+    assertEquals(201, results.get(0).status(), "Valid item should be created");
+    assertEquals(400, results.get(1).status(), "Invalid item should be rejected");
+    assertEquals(1, results.get(1).index(), "Results should keep the request order");
+  }
+
+  @Test
+  @DisplayName("Failed chunk is retried item by item (BookBatchService.addBooks(List<BookDto>))")
+  void test_addBooks_chunkFailure() {
+    // Arrange
+    when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Book> books = invocation.getArgument(0);
+      if (books.stream().anyMatch(b -> b.getTitle().equals("Duplicate"))) {
+        throw new DataIntegrityViolationException("duplicate key");
+      }
+      return withIds(new ArrayList<>(books));
+    });
+    // Act
+    List<BookBatchResultDto> results =
+        bookBatchService.addBooks(List.of(newBook("A"), newBook("Duplicate")));
+    // Assert
+    assertEquals(201, results.get(0).status(), "Good item should survive the chunk failure");
+    assertEquals(409, results.get(1).status(), "Failing item should be reported");
+    verify(transactionManager, times(2)).rollback(any());
+  }
+
+  @Test
+  @DisplayName("Chunks run in parallel (BookBatchService.addBooks(List<BookDto> newBooks))")
+  void test_addBooks_parallelChunks() {
+    // Arrange
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("test-fan-out-");
+    executor.setVirtualThreads(true);
+    executor.setConcurrencyLimit(2);
+    BookBatchService parallelService = new BookBatchService(
+        bookRepository,
+        entityManager,
+        eventPublisher,
+        transactionManager,
+        executor,
+        new BatchProperties(10, 2));
+    when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> withIds(
+        new ArrayList<>(invocation.<List<Book>>getArgument(0))));
+    List<BookDto> newBooks = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      newBooks.add(newBook("Book " + i));
+    }
+    // Act
+    List<BookBatchResultDto> results = parallelService.addBooks(newBooks);
+    // Assert
+    assertEquals(7, results.size(), "Every item should have a result");
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).index(), "Results should keep the request order");
+      assertEquals("Book " + i, results.get(i).book().title(), "Result should match its item");
+    }
+    verify(bookRepository, times(4)).saveAll(anyList());
+  }
+
+  @Test
+  @DisplayName("Update reports missing books (BookBatchService.updateBooks(List<BookDto> books))")
+  void test_updateBooks() {
+    // Arrange
+    Book existing = new Book(1L, UUID.randomUUID(), null, null, false, "Old", "Author");
+    when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing));
+    BookDto first = new BookDto(1L, UUID.randomUUID().toString(), null, null, false, "New", "A");
+    BookDto second = new BookDto(2L, UUID.randomUUID().toString(), null, null, false, "New", "A");
+    // Act
+    List<BookBatchResultDto> results = bookBatchService.updateBooks(List.of(first, second));
+    // Assert
+    assertEquals(200, results.get(0).status(), "Existing book should be updated");
+    assertEquals("New", existing.getTitle(), "Entity should carry the new values");
+    assertEquals(404, results.get(1).status(), "Missing book should be reported");
+  }
+
+  @Test
+  @DisplayName("Report the version assigned on flush in update results and events")
+  void test_updateBooks_flushedVersion() {
+    // Arrange
+    Book existing = new Book(1L, UUID.randomUUID(), null, null, false, "Old", "Author");
+    when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(existing));
+    doAnswer(invocation -> {
+          existing.setVersion(existing.getVersion() + 1);
+          return null;
+        })
+        .when(entityManager)
+        .flush();
+    BookDto update = new BookDto(1L, UUID.randomUUID().toString(), null, null, false, "New", "A");
+    // Act
+    List<BookBatchResultDto> results = bookBatchService.updateBooks(List.of(update));
+    // Assert
+    assertEquals(1L, results.getFirst().book().version(), "Result should carry the new version");
+    verify(eventPublisher)
+        .publishEvent(argThat((Object event) ->
+            event instanceof BookChangedEvent changed && changed.book().version() == 1L));
+  }
+
+  @Test
+  @DisplayName("Delete books (BookBatchService.deleteBooks(List<Long> bookIds))")
+  void test_deleteBooks() {
+    // Arrange
+    Book existing = new Book(1L, UUID.randomUUID(), null, null, false, "Old", "Author");
+    when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing));
+    // Act
+    List<BookBatchResultDto> results = bookBatchService.deleteBooks(List.of(1L, 2L));
+    // Assert
+    assertEquals(204, results.get(0).status(), "Existing book should be deleted");
+    assertEquals(404, results.get(1).status(), "Missing book should be reported");
+    verify(bookRepository).delete(existing);
+  }
+
+  @Test
+  @DisplayName("Reject too large batches (BookBatchService.deleteBooks(List<Long> bookIds))")
+  void test_tooLargeBatch() {
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= 11; id++) {
+      ids.add(id);
+    }
+    assertThrows(InvalidRequestException.class, () -> bookBatchService.deleteBooks(ids));
+  }
+}
@@ -0,0 +1,139 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.DeltaProperties;
+import com.demobookshop.demobookshopservice.exception.ChangesExpiredException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.dto.BookDeltaDto;
+import com.demobookshop.demobookshopservice.model.projection.BookDeltaRow;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.service.BookDeltaService.DeltaToken;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookDeltaServiceTest {
+
+  private static final Duration RETENTION = Duration.ofDays(30);
+
+  @Mock
+  private BookRepository bookRepository;
+
+  private BookDeltaService bookDeltaService;
+
+  @BeforeEach
+  void setUp() {
+    bookDeltaService =
+        new BookDeltaService(bookRepository, new DeltaProperties(RETENTION, Duration.ofDays(1)));
+  }
+
+  @Test
+  @DisplayName("Split a page into upserts and deletions and continue after its last row")
+  void test_getDelta_page() {
+    // Arrange
+    when(bookRepository.findDeltaHorizon()).thenReturn(900L);
+    when(bookRepository.findChangedAfter(0L, 0L, 900L, 3))
+        .thenReturn(List.of(row(1L, 100L, false), row(2L, 100L, true), row(3L, 101L, false)));
+    // Act
+    BookDeltaDto delta = bookDeltaService.getDelta(null, 2);
+    // Assert
+    assertEquals(List.of(1L), delta.upserts().stream().map(book -> book.id()).toList());
+    assertEquals(List.of(2L), delta.deletedIds());
+    assertTrue(delta.hasMore(), "Extra row should signal more changes");
+    DeltaToken next = DeltaToken.decode(delta.nextToken());
+    assertEquals(100L, next.changeXid());
+    assertEquals(2L, next.id());
+  }
+
+  @Test
+  @DisplayName("Resume a caught-up client at the horizon")
+  void test_getDelta_caughtUp() {
+    // Arrange
+    String since = new DeltaToken(100L, 2L, Instant.now().getEpochSecond()).encode();
+    when(bookRepository.findDeltaHorizon()).thenReturn(900L);
+    when(bookRepository.findChangedAfter(100L, 2L, 900L, 11))
+        .thenReturn(List.of(row(3L, 101L, false)));
+    // Act
+    BookDeltaDto delta = bookDeltaService.getDelta(since, 10);
+    // Assert
+    assertFalse(delta.hasMore());
+    DeltaToken next = DeltaToken.decode(delta.nextToken());
+    assertEquals(899L, next.changeXid(), "Next read should start with the horizon transaction");
+    assertEquals(Long.MAX_VALUE, next.id());
+  }
+
+  @Test
+  @DisplayName("Reject a token older than the tombstone retention")
+  void test_getDelta_expired() {
+    // Arrange
+    long startedAt = Instant.now().minus(RETENTION).minusSeconds(60).getEpochSecond();
+    String since = new DeltaToken(100L, 2L, startedAt).encode();
+    // Act & Assert
+    assertThrows(ChangesExpiredException.class, () -> bookDeltaService.getDelta(since, 10));
+    verifyNoInteractions(bookRepository);
+  }
+
+  @Test
+  @DisplayName("Reject a malformed token")
+  void test_getDelta_malformed() {
+    assertThrows(InvalidRequestException.class, () -> bookDeltaService.getDelta("bm9wZQ", 10));
+  }
+
+  private static BookDeltaRow row(Long id, Long changeXid, boolean deleted) {
+    return new BookDeltaRow() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public UUID getUuid() {
+        return UUID.randomUUID();
+      }
+
+      @Override
+      public Long getParentId() {
+        return null;
+      }
+
+      @Override
+      public UUID getParentUuid() {
+        return null;
+      }
+
+      @Override
+      public Boolean getIsCatalog() {
+        return false;
+      }
+
+      @Override
+      public String getTitle() {
+        return "Title " + id;
+      }
+
+      @Override
+      public String getAuthor() {
+        return "Author";
+      }
+
+      @Override
+      public Boolean getDeleted() {
+        return deleted;
+      }
+
+      @Override
+      public Long getChangeXid() {
+        return changeXid;
+      }
+    };
+  }
+}
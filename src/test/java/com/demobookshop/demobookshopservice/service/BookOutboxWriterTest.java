@@ -0,0 +1,81 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookOutboxRepository;
+import jakarta.persistence.EntityManager;
+import java.util.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookOutboxWriterTest {
+
+  @Mock
+  private BookOutboxRepository bookOutboxRepository;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @InjectMocks
+  private BookOutboxWriter bookOutboxWriter;
+
+  private final BookDto book =
+      new BookDto(1L, UUID.randomUUID().toString(), null, null, false, "Title", "Author");
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Write the changes of a transaction with one batch just before commit")
+  void test_onBookChanged_writesBeforeCommit() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+    BookChangedEvent created = BookChangedEvent.created(book);
+    BookChangedEvent updated = BookChangedEvent.updated(book, null);
+    // Act
+    bookOutboxWriter.onBookChanged(created);
+    bookOutboxWriter.onBookChanged(updated);
+    verifyNoInteractions(bookOutboxRepository);
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+    synchronizations.forEach(synchronization ->
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    // Assert
+    assertEquals(1, synchronizations.size(), "One flush should be registered per transaction");
+    InOrder inOrder = inOrder(entityManager, bookOutboxRepository);
+    inOrder.verify(entityManager).flush();
+    inOrder.verify(bookOutboxRepository).insertAll(List.of(created, updated));
+    assertNull(
+        TransactionSynchronizationManager.getResource(bookOutboxWriter),
+        "Pending changes should be released after completion");
+  }
+
+  @Test
+  @DisplayName("Write a change at once outside of a transaction")
+  void test_onBookChanged_withoutTransaction() {
+    // Arrange
+    BookChangedEvent deleted = BookChangedEvent.deleted(book);
+    // Act
+    bookOutboxWriter.onBookChanged(deleted);
+    // Assert
+    verify(bookOutboxRepository, times(1)).insertAll(List.of(deleted));
+    verifyNoInteractions(entityManager);
+  }
+}
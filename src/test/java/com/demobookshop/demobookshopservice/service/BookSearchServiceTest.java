@@ -0,0 +1,101 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.model.projection.BookSearchHit;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.util.pagination.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchServiceTest {
+
+  @Mock
+  private BookRepository bookRepository;
+
+  private BookSearchService bookSearchService;
+
+  @BeforeEach
+  void setUp() {
+    bookSearchService = new BookSearchService(bookRepository, new SimpleMeterRegistry());
+  }
+
+  private static BookSearchHit hit(long id, float rank) {
+    return new BookSearchHit() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Float getRank() {
+        return rank;
+      }
+    };
+  }
+
+  private static Book book(long id, String title) {
+    return new Book(id, UUID.randomUUID(), null, null, false, title, "Author");
+  }
+
+  @Test
+  @DisplayName("Build prefix queries (BookSearchService.toPrefixQuery(String text))")
+  void test_toPrefixQuery() {
+    assertEquals("great:* & gats:*", BookSearchService.toPrefixQuery("Great  Gats"));
+    assertEquals("o:* & reilly:*", BookSearchService.toPrefixQuery("O'Reilly & | !"));
+    assertEquals("1984:*", BookSearchService.toPrefixQuery("1984"));
+    assertThrows(InvalidRequestException.class, () -> BookSearchService.toPrefixQuery(" :* "));
+    assertThrows(InvalidRequestException.class, () -> BookSearchService.toPrefixQuery(null));
+  }
+
+  @Test
+  @DisplayName("Search first page (BookSearchService.search(String text, String after, int limit))")
+  void test_search_firstPage() {
+    // Arrange
+    when(bookRepository.search("gats:*", Float.POSITIVE_INFINITY, 0L, 3))
+        .thenReturn(List.of(hit(7L, 0.5f), hit(3L, 0.2f), hit(9L, 0.2f)));
+    when(bookRepository.findAllById(List.of(7L, 3L)))
+        .thenReturn(List.of(book(3L, "Gatsby Notes"), book(7L, "The Great Gatsby")));
+    // Act
+    BookPageDto page = bookSearchService.search("gats", null, 2);
+    // Assert
+    assertEquals(2, page.items().size(), "Page should hold the requested number of books");
+    assertEquals(7L, page.items().get(0).id(), "Books should keep the rank order");
+    assertEquals(3L, page.items().get(1).id(), "Books should keep the rank order");
+    assertEquals(KeysetCursor.encode(0.2f, 3L), page.nextCursor(), "Cursor should hold rank, ID");
+  }
+
+  @Test
+  @DisplayName("Search next page (BookSearchService.search(String text, String after, int limit))")
+  void test_search_nextPage() {
+    // Arrange
+    when(bookRepository.search("gats:*", 0.2f, 3L, 3)).thenReturn(List.of(hit(9L, 0.2f)));
+    when(bookRepository.findAllById(List.of(9L))).thenReturn(List.of(book(9L, "Gatsby Again")));
+    // Act
+    BookPageDto page = bookSearchService.search("gats", KeysetCursor.encode(0.2f, 3L), 2);
+    // Assert
+    assertEquals(1, page.items().size(), "Last page should hold the remaining books");
+    assertNull(page.nextCursor(), "Last page should have no cursor");
+  }
+
+  @Test
+  @DisplayName("Reject malformed cursor (BookSearchService.search(String, String, int))")
+  void test_search_malformedCursor() {
+    String cursor = KeysetCursor.encode("rank", 1L);
+    assertThrows(
+        InvalidRequestException.class, () -> bookSearchService.search("gats", cursor, 10));
+    verifyNoInteractions(bookRepository);
+  }
+}
@@ -5,16 +5,38 @@ import static com.demobookshop.demobookshopservice.util.converter.BookDtoConvert
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.demobookshop.demobookshopservice.cache.TwoTierCache;
+import com.demobookshop.demobookshopservice.config.CacheConfig;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.exception.InvalidRequestException;
+import com.demobookshop.demobookshopservice.exception.PreconditionFailedException;
 import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookBatchResultDto;
 import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.dto.BookPageDto;
+import com.demobookshop.demobookshopservice.model.dto.BookLinkDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.projection.BookChildLink;
 import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import com.demobookshop.demobookshopservice.util.json.BookJsonWriter;
+import com.demobookshop.demobookshopservice.util.pagination.KeysetCursor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
@@ -22,6 +44,21 @@ class BookServiceTest {
   @Mock
   private BookRepository bookRepository;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private CacheManager cacheManager;
+
+  @Mock
+  private CatalogSnapshot catalogSnapshot;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Spy
+  private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
   @InjectMocks
   private BookService bookService;
 
@@ -32,16 +69,78 @@ class BookServiceTest {
         new Book(3L, UUID.randomUUID(), 0L, null, true, "Title 3", "Author 3")));
   }
 
+  private List<BookDto> mockBookDtos() {
+    return ((List<Book>) mockBooks()).stream().map(bookToBookDto).toList();
+  }
+
   @Test
   @DisplayName("Get all books (BookService.getAllBooks())")
   void test_getAllBooks() {
     // Arrange
-    when(bookRepository.findAll()).thenReturn((List<Book>) mockBooks());
+    when(bookRepository.findAllDtosOrderedById()).thenReturn(mockBookDtos());
     // Act
-    Collection<BookDto> books = bookService.getAllBooks();
+    List<BookDto> books = bookService.getAllBooks();
     // Assert
     assertNotNull(books, "Books should not be null");
     assertEquals(3, books.size(), "Books collection should size 3!");
+    assertEquals(
+        List.of(1L, 2L, 3L),
+        books.stream().map(BookDto::id).toList(),
+        "Books should be ordered by ID");
+  }
+
+  @Test
+  @DisplayName("Write all books (BookService.writeAllBooks(BookJsonWriter writer))")
+  void test_writeAllBooks() {
+    // Arrange
+    UUID uuid = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    Object[] row = {1L, uuid, 0L, null, true, "Title 1", "Author 1"};
+    when(bookRepository.streamAllRowsOrderedById()).thenReturn(Stream.<Object[]>of(row));
+    BookJsonWriter writer = mock(BookJsonWriter.class);
+    // Act
+    bookService.writeAllBooks(writer);
+    // Assert
+    verify(writer).writeBook(1L, uuid, 0L, null, true, "Title 1", "Author 1");
+    verifyNoMoreInteractions(writer);
+  }
+
+  @Test
+  @DisplayName("Get books page (BookService.getBooksPage(String after, int limit))")
+  void test_getBooksPage() {
+    // Arrange
+    when(bookRepository.findDtosAfterId(0L, Limit.of(3))).thenReturn(mockBookDtos());
+    // Act
+    BookPageDto page = bookService.getBooksPage(null, 2);
+    // Assert
+    assertEquals(2, page.items().size(), "Page should contain 2 books");
+    assertEquals(1L, page.items().get(0).id(), "Page should start with the first book");
+    assertEquals(2L, KeysetCursor.decodeId(page.nextCursor()), "Cursor should point to ID 2");
+  }
+
+  @Test
+  @DisplayName("Get last books page (BookService.getBooksPage(String after, int limit))")
+  void test_getBooksPage_lastPage() {
+    // Arrange
+    BookDto lastBook = mockBookDtos().getLast();
+    when(bookRepository.findDtosAfterId(2L, Limit.of(11))).thenReturn(List.of(lastBook));
+    // Act
+    BookPageDto page = bookService.getBooksPage(KeysetCursor.encodeId(2L), 10);
+    // Assert
+    assertEquals(1, page.items().size(), "Page should contain 1 book");
+    assertNull(page.nextCursor(), "Last page should not have a cursor");
+  }
+
+  @Test
+  @DisplayName("Stream all books (BookService.streamAllBooks(Consumer<BookDto> consumer))")
+  void test_streamAllBooks() {
+    // Arrange
+    List<BookDto> books = mockBookDtos();
+    when(bookRepository.streamAllDtosOrderedById()).thenReturn(books.stream());
+    List<BookDto> streamed = new ArrayList<>();
+    // Act
+    bookService.streamAllBooks(streamed::add);
+    // Assert
+    assertEquals(books, streamed, "All books should be streamed in order");
   }
 
   @Test
@@ -62,6 +161,21 @@ class BookServiceTest {
     assertEquals("Author 1", bookDto.author(), "Book author should match");
   }
 
+  @Test
+  @DisplayName("Get book by ID from the catalog snapshot without reading the database")
+  void getBookById_fromSnapshot() {
+    // Arrange
+    BookDto book = new BookDto(1L, UUID.randomUUID().toString(), null, null, true, "T", "A");
+    when(catalogSnapshot.findBook(1L)).thenReturn(Optional.of(book));
+
+    // Act
+    BookDto bookDto = bookService.getBookById(1L);
+
+    // Assert
+    assertSame(book, bookDto, "Book should come from the snapshot");
+    verifyNoInteractions(bookRepository);
+  }
+
   @Test
   void addBook() {
     // Arrange
@@ -101,10 +215,10 @@ class BookServiceTest {
     updatedBook.setId(bookId); // Ensure the ID matches the existing book
     // Mock the repository behavior
     when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
-    when(bookRepository.save(any(Book.class))).thenReturn(updatedBook);
+    when(bookRepository.saveAndFlush(any(Book.class))).thenReturn(updatedBook);
 
     // Act
-    BookDto result = bookService.updateBook(bookId, updatedBookDto);
+    BookDto result = bookService.updateBook(bookId, updatedBookDto, 0L);
 
     // Assert
     assertNotNull(result, "Updated book should not be null");
@@ -113,21 +227,181 @@ class BookServiceTest {
     assertEquals(updatedAuthor, result.author(), "Updated book author should match");
 
     verify(bookRepository, times(1)).findById(bookId);
-    verify(bookRepository, times(1)).save(any(Book.class));
+    verify(bookRepository, times(1)).saveAndFlush(any(Book.class));
     verifyNoMoreInteractions(bookRepository);
   }
 
+  @Test
+  void updateBook_versionMismatch() {
+    // Arrange
+    Long bookId = 1L;
+    BookDto updatedBookDto =
+        new BookDto(bookId, UUID.randomUUID().toString(), 0L, null, true, "Title", "Author");
+    Book existingBook =
+        new Book(bookId, UUID.randomUUID(), 0L, null, true, "Old Title", "Old Author");
+    existingBook.setVersion(3L);
+    when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
+
+    // Act & Assert
+    assertThrows(
+        PreconditionFailedException.class,
+        () -> bookService.updateBook(bookId, updatedBookDto, 2L));
+    verify(bookRepository, never()).saveAndFlush(any(Book.class));
+    verifyNoInteractions(eventPublisher);
+  }
+
   @Test
   void deleteBook() {
     // Arrange
     Long bookId = 1L;
-    doNothing().when(bookRepository).deleteById(bookId);
+    Book existingBook =
+        new Book(bookId, UUID.randomUUID(), 0L, null, true, "Old Title", "Old Author");
+    when(bookRepository.findById(bookId)).thenReturn(Optional.of(existingBook));
+    doNothing().when(bookRepository).delete(existingBook);
 
     // Act
     bookService.deleteBook(bookId);
 
     // Assert
-    verify(bookRepository, times(1)).deleteById(bookId);
+    verify(bookRepository, times(1)).findById(bookId);
+    verify(bookRepository, times(1)).delete(existingBook);
+    verify(eventPublisher, times(1)).publishEvent(any(BookChangedEvent.class));
     verifyNoMoreInteractions(bookRepository);
   }
+
+  @Test
+  void deleteBook_notFound() {
+    // Arrange
+    Long bookId = 99L;
+    when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(EntityNotFoundException.class, () -> bookService.deleteBook(bookId));
+    verify(bookRepository, never()).delete(any(Book.class));
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  @DisplayName("Get books by UUID in request order (BookService.getBooksByUuid(List<UUID>))")
+  void test_getBooksByUuid() {
+    // Arrange
+    BookDto first = mockBookDtos().get(0);
+    BookDto second = mockBookDtos().get(1);
+    UUID firstUuid = UUID.fromString(first.uuid());
+    UUID secondUuid = UUID.fromString(second.uuid());
+    UUID unknown = UUID.randomUUID();
+    List<UUID> uuids = List.of(secondUuid, unknown, firstUuid, secondUuid);
+    when(bookRepository.findDtosByUuidIn(Set.of(secondUuid, unknown, firstUuid)))
+        .thenReturn(List.of(first, second));
+    // Act
+    List<BookDto> books = bookService.getBooksByUuid(uuids);
+    // Assert
+    assertEquals(
+        List.of(2L, 1L),
+        books.stream().map(BookDto::id).toList(),
+        "Books should follow the request, without duplicates and unknown UUIDs");
+  }
+
+  @Test
+  @DisplayName("Reject an empty UUID lookup (BookService.getBooksByUuid(List<UUID>))")
+  void test_getBooksByUuid_empty() {
+    // Act & Assert
+    assertThrows(InvalidRequestException.class, () -> bookService.getBooksByUuid(List.of()));
+    verifyNoInteractions(bookRepository);
+  }
+
+  @Test
+  @DisplayName("Get child links by parent UUID (BookService.getChildLinks(UUID))")
+  void test_getChildLinks() {
+    // Arrange
+    UUID parentUuid = UUID.randomUUID();
+    UUID childUuid = UUID.randomUUID();
+    BookChildLink child = mock(BookChildLink.class);
+    when(child.getId()).thenReturn(2L);
+    when(child.getUuid()).thenReturn(childUuid);
+    when(child.getIsCatalog()).thenReturn(false);
+    when(bookRepository.findChildLinksByParentUuid(parentUuid)).thenReturn(List.of(child));
+    // Act
+    List<BookLinkDto> children = bookService.getChildLinks(parentUuid);
+    // Assert
+    assertEquals(List.of(new BookLinkDto(2L, childUuid.toString(), false)), children);
+    verify(bookRepository, never()).existsByUuid(any());
+  }
+
+  @Test
+  @DisplayName("Get child links of an unknown parent (BookService.getChildLinks(UUID))")
+  void test_getChildLinks_notFound() {
+    // Arrange
+    UUID parentUuid = UUID.randomUUID();
+    when(bookRepository.findChildLinksByParentUuid(parentUuid)).thenReturn(List.of());
+    when(bookRepository.existsByUuid(parentUuid)).thenReturn(false);
+    // Act & Assert
+    assertThrows(EntityNotFoundException.class, () -> bookService.getChildLinks(parentUuid));
+  }
+
+  @Test
+  @DisplayName("Get books by ID from cache and database (BookService.getBooksById(List<Long>))")
+  void test_getBooksById() {
+    // Arrange
+    TwoTierCache booksCache = new TwoTierCache(
+        CacheConfig.BOOKS_CACHE,
+        Caffeine.newBuilder().build(),
+        null,
+        Duration.ofHours(1),
+        Duration.ofSeconds(30),
+        meterRegistry);
+    BookDto cached = bookToBookDto.apply(
+        new Book(1L, UUID.randomUUID(), 0L, null, true, "Title 1", "Author 1"));
+    booksCache.put(1L, cached);
+    when(cacheManager.getCache(CacheConfig.BOOKS_CACHE)).thenReturn(booksCache);
+    Book stored = new Book(2L, UUID.randomUUID(), 0L, null, false, "Title 2", "Author 2");
+    when(bookRepository.findAllByIdIn(new Long[] {2L, 3L})).thenReturn(List.of(stored));
+    // Act
+    List<BookBatchResultDto> results = bookService.getBooksById(List.of(2L, 1L, 3L, 2L));
+    // Assert
+    assertEquals(
+        List.of(2L, 1L, 3L, 2L),
+        results.stream().map(BookBatchResultDto::id).toList(),
+        "Results should follow the request");
+    assertEquals(
+        List.of(200, 200, 404, 200),
+        results.stream().map(BookBatchResultDto::status).toList());
+    assertSame(cached, results.get(1).book(), "Cached book should be served from the cache");
+    assertNull(results.get(2).book());
+    assertNull(booksCache.get(2L), "Books read from the database should not be cached");
+    verify(bookRepository, times(1)).findAllByIdIn(any());
+  }
+
+  @Test
+  @DisplayName("Reject too many IDs (BookService.getBooksById(List<Long>))")
+  void test_getBooksById_tooMany() {
+    // Arrange
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; id <= BookService.MAX_LOOKUP_SIZE + 1; id++) {
+      ids.add(id);
+    }
+    // Act & Assert
+    assertThrows(InvalidRequestException.class, () -> bookService.getBooksById(ids));
+    verifyNoInteractions(bookRepository);
+  }
+
+  @Test
+  @DisplayName("Count distinct IDs against the limit (BookService.getBooksById(List<Long>))")
+  void test_getBooksById_duplicatesWithinLimit() {
+    // Arrange
+    TwoTierCache booksCache = new TwoTierCache(
+        CacheConfig.BOOKS_CACHE,
+        Caffeine.newBuilder().build(),
+        null,
+        Duration.ofHours(1),
+        Duration.ofSeconds(30),
+        meterRegistry);
+    when(cacheManager.getCache(CacheConfig.BOOKS_CACHE)).thenReturn(booksCache);
+    List<Long> ids = Collections.nCopies(BookService.MAX_LOOKUP_SIZE + 1, 1L);
+    when(bookRepository.findAllByIdIn(new Long[] {1L})).thenReturn(List.of());
+    // Act
+    List<BookBatchResultDto> results = bookService.getBooksById(ids);
+    // Assert
+    assertEquals(ids.size(), results.size(), "Every requested ID should get a result");
+  }
 }
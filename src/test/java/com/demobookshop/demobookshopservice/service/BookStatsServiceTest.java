@@ -0,0 +1,136 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.StatsProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.dto.CatalogStatsDto;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.repository.BookStatsRepository;
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookStatsServiceTest {
+
+  @Mock
+  private BookStatsRepository bookStatsRepository;
+
+  @Mock
+  private BookRepository bookRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private BookStatsService bookStatsService;
+
+  @BeforeEach
+  void setUp() {
+    bookStatsService = new BookStatsService(
+        bookStatsRepository,
+        bookRepository,
+        transactionManager,
+        new StatsProperties(true, Duration.ofSeconds(30), 100));
+  }
+
+  @Test
+  @DisplayName("Refresh the books per depth only after books changed")
+  void test_refreshIfStale_refreshesOnChange() {
+    // Arrange
+    when(bookStatsRepository.tryLockRefresh()).thenReturn(true);
+    // Act
+    bookStatsService.refreshIfStale();
+    bookStatsService.refreshIfStale();
+    bookStatsService.onBooksBulkChanged(new BooksBulkChangedEvent("import", 10L));
+    bookStatsService.refreshIfStale();
+    // Assert
+    verify(bookStatsRepository, times(2)).refreshDepthStats();
+  }
+
+  @Test
+  @DisplayName("Stay stale while another instance holds the refresh lock")
+  void test_refreshIfStale_lockHeld() {
+    // Arrange
+    when(bookStatsRepository.tryLockRefresh()).thenReturn(false, true);
+    // Act
+    bookStatsService.refreshIfStale();
+    bookStatsService.refreshIfStale();
+    // Assert
+    verify(bookStatsRepository, times(2)).tryLockRefresh();
+    verify(bookStatsRepository).refreshDepthStats();
+  }
+
+  @Test
+  @DisplayName("Stay stale after a failed refresh")
+  void test_refreshIfStale_failure() {
+    // Arrange
+    when(bookStatsRepository.tryLockRefresh()).thenReturn(true);
+    doThrow(new IllegalStateException("Refresh failed"))
+        .doNothing()
+        .when(bookStatsRepository)
+        .refreshDepthStats();
+    // Act & Assert
+    assertThrows(IllegalStateException.class, () -> bookStatsService.refreshIfStale());
+    bookStatsService.refreshIfStale();
+    verify(bookStatsRepository, times(2)).refreshDepthStats();
+  }
+
+  @Test
+  @DisplayName("Never refresh while the refresh is disabled")
+  void test_refreshIfStale_disabled() {
+    // Arrange
+    BookStatsService disabled = new BookStatsService(
+        bookStatsRepository,
+        bookRepository,
+        transactionManager,
+        new StatsProperties(false, Duration.ofSeconds(30), 100));
+    // Act
+    disabled.refreshIfStale();
+    // Assert
+    verifyNoInteractions(bookStatsRepository, transactionManager);
+  }
+
+  @Test
+  @DisplayName("Count no children for a book without a stats row")
+  void test_getCatalogStats_noChildren() {
+    // Arrange
+    when(bookRepository.existsById(2L)).thenReturn(true);
+    when(bookStatsRepository.findCatalogStats(2L)).thenReturn(Optional.empty());
+    // Act
+    CatalogStatsDto stats = bookStatsService.getCatalogStats(2L);
+    // Assert
+    assertEquals(new CatalogStatsDto(2L, 0L, 0L), stats);
+  }
+
+  @Test
+  @DisplayName("Throw EntityNotFoundException for the stats of an unknown book")
+  void test_getCatalogStats_notFound() {
+    // Arrange
+    when(bookRepository.existsById(99L)).thenReturn(false);
+    // Act & Assert
+    assertThrows(EntityNotFoundException.class, () -> bookStatsService.getCatalogStats(99L));
+    verifyNoInteractions(bookStatsRepository);
+  }
+
+  @Test
+  @DisplayName("Clamp the number of top authors to the configured maximum")
+  void test_getTopAuthors_clamped() {
+    // Arrange
+    when(bookStatsRepository.findTopAuthors(anyInt())).thenReturn(List.of());
+    // Act
+    bookStatsService.getTopAuthors(1_000);
+    bookStatsService.getTopAuthors(0);
+    // Assert
+    verify(bookStatsRepository).findTopAuthors(100);
+    verify(bookStatsRepository).findTopAuthors(1);
+  }
+}
@@ -0,0 +1,120 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.projection.BookDeltaRow;
+import com.demobookshop.demobookshopservice.model.projection.BookParentLink;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogTreeIndexTest {
+
+  @Mock
+  private BookRepository bookRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private CatalogTreeIndex catalogTreeIndex;
+
+  @BeforeEach
+  void setUp() {
+    catalogTreeIndex = new CatalogTreeIndex(
+        bookRepository,
+        transactionManager,
+        new CatalogTreeProperties(64, true, Duration.ofSeconds(10)));
+  }
+
+  @Test
+  @DisplayName("Apply books written by other instances on refresh (CatalogTreeIndex.refresh())")
+  void test_refresh_appliesRemoteChanges() {
+    // Arrange: tree 1 -> 2
+    when(bookRepository.findDeltaHorizon()).thenReturn(100L, 120L, 120L);
+    when(bookRepository.streamAllParentLinks())
+        .thenReturn(Stream.of(link(1L, null), link(2L, 1L)));
+    catalogTreeIndex.rebuild();
+    // Another instance moved 3 under 1 and deleted 2
+    List<BookDeltaRow> remoteChanges = List.of(row(3L, 1L, false), row(2L, 1L, true));
+    when(bookRepository.findChangedAfter(99L, Long.MAX_VALUE, 120L, 1000))
+        .thenReturn(remoteChanges);
+    // Act
+    catalogTreeIndex.refresh();
+    catalogTreeIndex.refresh();
+    // Assert
+    assertArrayEquals(new long[] {3L}, catalogTreeIndex.childrenOf(1L));
+    assertFalse(catalogTreeIndex.contains(2L));
+    verify(bookRepository, times(1)).findChangedAfter(99L, Long.MAX_VALUE, 120L, 1000);
+    verify(bookRepository).findChangedAfter(119L, Long.MAX_VALUE, 120L, 1000);
+  }
+
+  @Test
+  @DisplayName("Replay a change committed while the index is being built")
+  void test_rebuild_replaysPendingChanges() {
+    // Arrange
+    when(bookRepository.findDeltaHorizon()).thenReturn(100L);
+    when(bookRepository.streamAllParentLinks()).thenAnswer(invocation -> {
+      catalogTreeIndex.onBookChanged(BookChangedEvent.created(
+          new BookDto(3L, UUID.randomUUID().toString(), 1L, null, false, "Title", "Author")));
+      return Stream.of(link(1L, null), link(2L, 1L));
+    });
+    // Act
+    catalogTreeIndex.rebuild();
+    // Assert
+    assertTrue(catalogTreeIndex.isReady());
+    assertArrayEquals(new long[] {2L, 3L}, catalogTreeIndex.childrenOf(1L));
+  }
+
+  @Test
+  @DisplayName("Follow a moved book to its new ancestors (CatalogTreeIndex.pathToRoot())")
+  void test_pathToRoot_movedBook() {
+    // Arrange: tree 1 -> 2 -> 3
+    when(bookRepository.findDeltaHorizon()).thenReturn(100L);
+    when(bookRepository.streamAllParentLinks())
+        .thenReturn(Stream.of(link(1L, null), link(2L, 1L), link(3L, 2L)));
+    catalogTreeIndex.rebuild();
+    // Act
+    catalogTreeIndex.onBookChanged(BookChangedEvent.updated(
+        new BookDto(3L, UUID.randomUUID().toString(), 1L, null, false, "Title", "Author"), 2L));
+    // Assert
+    assertArrayEquals(new long[] {1L, 3L}, catalogTreeIndex.pathToRoot(3L, 64));
+    assertArrayEquals(new long[] {1L, 2L}, catalogTreeIndex.pathToRoot(2L, 64));
+    assertArrayEquals(new long[0], catalogTreeIndex.pathToRoot(9L, 64));
+    assertArrayEquals(new long[0], catalogTreeIndex.childrenOf(2L));
+  }
+
+  private static BookParentLink link(Long id, Long parentId) {
+    return new BookParentLink() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getParentId() {
+        return parentId;
+      }
+    };
+  }
+
+  private static BookDeltaRow row(Long id, Long parentId, boolean deleted) {
+    BookDeltaRow row = mock(BookDeltaRow.class);
+    when(row.getId()).thenReturn(id);
+    when(row.getParentId()).thenReturn(parentId);
+    when(row.getDeleted()).thenReturn(deleted);
+    return row;
+  }
+}
@@ -0,0 +1,127 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static com.demobookshop.demobookshopservice.util.converter.BookDtoConverter.bookToBookDto;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.exception.EntityNotFoundException;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.snapshot.CatalogSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogTreeServiceTest {
+
+  private static final int MAX_DEPTH = 64;
+
+  @Mock
+  private BookRepository bookRepository;
+
+  @Mock
+  private CatalogTreeIndex catalogTreeIndex;
+
+  @Mock
+  private CatalogSnapshot catalogSnapshot;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private CatalogTreeService catalogTreeService;
+
+  private final Book catalog =
+      new Book(1L, UUID.randomUUID(), null, null, true, "Catalog", "Various");
+  private final Book book = new Book(2L, UUID.randomUUID(), 1L, null, false, "Book", "Author");
+
+  @BeforeEach
+  void setUp() {
+    catalogTreeService = new CatalogTreeService(
+        bookRepository,
+        catalogTreeIndex,
+        catalogSnapshot,
+        transactionManager,
+        new SimpleMeterRegistry(),
+        new CatalogTreeProperties(MAX_DEPTH, false, Duration.ofSeconds(10)));
+  }
+
+  @Test
+  @DisplayName("Get subtree with a recursive query (CatalogTreeService.getSubtree(Long rootId))")
+  void test_getSubtree() {
+    // Arrange
+    when(bookRepository.findSubtree(1L, MAX_DEPTH)).thenReturn(List.of(catalog, book));
+    // Act
+    List<BookDto> subtree = catalogTreeService.getSubtree(1L);
+    // Assert
+    assertEquals(List.of(1L, 2L), subtree.stream().map(BookDto::id).toList());
+  }
+
+  @Test
+  @DisplayName("Get subtree from the index (CatalogTreeService.getSubtree(Long rootId))")
+  void test_getSubtree_fromIndex() {
+    // Arrange
+    when(catalogTreeIndex.isReady()).thenReturn(true);
+    when(catalogTreeIndex.subtreeOf(1L, MAX_DEPTH)).thenReturn(new long[] {1L, 2L});
+    when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(book, catalog));
+    // Act
+    List<BookDto> subtree = catalogTreeService.getSubtree(1L);
+    // Assert
+    assertEquals(List.of(1L, 2L), subtree.stream().map(BookDto::id).toList());
+    verify(bookRepository, never()).findSubtree(anyLong(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Get subtree from the catalog snapshot (CatalogTreeService.getSubtree(Long rootId))")
+  void test_getSubtree_fromSnapshot() {
+    // Arrange
+    List<BookDto> books = List.of(bookToBookDto.apply(catalog), bookToBookDto.apply(book));
+    when(catalogSnapshot.findSubtree(1L, MAX_DEPTH)).thenReturn(Optional.of(books));
+    // Act
+    List<BookDto> subtree = catalogTreeService.getSubtree(1L);
+    // Assert
+    assertSame(books, subtree);
+    verifyNoInteractions(bookRepository, transactionManager);
+  }
+
+  @Test
+  @DisplayName("Get subtree of a missing book (CatalogTreeService.getSubtree(Long rootId))")
+  void test_getSubtree_notFound() {
+    // Arrange
+    when(bookRepository.findSubtree(99L, MAX_DEPTH)).thenReturn(List.of());
+    // Act & Assert
+    assertThrows(EntityNotFoundException.class, () -> catalogTreeService.getSubtree(99L));
+  }
+
+  @Test
+  @DisplayName("Get ancestors (CatalogTreeService.getAncestors(Long bookId))")
+  void test_getAncestors() {
+    // Arrange
+    when(bookRepository.findPathToRoot(2L, MAX_DEPTH)).thenReturn(List.of(catalog, book));
+    // Act
+    List<BookDto> ancestors = catalogTreeService.getAncestors(2L);
+    // Assert
+    assertEquals(List.of(1L), ancestors.stream().map(BookDto::id).toList());
+  }
+
+  @Test
+  @DisplayName("Get children (CatalogTreeService.getChildren(Long catalogId))")
+  void test_getChildren() {
+    // Arrange
+    when(bookRepository.existsById(1L)).thenReturn(true);
+    when(bookRepository.findByParentIdOrderByIdAsc(1L)).thenReturn(List.of(book));
+    // Act
+    List<BookDto> children = catalogTreeService.getChildren(1L);
+    // Assert
+    assertEquals(List.of(2L), children.stream().map(BookDto::id).toList());
+  }
+}
@@ -0,0 +1,182 @@
+package com.demobookshop.demobookshopservice.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.CatalogTreeProperties;
+import com.demobookshop.demobookshopservice.config.SubtreeCacheProperties;
+import com.demobookshop.demobookshopservice.model.Book;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookRepository;
+import com.demobookshop.demobookshopservice.service.SubtreeSnapshotService.SubtreeSnapshot;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+import com.hazelcast.topic.MessageListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+@ExtendWith(MockitoExtension.class)
+class SubtreeSnapshotServiceTest {
+
+  private static final int MAX_DEPTH = 64;
+
+  @Mock
+  private CatalogTreeService catalogTreeService;
+
+  @Mock
+  private CatalogTreeIndex catalogTreeIndex;
+
+  @Mock
+  private BookRepository bookRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+  @Mock
+  private HazelcastInstance hazelcast;
+
+  @Mock
+  private ITopic<long[]> evictions;
+
+  private SubtreeSnapshotService subtreeSnapshotService;
+
+  // Tree: 1 -> 2 -> 3 and 1 -> 4
+  private final BookDto root = book(1L, null, true);
+  private final BookDto catalog = book(2L, 1L, true);
+  private final BookDto leaf = book(3L, 2L, false);
+  private final BookDto sibling = book(4L, 1L, false);
+
+  @BeforeEach
+  void setUp() {
+    subtreeSnapshotService = service();
+  }
+
+  @Test
+  @DisplayName("Build a snapshot once and serve it as pre-encoded JSON")
+  void test_getSubtree_cached() {
+    // Arrange
+    when(catalogTreeService.getSubtree(2L)).thenReturn(List.of(catalog, leaf));
+    // Act
+    SubtreeSnapshot first = subtreeSnapshotService.getSubtree(2L);
+    SubtreeSnapshot second = subtreeSnapshotService.getSubtree(2L);
+    // Assert
+    assertSame(first, second, "Second read should be served from the cache");
+    assertTrue(new String(first.json(), StandardCharsets.UTF_8).startsWith("[{\"id\":2,"));
+    verify(catalogTreeService, times(1)).getSubtree(2L);
+  }
+
+  @Test
+  @DisplayName("Evict only the ancestor chain of a changed book")
+  void test_onBookChanged_evictsAncestorChain() {
+    // Arrange
+    when(catalogTreeService.getSubtree(1L)).thenReturn(List.of(root, catalog, sibling, leaf));
+    when(catalogTreeService.getSubtree(2L)).thenReturn(List.of(catalog, leaf));
+    when(catalogTreeService.getSubtree(4L)).thenReturn(List.of(sibling));
+    when(catalogTreeIndex.isReady()).thenReturn(true);
+    when(catalogTreeIndex.pathToRoot(2L, MAX_DEPTH)).thenReturn(new long[] {1L, 2L});
+    subtreeSnapshotService.getSubtree(1L);
+    subtreeSnapshotService.getSubtree(2L);
+    subtreeSnapshotService.getSubtree(4L);
+    // Act
+    subtreeSnapshotService.onBookChanged(BookChangedEvent.updated(leaf, 2L));
+    subtreeSnapshotService.getSubtree(1L);
+    subtreeSnapshotService.getSubtree(2L);
+    subtreeSnapshotService.getSubtree(4L);
+    // Assert
+    verify(catalogTreeService, times(2)).getSubtree(1L);
+    verify(catalogTreeService, times(2)).getSubtree(2L);
+    verify(catalogTreeService, times(1)).getSubtree(4L);
+    verifyNoInteractions(bookRepository);
+  }
+
+  @Test
+  @DisplayName("Evict the old and the new ancestor chain of a moved book")
+  void test_onBookChanged_movedBook() {
+    // Arrange
+    when(catalogTreeService.getSubtree(2L)).thenReturn(List.of(catalog, leaf));
+    when(catalogTreeService.getSubtree(4L)).thenReturn(List.of(sibling));
+    when(bookRepository.findPathToRoot(4L, MAX_DEPTH))
+        .thenReturn(List.of(new Book(1L, UUID.randomUUID(), null, null, true, "Root", "A")));
+    when(bookRepository.findPathToRoot(2L, MAX_DEPTH)).thenReturn(List.of());
+    subtreeSnapshotService.getSubtree(2L);
+    subtreeSnapshotService.getSubtree(4L);
+    // Act
+    subtreeSnapshotService.onBookChanged(BookChangedEvent.updated(book(3L, 4L, false), 2L));
+    subtreeSnapshotService.getSubtree(2L);
+    subtreeSnapshotService.getSubtree(4L);
+    // Assert
+    verify(catalogTreeService, times(2)).getSubtree(2L);
+    verify(catalogTreeService, times(2)).getSubtree(4L);
+  }
+
+  @Test
+  @DisplayName("Evict every snapshot after a bulk change")
+  void test_onBooksBulkChanged() {
+    // Arrange
+    when(catalogTreeService.getSubtree(4L)).thenReturn(List.of(sibling));
+    subtreeSnapshotService.getSubtree(4L);
+    // Act
+    subtreeSnapshotService.onBooksBulkChanged(new BooksBulkChangedEvent("import", 10));
+    subtreeSnapshotService.getSubtree(4L);
+    // Assert
+    verify(catalogTreeService, times(2)).getSubtree(4L);
+  }
+
+  @Test
+  @DisplayName("Publish evicted roots and evict the roots published by other instances")
+  void test_evictions_propagated() {
+    // Arrange
+    when(hazelcastInstance.getIfAvailable()).thenReturn(hazelcast);
+    when(hazelcast.<long[]>getTopic(SubtreeSnapshotService.EVICTION_TOPIC)).thenReturn(evictions);
+    subtreeSnapshotService = service();
+    ArgumentCaptor<MessageListener<long[]>> listener = ArgumentCaptor.captor();
+    verify(evictions).addMessageListener(listener.capture());
+    when(catalogTreeService.getSubtree(4L)).thenReturn(List.of(sibling));
+    subtreeSnapshotService.getSubtree(4L);
+    // Act
+    listener.getValue().onMessage(
+        new Message<>(SubtreeSnapshotService.EVICTION_TOPIC, new long[] {4L}, 0L, null));
+    subtreeSnapshotService.getSubtree(4L);
+    subtreeSnapshotService.onBookChanged(BookChangedEvent.created(book(5L, null, false)));
+    // Assert
+    verify(catalogTreeService, times(2)).getSubtree(4L);
+    verify(evictions).publish(aryEq(new long[] {5L}));
+  }
+
+  private SubtreeSnapshotService service() {
+    return new SubtreeSnapshotService(
+        catalogTreeService,
+        catalogTreeIndex,
+        bookRepository,
+        transactionManager,
+        hazelcastInstance,
+        JsonMapper.builder().build(),
+        new SimpleMeterRegistry(),
+        new CatalogTreeProperties(MAX_DEPTH, true, Duration.ofSeconds(10)),
+        new SubtreeCacheProperties(DataSize.ofMegabytes(1), Duration.ofHours(1)));
+  }
+
+  private static BookDto book(Long id, Long parentId, boolean isCatalog) {
+    return new BookDto(
+        id, UUID.randomUUID().toString(), parentId, null, isCatalog, "Title " + id, "Author");
+  }
+}
@@ -0,0 +1,109 @@
+package com.demobookshop.demobookshopservice.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogSnapshotFileTest {
+
+  private static final Instant CREATED_AT = Instant.parse("2026-10-18T10:15:30Z");
+  private static final Instant UPDATED_AT = Instant.parse("2026-10-18T09:00:00.123456Z");
+
+  @TempDir
+  private Path directory;
+
+  private final UUID catalogUuid = UUID.randomUUID();
+  private final UUID bookUuid = UUID.randomUUID();
+  private Path file;
+
+  @BeforeEach
+  void setUp() {
+    file = directory.resolve("catalog.snapshot");
+    try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(directory)) {
+      writer.writeBook(1L, catalogUuid, null, null, true, "Catalog", "Various", 3L, UPDATED_AT);
+      writer.writeBook(2L, bookUuid, 1L, catalogUuid, false, "Книга", "Автор", 0L, null);
+      writer.writeBook(5L, UUID.randomUUID(), 1L, catalogUuid, true, "Sub", "Various", 1L, null);
+      writer.writeBook(7L, UUID.randomUUID(), 5L, null, false, "", "Author", 0L, null);
+      writer.writeChildLink(null, 1L);
+      writer.writeChildLink(1L, 2L);
+      writer.writeChildLink(1L, 5L);
+      writer.writeChildLink(5L, 7L);
+      writer.finish(file, CREATED_AT);
+    }
+  }
+
+  @Test
+  @DisplayName("Read back the books written to a snapshot")
+  void test_book_roundTrip() {
+    // Act
+    CatalogSnapshotFile snapshot = CatalogSnapshotFile.open(file);
+    // Assert
+    assertEquals(4, snapshot.size());
+    assertEquals(CREATED_AT, snapshot.createdAt());
+    assertEquals(
+        new BookDto(1L, catalogUuid, null, null, true, "Catalog", "Various", 3L, UPDATED_AT),
+        snapshot.book(snapshot.indexOf(1L)));
+    assertEquals(
+        new BookDto(2L, bookUuid, 1L, catalogUuid, false, "Книга", "Автор", 0L, null),
+        snapshot.book(snapshot.indexOf(2L)));
+    assertEquals("", snapshot.book(snapshot.indexOf(7L)).title());
+    assertTrue(snapshot.indexOf(3L) < 0, "Unknown ID should not be found");
+    assertTrue(snapshot.indexOf(8L) < 0, "ID past the last one should not be found");
+  }
+
+  @Test
+  @DisplayName("Walk children and subtrees of a snapshot")
+  void test_childrenAndSubtree() {
+    // Act
+    CatalogSnapshotFile snapshot = CatalogSnapshotFile.open(file);
+    // Assert
+    assertArrayEquals(new long[] {2L, 5L}, snapshot.childrenOf(1L));
+    assertArrayEquals(new long[0], snapshot.childrenOf(2L));
+    assertArrayEquals(new long[] {1L, 2L, 5L, 7L}, snapshot.subtreeOf(1L, 64));
+    assertArrayEquals(new long[] {1L, 2L, 5L}, snapshot.subtreeOf(1L, 1));
+    assertArrayEquals(new long[0], snapshot.subtreeOf(3L, 64));
+  }
+
+  @Test
+  @DisplayName("Keep serving a mapped snapshot after its file is replaced")
+  void test_open_replaced() {
+    // Arrange
+    CatalogSnapshotFile previous = CatalogSnapshotFile.open(file);
+    // Act
+    try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(directory)) {
+      writer.finish(file, CREATED_AT.plusSeconds(60));
+    }
+    CatalogSnapshotFile next = CatalogSnapshotFile.open(file);
+    // Assert
+    assertEquals(4, previous.size());
+    assertEquals("Various", previous.book(previous.indexOf(5L)).author());
+    assertEquals(0, next.size());
+    assertTrue(next.indexOf(1L) < 0);
+  }
+
+  @Test
+  @DisplayName("Reject books out of ID order and a link count differing from the book count")
+  void test_writer_rejectsInconsistentInput() throws Exception {
+    // Act & Assert
+    try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(directory)) {
+      writer.writeBook(2L, bookUuid, null, null, false, "Book", "Author", 0L, null);
+      assertThrows(
+          IllegalStateException.class,
+          () -> writer.writeBook(1L, catalogUuid, null, null, true, "C", "A", 0L, null));
+      assertThrows(
+          IllegalStateException.class, () -> writer.finish(directory.resolve("bad"), CREATED_AT));
+    }
+    try (var files = Files.list(directory)) {
+      assertEquals(
+          1L, files.count(), "Only the snapshot of setUp should be left in the directory");
+    }
+  }
+}
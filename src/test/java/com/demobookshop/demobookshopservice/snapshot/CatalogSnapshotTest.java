@@ -0,0 +1,165 @@
+package com.demobookshop.demobookshopservice.snapshot;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.demobookshop.demobookshopservice.config.CatalogSnapshotProperties;
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import com.demobookshop.demobookshopservice.model.event.BookChangedEvent;
+import com.demobookshop.demobookshopservice.model.event.BooksBulkChangedEvent;
+import com.demobookshop.demobookshopservice.repository.BookSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+
+  private static final int MAX_DEPTH = 64;
+
+  @Mock
+  private BookSnapshotRepository bookSnapshotRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @TempDir
+  private Path directory;
+
+  private CatalogSnapshot catalogSnapshot;
+
+  private final UUID catalogUuid = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    catalogSnapshot = catalogSnapshot(true);
+  }
+
+  @Test
+  @DisplayName("Read books, children and subtrees from the exported snapshot")
+  void test_refresh_servesReads() {
+    // Arrange
+    stubExport();
+    // Act
+    catalogSnapshot.refresh();
+    // Assert
+    assertEquals("Book", catalogSnapshot.findBook(2L).orElseThrow().title());
+    assertTrue(catalogSnapshot.contains(2L));
+    assertEquals(List.of(2L, 3L), ids(catalogSnapshot.findChildren(1L).orElseThrow()));
+    assertEquals(List.of(), catalogSnapshot.findChildren(2L).orElseThrow());
+    assertEquals(
+        List.of(1L, 2L, 3L), ids(catalogSnapshot.findSubtree(1L, MAX_DEPTH).orElseThrow()));
+    assertTrue(catalogSnapshot.findBook(99L).isEmpty(), "Unknown book should fall back");
+  }
+
+  @Test
+  @DisplayName("Fall back for changed books and their parents until the next export")
+  void test_onBookChanged_fallsBack() {
+    // Arrange
+    stubExport();
+    catalogSnapshot.refresh();
+    BookDto moved = new BookDto(2L, UUID.randomUUID().toString(), null, null, false, "B", "A");
+    // Act
+    catalogSnapshot.onBookChanged(BookChangedEvent.updated(moved, 1L));
+    // Assert
+    assertTrue(catalogSnapshot.findBook(2L).isEmpty(), "Changed book should fall back");
+    assertFalse(catalogSnapshot.contains(2L));
+    assertTrue(catalogSnapshot.findChildren(1L).isEmpty(), "Previous parent should fall back");
+    assertTrue(catalogSnapshot.findSubtree(1L, MAX_DEPTH).isEmpty());
+    assertTrue(catalogSnapshot.findBook(3L).isPresent(), "Unchanged book should be served");
+    // Act
+    catalogSnapshot.refresh();
+    // Assert
+    assertTrue(catalogSnapshot.findBook(2L).isPresent(), "Next export should serve it again");
+  }
+
+  @Test
+  @DisplayName("Fall back for every read after a bulk change until the next export")
+  void test_onBooksBulkChanged_fallsBack() {
+    // Arrange
+    stubExport();
+    catalogSnapshot.refresh();
+    // Act
+    catalogSnapshot.onBooksBulkChanged(new BooksBulkChangedEvent("import", 100L));
+    // Assert
+    assertTrue(catalogSnapshot.findBook(3L).isEmpty());
+    // Act
+    catalogSnapshot.refresh();
+    // Assert
+    assertTrue(catalogSnapshot.findBook(3L).isPresent());
+  }
+
+  @Test
+  @DisplayName("Keep the current snapshot when an export fails")
+  void test_refresh_failureKeepsSnapshot() {
+    // Arrange
+    stubExport();
+    catalogSnapshot.refresh();
+    doThrow(new IllegalStateException("Connection lost"))
+        .when(bookSnapshotRepository)
+        .exportBooks(any());
+    // Act
+    catalogSnapshot.refresh();
+    // Assert
+    assertTrue(catalogSnapshot.findBook(2L).isPresent());
+  }
+
+  @Test
+  @DisplayName("Neither export nor serve reads when disabled")
+  void test_disabled() {
+    // Arrange
+    CatalogSnapshot disabled = catalogSnapshot(false);
+    // Act
+    disabled.refresh();
+    // Assert
+    assertTrue(disabled.findBook(1L).isEmpty());
+    assertFalse(disabled.contains(1L));
+    verifyNoInteractions(bookSnapshotRepository);
+  }
+
+  private CatalogSnapshot catalogSnapshot(boolean enabled) {
+    return new CatalogSnapshot(
+        bookSnapshotRepository,
+        transactionManager,
+        new SimpleMeterRegistry(),
+        new CatalogSnapshotProperties(
+            enabled, directory, Duration.ofMinutes(1), Duration.ofMinutes(10)));
+  }
+
+  /** Exports catalog 1 holding books 2 and 3. */
+  private void stubExport() {
+    doAnswer(invocation -> {
+          CatalogSnapshotWriter writer = invocation.getArgument(0);
+          writer.writeBook(1L, catalogUuid, null, null, true, "Catalog", "Various", 0L, null);
+          writer.writeBook(2L, UUID.randomUUID(), 1L, catalogUuid, false, "Book", "A", 0L, null);
+          writer.writeBook(3L, UUID.randomUUID(), 1L, catalogUuid, false, "Other", "B", 0L, null);
+          return null;
+        })
+        .when(bookSnapshotRepository)
+        .exportBooks(any());
+    doAnswer(invocation -> {
+          CatalogSnapshotWriter writer = invocation.getArgument(0);
+          writer.writeChildLink(null, 1L);
+          writer.writeChildLink(1L, 2L);
+          writer.writeChildLink(1L, 3L);
+          return null;
+        })
+        .when(bookSnapshotRepository)
+        .exportChildLinks(any());
+  }
+
+  private static List<Long> ids(List<BookDto> books) {
+    return books.stream().map(BookDto::id).toList();
+  }
+}
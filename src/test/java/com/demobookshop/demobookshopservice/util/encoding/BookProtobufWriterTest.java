@@ -0,0 +1,77 @@
+package com.demobookshop.demobookshopservice.util.encoding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BookProtobufWriterTest {
+
+  private static final HexFormat HEX = HexFormat.of();
+
+  @Test
+  @DisplayName("Write a book as a length-delimited BookList element")
+  void test_writeBook_wireFormat() {
+    // Arrange
+    UUID uuid = new UUID(0x0102030405060708L, 0x1112131415161718L);
+    UUID parentUuid = new UUID(1L, 2L);
+    // Act
+    byte[] bytes = write(128, out -> out.writeBook(300L, uuid, 1L, parentUuid, true, "Tí", null));
+    // Assert
+    assertEquals(
+        "0a30" // books, 48 bytes
+            + "08ac02" // id 300
+            + "110807060504030201" // uuid_msb, little-endian
+            + "191817161514131211" // uuid_lsb
+            + "2001" // parent_id 1
+            + "290100000000000000" // parent_uuid_msb
+            + "310200000000000000" // parent_uuid_lsb
+            + "3801" // is_catalog
+            + "420354c3ad", // title, 3 UTF-8 bytes; no author
+        HEX.formatHex(bytes));
+  }
+
+  @Test
+  @DisplayName("Leave out absent optional fields and the default is_catalog")
+  void test_writeBook_absentFields() {
+    // Act
+    byte[] bytes =
+        write(128, out -> out.writeBook(1L, new UUID(0L, 0L), null, null, false, null, ""));
+    // Assert
+    assertEquals(
+        "0a16" + "0801" + "110000000000000000" + "190000000000000000" + "4a00",
+        HEX.formatHex(bytes));
+  }
+
+  @Test
+  @DisplayName("Write strings longer than the buffer, replacing unpaired surrogates")
+  void test_writeBook_longString() {
+    // Arrange
+    String title = "ä📚\uD83D".repeat(100);
+    // Act
+    byte[] bytes =
+        write(128, out -> out.writeBook(1L, new UUID(0L, 0L), null, null, false, title, null));
+    // Assert
+    byte[] utf8 = "ä📚\uFFFD".repeat(100).getBytes(StandardCharsets.UTF_8);
+    // books, 3-byte size; id, 2 UUID halves; title tag, 2-byte length
+    assertEquals(3 + 2 + 18 + 3 + 900, bytes.length);
+    assertEquals("0a9b07", HEX.formatHex(bytes, 0, 3));
+    assertEquals("428407", HEX.formatHex(bytes, 23, 26));
+    assertArrayEquals(utf8, Arrays.copyOfRange(bytes, 26, bytes.length));
+  }
+
+  private static byte[] write(int bufferSize, Consumer<BookRowWriter> rows) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BookProtobufWriter writer = new BookProtobufWriter(out, bufferSize);
+    writer.beginArray();
+    rows.accept(writer);
+    writer.endArray();
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,73 @@
+package com.demobookshop.demobookshopservice.util.encoding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+class BookTokenWriterTest {
+
+  private static final TypeReference<List<BookDto>> BOOK_LIST = new TypeReference<>() {};
+
+  private final List<BookDto> books = List.of(
+      new BookDto(1L, UUID.randomUUID().toString(), null, null, true, "Catalog", null),
+      new BookDto(
+          2L,
+          UUID.randomUUID().toString(),
+          1L,
+          UUID.randomUUID().toString(),
+          false,
+          "Łukasz Żółć",
+          "東野 圭吾 📚"));
+
+  @Test
+  @DisplayName("Write CBOR that Jackson reads back as the same BookDto list")
+  void test_writeBook_cbor() {
+    // Act
+    byte[] cbor = write(BookTokenWriter::cbor);
+    // Assert
+    assertEquals(books, read(CBORMapper.builder().build(), cbor));
+  }
+
+  @Test
+  @DisplayName("Write Smile that Jackson reads back as the same BookDto list")
+  void test_writeBook_smile() {
+    // Act
+    byte[] smile = write(BookTokenWriter::smile);
+    // Assert
+    assertEquals(books, read(SmileMapper.builder().build(), smile));
+  }
+
+  private byte[] write(Function<OutputStream, BookTokenWriter> writers) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BookTokenWriter writer = writers.apply(out);
+    writer.beginArray();
+    for (BookDto book : books) {
+      writer.writeBook(
+          book.id(),
+          UUID.fromString(book.uuid()),
+          book.parentId(),
+          Objects.isNull(book.parentUuid()) ? null : UUID.fromString(book.parentUuid()),
+          book.isCatalog(),
+          book.title(),
+          book.author());
+    }
+    writer.endArray();
+    return out.toByteArray();
+  }
+
+  private static List<BookDto> read(ObjectMapper mapper, byte[] bytes) {
+    return mapper.readValue(bytes, BOOK_LIST);
+  }
+}
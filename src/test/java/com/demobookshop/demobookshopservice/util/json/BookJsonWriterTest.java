@@ -0,0 +1,90 @@
+package com.demobookshop.demobookshopservice.util.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.demobookshop.demobookshopservice.model.dto.BookDto;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+class BookJsonWriterTest {
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+  @Test
+  @DisplayName("Write the same JSON as Jackson gives BookDto")
+  void test_writeBook_matchesJackson() {
+    // Arrange
+    List<BookDto> books = List.of(
+        new BookDto(1L, UUID.randomUUID().toString(), null, null, true, "Catalog", null),
+        new BookDto(
+            Long.MAX_VALUE,
+            UUID.randomUUID().toString(),
+            -42L,
+            UUID.randomUUID().toString(),
+            false,
+            "Quote \" backslash \\ tab \t newline \n bell \u0007",
+            "Łukasz Żółć, 東野 圭吾 📚"));
+    // Act
+    String json = write(64, books);
+    // Assert
+    assertEquals(
+        jsonMapper.readTree(jsonMapper.writeValueAsString(books)),
+        jsonMapper.readTree(json),
+        "Direct JSON should match Jackson");
+  }
+
+  @Test
+  @DisplayName("Write an empty array")
+  void test_writeBook_emptyArray() {
+    assertEquals("[]", write(64, List.of()));
+  }
+
+  @Test
+  @DisplayName("Write strings longer than the buffer")
+  void test_writeBook_longString() {
+    // Arrange
+    String title = "ä\"".repeat(500);
+    BookDto book = new BookDto(7L, UUID.randomUUID().toString(), 1L, null, false, title, "A");
+    // Act
+    String json = write(64, List.of(book));
+    // Assert
+    assertEquals(title, jsonMapper.readTree(json).get(0).get("title").asString());
+  }
+
+  @Test
+  @DisplayName("Replace unpaired surrogates with U+FFFD")
+  void test_writeBook_unpairedSurrogate() {
+    // Arrange
+    BookDto book =
+        new BookDto(1L, UUID.randomUUID().toString(), 0L, null, false, "a\uD83Db", "\uDCDA");
+    // Act
+    String json = write(8192, List.of(book));
+    // Assert
+    assertEquals("a�b", jsonMapper.readTree(json).get(0).get("title").asString());
+    assertEquals("�", jsonMapper.readTree(json).get(0).get("author").asString());
+  }
+
+  private static String write(int bufferSize, List<BookDto> books) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BookJsonWriter writer = new BookJsonWriter(out, bufferSize);
+    writer.beginArray();
+    for (BookDto book : books) {
+      writer.writeBook(
+          book.id(),
+          UUID.fromString(book.uuid()),
+          book.parentId(),
+          Objects.isNull(book.parentUuid()) ? null : UUID.fromString(book.parentUuid()),
+          book.isCatalog(),
+          book.title(),
+          book.author());
+    }
+    writer.endArray();
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}